@@ -171,6 +171,54 @@ public abstract class Splitable extends AbstractString {
 			return split(c, 0);
 		}
 
+		/**
+		 * Splits at runs of whitespace characters, yielding the same result
+		 * as {@code split("\\s+", limit)} without the overhead of a regular
+		 * expression. Leading whitespace does not produce an empty segment.
+		 */
+		public int splitWhitespace(int limit) {
+			resetSplits();
+
+			int width = length();
+			int off = -1;
+
+			for(int i=0; i<width; i++) {
+				if(isWhitespace(charAt(i))) {
+					if(off!=-1) {
+						addSplit(off, i);
+						off = -1;
+						if(limit>0 && splitCount>=limit) {
+							return splitCount;
+						}
+					}
+				} else if(off==-1) {
+					off = i;
+				}
+			}
+
+			if(off!=-1) {
+				addSplit(off, width);
+			}
+
+			return splitCount;
+		}
+
+		private static boolean isWhitespace(char c) {
+			// Same character class as \s in regular expressions
+			switch (c) {
+			case ' ':
+			case '\t':
+			case '\n':
+			case '\u000B':
+			case '\f':
+			case '\r':
+				return true;
+
+			default:
+				return false;
+			}
+		}
+
 		public abstract void recycle();
 
 		protected void resetSplits() {
@@ -26,7 +26,6 @@
 package de.ims.icarus.language.coref;
 
 import java.util.Collections;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -42,13 +41,10 @@ public class CorefComparison {
 	private Set<Edge> edges = Collections.emptySet();
 	private Set<Edge> goldEdges = Collections.emptySet();
 
-	private Map<Span, CorefErrorType> errors = Collections.emptyMap();;
-
 	private Set<Span> spans = Collections.emptySet();
 	private Set<Span> goldSpans = Collections.emptySet();
 
-	private Map<Span, Span> rootMap = Collections.emptyMap();
-	private Map<Span, Span> goldRootMap = Collections.emptyMap();
+	private CorefEvaluator evaluator;
 
 	public CorefComparison() {
 		// no-op
@@ -76,7 +72,7 @@ public class CorefComparison {
 	}
 
 	public CorefErrorType getErrorType(Span span) {
-		return errors==null ? null : errors.get(span);
+		return evaluator==null ? null : evaluator.getErrorType(span);
 	}
 
 	/**
@@ -108,13 +104,6 @@ public class CorefComparison {
 		this.goldSet = goldSet;
 	}
 
-	/**
-	 * @param errors the errors to set
-	 */
-	void setErrors(Map<Span, CorefErrorType> errors) {
-		this.errors = errors;
-	}
-
 	/**
 	 * @param spans the spans to set
 	 */
@@ -166,24 +155,32 @@ public class CorefComparison {
 	}
 
 	/**
-	 * @param rootMap the rootMap to set
+	 * @param evaluator the evaluator to set
 	 */
-	void setRootMap(Map<Span, Span> rootMap) {
-		this.rootMap = rootMap;
+	void setEvaluator(CorefEvaluator evaluator) {
+		this.evaluator = evaluator;
 	}
 
-	public Span getRoot(Span span) {
-		return rootMap==null ? null : rootMap.get(span);
+	/**
+	 * @return the evaluator
+	 */
+	public CorefEvaluator getEvaluator() {
+		return evaluator;
 	}
 
 	/**
-	 * @param goldRootMap the goldRootMap to set
+	 * Returns the evaluation scores of the predicted allocation against
+	 * the gold allocation or {@code null} if no gold set was compared.
 	 */
-	void setGoldRootMap(Map<Span, Span> goldRootMap) {
-		this.goldRootMap = goldRootMap;
+	public CorefScores getScores() {
+		return evaluator==null ? null : evaluator.getScores();
+	}
+
+	public Span getRoot(Span span) {
+		return evaluator==null ? null : evaluator.getRoot(span);
 	}
 
 	public Span getGoldRoot(Span span) {
-		return goldRootMap==null ? null : goldRootMap.get(span);
+		return evaluator==null ? null : evaluator.getGoldRoot(span);
 	}
 }
@@ -0,0 +1,847 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.coref;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Compares a predicted and a gold allocation of a single document. All
+ * mentions of both allocations are sorted by {@link #SPAN_ORDER} and
+ * addressed by their position in that order. Clusters, antecedents and
+ * error types are then stored in plain {@code int} arrays, so neither
+ * classification nor scoring relies on hashing {@link Span} objects.
+ * <p>
+ * Besides the {@link CorefErrorType} of each mention the evaluator
+ * provides the MUC, B³, CEAF-e and BLANC {@link CorefScores scores}
+ * of the predicted allocation. Scores are only computed when first
+ * requested, since most views just need the error types.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class CorefEvaluator {
+
+	/**
+	 * Total order on spans by sentence, begin index, end index and finally id
+	 * (for virtual spans). Consistent with {@link Span#equals(Object)}.
+	 */
+	public static final Comparator<Span> SPAN_ORDER = new Comparator<Span>() {
+
+		@Override
+		public int compare(Span s1, Span s2) {
+			if(s1.getSentenceIndex()!=s2.getSentenceIndex()) {
+				return s1.getSentenceIndex()<s2.getSentenceIndex() ? -1 : 1;
+			}
+			if(s1.getBeginIndex()!=s2.getBeginIndex()) {
+				return s1.getBeginIndex()<s2.getBeginIndex() ? -1 : 1;
+			}
+			if(s1.getEndIndex()!=s2.getEndIndex()) {
+				return s1.getEndIndex()<s2.getEndIndex() ? -1 : 1;
+			}
+
+			String id1 = s1.getId(), id2 = s2.getId();
+			if(id1==null || id2==null) {
+				return id1==id2 ? 0 : (id1==null ? -1 : 1);
+			}
+			return id1.compareTo(id2);
+		}
+	};
+
+	private static final int NONE = -1;
+
+	private final Span[] mentions;
+
+	// Predicted allocation
+	private final boolean[] predicted;
+	private final int[] head;
+	private final int[] root;
+	private final int[] cluster;
+	private final int[][] clusters;
+
+	// Gold allocation
+	private final boolean[] gold;
+	private final int[] goldRoot;
+	private final int[] goldCluster;
+	private final int[][] goldClusters;
+
+	private final CorefErrorType[] errors;
+	private CorefScores scores;
+
+	/**
+	 * Evaluates the given edge set against the (optional) gold edge set.
+	 * If {@code filterSingletons} is set, mentions that neither have an
+	 * antecedent nor serve as antecedent are ignored, consistent with
+	 * {@link CoreferenceUtils#removeSingletons(java.util.Collection)}.
+	 */
+	public CorefEvaluator(EdgeSet edgeSet, EdgeSet goldSet, boolean filterSingletons) {
+		if (edgeSet == null)
+			throw new NullPointerException("Invalid edge set"); //$NON-NLS-1$
+
+		List<Edge> edges = edgeSet.getEdges();
+		List<Edge> goldEdges = goldSet==null ? null : goldSet.getEdges();
+
+		mentions = collectMentions(edges, goldEdges);
+		int size = mentions.length;
+
+		predicted = new boolean[size];
+		head = new int[size];
+		root = new int[size];
+		cluster = new int[size];
+		clusters = readAllocation(edges, filterSingletons, predicted, head, root, cluster);
+
+		gold = new boolean[size];
+		goldRoot = new int[size];
+		goldCluster = new int[size];
+
+		if(goldEdges==null) {
+			Arrays.fill(goldRoot, NONE);
+			Arrays.fill(goldCluster, NONE);
+			goldClusters = new int[0][];
+			errors = null;
+		} else {
+			goldClusters = readAllocation(goldEdges, filterSingletons, gold, new int[size], goldRoot, goldCluster);
+			errors = classify();
+		}
+	}
+
+	private static Span[] collectMentions(List<Edge> edges, List<Edge> goldEdges) {
+		int capacity = edges.size()*2;
+		if(goldEdges!=null) {
+			capacity += goldEdges.size()*2;
+		}
+
+		Span[] buffer = new Span[capacity];
+		int size = addSpans(edges, buffer, 0);
+		if(goldEdges!=null) {
+			size = addSpans(goldEdges, buffer, size);
+		}
+
+		Arrays.sort(buffer, 0, size, SPAN_ORDER);
+
+		// Remove duplicates
+		int unique = 0;
+		for(int i=0; i<size; i++) {
+			if(unique==0 || SPAN_ORDER.compare(buffer[unique-1], buffer[i])!=0) {
+				buffer[unique++] = buffer[i];
+			}
+		}
+
+		return Arrays.copyOf(buffer, unique);
+	}
+
+	private static int addSpans(List<Edge> edges, Span[] buffer, int size) {
+		for(int i=0; i<edges.size(); i++) {
+			Edge edge = edges.get(i);
+			if(!edge.getSource().isROOT()) {
+				buffer[size++] = edge.getSource();
+			}
+			buffer[size++] = edge.getTarget();
+		}
+		return size;
+	}
+
+	/**
+	 * Fills the mention flags and antecedent information for one allocation
+	 * and returns its clusters. Roots are assigned in edge order the same way
+	 * the former map based comparison did, while cluster membership is derived
+	 * from the connected components of all (unfiltered) links.
+	 */
+	private int[][] readAllocation(List<Edge> edges, boolean filterSingletons,
+			boolean[] mentionFlags, int[] head, int[] root, int[] cluster) {
+		int size = mentions.length;
+		int edgeCount = edges.size();
+
+		int[] sources = new int[edgeCount];
+		int[] targets = new int[edgeCount];
+		boolean[] isSource = new boolean[size];
+
+		for(int i=0; i<edgeCount; i++) {
+			Edge edge = edges.get(i);
+			Span source = edge.getSource();
+			sources[i] = source.isROOT() ? NONE : indexOf(source);
+			targets[i] = indexOf(edge.getTarget());
+
+			if(sources[i]!=NONE) {
+				isSource[sources[i]] = true;
+			}
+		}
+
+		Arrays.fill(head, NONE);
+		Arrays.fill(root, NONE);
+
+		int[] parents = new int[size];
+		for(int i=0; i<size; i++) {
+			parents[i] = i;
+		}
+
+		for(int i=0; i<edgeCount; i++) {
+			int source = sources[i];
+			int target = targets[i];
+
+			if(!filterSingletons || source!=NONE || isSource[target]) {
+				mentionFlags[target] = true;
+			}
+
+			if(source==NONE) {
+				continue;
+			}
+
+			head[target] = source;
+			root[target] = root[source]==NONE ? source : root[source];
+
+			// Union
+			int r1 = find(parents, source);
+			int r2 = find(parents, target);
+			if(r1!=r2) {
+				parents[Math.max(r1, r2)] = Math.min(r1, r2);
+			}
+		}
+
+		// Assign dense cluster ids in mention order
+		int[] clusterIds = new int[size];
+		Arrays.fill(clusterIds, NONE);
+		int[] clusterSizes = new int[size];
+		int clusterCount = 0;
+
+		for(int i=0; i<size; i++) {
+			cluster[i] = NONE;
+			if(!mentionFlags[i]) {
+				continue;
+			}
+
+			int r = find(parents, i);
+			if(clusterIds[r]==NONE) {
+				clusterIds[r] = clusterCount++;
+			}
+			cluster[i] = clusterIds[r];
+			clusterSizes[cluster[i]]++;
+		}
+
+		int[][] result = new int[clusterCount][];
+		for(int c=0; c<clusterCount; c++) {
+			result[c] = new int[clusterSizes[c]];
+			clusterSizes[c] = 0;
+		}
+		for(int i=0; i<size; i++) {
+			int c = cluster[i];
+			if(c!=NONE) {
+				result[c][clusterSizes[c]++] = i;
+			}
+		}
+
+		return result;
+	}
+
+	private static int find(int[] parents, int node) {
+		while(parents[node]!=node) {
+			parents[node] = parents[parents[node]];
+			node = parents[node];
+		}
+		return node;
+	}
+
+	private CorefErrorType[] classify() {
+		int size = mentions.length;
+		CorefErrorType[] result = new CorefErrorType[size];
+
+		for(int i=0; i<size; i++) {
+			if(!predicted[i]) {
+				if(gold[i]) {
+					result[i] = CorefErrorType.FALSE_NEGATIVE_MENTION;
+				}
+				continue;
+			}
+
+			if(!gold[i]) {
+				// False positive mention (hallucinated)
+				result[i] = CorefErrorType.FALSE_POSITIVE_MENTION;
+			} else if(root[i]==goldRoot[i]) {
+				// Same cluster start in both allocations -> true positive
+				continue;
+			} else if(root[i]==NONE) {
+				// Mention starts a new cluster in predicted allocation
+				// but not in the gold
+				result[i] = CorefErrorType.INVALID_CLUSTER_START;
+			} else if(!gold[head[i]]) {
+				// Head span is unknown to the gold set
+				result[i] = CorefErrorType.HALLUCINATED_HEAD;
+			} else if(goldCluster[head[i]]!=goldCluster[i]) {
+				result[i] = CorefErrorType.FOREIGN_CLUSTER_HEAD;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Computes all metrics for the given key (gold) and response (predicted)
+	 * partitions in time linear to the number of mentions, except for the
+	 * entity alignment of CEAF-e which is solved per connected component
+	 * of overlapping clusters.
+	 */
+	static CorefScores score(int size, int[] keyOf, int[][] keyClusters, int[] responseOf, int[][] responseClusters) {
+		int keyCount = keyClusters.length;
+		int responseCount = responseClusters.length;
+
+		// Overlaps between key and response clusters as (key, response, count) triples
+		int[] overlapKey = new int[size];
+		int[] overlapResponse = new int[size];
+		int[] overlapCount = new int[size];
+		int overlaps = 0;
+
+		int[] keyParts = new int[keyCount];
+		int[] keyShared = new int[keyCount];
+		int[] responseParts = new int[responseCount];
+		int[] responseShared = new int[responseCount];
+
+		int[] stamp = new int[responseCount];
+		Arrays.fill(stamp, NONE);
+		int[] counts = new int[responseCount];
+		int[] touched = new int[responseCount];
+
+		for(int k=0; k<keyCount; k++) {
+			int touchedCount = 0;
+			int unmatched = 0;
+
+			for(int mention : keyClusters[k]) {
+				int r = responseOf[mention];
+				if(r==NONE) {
+					unmatched++;
+					continue;
+				}
+				if(stamp[r]!=k) {
+					stamp[r] = k;
+					counts[r] = 0;
+					touched[touchedCount++] = r;
+				}
+				counts[r]++;
+			}
+
+			for(int i=0; i<touchedCount; i++) {
+				int r = touched[i];
+				overlapKey[overlaps] = k;
+				overlapResponse[overlaps] = r;
+				overlapCount[overlaps] = counts[r];
+				overlaps++;
+
+				keyShared[k] += counts[r];
+				responseShared[r] += counts[r];
+				responseParts[r]++;
+			}
+
+			keyParts[k] = touchedCount+unmatched;
+		}
+
+		CorefScores result = new CorefScores(1);
+
+		long keyMentions = 0, responseMentions = 0, sharedMentions = 0;
+		long keyLinks = 0, responseLinks = 0, sharedLinks = 0;
+		long keySharedLinks = 0, responseSharedLinks = 0;
+
+		// MUC
+		CorefScores.Score muc = result.getMUC();
+		for(int k=0; k<keyCount; k++) {
+			int length = keyClusters[k].length;
+			muc.recallNumerator += length-keyParts[k];
+			muc.recallDenominator += length-1;
+
+			keyMentions += length;
+			keyLinks += pairs(length);
+			keySharedLinks += pairs(keyShared[k]);
+			sharedMentions += keyShared[k];
+		}
+		for(int r=0; r<responseCount; r++) {
+			int length = responseClusters[r].length;
+			// Mentions missing from the key form partitions of their own
+			int parts = responseParts[r] + length-responseShared[r];
+			muc.precisionNumerator += length-parts;
+			muc.precisionDenominator += length-1;
+
+			responseMentions += length;
+			responseLinks += pairs(length);
+			responseSharedLinks += pairs(responseShared[r]);
+		}
+
+		// B³
+		CorefScores.Score bCubed = result.getBCubed();
+		for(int i=0; i<overlaps; i++) {
+			double count = overlapCount[i];
+			bCubed.recallNumerator += count*count / keyClusters[overlapKey[i]].length;
+			bCubed.precisionNumerator += count*count / responseClusters[overlapResponse[i]].length;
+
+			sharedLinks += pairs(overlapCount[i]);
+		}
+		bCubed.recallDenominator = keyMentions;
+		bCubed.precisionDenominator = responseMentions;
+
+		// CEAF-e
+		CorefScores.Score ceafE = result.getCEAFe();
+		double similarity = alignEntities(keyClusters, responseClusters,
+				overlapKey, overlapResponse, overlapCount, overlaps);
+		ceafE.recallNumerator = similarity;
+		ceafE.recallDenominator = keyCount;
+		ceafE.precisionNumerator = similarity;
+		ceafE.precisionDenominator = responseCount;
+
+		// BLANC (extended to imperfect mentions)
+		CorefScores.Score coreference = result.getBLANCCoreference();
+		coreference.recallNumerator = sharedLinks;
+		coreference.recallDenominator = keyLinks;
+		coreference.precisionNumerator = sharedLinks;
+		coreference.precisionDenominator = responseLinks;
+
+		long keyNonLinks = pairs(keyMentions)-keyLinks;
+		long responseNonLinks = pairs(responseMentions)-responseLinks;
+		long sharedNonLinks = pairs(sharedMentions)-keySharedLinks-responseSharedLinks+sharedLinks;
+
+		CorefScores.Score nonCoreference = result.getBLANCNonCoreference();
+		nonCoreference.recallNumerator = sharedNonLinks;
+		nonCoreference.recallDenominator = keyNonLinks;
+		nonCoreference.precisionNumerator = sharedNonLinks;
+		nonCoreference.precisionDenominator = responseNonLinks;
+
+		return result;
+	}
+
+	private static long pairs(long n) {
+		return n*(n-1)/2;
+	}
+
+	/**
+	 * Returns the total entity similarity {@code phi4} of the optimal one-to-one
+	 * alignment between key and response clusters. Clusters only compete for
+	 * partners within their connected component of the overlap graph, so each
+	 * component is aligned separately.
+	 */
+	private static double alignEntities(int[][] keyClusters, int[][] responseClusters,
+			int[] overlapKey, int[] overlapResponse, int[] overlapCount, int overlaps) {
+		if(overlaps==0) {
+			return 0;
+		}
+
+		int keyCount = keyClusters.length;
+		int nodeCount = keyCount + responseClusters.length;
+
+		int[] parents = new int[nodeCount];
+		for(int i=0; i<nodeCount; i++) {
+			parents[i] = i;
+		}
+		for(int i=0; i<overlaps; i++) {
+			int r1 = find(parents, overlapKey[i]);
+			int r2 = find(parents, keyCount+overlapResponse[i]);
+			if(r1!=r2) {
+				parents[Math.max(r1, r2)] = Math.min(r1, r2);
+			}
+		}
+
+		// Group overlaps by component (counting sort on component root)
+		int[] offsets = new int[nodeCount+1];
+		int[] components = new int[overlaps];
+		for(int i=0; i<overlaps; i++) {
+			components[i] = find(parents, overlapKey[i]);
+			offsets[components[i]+1]++;
+		}
+		for(int i=0; i<nodeCount; i++) {
+			offsets[i+1] += offsets[i];
+		}
+		int[] order = new int[overlaps];
+		int[] fill = Arrays.copyOf(offsets, nodeCount);
+		for(int i=0; i<overlaps; i++) {
+			order[fill[components[i]]++] = i;
+		}
+
+		int[] localIndex = new int[nodeCount];
+		Arrays.fill(localIndex, NONE);
+
+		double total = 0;
+
+		for(int c=0; c<nodeCount; c++) {
+			int begin = offsets[c], end = offsets[c+1];
+			if(begin==end) {
+				continue;
+			}
+
+			int rows = 0, columns = 0;
+			for(int i=begin; i<end; i++) {
+				int o = order[i];
+				int k = overlapKey[o];
+				int r = keyCount+overlapResponse[o];
+				if(localIndex[k]==NONE) {
+					localIndex[k] = rows++;
+				}
+				if(localIndex[r]==NONE) {
+					localIndex[r] = columns++;
+				}
+			}
+
+			// Trivial component: single pair of clusters
+			if(rows==1 && columns==1) {
+				int o = order[begin];
+				total += phi4(overlapCount[o], keyClusters[overlapKey[o]].length,
+						responseClusters[overlapResponse[o]].length);
+				continue;
+			}
+
+			boolean transpose = rows>columns;
+			double[][] weights = transpose ? new double[columns][rows] : new double[rows][columns];
+			for(int i=begin; i<end; i++) {
+				int o = order[i];
+				int row = localIndex[overlapKey[o]];
+				int column = localIndex[keyCount+overlapResponse[o]];
+				double weight = phi4(overlapCount[o], keyClusters[overlapKey[o]].length,
+						responseClusters[overlapResponse[o]].length);
+				if(transpose) {
+					weights[column][row] = weight;
+				} else {
+					weights[row][column] = weight;
+				}
+			}
+
+			total += maxWeightMatching(weights);
+		}
+
+		return total;
+	}
+
+	private static double phi4(int overlap, int keyLength, int responseLength) {
+		return 2d*overlap / (keyLength+responseLength);
+	}
+
+	/**
+	 * Kuhn-Munkres algorithm for a weight matrix with no more rows than
+	 * columns. Returns the weight of a maximum weight matching that covers
+	 * every row.
+	 */
+	private static double maxWeightMatching(double[][] weights) {
+		int n = weights.length;
+		int m = weights[0].length;
+
+		double[] u = new double[n+1];
+		double[] v = new double[m+1];
+		int[] p = new int[m+1];
+		int[] way = new int[m+1];
+		double[] minv = new double[m+1];
+		boolean[] used = new boolean[m+1];
+
+		for(int i=1; i<=n; i++) {
+			p[0] = i;
+			int j0 = 0;
+			Arrays.fill(minv, Double.POSITIVE_INFINITY);
+			Arrays.fill(used, false);
+
+			do {
+				used[j0] = true;
+				int i0 = p[j0], j1 = 0;
+				double delta = Double.POSITIVE_INFINITY;
+
+				for(int j=1; j<=m; j++) {
+					if(used[j]) {
+						continue;
+					}
+					// Maximization by minimizing negated weights
+					double cur = -weights[i0-1][j-1] - u[i0] - v[j];
+					if(cur<minv[j]) {
+						minv[j] = cur;
+						way[j] = j0;
+					}
+					if(minv[j]<delta) {
+						delta = minv[j];
+						j1 = j;
+					}
+				}
+
+				for(int j=0; j<=m; j++) {
+					if(used[j]) {
+						u[p[j]] += delta;
+						v[j] -= delta;
+					} else {
+						minv[j] -= delta;
+					}
+				}
+				j0 = j1;
+			} while(p[j0]!=0);
+
+			do {
+				int j1 = way[j0];
+				p[j0] = p[j1];
+				j0 = j1;
+			} while(j0!=0);
+		}
+
+		double result = 0;
+		for(int j=1; j<=m; j++) {
+			if(p[j]!=0) {
+				result += weights[p[j]-1][j-1];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the position of the given span in the sorted mention table
+	 * or {@code -1} if the span is not part of either allocation.
+	 */
+	public int indexOf(Span span) {
+		if(span==null || span.isROOT()) {
+			return NONE;
+		}
+		int index = Arrays.binarySearch(mentions, span, SPAN_ORDER);
+		return index<0 ? NONE : index;
+	}
+
+	public int getMentionCount() {
+		return mentions.length;
+	}
+
+	public Span getMention(int index) {
+		return mentions[index];
+	}
+
+	public boolean hasGold() {
+		return errors!=null;
+	}
+
+	public boolean isPredicted(int index) {
+		return predicted[index];
+	}
+
+	public boolean isGold(int index) {
+		return gold[index];
+	}
+
+	/**
+	 * Returns the predicted cluster id of the given mention or {@code -1}
+	 */
+	public int getCluster(int index) {
+		return cluster[index];
+	}
+
+	/**
+	 * Returns the gold cluster id of the given mention or {@code -1}
+	 */
+	public int getGoldCluster(int index) {
+		return goldCluster[index];
+	}
+
+	public int getClusterCount() {
+		return clusters.length;
+	}
+
+	public int getGoldClusterCount() {
+		return goldClusters.length;
+	}
+
+	/**
+	 * Returns the sorted mention indices of the given predicted cluster.
+	 * The returned array must not be modified!
+	 */
+	public int[] getClusterMembers(int clusterId) {
+		return clusters[clusterId];
+	}
+
+	/**
+	 * Returns the sorted mention indices of the given gold cluster.
+	 * The returned array must not be modified!
+	 */
+	public int[] getGoldClusterMembers(int clusterId) {
+		return goldClusters[clusterId];
+	}
+
+	public CorefErrorType getErrorType(int index) {
+		return errors==null ? null : errors[index];
+	}
+
+	public CorefErrorType getErrorType(Span span) {
+		int index = indexOf(span);
+		return index==NONE ? null : getErrorType(index);
+	}
+
+	/**
+	 * Returns the first mention of the predicted cluster the given span
+	 * belongs to or {@code null} if the span starts a cluster.
+	 */
+	public Span getRoot(Span span) {
+		int index = indexOf(span);
+		return index==NONE || root[index]==NONE ? null : mentions[root[index]];
+	}
+
+	/**
+	 * Returns the first mention of the gold cluster the given span
+	 * belongs to or {@code null} if the span starts a cluster.
+	 */
+	public Span getGoldRoot(Span span) {
+		int index = indexOf(span);
+		return index==NONE || goldRoot[index]==NONE ? null : mentions[goldRoot[index]];
+	}
+
+	/**
+	 * Returns the evaluation scores of the predicted allocation or
+	 * {@code null} if no gold allocation was provided.
+	 */
+	public synchronized CorefScores getScores() {
+		// Errors are only classified if there is a gold allocation
+		if(scores==null && errors!=null) {
+			scores = score(mentions.length, goldCluster, goldClusters, cluster, clusters);
+		}
+		return scores;
+	}
+
+	// Cached comparisons
+
+	/**
+	 * Comparisons of documents, weakly bound to the document set and the
+	 * pair of predicted and gold allocation they were computed for.
+	 */
+	private static final Map<DocumentSet, Map<CoreferenceAllocation, Map<CoreferenceAllocation, CacheEntry>>> cache = new WeakHashMap<>();
+
+	private static final ChangeListener cacheInvalidator = new ChangeListener() {
+
+		@Override
+		public void stateChanged(ChangeEvent e) {
+			invalidate((DocumentSet) e.getSource());
+		}
+	};
+
+	/**
+	 * Compares the edge set of the given document in {@code allocation}
+	 * against the one in {@code goldAllocation}, resolving both the same
+	 * way {@link CoreferenceUtils#getEdgeSet(DocumentData, CoreferenceAllocation)}
+	 * and {@link CoreferenceUtils#getGoldEdgeSet(DocumentData, CoreferenceAllocation)}
+	 * do. Results are cached per document set and pair of allocations until
+	 * the document set changes or {@link #invalidate(CoreferenceAllocation)}
+	 * is called for one of the allocations.
+	 */
+	public static CorefComparison compare(DocumentData document, CoreferenceAllocation allocation,
+			CoreferenceAllocation goldAllocation, boolean filterSingletons) {
+		if (document == null)
+			throw new NullPointerException("Invalid document"); //$NON-NLS-1$
+
+		EdgeSet edgeSet = CoreferenceUtils.getEdgeSet(document, allocation);
+		EdgeSet goldSet = CoreferenceUtils.getGoldEdgeSet(document, goldAllocation);
+
+		if(edgeSet==null) {
+			edgeSet = CoreferenceUtils.defaultEmptyEdgeSet;
+		}
+
+		DocumentSet documentSet = document.getDocumentSet();
+		if(documentSet==null) {
+			return CoreferenceUtils.compare(edgeSet, goldSet, filterSingletons);
+		}
+
+		Map<DocumentData, CorefComparison> comparisons;
+		synchronized (cache) {
+			comparisons = getEntry(documentSet, allocation, goldAllocation).getComparisons(filterSingletons);
+
+			// Edge sets are replaced when their allocation gets reloaded
+			CorefComparison comparison = comparisons.get(document);
+			if(comparison!=null && comparison.getEdgeSet()==edgeSet
+					&& comparison.getGoldSet()==goldSet) {
+				return comparison;
+			}
+		}
+
+		CorefComparison comparison = CoreferenceUtils.compare(edgeSet, goldSet, filterSingletons);
+
+		synchronized (cache) {
+			comparisons.put(document, comparison);
+		}
+
+		return comparison;
+	}
+
+	private static CacheEntry getEntry(DocumentSet documentSet, CoreferenceAllocation allocation,
+			CoreferenceAllocation goldAllocation) {
+		Map<CoreferenceAllocation, Map<CoreferenceAllocation, CacheEntry>> entries = cache.get(documentSet);
+		if(entries==null) {
+			entries = new WeakHashMap<>();
+			cache.put(documentSet, entries);
+			documentSet.addChangeListener(cacheInvalidator);
+		}
+
+		Map<CoreferenceAllocation, CacheEntry> goldEntries = entries.get(allocation);
+		if(goldEntries==null) {
+			goldEntries = new WeakHashMap<>();
+			entries.put(allocation, goldEntries);
+		}
+
+		CacheEntry entry = goldEntries.get(goldAllocation);
+		if(entry==null) {
+			entry = new CacheEntry();
+			goldEntries.put(goldAllocation, entry);
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Discards all cached comparisons for the given document set.
+	 */
+	public static void invalidate(DocumentSet documentSet) {
+		if (documentSet == null)
+			throw new NullPointerException("Invalid document set"); //$NON-NLS-1$
+
+		synchronized (cache) {
+			if(cache.remove(documentSet)!=null) {
+				documentSet.removeChangeListener(cacheInvalidator);
+			}
+		}
+	}
+
+	/**
+	 * Discards all cached comparisons that involve the given allocation,
+	 * either as predicted or as gold allocation.
+	 */
+	public static void invalidate(CoreferenceAllocation allocation) {
+		if (allocation == null)
+			throw new NullPointerException("Invalid allocation"); //$NON-NLS-1$
+
+		synchronized (cache) {
+			for(Map<CoreferenceAllocation, Map<CoreferenceAllocation, CacheEntry>> entries : cache.values()) {
+				entries.remove(allocation);
+				for(Map<CoreferenceAllocation, CacheEntry> goldEntries : entries.values()) {
+					goldEntries.remove(allocation);
+				}
+			}
+		}
+	}
+
+	private static final class CacheEntry {
+		private final Map<DocumentData, CorefComparison> comparisons = new WeakHashMap<>();
+		private final Map<DocumentData, CorefComparison> filteredComparisons = new WeakHashMap<>();
+
+		Map<DocumentData, CorefComparison> getComparisons(boolean filterSingletons) {
+			return filterSingletons ? filteredComparisons : comparisons;
+		}
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.coref;
+
+import java.io.Serializable;
+
+/**
+ * Standard coreference evaluation scores (MUC, B³, CEAF-e and BLANC) for
+ * a single document or a set of documents. All scores are stored as raw
+ * numerators and denominators, so results for several documents can be
+ * {@link #add(CorefScores) merged} into micro-averaged totals.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class CorefScores implements Serializable {
+
+	private static final long serialVersionUID = -3213548329431390151L;
+
+	private final Score muc = new Score();
+	private final Score bCubed = new Score();
+	private final Score ceafE = new Score();
+	private final Score blancCoreference = new Score();
+	private final Score blancNonCoreference = new Score();
+
+	private int documentCount = 0;
+
+	public CorefScores() {
+		// no-op
+	}
+
+	CorefScores(int documentCount) {
+		this.documentCount = documentCount;
+	}
+
+	/**
+	 * Adds all the raw counts of the given scores to this object.
+	 */
+	public synchronized void add(CorefScores other) {
+		if (other == null)
+			throw new NullPointerException("Invalid scores"); //$NON-NLS-1$
+
+		muc.add(other.muc);
+		bCubed.add(other.bCubed);
+		ceafE.add(other.ceafE);
+		blancCoreference.add(other.blancCoreference);
+		blancNonCoreference.add(other.blancNonCoreference);
+
+		documentCount += other.documentCount;
+	}
+
+	/**
+	 * @return the number of documents these scores have been computed for
+	 */
+	public int getDocumentCount() {
+		return documentCount;
+	}
+
+	public Score getMUC() {
+		return muc;
+	}
+
+	public Score getBCubed() {
+		return bCubed;
+	}
+
+	public Score getCEAFe() {
+		return ceafE;
+	}
+
+	/**
+	 * Returns the BLANC score as the arithmetic mean of the scores for
+	 * coreference and non-coreference links.
+	 */
+	public Score getBLANC() {
+		return new AveragedScore(blancCoreference, blancNonCoreference);
+	}
+
+	public Score getBLANCCoreference() {
+		return blancCoreference;
+	}
+
+	public Score getBLANCNonCoreference() {
+		return blancNonCoreference;
+	}
+
+	/**
+	 * Returns the unweighted average of the MUC, B³ and CEAF-e F1 values
+	 * as used in the CoNLL shared tasks.
+	 */
+	public double getCoNLLScore() {
+		return (muc.getF1() + bCubed.getF1() + ceafE.getF1()) / 3d;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("CorefScores[documents=%d muc=%s b3=%s ceafe=%s blanc=%s conll=%.4f]",  //$NON-NLS-1$
+				documentCount, muc, bCubed, ceafE, getBLANC(), getCoNLLScore());
+	}
+
+	/**
+	 * Recall and precision of a single metric, stored as raw fractions.
+	 * A fraction with a denominator of {@code 0} evaluates to {@code 0}.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public static class Score implements Serializable {
+
+		private static final long serialVersionUID = 2590124937420566542L;
+
+		double recallNumerator, recallDenominator;
+		double precisionNumerator, precisionDenominator;
+
+		void add(Score other) {
+			recallNumerator += other.recallNumerator;
+			recallDenominator += other.recallDenominator;
+			precisionNumerator += other.precisionNumerator;
+			precisionDenominator += other.precisionDenominator;
+		}
+
+		public double getRecall() {
+			return recallDenominator==0 ? 0 : recallNumerator/recallDenominator;
+		}
+
+		public double getPrecision() {
+			return precisionDenominator==0 ? 0 : precisionNumerator/precisionDenominator;
+		}
+
+		public double getF1() {
+			double recall = getRecall();
+			double precision = getPrecision();
+
+			return recall+precision==0 ? 0 : 2*recall*precision/(recall+precision);
+		}
+
+		/**
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return String.format("[R=%.4f P=%.4f F1=%.4f]", getRecall(), getPrecision(), getF1()); //$NON-NLS-1$
+		}
+	}
+
+	private static class AveragedScore extends Score {
+
+		private static final long serialVersionUID = -1755914424183612307L;
+
+		private final Score score1, score2;
+
+		AveragedScore(Score score1, Score score2) {
+			this.score1 = score1;
+			this.score2 = score2;
+		}
+
+		@Override
+		void add(Score other) {
+			throw new UnsupportedOperationException("Averaged scores are read-only"); //$NON-NLS-1$
+		}
+
+		@Override
+		public double getRecall() {
+			return (score1.getRecall()+score2.getRecall()) / 2d;
+		}
+
+		@Override
+		public double getPrecision() {
+			return (score1.getPrecision()+score2.getPrecision()) / 2d;
+		}
+
+		@Override
+		public double getF1() {
+			return (score1.getF1()+score2.getF1()) / 2d;
+		}
+	}
+}
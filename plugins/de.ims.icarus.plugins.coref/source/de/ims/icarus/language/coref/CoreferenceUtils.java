@@ -33,7 +33,6 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -62,14 +61,11 @@ import de.ims.icarus.util.Filter;
 import de.ims.icarus.util.HtmlUtils;
 import de.ims.icarus.util.Options;
 import de.ims.icarus.util.UnsupportedFormatException;
-import de.ims.icarus.util.classes.ClassUtils;
 import de.ims.icarus.util.data.ContentType;
 import de.ims.icarus.util.data.ContentTypeRegistry;
 import de.ims.icarus.util.location.Location;
 import de.ims.icarus.util.location.UnsupportedLocationException;
 import de.ims.icarus.util.strings.StringUtil;
-import gnu.trove.map.TObjectIntMap;
-import gnu.trove.map.hash.TObjectIntHashMap;
 
 
 /**
@@ -134,7 +130,8 @@ public final class CoreferenceUtils implements CorefConstants {
 		if(edgeSet==null)
 			throw new NullPointerException("Invalid edge set"); //$NON-NLS-1$
 
-		Map<Span, CorefErrorType> errors = new HashMap<>();
+		// Classification and scoring are done on the sorted mention table
+		CorefEvaluator evaluator = new CorefEvaluator(edgeSet, goldSet, filterSingletons);
 
 		Collection<Edge> tmp = edgeSet.getEdges();
 		if(filterSingletons) {
@@ -142,37 +139,26 @@ public final class CoreferenceUtils implements CorefConstants {
 		}
 		Set<Edge> edges = new LinkedHashSet<>(tmp);
 
-		Set<Span> spanLut = collectSpans(edges);
-		Map<Span, Span> rootLut = new HashMap<>();
-		Map<Span, Span> headLut = new HashMap<>();
+		int mentionCount = evaluator.getMentionCount();
+		Set<Span> spanLut = new HashSet<>(mentionCount*2);
+		Set<Span> goldLut = new HashSet<>();
 
-		// Cache predicted information
-		for(Edge edge : edgeSet.getEdges()) {
-			Span source = edge.getSource();
-			Span target = edge.getTarget();
-
-			if(source.isROOT()) {
-				continue;
+		for(int i=0; i<mentionCount; i++) {
+			if(evaluator.isPredicted(i)) {
+				spanLut.add(evaluator.getMention(i));
+			} else if(evaluator.isGold(i)) {
+				// Only false negatives are kept as gold spans
+				goldLut.add(evaluator.getMention(i));
 			}
-
-			headLut.put(target, source);
-
-			Span root = rootLut.get(source);
-			if(root==null) {
-				root = source;
-			}
-			rootLut.put(target, root);
 		}
 
+		CorefComparison result = new CorefComparison();
+		result.setEdgeSet(edgeSet);
+		result.setEdges(edges);
+		result.setSpans(spanLut);
+		result.setEvaluator(evaluator);
 
 		if(goldSet==null) {
-			CorefComparison result = new CorefComparison();
-
-			result.setEdgeSet(edgeSet);
-			result.setEdges(edges);
-			result.setSpans(spanLut);
-			result.setRootMap(rootLut);
-
 			return result;
 		}
 
@@ -181,115 +167,11 @@ public final class CoreferenceUtils implements CorefConstants {
 			tmp = removeSingletons(tmp);
 		}
 		Set<Edge> goldEdges = new LinkedHashSet<>(tmp);
-
-		Set<Span> goldLut = collectSpans(goldEdges);
-		Map<Span, Span> goldRootLut = new LinkedHashMap<>();
-		TObjectIntMap<Object> goldClusterIds = new TObjectIntHashMap<>(goldLut.size());
-
-		// Cache gold information
-		for(Edge edge : goldSet.getEdges()) {
-			Span source = edge.getSource();
-			Span target = edge.getTarget();
-
-			goldClusterIds.put(target, target.getClusterId());
-
-			if(source.isROOT()) {
-				continue;
-			}
-
-			Span root = goldRootLut.get(source);
-			if(root==null) {
-				root = source;
-			}
-			goldRootLut.put(target, root);
-		}
-
-		// Now process predicted spans/edges and assign error types
-		for(Span span : spanLut) {
-			if(!goldLut.contains(span)) {
-				// False positive mention (hallucinated)
-				errors.put(span, CorefErrorType.FALSE_POSITIVE_MENTION);
-				continue;
-			}
-
-			Span root = rootLut.get(span);
-			Span goldRoot = goldRootLut.get(span);
-
-			if(ClassUtils.equals(root, goldRoot)) {
-				// Same cluster in both predicted and gold allocation
-				// (either both starting a new cluster or both being
-				// part of the same cluster, as defined by their
-				// respective root mention)
-				// -> true positive
-				continue;
-			}
-
-			if(root==null) {
-				// Mention starts a new cluster in predicted allocation
-				// but not in the gold
-				errors.put(span, CorefErrorType.INVALID_CLUSTER_START);
-				continue;
-			}
-//			else if(goldRoot==null) {
-//				// Mention is in wrong cluster (gold mention starts
-//				// a new cluster)
-//				errors.put(span, CorefErrorType.FOREIGN_CLUSTER_HEAD);
-//				continue;
-//			}
-
-			Span head = headLut.get(span);
-
-			if(!goldLut.contains(head)) {
-				// Head span is unknown to the gold set
-				errors.put(span, CorefErrorType.HALLUCINATED_HEAD);
-				continue;
-			}
-
-			int goldSourceId = goldClusterIds.get(head);
-			int goldTargetId = goldClusterIds.get(span);
-
-			if(goldSourceId==goldTargetId) {
-				// Both source and target are located in the same
-				// cluster respectively
-				// -> true positive
-				continue;
-			}
-
-//			if(ClassUtils.equals(head, goldHead)) {
-//				// Same head in both predicted and gold allocation
-//				// -> true positive
-//				continue;
-//			}
-
-			errors.put(span, CorefErrorType.FOREIGN_CLUSTER_HEAD);
-		}
-
-		// Now collect false negatives
-		goldLut.removeAll(spanLut);
-		for(Span span : goldLut) {
-			errors.put(span, CorefErrorType.FALSE_NEGATIVE_MENTION);
-		}
-
-//		for(Iterator<Edge> it = goldEdges.iterator(); it.hasNext();) {
-//			Edge edge = it.next();
-//
-//			if(!goldLut.contains(edge.getSource())
-//					|| !goldLut.contains(edge.getTarget())) {
-//				it.remove();
-//			}
-//		}
 		goldEdges.removeAll(edges);
 
-		CorefComparison result = new CorefComparison();
-		result.setEdgeSet(edgeSet);
 		result.setGoldSet(goldSet);
-		result.setSpans(spanLut);
 		result.setGoldSpans(goldLut);
-		result.setErrors(errors);
-		result.setEdges(edges);
 		result.setGoldEdges(goldEdges);
-		result.setRootMap(rootLut);
-		result.setGoldRootMap(goldRootLut);
 
 		return result;
 	}
@@ -0,0 +1,150 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.coref;
+
+import de.ims.icarus.language.LanguageConstants;
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+/**
+ * Immutable and int-indexed view on the span structure of a single
+ * document under a given allocation. Each span is addressed by its
+ * position within the {@link SpanSet} and the head edges are resolved
+ * to plain parent indices once during compilation, so instances can be
+ * shared read-only between any number of search workers.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public final class SpanTree {
+
+	private final SpanSet spanSet;
+	private final EdgeSet edgeSet;
+	private final int edgeCount;
+
+	private final Span[] spans;
+	private final Edge[] headEdges;
+	private final int[] heads;
+
+	private SpanTree(SpanSet spanSet, EdgeSet edgeSet) {
+		this.spanSet = spanSet;
+		this.edgeSet = edgeSet;
+
+		int size = spanSet==null ? 0 : spanSet.size();
+		edgeCount = edgeSet==null ? 0 : edgeSet.size();
+
+		spans = new Span[size];
+		headEdges = new Edge[size];
+		heads = new int[size];
+
+		// Generate reverse lookup for span indices
+		TObjectIntMap<Span> indexMap = new TObjectIntHashMap<>(Math.max(10, size*2));
+		for(int i=0; i<size; i++) {
+			Span span = spanSet.get(i);
+			spans[i] = span;
+			indexMap.put(span, i);
+		}
+
+		// Generate head lookup
+		for(int i=0; i<edgeCount; i++) {
+			Edge edge = edgeSet.get(i);
+			// TODO right now we ignore the virtual edge from the generic doc root!
+			if(edge.getSource().isROOT()) {
+				continue;
+			}
+
+			headEdges[indexMap.get(edge.getTarget())] = edge;
+		}
+
+		for(int i=0; i<size; i++) {
+			int head = LanguageConstants.DATA_HEAD_ROOT;
+			Edge edge = headEdges[i];
+
+			if(edge!=null) {
+				Span parent = edge.getSource();
+				if(!parent.isROOT()) {
+					head = indexMap.get(parent);
+				}
+			}
+
+			heads[i] = head;
+		}
+	}
+
+	public static SpanTree compile(DocumentData document, CoreferenceAllocation allocation) {
+		if(document==null)
+			throw new NullPointerException("Invalid document"); //$NON-NLS-1$
+
+		return new SpanTree(CoreferenceUtils.getSpanSet(document, allocation),
+				CoreferenceUtils.getEdgeSet(document, allocation));
+	}
+
+	/**
+	 * Returns {@code true} if this tree still reflects the span and edge
+	 * sets the given document currently uses under {@code allocation}.
+	 */
+	public boolean isValid(DocumentData document, CoreferenceAllocation allocation) {
+		SpanSet currentSpans = CoreferenceUtils.getSpanSet(document, allocation);
+		EdgeSet currentEdges = CoreferenceUtils.getEdgeSet(document, allocation);
+
+		return currentSpans==spanSet && currentEdges==edgeSet
+				&& size()==(spanSet==null ? 0 : spanSet.size())
+				&& edgeCount==(edgeSet==null ? 0 : edgeSet.size());
+	}
+
+	public int size() {
+		return spans.length;
+	}
+
+	public Span getSpan(int index) {
+		return spans[index];
+	}
+
+	/**
+	 * Returns the index of the parent span or {@link LanguageConstants#DATA_HEAD_ROOT}
+	 * if the span at the given index is attached to the document root.
+	 */
+	public int getHead(int index) {
+		return heads[index];
+	}
+
+	/**
+	 * Returns the edge pointing to the span at the given index or {@code null}
+	 * if there is no such edge (or it originates from the document root).
+	 */
+	public Edge getHeadEdge(int index) {
+		return headEdges[index];
+	}
+
+	public SpanSet getSpanSet() {
+		return spanSet;
+	}
+
+	public EdgeSet getEdgeSet() {
+		return edgeSet;
+	}
+}
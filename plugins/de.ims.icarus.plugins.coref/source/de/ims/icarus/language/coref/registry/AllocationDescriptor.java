@@ -42,6 +42,7 @@ import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import org.java.plugin.registry.Extension;
 
 import de.ims.icarus.io.Loadable;
+import de.ims.icarus.language.coref.CorefEvaluator;
 import de.ims.icarus.language.coref.CoreferenceAllocation;
 import de.ims.icarus.language.coref.io.AllocationReader;
 import de.ims.icarus.logging.LoggerFactory;
@@ -174,6 +175,9 @@ public class AllocationDescriptor implements Loadable,
 
 			//TODO is it save to force loaded state after error?
 			loaded.set(true);
+
+			// Comparisons made while loading saw an incomplete allocation
+			CorefEvaluator.invalidate(getAllocation());
 		}
 	}
 
@@ -261,6 +265,7 @@ public class AllocationDescriptor implements Loadable,
 	public void free() {
 		try {
 			getAllocation().free();
+			CorefEvaluator.invalidate(getAllocation());
 		} finally {
 			loaded.set(false);
 		}
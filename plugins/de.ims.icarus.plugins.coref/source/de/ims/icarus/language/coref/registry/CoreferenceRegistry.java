@@ -58,7 +58,9 @@ import de.ims.icarus.Core;
 import de.ims.icarus.Core.NamedRunnable;
 import de.ims.icarus.io.IOUtil;
 import de.ims.icarus.language.coref.CoreferenceAllocation;
+import de.ims.icarus.language.coref.DocumentData;
 import de.ims.icarus.language.coref.DocumentSet;
+import de.ims.icarus.language.coref.SpanTree;
 import de.ims.icarus.logging.LoggerFactory;
 import de.ims.icarus.plugins.PluginUtil;
 import de.ims.icarus.plugins.coref.CoreferencePlugin;
@@ -72,6 +74,7 @@ import de.ims.icarus.ui.events.Events;
 import de.ims.icarus.ui.events.WeakEventSource;
 import de.ims.icarus.ui.tasks.TaskManager;
 import de.ims.icarus.ui.tasks.TaskPriority;
+import de.ims.icarus.util.cache.UnboundedCache;
 import de.ims.icarus.util.location.Location;
 import de.ims.icarus.util.strings.StringUtil;
 import de.ims.icarus.xml.jaxb.JAXBUtils;
@@ -114,6 +117,9 @@ public final class CoreferenceRegistry {
 
 	private Map<DocumentSetDescriptor, AllocationDescriptor> defaultAllocationDescriptors;
 
+	// Compiled span trees, weakly bound to their documents
+	private final Map<DocumentData, UnboundedCache<CoreferenceAllocation, SpanTree>> spanTreeCache = new WeakHashMap<>();
+
 	public static final Object dummyEntry = "-"; //$NON-NLS-1$
 
 	private CoreferenceRegistry() {
@@ -181,6 +187,34 @@ public final class CoreferenceRegistry {
 		return alloc;
 	}
 
+	/**
+	 * Returns the compiled {@link SpanTree} for the given document and
+	 * allocation. Trees are shared between all callers and only rebuilt
+	 * when the underlying span or edge sets changed or the cached tree
+	 * got reclaimed by the garbage collector.
+	 */
+	public SpanTree getSpanTree(DocumentData document, CoreferenceAllocation allocation) {
+		if(document==null)
+			throw new NullPointerException("Invalid document"); //$NON-NLS-1$
+
+		UnboundedCache<CoreferenceAllocation, SpanTree> cache;
+		synchronized (spanTreeCache) {
+			cache = spanTreeCache.get(document);
+			if(cache==null) {
+				cache = new UnboundedCache<>();
+				spanTreeCache.put(document, cache);
+			}
+		}
+
+		SpanTree tree = cache.getItem(allocation);
+		if(tree==null || !tree.isValid(document, allocation)) {
+			tree = SpanTree.compile(document, allocation);
+			cache.addItem(allocation, tree);
+		}
+
+		return tree;
+	}
+
 	public ListModel<DocumentSetDescriptor> getDocumentSetListModel() {
 		if(documentListModel==null) {
 			synchronized (this) {
@@ -43,11 +43,11 @@ import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 
 import de.ims.icarus.language.coref.CorefComparison;
+import de.ims.icarus.language.coref.CorefEvaluator;
 import de.ims.icarus.language.coref.CoreferenceAllocation;
 import de.ims.icarus.language.coref.CoreferenceData;
 import de.ims.icarus.language.coref.CoreferenceUtils;
 import de.ims.icarus.language.coref.DocumentData;
-import de.ims.icarus.language.coref.EdgeSet;
 import de.ims.icarus.language.coref.Span;
 import de.ims.icarus.language.coref.annotation.CoreferenceDocumentAnnotationManager;
 import de.ims.icarus.language.coref.annotation.CoreferenceDocumentHighlighting;
@@ -505,14 +505,8 @@ public class CoreferenceDocument extends BatchDocument {
 			appendBatchDocumentHeader(data);
 		}
 
-		EdgeSet edgeSet = CoreferenceUtils.getEdgeSet(data, allocation);
-		EdgeSet goldSet = CoreferenceUtils.getGoldEdgeSet(data, goldAllocation);
-
-		if(edgeSet==null) {
-			edgeSet = CoreferenceUtils.defaultEmptyEdgeSet;
-		}
-
-		CorefComparison comparison = CoreferenceUtils.compare(edgeSet, goldSet, filterSingletons);
+		CorefComparison comparison = CorefEvaluator.compare(data, allocation,
+				goldAllocation, filterSingletons);
 
 //		cacheSpans(edgeSet, goldSet);
 
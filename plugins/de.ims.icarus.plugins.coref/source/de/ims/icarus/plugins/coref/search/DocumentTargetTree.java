@@ -31,18 +31,14 @@ import de.ims.icarus.language.coref.CoreferenceData;
 import de.ims.icarus.language.coref.CoreferenceUtils;
 import de.ims.icarus.language.coref.DocumentData;
 import de.ims.icarus.language.coref.Edge;
-import de.ims.icarus.language.coref.EdgeSet;
 import de.ims.icarus.language.coref.Span;
-import de.ims.icarus.language.coref.SpanSet;
+import de.ims.icarus.language.coref.SpanTree;
+import de.ims.icarus.language.coref.registry.CoreferenceRegistry;
 import de.ims.icarus.plugins.coref.CorefConstants;
 import de.ims.icarus.search_tools.tree.AbstractTargetTree;
 import de.ims.icarus.search_tools.tree.CompactTree;
 import de.ims.icarus.util.CorruptedStateException;
 import de.ims.icarus.util.Options;
-import gnu.trove.map.TIntObjectMap;
-import gnu.trove.map.TObjectIntMap;
-import gnu.trove.map.hash.TIntObjectHashMap;
-import gnu.trove.map.hash.TObjectIntHashMap;
 
 /**
  * @author Markus Gärtner
@@ -51,11 +47,7 @@ import gnu.trove.map.hash.TObjectIntHashMap;
  */
 public class DocumentTargetTree extends AbstractTargetTree<DocumentData> implements CorefConstants {
 
-	protected SpanSet spanSet;
-	protected EdgeSet edgeSet;
-	//protected Edge[] headMap;
-	protected TObjectIntMap<Span> indexMap;
-	protected TIntObjectMap<Edge> headMap;
+	protected SpanTree spanTree;
 
 	protected CompactTree tree;
 
@@ -72,67 +64,14 @@ public class DocumentTargetTree extends AbstractTargetTree<DocumentData> impleme
 	public void close() {
 		super.close();
 
-		spanSet = null;
-		edgeSet = null;
-		headMap = null;
-		indexMap = null;
+		spanTree = null;
 	}
 
 	@Override
 	protected void prepare(Options options) {
-		// Fetch span and edge information
+		// Fetch compiled span and edge information
 		CoreferenceAllocation allocation = (CoreferenceAllocation) options.get("allocation"); //$NON-NLS-1$
-		spanSet = CoreferenceUtils.getSpanSet(data, allocation);
-		edgeSet = CoreferenceUtils.getEdgeSet(data, allocation);
-
-		// Generate reverse lookup for span indices
-		if(indexMap==null) {
-			indexMap = new TObjectIntHashMap<>();
-		} else {
-			indexMap.clear();
-		}
-
-		int size = fetchSize();
-
-		for(int i=0; i<size; i++) {
-			indexMap.put(spanSet.get(i), i);
-		}
-
-		// Generate head lookup
-//		if(headMap==null || headMap.length<size) {
-//			headMap = new Edge[spanSet.size()];
-//		} else {
-//			Arrays.fill(headMap, 0, Math.max(0, size-1), null);
-//		}
-		if(headMap==null) {
-			headMap = new TIntObjectHashMap<>();
-		} else {
-			headMap.clear();
-		}
-
-		if(edgeSet==null) {
-			return;
-		}
-
-//		for(int i=0; i<edgeSet.size(); i++) {
-//			Edge edge = edgeSet.get(i);
-//			// TODO right now we ignore the virtual edge from the generic doc root!
-//			if(!edge.getSource().isROOT()) {
-//				headMap[indexMap.get(edge.getTarget())] = edge;
-//			}
-//		}
-
-		for(int i=0; i<edgeSet.size(); i++) {
-			Edge edge = edgeSet.get(i);
-			// TODO right now we ignore the virtual edge from the generic doc root!
-			if(edge.getSource().isROOT()) {
-				continue;
-			}
-
-			int index = indexMap.get(edge.getTarget());
-
-			headMap.put(index, edge);
-		}
+		spanTree = CoreferenceRegistry.getInstance().getSpanTree(data, allocation);
 	}
 
 	/**
@@ -140,7 +79,7 @@ public class DocumentTargetTree extends AbstractTargetTree<DocumentData> impleme
 	 */
 	@Override
 	protected int fetchSize() {
-		return spanSet==null ? 0 : spanSet.size();
+		return spanTree==null ? 0 : spanTree.size();
 	}
 
 	/**
@@ -148,17 +87,7 @@ public class DocumentTargetTree extends AbstractTargetTree<DocumentData> impleme
 	 */
 	@Override
 	protected int fetchHead(int index) {
-		int head = LanguageConstants.DATA_HEAD_ROOT;
-		Edge edge = headMap.get(index);
-
-		if(edge!=null) {
-			Span parent = edge.getSource();
-			if(!parent.isROOT()) {
-				head = indexMap.get(parent);
-			}
-		}
-
-		return head;
+		return spanTree.getHead(index);
 	}
 
 	// Coreference data access methods
@@ -169,7 +98,7 @@ public class DocumentTargetTree extends AbstractTargetTree<DocumentData> impleme
 		if(nodePointer==-1)
 			throw new IllegalStateException("Current scope is not on a node"); //$NON-NLS-1$
 
-		return spanSet.get(nodePointer);
+		return spanTree.getSpan(nodePointer);
 	}
 
 	public boolean isVirtual() {
@@ -199,7 +128,7 @@ public class DocumentTargetTree extends AbstractTargetTree<DocumentData> impleme
 	public Object getSpanProperty(String key) {
 		switch (key) {
 		case INDEX_KEY:
-			return indexMap.get(getSpan());
+			return nodePointer;
 
 		default:
 			return getSpan().getProperty(key);
@@ -214,7 +143,7 @@ public class DocumentTargetTree extends AbstractTargetTree<DocumentData> impleme
 		if(nodePointer==-1)
 			throw new CorruptedStateException("Scope on edge but node pointer cleared"); //$NON-NLS-1$
 
-		Edge edge = headMap.get(nodePointer);
+		Edge edge = spanTree.getHeadEdge(nodePointer);
 
 		if(edge==null)
 			throw new CorruptedStateException("Current node has no head edge"); //$NON-NLS-1$
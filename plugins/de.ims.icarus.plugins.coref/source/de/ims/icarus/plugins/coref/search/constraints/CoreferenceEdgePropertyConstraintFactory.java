@@ -106,6 +106,11 @@ public class CoreferenceEdgePropertyConstraintFactory extends AbstractConstraint
 			return ((DocumentTargetTree)value).getEdgeProperty(getKey()).toString().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((DocumentTargetTree)value).getEdgeProperty(getKey()).toString();
+		}
+
 		@Override
 		public CoreferenceEdgePropertyIConstraint clone() {
 			return new CoreferenceEdgePropertyIConstraint(getValue(), getOperator(), getSpecifier());
@@ -107,6 +107,11 @@ public class CoreferenceHeadPropertyConstraintFactory extends AbstractConstraint
 			return ((DocumentTargetTree)value).getHeadProperty(getKey()).toString().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((DocumentTargetTree)value).getHeadProperty(getKey()).toString();
+		}
+
 		@Override
 		public CoreferenceHeadPropertyIConstraint clone() {
 			return new CoreferenceHeadPropertyIConstraint(getValue(), getOperator(), getSpecifier());
@@ -106,6 +106,11 @@ public class CoreferenceSpanPropertyConstraintFactory extends AbstractConstraint
 			return ((DocumentTargetTree)value).getSpanProperty(getKey()).toString().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((DocumentTargetTree)value).getSpanProperty(getKey()).toString();
+		}
+
 		@Override
 		public CoreferenceSpanPropertyIConstraint clone() {
 			return new CoreferenceSpanPropertyIConstraint(getValue(), getOperator(), getSpecifier());
@@ -106,6 +106,11 @@ public class CoreferenceWordPropertyConstraintFactory extends AbstractConstraint
 			return ((DocumentTargetTree)value).getSentenceProperties(getKey()).toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((DocumentTargetTree)value).getSentenceProperties(getKey());
+		}
+
 		@Override
 		public CoreferenceWordPropertyIConstraint clone() {
 			return new CoreferenceWordPropertyIConstraint(getValue(), getOperator(), getSpecifier());
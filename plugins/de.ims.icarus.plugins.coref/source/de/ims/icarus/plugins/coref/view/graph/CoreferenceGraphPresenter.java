@@ -56,13 +56,13 @@ import de.ims.icarus.config.ConfigDelegate;
 import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.language.coref.CorefComparison;
 import de.ims.icarus.language.coref.CorefErrorType;
+import de.ims.icarus.language.coref.CorefEvaluator;
 import de.ims.icarus.language.coref.CorefMember;
 import de.ims.icarus.language.coref.CoreferenceAllocation;
 import de.ims.icarus.language.coref.CoreferenceData;
 import de.ims.icarus.language.coref.CoreferenceUtils;
 import de.ims.icarus.language.coref.DocumentData;
 import de.ims.icarus.language.coref.Edge;
-import de.ims.icarus.language.coref.EdgeSet;
 import de.ims.icarus.language.coref.Span;
 import de.ims.icarus.language.coref.annotation.CoreferenceDocumentAnnotationManager;
 import de.ims.icarus.language.coref.helper.SpanFilters;
@@ -581,22 +581,11 @@ public class CoreferenceGraphPresenter extends GraphPresenter implements Install
 				return;
 			}
 
-			EdgeSet edgeSet = CoreferenceUtils.getEdgeSet(document, allocation);
-			EdgeSet goldSet = CoreferenceUtils.getGoldEdgeSet(document, goldAllocation);
-
-			if(edgeSet==null) {
-				edgeSet = CoreferenceUtils.defaultEmptyEdgeSet;
-			}
-
-			// Clear gold set if it is the same as the one displayed
-			if(edgeSet==goldSet) {
-				goldSet = null;
-			}
-
 			Map<Span, Object> cellMap = new HashMap<>();
 			Object parent = graph.getDefaultParent();
 
-			CorefComparison comparison = CoreferenceUtils.compare(edgeSet, goldSet, isFilterSingletons());
+			CorefComparison comparison = CorefEvaluator.compare(document, allocation,
+					goldAllocation, isFilterSingletons());
 
 //			cache.clear();
 //			cache.cacheEdges(comparison.getEdgeSet().getEdges());
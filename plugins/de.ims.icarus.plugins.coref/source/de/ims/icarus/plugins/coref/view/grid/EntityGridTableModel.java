@@ -43,11 +43,11 @@ import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.language.coref.Cluster;
 import de.ims.icarus.language.coref.CorefComparison;
 import de.ims.icarus.language.coref.CorefErrorType;
+import de.ims.icarus.language.coref.CorefEvaluator;
 import de.ims.icarus.language.coref.CoreferenceAllocation;
 import de.ims.icarus.language.coref.CoreferenceData;
 import de.ims.icarus.language.coref.CoreferenceUtils;
 import de.ims.icarus.language.coref.DocumentData;
-import de.ims.icarus.language.coref.EdgeSet;
 import de.ims.icarus.language.coref.Span;
 import de.ims.icarus.language.coref.annotation.CoreferenceDocumentAnnotationManager;
 import de.ims.icarus.language.coref.annotation.CoreferenceDocumentHighlighting;
@@ -194,16 +194,11 @@ public class EntityGridTableModel extends AbstractTableModel implements Installa
 		if(document==null)
 			return;
 
-		// Fetch edge sets
-		EdgeSet edgeSet = CoreferenceUtils.getEdgeSet(document, allocation);
-		if(edgeSet==null)
+		if(CoreferenceUtils.getEdgeSet(document, allocation)==null)
 			return;
-		EdgeSet goldSet = CoreferenceUtils.getGoldEdgeSet(document, goldAllocation);
-		if(edgeSet==goldSet) {
-			goldSet = null;
-		}
 
-		CorefComparison comparison = CoreferenceUtils.compare(edgeSet, goldSet, filterSingletons);
+		CorefComparison comparison = CorefEvaluator.compare(document, allocation,
+				goldAllocation, filterSingletons);
 
 //		if(cache==null) {
 //			cache = new SpanCache();
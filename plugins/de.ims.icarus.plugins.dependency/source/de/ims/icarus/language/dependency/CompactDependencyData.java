@@ -0,0 +1,409 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.dependency;
+
+import java.io.ObjectStreamException;
+
+import de.ims.icarus.language.Grammar;
+import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.language.LanguageUtils;
+import de.ims.icarus.language.SymbolEncodedSentenceData;
+import de.ims.icarus.language.SymbolTable;
+import de.ims.icarus.util.mem.HeapMember;
+import de.ims.icarus.util.mem.Link;
+import de.ims.icarus.util.mem.Primitive;
+
+/**
+ * Dependency sentence that keeps its string annotations as ids into a
+ * corpus wide {@link Symbols} set. All five string columns are stored
+ * in a single {@code int} array (one block of {@link #length()} entries
+ * per column), heads and flags are kept in primitive arrays as well.
+ * <p>
+ * Serialization replaces instances with an equivalent
+ * {@link SimpleDependencyData} so that the symbol tables are not
+ * written out with every single sentence.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+@HeapMember
+public class CompactDependencyData implements DependencySentenceData,
+		SymbolEncodedSentenceData, LanguageConstants, Cloneable {
+
+	private static final long serialVersionUID = 2876398706236813232L;
+
+	private static final int FORM_COL = 0;
+	private static final int LEMMA_COL = 1;
+	private static final int FEATURES_COL = 2;
+	private static final int POS_COL = 3;
+	private static final int RELATION_COL = 4;
+
+	private static final int COLUMN_COUNT = 5;
+
+	@Primitive
+	private final int index;
+
+	@Primitive
+	private final int size;
+
+	@Link
+	private final Symbols symbols;
+
+	@Link
+	private final int[] ids;
+
+	@Link
+	private final short[] heads;
+
+	@Link
+	private final long[] flags;
+
+	public CompactDependencyData(int index, Symbols symbols, int[] ids,
+			short[] heads, long[] flags) {
+		if(symbols==null)
+			throw new NullPointerException("Invalid symbols"); //$NON-NLS-1$
+		if(ids==null)
+			throw new NullPointerException("Invalid ids"); //$NON-NLS-1$
+		if(heads==null)
+			throw new NullPointerException("Invalid heads"); //$NON-NLS-1$
+		if(ids.length!=heads.length*COLUMN_COUNT)
+			throw new IllegalArgumentException("Id array does not match sentence length"); //$NON-NLS-1$
+
+		this.index = index;
+		this.symbols = symbols;
+		this.ids = ids;
+		this.heads = heads;
+		this.flags = flags;
+
+		size = heads.length;
+	}
+
+	/**
+	 * Creates a new buffer suitable for storing the symbol ids of
+	 * a sentence with the given length.
+	 */
+	public static int[] createIdBuffer(int size) {
+		return new int[size*COLUMN_COUNT];
+	}
+
+	public static void setIds(int[] ids, int size, int index, int form,
+			int lemma, int features, int pos, int relation) {
+		ids[FORM_COL*size+index] = form;
+		ids[LEMMA_COL*size+index] = lemma;
+		ids[FEATURES_COL*size+index] = features;
+		ids[POS_COL*size+index] = pos;
+		ids[RELATION_COL*size+index] = relation;
+	}
+
+	private static int getColumn(String key) {
+		switch (key) {
+		case FORM_KEY: return FORM_COL;
+		case LEMMA_KEY: return LEMMA_COL;
+		case FEATURES_KEY: return FEATURES_COL;
+		case POS_KEY: return POS_COL;
+		case DEPREL_KEY: return RELATION_COL;
+
+		default:
+			return -1;
+		}
+	}
+
+	private int id(int column, int index) {
+		if(index<0 || index>=size)
+			throw new IndexOutOfBoundsException("Index "+index+" out of bounds for length "+size); //$NON-NLS-1$ //$NON-NLS-2$
+
+		return ids[column*size+index];
+	}
+
+	public Symbols getSymbols() {
+		return symbols;
+	}
+
+	/**
+	 * @see de.ims.icarus.language.SymbolEncodedSentenceData#getSymbolTable(java.lang.String)
+	 */
+	@Override
+	public SymbolTable getSymbolTable(String key) {
+		return symbols.getTable(key);
+	}
+
+	/**
+	 * @see de.ims.icarus.language.SymbolEncodedSentenceData#getSymbolId(int, java.lang.String)
+	 */
+	@Override
+	public int getSymbolId(int index, String key) {
+		int column = getColumn(key);
+		return column==-1 ? SymbolTable.UNKNOWN_ID : id(column, index);
+	}
+
+	@Override
+	public String getForm(int index) {
+		return symbols.forms.getSymbol(id(FORM_COL, index));
+	}
+
+	@Override
+	public String getLemma(int index) {
+		return symbols.lemmas.getSymbol(id(LEMMA_COL, index));
+	}
+
+	@Override
+	public String getFeatures(int index) {
+		return symbols.features.getSymbol(id(FEATURES_COL, index));
+	}
+
+	@Override
+	public String getPos(int index) {
+		return symbols.poss.getSymbol(id(POS_COL, index));
+	}
+
+	@Override
+	public String getRelation(int index) {
+		return symbols.relations.getSymbol(id(RELATION_COL, index));
+	}
+
+	@Override
+	public int getHead(int index) {
+		return heads[index];
+	}
+
+	@Override
+	public boolean isFlagSet(int index, long flag) {
+		return flags!=null && (flags[index] & flag)==flag;
+	}
+
+	@Override
+	public long getFlags(int index) {
+		return flags==null ? 0 : flags[index];
+	}
+
+	@Override
+	public Object getProperty(int index, String key) {
+		switch (key) {
+
+		case FORM_KEY:
+			return getForm(index);
+
+		case LEMMA_KEY:
+			return getLemma(index);
+
+		case DEPREL_KEY:
+			return getRelation(index);
+
+		case HEAD_KEY:
+			return getHead(index);
+
+		case POS_KEY:
+			return getPos(index);
+
+		case FEATURES_KEY:
+			return getFeatures(index);
+
+		case FLAGS_KEY:
+			return getFlags(index);
+
+		case INDEX_KEY:
+			return index;
+
+		case SIZE_KEY:
+		case LENGTH_KEY:
+			return getForm(index).length();
+
+		default:
+			return null;
+		}
+	}
+
+	@Override
+	public Object getProperty(String key) {
+		switch (key) {
+		case SIZE_KEY:
+			return length();
+
+		case INDEX_KEY:
+			return getIndex();
+
+		default:
+			return null;
+		}
+	}
+
+	@Override
+	public int getIndex() {
+		return index;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	@Override
+	public int length() {
+		return size;
+	}
+
+	@Override
+	public Grammar getSourceGrammar() {
+		return null;
+	}
+
+	@Override
+	public String getText() {
+		return LanguageUtils.combine(this);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(200);
+
+		for (int i = 0; i < size; i++) {
+			sb.append(i + 1).append(": ").append(getForm(i)).append(" ").append( //$NON-NLS-1$ //$NON-NLS-2$
+					LanguageUtils.getHeadLabel(heads[i])).append(" ").append( //$NON-NLS-1$
+					getPos(i)).append(" ").append(getRelation(i)).append(" ").append( //$NON-NLS-1$ //$NON-NLS-2$
+					getLemma(i)).append(" ").append(getFeatures(i)); //$NON-NLS-1$
+			if (i < size - 1)
+				sb.append("\n"); //$NON-NLS-1$
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * Instances are immutable, so there is no need for an actual copy.
+	 *
+	 * @see de.ims.icarus.language.SentenceData#clone()
+	 */
+	@Override
+	public CompactDependencyData clone() {
+		return this;
+	}
+
+	private Object writeReplace() throws ObjectStreamException {
+		return new SimpleDependencyData(this);
+	}
+
+	/**
+	 * Set of symbol tables shared by all sentences of a single corpus.
+	 * Instances are safe to be used by multiple reader threads.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public static class Symbols {
+
+		private final SymbolTable forms = new SymbolTable(FORM_KEY);
+		private final SymbolTable lemmas = new SymbolTable(LEMMA_KEY);
+		private final SymbolTable features = new SymbolTable(FEATURES_KEY);
+		private final SymbolTable poss = new SymbolTable(POS_KEY);
+		private final SymbolTable relations = new SymbolTable(DEPREL_KEY);
+
+		public SymbolTable getTable(String key) {
+			switch (key) {
+			case FORM_KEY: return forms;
+			case LEMMA_KEY: return lemmas;
+			case FEATURES_KEY: return features;
+			case POS_KEY: return poss;
+			case DEPREL_KEY: return relations;
+
+			default:
+				return null;
+			}
+		}
+
+		/**
+		 * Creates a new cache for adding values from a single thread.
+		 */
+		public SymbolCache createCache() {
+			return new SymbolCache(this);
+		}
+
+		/**
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append("Symbols[forms=").append(forms.size()) //$NON-NLS-1$
+			.append(" lemmas=").append(lemmas.size()) //$NON-NLS-1$
+			.append(" features=").append(features.size()) //$NON-NLS-1$
+			.append(" pos=").append(poss.size()) //$NON-NLS-1$
+			.append(" relations=").append(relations.size()).append(']'); //$NON-NLS-1$
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * Adds values to a {@link Symbols} set through one
+	 * {@link SymbolTable.Cache} per table. Must only be used by a
+	 * single thread at a time.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public static class SymbolCache {
+
+		private final Symbols symbols;
+
+		private final SymbolTable.Cache forms;
+		private final SymbolTable.Cache lemmas;
+		private final SymbolTable.Cache features;
+		private final SymbolTable.Cache poss;
+		private final SymbolTable.Cache relations;
+
+		public SymbolCache(Symbols symbols) {
+			if(symbols==null)
+				throw new NullPointerException("Invalid symbols"); //$NON-NLS-1$
+
+			this.symbols = symbols;
+
+			forms = new SymbolTable.Cache(symbols.forms);
+			lemmas = new SymbolTable.Cache(symbols.lemmas);
+			features = new SymbolTable.Cache(symbols.features);
+			poss = new SymbolTable.Cache(symbols.poss);
+			relations = new SymbolTable.Cache(symbols.relations);
+		}
+
+		public Symbols getSymbols() {
+			return symbols;
+		}
+
+		public SymbolTable.Cache getCache(String key) {
+			switch (key) {
+			case FORM_KEY: return forms;
+			case LEMMA_KEY: return lemmas;
+			case FEATURES_KEY: return features;
+			case POS_KEY: return poss;
+			case DEPREL_KEY: return relations;
+
+			default:
+				return null;
+			}
+		}
+	}
+}
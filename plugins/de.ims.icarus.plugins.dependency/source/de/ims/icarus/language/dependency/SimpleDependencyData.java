@@ -101,6 +101,7 @@ public class SimpleDependencyData extends BasicSentenceData<CompactProperties> i
 		poss = new String[size];
 		relations = new String[size];
 		heads = new short[size];
+		flags = new long[size];
 
 		for(int index=0; index<size; index++) {
 			lemmas[index] = source.getLemma(index);
@@ -0,0 +1,321 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.dependency.compiled;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.language.SentenceData;
+import de.ims.icarus.language.SymbolTable;
+import de.ims.icarus.language.UnsupportedSentenceDataException;
+import de.ims.icarus.language.dependency.DependencySentenceData;
+import de.ims.icarus.language.treebank.CompiledTreebank;
+import de.ims.icarus.language.treebank.CompiledTreebankFormat;
+
+/**
+ * Binary format for dependency treebanks that is designed to be mapped
+ * into memory and read without decoding. A file consists of
+ * <ol>
+ * <li>a fixed size header with format version, information on the
+ * source file and the positions of the remaining sections</li>
+ * <li>the id of the reader that parsed the source file</li>
+ * <li>one symbol table for each of the string columns form, lemma,
+ * features, pos and relation, storing each value together with its
+ * frequency</li>
+ * <li>an index table holding offset and length of every sentence</li>
+ * <li>the sentence records, each consisting of corpus index, length,
+ * flags, symbol ids (one block per column) and heads</li>
+ * </ol>
+ * Records never cross a {@link #SEGMENT_SIZE segment} boundary so that
+ * large files can be mapped in multiple parts.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class CompiledDependencyFormat implements CompiledTreebankFormat, LanguageConstants {
+
+	static final int MAGIC = 0x49435442; // "ICTB"
+	static final int VERSION = 2;
+
+	static final int HEADER_SIZE = 64;
+
+	static final int SEGMENT_SHIFT = 30;
+	static final long SEGMENT_SIZE = 1L<<SEGMENT_SHIFT;
+
+	/**
+	 * Size of a single entry in the index table (offset and length)
+	 */
+	static final int INDEX_ENTRY_SIZE = 12;
+
+	/**
+	 * Size of the fixed part of a sentence record (index and length)
+	 */
+	static final int RECORD_HEADER_SIZE = 8;
+
+	static final String[] COLUMNS = {
+		FORM_KEY,
+		LEMMA_KEY,
+		FEATURES_KEY,
+		POS_KEY,
+		DEPREL_KEY,
+	};
+
+	static final int FORM_COL = 0;
+	static final int LEMMA_COL = 1;
+	static final int FEATURES_COL = 2;
+	static final int POS_COL = 3;
+	static final int RELATION_COL = 4;
+
+	private static final CompiledDependencyFormat instance = new CompiledDependencyFormat();
+
+	public static CompiledDependencyFormat getInstance() {
+		return instance;
+	}
+
+	static int getColumn(String key) {
+		switch (key) {
+		case FORM_KEY: return FORM_COL;
+		case LEMMA_KEY: return LEMMA_COL;
+		case FEATURES_KEY: return FEATURES_COL;
+		case POS_KEY: return POS_COL;
+		case DEPREL_KEY: return RELATION_COL;
+
+		default:
+			return -1;
+		}
+	}
+
+	static int getRecordSize(int length) {
+		// index, length, flags, symbol ids and heads aligned to 8 bytes
+		int size = RECORD_HEADER_SIZE + length*8 + length*4*COLUMNS.length + length*2;
+		return (size+7) & ~7;
+	}
+
+	static String getValue(DependencySentenceData data, int column, int index) {
+		switch (column) {
+		case FORM_COL: return data.getForm(index);
+		case LEMMA_COL: return data.getLemma(index);
+		case FEATURES_COL: return data.getFeatures(index);
+		case POS_COL: return data.getPos(index);
+		case RELATION_COL: return data.getRelation(index);
+
+		default:
+			throw new IllegalArgumentException("Unknown column: "+column); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.language.treebank.CompiledTreebankFormat#write(java.nio.file.Path, java.nio.file.Path, java.lang.String, java.util.List)
+	 */
+	@Override
+	public void write(Path file, Path source, String readerId,
+			List<? extends SentenceData> items) throws IOException {
+
+		int columnCount = COLUMNS.length;
+		SymbolTable[] tables = new SymbolTable[columnCount];
+		int[][] frequencies = new int[columnCount][];
+		for(int col=0; col<columnCount; col++) {
+			tables[col] = new SymbolTable(COLUMNS[col]);
+			frequencies[col] = new int[256];
+		}
+
+		// First pass: collect symbols and compute layout
+		int count = items.size();
+		long[] offsets = new long[count];
+		long tokenCount = 0;
+		long offset = 0;
+
+		for(int i=0; i<count; i++) {
+			SentenceData item = items.get(i);
+			if(!(item instanceof DependencySentenceData))
+				throw new UnsupportedSentenceDataException("Unsupported data: "+item); //$NON-NLS-1$
+
+			DependencySentenceData data = (DependencySentenceData) item;
+			int length = data.length();
+			tokenCount += length;
+
+			for(int col=0; col<columnCount; col++) {
+				for(int j=0; j<length; j++) {
+					String value = getValue(data, col, j);
+					if(value==null) {
+						continue;
+					}
+					int id = tables[col].intern(value);
+					if(id>=frequencies[col].length) {
+						frequencies[col] = Arrays.copyOf(frequencies[col], frequencies[col].length*2);
+					}
+					frequencies[col][id]++;
+				}
+			}
+
+			int recordSize = getRecordSize(length);
+			if(recordSize>SEGMENT_SIZE)
+				throw new UnsupportedSentenceDataException("Sentence too long: "+length); //$NON-NLS-1$
+
+			// Do not let a record cross segment boundaries
+			long remaining = SEGMENT_SIZE - (offset & (SEGMENT_SIZE-1));
+			if(recordSize>remaining) {
+				offset += remaining;
+			}
+
+			offsets[i] = offset;
+			offset += recordSize;
+		}
+
+		long dataSize = offset;
+
+		// Second pass: write everything to a temporary file
+		Path tmp = file.resolveSibling(file.getFileName()+".tmp"); //$NON-NLS-1$
+		try(DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(tmp), 1<<16))) {
+
+			// Reader id and symbols are written after the header
+			ByteCounter counter = new ByteCounter();
+			try(DataOutputStream dummy = new DataOutputStream(counter)) {
+				dummy.writeUTF(readerId);
+				writeSymbols(dummy, tables, frequencies);
+			}
+
+			long symbolsPosition = HEADER_SIZE;
+			long indexPosition = symbolsPosition + counter.count;
+			long dataPosition = indexPosition + (long)count*INDEX_ENTRY_SIZE;
+			int padding = (int) ((8 - (dataPosition & 7)) & 7);
+			dataPosition += padding;
+
+			// Header
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(Files.size(source));
+			out.writeLong(Files.getLastModifiedTime(source).toMillis());
+			out.writeInt(count);
+			out.writeLong(tokenCount);
+			out.writeLong(indexPosition);
+			out.writeLong(dataPosition);
+			out.writeLong(dataSize);
+			while(out.size()<HEADER_SIZE) {
+				out.writeByte(0);
+			}
+
+			// Reader id and symbols
+			out.writeUTF(readerId);
+			writeSymbols(out, tables, frequencies);
+
+			// Index
+			for(int i=0; i<count; i++) {
+				out.writeLong(offsets[i]);
+				out.writeInt(items.get(i).length());
+			}
+			for(int i=0; i<padding; i++) {
+				out.writeByte(0);
+			}
+
+			// Records
+			long position = 0;
+			for(int i=0; i<count; i++) {
+				DependencySentenceData data = (DependencySentenceData) items.get(i);
+				int length = data.length();
+
+				while(position<offsets[i]) {
+					out.writeByte(0);
+					position++;
+				}
+
+				out.writeInt(data.getIndex());
+				out.writeInt(length);
+				for(int j=0; j<length; j++) {
+					out.writeLong(data.getFlags(j));
+				}
+				for(int col=0; col<columnCount; col++) {
+					for(int j=0; j<length; j++) {
+						out.writeInt(tables[col].lookup(getValue(data, col, j)));
+					}
+				}
+				for(int j=0; j<length; j++) {
+					out.writeShort(data.getHead(j));
+				}
+
+				int recordSize = getRecordSize(length);
+				int written = RECORD_HEADER_SIZE + length*(8 + 4*columnCount + 2);
+				for(int j=written; j<recordSize; j++) {
+					out.writeByte(0);
+				}
+				position += recordSize;
+			}
+		} catch(IOException | RuntimeException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void writeSymbols(DataOutputStream out, SymbolTable[] tables,
+			int[][] frequencies) throws IOException {
+		for(int col=0; col<tables.length; col++) {
+			SymbolTable table = tables[col];
+			int size = table.size();
+			out.writeInt(size);
+			for(int id=0; id<size; id++) {
+				out.writeInt(frequencies[col][id]);
+				out.writeUTF(table.getSymbol(id));
+			}
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.language.treebank.CompiledTreebankFormat#open(java.nio.file.Path, java.nio.file.Path, java.lang.String)
+	 */
+	@Override
+	public CompiledTreebank open(Path file, Path source, String readerId) throws IOException {
+		return MappedDependencyTreebank.open(file, source, readerId);
+	}
+
+	/**
+	 * Only counts the bytes written to it.
+	 */
+	private static class ByteCounter extends OutputStream {
+		long count = 0;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,245 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.dependency.compiled;
+
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.COLUMNS;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.FEATURES_COL;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.FORM_COL;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.LEMMA_COL;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.POS_COL;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.RECORD_HEADER_SIZE;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.RELATION_COL;
+
+import java.io.ObjectStreamException;
+import java.nio.ByteBuffer;
+
+import de.ims.icarus.language.Grammar;
+import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.language.LanguageUtils;
+import de.ims.icarus.language.SymbolEncodedSentenceData;
+import de.ims.icarus.language.SymbolTable;
+import de.ims.icarus.language.dependency.DependencySentenceData;
+import de.ims.icarus.language.dependency.SimpleDependencyData;
+
+/**
+ * Flyweight view on a single sentence record of a
+ * {@link MappedDependencyTreebank}. All accessor methods read directly
+ * from the mapped file, creating a view only costs a single small object.
+ * <p>
+ * Serialization replaces instances with an equivalent
+ * {@link SimpleDependencyData}.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class MappedDependencyData implements DependencySentenceData,
+		SymbolEncodedSentenceData, LanguageConstants {
+
+	private static final long serialVersionUID = -2197446569206287013L;
+
+	private final transient MappedDependencyTreebank treebank;
+	private final transient ByteBuffer buffer;
+	private final int offset;
+	private final int size;
+
+	MappedDependencyData(MappedDependencyTreebank treebank, ByteBuffer buffer, int offset) {
+		this.treebank = treebank;
+		this.buffer = buffer;
+		this.offset = offset;
+
+		size = buffer.getInt(offset+4);
+	}
+
+	private void checkIndex(int index) {
+		if(index<0 || index>=size)
+			throw new IndexOutOfBoundsException("Index "+index+" out of bounds for length "+size); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private int id(int column, int index) {
+		checkIndex(index);
+		return buffer.getInt(offset + RECORD_HEADER_SIZE + size*8 + (column*size+index)*4);
+	}
+
+	private String symbol(int column, int index) {
+		return treebank.getTable(column).getSymbol(id(column, index));
+	}
+
+	/**
+	 * @see de.ims.icarus.language.SymbolEncodedSentenceData#getSymbolTable(java.lang.String)
+	 */
+	@Override
+	public SymbolTable getSymbolTable(String key) {
+		int column = CompiledDependencyFormat.getColumn(key);
+		return column==-1 ? null : treebank.getTable(column);
+	}
+
+	/**
+	 * @see de.ims.icarus.language.SymbolEncodedSentenceData#getSymbolId(int, java.lang.String)
+	 */
+	@Override
+	public int getSymbolId(int index, String key) {
+		int column = CompiledDependencyFormat.getColumn(key);
+		return column==-1 ? SymbolTable.UNKNOWN_ID : id(column, index);
+	}
+
+	@Override
+	public String getForm(int index) {
+		return symbol(FORM_COL, index);
+	}
+
+	@Override
+	public String getLemma(int index) {
+		return symbol(LEMMA_COL, index);
+	}
+
+	@Override
+	public String getFeatures(int index) {
+		return symbol(FEATURES_COL, index);
+	}
+
+	@Override
+	public String getPos(int index) {
+		return symbol(POS_COL, index);
+	}
+
+	@Override
+	public String getRelation(int index) {
+		return symbol(RELATION_COL, index);
+	}
+
+	@Override
+	public int getHead(int index) {
+		checkIndex(index);
+		return buffer.getShort(offset + RECORD_HEADER_SIZE + size*(8+4*COLUMNS.length) + index*2);
+	}
+
+	@Override
+	public long getFlags(int index) {
+		checkIndex(index);
+		return buffer.getLong(offset + RECORD_HEADER_SIZE + index*8);
+	}
+
+	@Override
+	public boolean isFlagSet(int index, long flag) {
+		return (getFlags(index) & flag)==flag;
+	}
+
+	@Override
+	public Object getProperty(int index, String key) {
+		switch (key) {
+
+		case FORM_KEY:
+			return getForm(index);
+
+		case LEMMA_KEY:
+			return getLemma(index);
+
+		case DEPREL_KEY:
+			return getRelation(index);
+
+		case HEAD_KEY:
+			return getHead(index);
+
+		case POS_KEY:
+			return getPos(index);
+
+		case FEATURES_KEY:
+			return getFeatures(index);
+
+		case FLAGS_KEY:
+			return getFlags(index);
+
+		case INDEX_KEY:
+			return index;
+
+		case SIZE_KEY:
+		case LENGTH_KEY:
+			return getForm(index).length();
+
+		default:
+			return null;
+		}
+	}
+
+	@Override
+	public Object getProperty(String key) {
+		switch (key) {
+		case SIZE_KEY:
+			return length();
+
+		case INDEX_KEY:
+			return getIndex();
+
+		default:
+			return null;
+		}
+	}
+
+	@Override
+	public int getIndex() {
+		return buffer.getInt(offset);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size==0;
+	}
+
+	@Override
+	public int length() {
+		return size;
+	}
+
+	@Override
+	public Grammar getSourceGrammar() {
+		return null;
+	}
+
+	@Override
+	public String getText() {
+		return LanguageUtils.combine(this);
+	}
+
+	@Override
+	public String toString() {
+		return getText();
+	}
+
+	/**
+	 * Views are immutable, so there is no need for an actual copy.
+	 *
+	 * @see de.ims.icarus.language.SentenceData#clone()
+	 */
+	@Override
+	public MappedDependencyData clone() {
+		return this;
+	}
+
+	private Object writeReplace() throws ObjectStreamException {
+		return new SimpleDependencyData(this);
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.dependency.compiled;
+
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.COLUMNS;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.HEADER_SIZE;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.INDEX_ENTRY_SIZE;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.MAGIC;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.SEGMENT_SHIFT;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.SEGMENT_SIZE;
+import static de.ims.icarus.language.dependency.compiled.CompiledDependencyFormat.VERSION;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import de.ims.icarus.language.SymbolTable;
+import de.ims.icarus.language.treebank.CompiledTreebank;
+import de.ims.icarus.language.treebank.TreebankStatistics;
+
+/**
+ * Memory mapped view on a file written by {@link CompiledDependencyFormat}.
+ * Only the symbol tables are loaded onto the heap; sentences are handed
+ * out as lightweight {@link MappedDependencyData} views that read their
+ * content directly from the mapped file.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class MappedDependencyTreebank implements CompiledTreebank {
+
+	private final SymbolTable[] tables;
+	private final TreebankStatistics statistics;
+
+	private ByteBuffer index;
+	private ByteBuffer[] segments;
+
+	private final int size;
+
+	private MappedDependencyTreebank(SymbolTable[] tables, TreebankStatistics statistics,
+			ByteBuffer index, ByteBuffer[] segments, int size) {
+		this.tables = tables;
+		this.statistics = statistics;
+		this.index = index;
+		this.segments = segments;
+		this.size = size;
+	}
+
+	/**
+	 * Maps the given file into memory. Returns {@code null} if the file
+	 * does not exist, if it is out of date with respect to the given
+	 * {@code source} file or if it was written for another reader.
+	 */
+	public static MappedDependencyTreebank open(Path file, Path source, String readerId) throws IOException {
+		if(!Files.exists(file) || !Files.exists(source)) {
+			return null;
+		}
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// Header and symbols are read sequentially
+			DataInputStream in = new DataInputStream(
+					new BufferedInputStream(Channels.newInputStream(channel), 1<<16));
+
+			if(in.readInt()!=MAGIC || in.readInt()!=VERSION) {
+				return null;
+			}
+			if(in.readLong()!=Files.size(source)
+					|| in.readLong()!=Files.getLastModifiedTime(source).toMillis()) {
+				return null;
+			}
+
+			int size = in.readInt();
+			long tokenCount = in.readLong();
+			long indexPosition = in.readLong();
+			long dataPosition = in.readLong();
+			long dataSize = in.readLong();
+
+			in.skipBytes(HEADER_SIZE-60);
+
+			if(!readerId.equals(in.readUTF())) {
+				return null;
+			}
+
+			TreebankStatistics statistics = new TreebankStatistics();
+			statistics.addTokenCount(tokenCount);
+
+			SymbolTable[] tables = new SymbolTable[COLUMNS.length];
+			for(int col=0; col<COLUMNS.length; col++) {
+				String key = COLUMNS[col];
+				int symbolCount = in.readInt();
+				SymbolTable table = new SymbolTable(key, Math.max(1, symbolCount));
+				for(int id=0; id<symbolCount; id++) {
+					int frequency = in.readInt();
+					String symbol = in.readUTF();
+					table.intern(symbol);
+					statistics.add(key, symbol, frequency);
+				}
+				tables[col] = table;
+			}
+			statistics.compact();
+
+			if(channel.size()<dataPosition+dataSize)
+				throw new IOException("Compiled treebank file is truncated: "+file); //$NON-NLS-1$
+
+			ByteBuffer index = channel.map(MapMode.READ_ONLY, indexPosition,
+					(long)size*INDEX_ENTRY_SIZE);
+
+			int segmentCount = (int) ((dataSize+SEGMENT_SIZE-1)>>>SEGMENT_SHIFT);
+			ByteBuffer[] segments = new ByteBuffer[segmentCount];
+			for(int i=0; i<segmentCount; i++) {
+				long offset = (long)i<<SEGMENT_SHIFT;
+				segments[i] = channel.map(MapMode.READ_ONLY, dataPosition+offset,
+						Math.min(SEGMENT_SIZE, dataSize-offset));
+			}
+
+			// Mappings stay valid after the channel has been closed
+			return new MappedDependencyTreebank(tables, statistics, index, segments, size);
+		}
+	}
+
+	SymbolTable getTable(int column) {
+		return tables[column];
+	}
+
+	/**
+	 * @see de.ims.icarus.language.treebank.CompiledTreebank#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private ByteBuffer getIndex() {
+		ByteBuffer index = this.index;
+		if(index==null)
+			throw new IllegalStateException("Treebank already closed"); //$NON-NLS-1$
+		return index;
+	}
+
+	private ByteBuffer getSegment(long offset) {
+		ByteBuffer[] segments = this.segments;
+		if(segments==null)
+			throw new IllegalStateException("Treebank already closed"); //$NON-NLS-1$
+		return segments[(int) (offset>>>SEGMENT_SHIFT)];
+	}
+
+	/**
+	 * @see de.ims.icarus.language.treebank.CompiledTreebank#get(int)
+	 */
+	@Override
+	public MappedDependencyData get(int index) {
+		if(index<0 || index>=size)
+			throw new IndexOutOfBoundsException("Index "+index+" out of bounds for size "+size); //$NON-NLS-1$ //$NON-NLS-2$
+
+		long offset = getIndex().getLong(index*INDEX_ENTRY_SIZE);
+		ByteBuffer segment = getSegment(offset);
+
+		return new MappedDependencyData(this, segment, (int) (offset & (SEGMENT_SIZE-1)));
+	}
+
+	/**
+	 * @see de.ims.icarus.language.treebank.CompiledTreebank#getLength(int)
+	 */
+	@Override
+	public int getLength(int index) {
+		if(index<0 || index>=size)
+			throw new IndexOutOfBoundsException("Index "+index+" out of bounds for size "+size); //$NON-NLS-1$ //$NON-NLS-2$
+
+		return getIndex().getInt(index*INDEX_ENTRY_SIZE+8);
+	}
+
+	/**
+	 * @see de.ims.icarus.language.treebank.CompiledTreebank#getStatistics()
+	 */
+	@Override
+	public TreebankStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Drops the references to the mapped regions. The memory is released
+	 * once the last {@link MappedDependencyData} view has been collected.
+	 *
+	 * @see de.ims.icarus.language.treebank.CompiledTreebank#close()
+	 */
+	@Override
+	public void close() {
+		index = null;
+		segments = null;
+	}
+}
@@ -25,23 +25,8 @@
  */
 package de.ims.icarus.language.dependency.conll;
 
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.logging.Level;
-
-import de.ims.icarus.io.IOUtil;
-import de.ims.icarus.language.SentenceData;
-import de.ims.icarus.language.SentenceDataReader;
+import de.ims.icarus.language.dependency.CompactDependencyData;
 import de.ims.icarus.language.dependency.DependencySentenceData;
-import de.ims.icarus.language.dependency.DependencyUtils;
-import de.ims.icarus.logging.LoggerFactory;
-import de.ims.icarus.util.Options;
-import de.ims.icarus.util.UnsupportedFormatException;
-import de.ims.icarus.util.data.ContentType;
-import de.ims.icarus.util.location.Location;
-import de.ims.icarus.util.location.UnsupportedLocationException;
 import de.ims.icarus.util.strings.CharTableBuffer;
 
 
@@ -50,83 +35,22 @@ import de.ims.icarus.util.strings.CharTableBuffer;
  * @version $Id$
  *
  */
-public class CONLL06FineSentenceDataReader implements SentenceDataReader {
-
-	protected CharTableBuffer buffer;
-	protected int count;
-
-
-	/**
-	 * @see de.ims.icarus.language.SentenceDataReader#init(de.ims.icarus.util.location.Location,
-	 *      de.ims.icarus.util.Options)
-	 */
-	@Override
-	public void init(Location location, Options options) throws IOException,
-			UnsupportedLocationException {
-
-		Path file = location.getLocalPath();
-
-		if (file == null)
-			throw new IllegalArgumentException("Filelocation Undef"); //$NON-NLS-1$
-
-		if (Files.notExists(file))
-			throw new FileNotFoundException("Missing File: " //$NON-NLS-1$
-					+ file);
-
-		if (options == null) {
-			options = Options.emptyOptions;
-		}
-
-		count = 0;
-
-		try {
-			buffer = new CharTableBuffer();
-			buffer.startReading(IOUtil.getReader(location.openInputStream(), IOUtil.getCharset(options)));
-		} catch (IllegalArgumentException e) {
-			LoggerFactory.log(this, Level.SEVERE,
-					"Failed to start reading CoNLL06 file: "+location, e.getCause()); //$NON-NLS-1$
-		}
-
-	}
-
-	/**
-	 * @see de.ims.icarus.language.SentenceDataReader#next()
-	 */
-	@Override
-	public SentenceData next() throws IOException, UnsupportedFormatException {
-
-		DependencySentenceData resultdd = null;
-
-		if (buffer.next()) {
-			try {
-				resultdd = CONLLUtils.readFine06(buffer, count++);
-			} catch(Exception e) {
-				// Cannot be IOException or UnsupportedFormatException
-
-				throw new IOException(buffer.getErrorMessage("Failed to read fine CoNLL06 data"), e); //$NON-NLS-1$
-			}
-		}
-
-		return resultdd;
-	}
+public class CONLL06FineSentenceDataReader extends AbstractCONLLSentenceDataReader {
 
 	/**
-	 * @see de.ims.icarus.language.SentenceDataReader#close()
+	 * @see de.ims.icarus.language.dependency.conll.CONLLPipeline.BlockParser#parse(de.ims.icarus.util.strings.CharTableBuffer, int, de.ims.icarus.language.dependency.CompactDependencyData.SymbolCache)
 	 */
 	@Override
-	public void close() {
-		try {
-			buffer.close();
-		} catch (IOException e) {
-			LoggerFactory.error(this, "Failed to close buffer", e); //$NON-NLS-1$
-		}
+	public DependencySentenceData parse(CharTableBuffer buffer, int corpusIndex,
+			CompactDependencyData.SymbolCache symbols) throws Exception {
+		return CONLLUtils.readFine06(buffer, corpusIndex, symbols);
 	}
 
 	/**
-	 * @see de.ims.icarus.language.SentenceDataReader#getContentType()
+	 * @see de.ims.icarus.language.dependency.conll.AbstractCONLLSentenceDataReader#getFormatName()
 	 */
 	@Override
-	public ContentType getContentType() {
-		return DependencyUtils.getDependencyContentType();
+	protected String getFormatName() {
+		return "CoNLL06 fine"; //$NON-NLS-1$
 	}
 }
@@ -0,0 +1,329 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.dependency.conll;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+
+import de.ims.icarus.language.dependency.CompactDependencyData;
+import de.ims.icarus.language.dependency.DependencySentenceData;
+import de.ims.icarus.logging.LoggerFactory;
+import de.ims.icarus.util.Options;
+import de.ims.icarus.util.strings.CharTableBuffer;
+
+/**
+ * Reads CoNLL data with multiple threads. A single slicer thread reads
+ * the character stream and cuts it into sentence blocks at empty lines.
+ * A number of worker threads parse those blocks concurrently, each with
+ * its own {@link CharTableBuffer} and {@link CompactDependencyData.SymbolCache}.
+ * {@link #next()} hands out the results in their original corpus order.
+ * <p>
+ * The number of blocks that have been read but not yet been fetched via
+ * {@link #next()} is limited, so a slow consumer does not cause the
+ * whole file to be buffered in memory.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class CONLLPipeline {
+
+	/**
+	 * Option key for the number of worker threads used to parse
+	 * CoNLL data. Values below {@code 1} disable parallel reading.
+	 */
+	public static final String WORKER_COUNT_OPTION = "conll.workerCount"; //$NON-NLS-1$
+
+	private static final int BLOCKS_PER_WORKER = 256;
+
+	/**
+	 * Returns the number of worker threads to be used for parsing
+	 * according to the given options. Defaults to the number of
+	 * available processors minus one for the slicer thread.
+	 */
+	public static int getWorkerCount(Options options) {
+		int defaultCount = Runtime.getRuntime().availableProcessors()-1;
+		if(options==null) {
+			return defaultCount;
+		}
+		return options.getInteger(WORKER_COUNT_OPTION, defaultCount);
+	}
+
+	/**
+	 * Parses a single sentence block.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public interface BlockParser {
+
+		DependencySentenceData parse(CharTableBuffer buffer, int corpusIndex,
+				CompactDependencyData.SymbolCache symbols) throws Exception;
+	}
+
+	private static final Block POISON = new Block(-1, null);
+
+	private final Reader reader;
+	private final BlockParser parser;
+	private final CompactDependencyData.Symbols symbols;
+
+	private final Thread slicer;
+	private final Thread[] workers;
+
+	private final BlockingQueue<Block> blocks;
+	private final Semaphore permits;
+
+	// Guarded by results
+	private final Map<Integer, DependencySentenceData> results = new HashMap<>();
+	private int blockCount = -1;
+	private IOException failure;
+
+	// Only accessed by the consuming thread
+	private int nextIndex = 0;
+
+	public CONLLPipeline(Reader reader, BlockParser parser, int workerCount,
+			CompactDependencyData.Symbols symbols) {
+		if(reader==null)
+			throw new NullPointerException("Invalid reader"); //$NON-NLS-1$
+		if(parser==null)
+			throw new NullPointerException("Invalid parser"); //$NON-NLS-1$
+		if(symbols==null)
+			throw new NullPointerException("Invalid symbols"); //$NON-NLS-1$
+		if(workerCount<1)
+			throw new IllegalArgumentException("Worker count must be positive: "+workerCount); //$NON-NLS-1$
+
+		this.reader = reader;
+		this.parser = parser;
+		this.symbols = symbols;
+
+		blocks = new ArrayBlockingQueue<>(workerCount*BLOCKS_PER_WORKER);
+		permits = new Semaphore(workerCount*BLOCKS_PER_WORKER*2);
+
+		slicer = new Thread(new Slicer(), "CoNLL-Slicer"); //$NON-NLS-1$
+		slicer.setDaemon(true);
+
+		workers = new Thread[workerCount];
+		for(int i=0; i<workerCount; i++) {
+			workers[i] = new Thread(new Worker(), "CoNLL-Worker-"+i); //$NON-NLS-1$
+			workers[i].setDaemon(true);
+		}
+	}
+
+	public void start() {
+		slicer.start();
+		for(Thread worker : workers) {
+			worker.start();
+		}
+	}
+
+	/**
+	 * Returns the next sentence in corpus order or {@code null} if
+	 * the end of the data has been reached.
+	 */
+	public DependencySentenceData next() throws IOException {
+		DependencySentenceData data;
+
+		synchronized (results) {
+			for(;;) {
+				if(failure!=null)
+					throw failure;
+
+				data = results.remove(nextIndex);
+				if(data!=null) {
+					break;
+				}
+
+				if(blockCount!=-1 && nextIndex>=blockCount) {
+					return null;
+				}
+
+				try {
+					results.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while waiting for CoNLL data", e); //$NON-NLS-1$
+				}
+			}
+		}
+
+		nextIndex++;
+		permits.release();
+
+		return data;
+	}
+
+	/**
+	 * Stops all threads and closes the underlying reader.
+	 */
+	public void close() {
+		slicer.interrupt();
+		for(Thread worker : workers) {
+			worker.interrupt();
+		}
+
+		try {
+			reader.close();
+		} catch (IOException e) {
+			LoggerFactory.log(this, Level.WARNING, "Failed to close reader", e); //$NON-NLS-1$
+		}
+
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	private void fail(IOException e) {
+		synchronized (results) {
+			if(failure==null) {
+				failure = e;
+			}
+			results.notifyAll();
+		}
+	}
+
+	private static class Block {
+		final int index;
+		final String text;
+
+		Block(int index, String text) {
+			this.index = index;
+			this.text = text;
+		}
+	}
+
+	private class Slicer implements Runnable {
+
+		/**
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			int count = 0;
+
+			try {
+				BufferedReader in = new BufferedReader(reader, 1<<16);
+				StringBuilder sb = new StringBuilder(1000);
+				String line;
+
+				for(;;) {
+					line = in.readLine();
+
+					if(line==null || line.isEmpty()) {
+						if(sb.length()>0) {
+							permits.acquire();
+							blocks.put(new Block(count++, sb.toString()));
+							sb.setLength(0);
+						}
+
+						if(line==null) {
+							break;
+						}
+					} else {
+						sb.append(line).append('\n');
+					}
+				}
+			} catch (InterruptedException e) {
+				// Pipeline has been closed
+				return;
+			} catch (IOException e) {
+				fail(e);
+			} finally {
+				synchronized (results) {
+					blockCount = count;
+					results.notifyAll();
+				}
+			}
+
+			try {
+				for(int i=0; i<workers.length; i++) {
+					blocks.put(POISON);
+				}
+			} catch (InterruptedException e) {
+				// Pipeline has been closed
+			}
+		}
+	}
+
+	private class Worker implements Runnable {
+
+		/**
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			CharTableBuffer buffer = new CharTableBuffer();
+			CompactDependencyData.SymbolCache cache = symbols.createCache();
+
+			try {
+				for(;;) {
+					Block block = blocks.take();
+					if(block==POISON) {
+						break;
+					}
+
+					DependencySentenceData data = null;
+					try {
+						buffer.startReading(new StringReader(block.text));
+						if(buffer.next()) {
+							data = parser.parse(buffer, block.index, cache);
+						}
+					} catch(Exception e) {
+						fail(new IOException(buffer.getErrorMessage(
+								"Failed to read CoNLL data in sentence "+(block.index+1)), e)); //$NON-NLS-1$
+						return;
+					}
+
+					if(data==null) {
+						fail(new IOException("Empty sentence block: "+(block.index+1))); //$NON-NLS-1$
+						return;
+					}
+
+					synchronized (results) {
+						results.put(block.index, data);
+						results.notifyAll();
+					}
+				}
+			} catch (InterruptedException e) {
+				// Pipeline has been closed
+			} finally {
+				try {
+					buffer.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+}
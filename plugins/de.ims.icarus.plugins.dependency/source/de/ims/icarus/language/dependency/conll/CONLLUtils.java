@@ -26,6 +26,8 @@
 package de.ims.icarus.language.dependency.conll;
 
 import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.language.SymbolTable;
+import de.ims.icarus.language.dependency.CompactDependencyData;
 import de.ims.icarus.language.dependency.DependencySentenceData;
 import de.ims.icarus.language.dependency.DependencyUtils;
 import de.ims.icarus.language.dependency.SimpleDependencyData;
@@ -84,8 +86,127 @@ public class CONLLUtils {
 	private final static int COL_LIMIT06 = 8;
 
 	private static final Object US = "_"; //$NON-NLS-1$
-	private static final String DELIMITER = "\\s+"; //$NON-NLS-1$
 	private static final String EMPTY = ""; //$NON-NLS-1$
+	private static final String EMPTY_FORM = "<empty>"; //$NON-NLS-1$
+
+	/**
+	 * Reads gold annotations from CoNLL 09 data. If {@code symbols} is not
+	 * {@code null} the result will be a {@link CompactDependencyData} object
+	 * that uses the symbol tables behind the given cache.
+	 */
+	public static DependencySentenceData readGold09(CharTableBuffer buffer, int corpusIndex,
+			CompactDependencyData.SymbolCache symbols) {
+		if(symbols==null) {
+			return readGold09(buffer, corpusIndex);
+		}
+
+		return readCompact(buffer, corpusIndex, symbols, COL_LIMIT09, ID09, FORM09, HEAD09,
+				LEMMA09, FEAT09, POS09, DEPREL09, "CoNLL 09"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads predicted annotations from CoNLL 09 data. If {@code symbols} is not
+	 * {@code null} the result will be a {@link CompactDependencyData} object
+	 * that uses the symbol tables behind the given cache.
+	 */
+	public static DependencySentenceData readPredicted09(CharTableBuffer buffer, int corpusIndex,
+			CompactDependencyData.SymbolCache symbols) {
+		if(symbols==null) {
+			return readPredicted09(buffer, corpusIndex);
+		}
+
+		return readCompact(buffer, corpusIndex, symbols, COL_LIMIT09, ID09, FORM09, PHEAD09,
+				PLEMMA09, PFEAT09, PPOS09, PDEPREL09, "CoNLL 09"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads CoNLL 06 data using the course-grained pos-tags. If {@code symbols}
+	 * is not {@code null} the result will be a {@link CompactDependencyData}
+	 * object that uses the symbol tables behind the given cache.
+	 */
+	public static DependencySentenceData readCourse06(CharTableBuffer buffer, int corpusIndex,
+			CompactDependencyData.SymbolCache symbols) {
+		if(symbols==null) {
+			return readCourse06(buffer, corpusIndex);
+		}
+
+		return readCompact(buffer, corpusIndex, symbols, COL_LIMIT06, ID06, FORM06, HEAD06,
+				LEMMA06, FEAT06, CPOS06, DEPREL06, "CoNLL 06"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Reads CoNLL 06 data using the fine-grained pos-tags. If {@code symbols}
+	 * is not {@code null} the result will be a {@link CompactDependencyData}
+	 * object that uses the symbol tables behind the given cache.
+	 */
+	public static DependencySentenceData readFine06(CharTableBuffer buffer, int corpusIndex,
+			CompactDependencyData.SymbolCache symbols) {
+		if(symbols==null) {
+			return readFine06(buffer, corpusIndex);
+		}
+
+		return readCompact(buffer, corpusIndex, symbols, COL_LIMIT06, ID06, FORM06, HEAD06,
+				LEMMA06, FEAT06, FPOS06, DEPREL06, "CoNLL 06"); //$NON-NLS-1$
+	}
+
+	private static DependencySentenceData readCompact(CharTableBuffer buffer, int corpusIndex,
+			CompactDependencyData.SymbolCache symbols, int colLimit, int idCol, int formCol,
+			int headCol, int lemmaCol, int featCol, int posCol, int relCol, String format) {
+		if(buffer.isEmpty())
+			throw new IllegalArgumentException("No rows to read in buffer"); //$NON-NLS-1$
+
+		int size = buffer.getRowCount();
+
+		SymbolTable.Cache forms = symbols.getCache(LanguageConstants.FORM_KEY);
+		SymbolTable.Cache lemmas = symbols.getCache(LanguageConstants.LEMMA_KEY);
+		SymbolTable.Cache features = symbols.getCache(LanguageConstants.FEATURES_KEY);
+		SymbolTable.Cache poss = symbols.getCache(LanguageConstants.POS_KEY);
+		SymbolTable.Cache relations = symbols.getCache(LanguageConstants.DEPREL_KEY);
+
+		int[] ids = CompactDependencyData.createIdBuffer(size);
+		short[] heads = new short[size];
+		long[] flags = new long[size];
+
+		int index = -1;
+
+		Row row;
+		boolean checkIdForIndex = true;
+
+		for(int i=0; i<size; i++) {
+
+			row = buffer.getRow(i);
+			if(row.splitWhitespace(colLimit)!=colLimit)
+				throw new IllegalArgumentException("Incorrect column count in data file, " //$NON-NLS-1$
+						+ "are you sure this is the right format for "+format+"?"); //$NON-NLS-1$ //$NON-NLS-2$
+
+			heads[i] = (short) get(row, headCol);
+			CompactDependencyData.setIds(ids, size, i,
+					intern(row, formCol, EMPTY_FORM, forms),
+					intern(row, lemmaCol, EMPTY, lemmas),
+					intern(row, featCol, EMPTY, features),
+					intern(row, posCol, EMPTY, poss),
+					intern(row, relCol, EMPTY, relations));
+
+			if(index==-1 && checkIdForIndex) {
+				Cursor cursor = row.getSplitCursor(idCol);
+				int offset = cursor.indexOf('_');
+				if(offset>-1 && offset<cursor.length()) {
+					index = StringPrimitives.parseInt(cursor, 0, offset-1)-1;
+				} else {
+					checkIdForIndex = false;
+				}
+				cursor.recycle();
+			}
+		}
+
+		if(index==-1) {
+			index = corpusIndex;
+		}
+
+		DependencyUtils.fillProjectivityFlags(heads, flags);
+
+		return new CompactDependencyData(index, symbols.getSymbols(), ids, heads, flags);
+	}
 
 	public static DependencySentenceData readGold09(CharTableBuffer buffer, int corpusIndex) {
 		if(buffer.isEmpty())
@@ -109,7 +230,7 @@ public class CONLLUtils {
 		for(int i=0; i<size; i++) {
 
 			row = buffer.getRow(i);
-			if(row.split(DELIMITER, COL_LIMIT09)!=COL_LIMIT09)
+			if(row.splitWhitespace(COL_LIMIT09)!=COL_LIMIT09)
 				throw new IllegalArgumentException("Incorrect column count in data file, " //$NON-NLS-1$
 						+ "are you sure this is the right format for CoNLL 09?"); //$NON-NLS-1$
 
@@ -164,7 +285,7 @@ public class CONLLUtils {
 		for(int i=0; i<size; i++) {
 
 			row = buffer.getRow(i);
-			if(row.split(DELIMITER, COL_LIMIT09)!=COL_LIMIT09)
+			if(row.splitWhitespace(COL_LIMIT09)!=COL_LIMIT09)
 				throw new IllegalArgumentException("Incorrect column count in data file, " //$NON-NLS-1$
 						+ "are you sure this is the right format for CoNLL 09?"); //$NON-NLS-1$
 
@@ -219,7 +340,7 @@ public class CONLLUtils {
 		for(int i=0; i<size; i++) {
 
 			row = buffer.getRow(i);
-			if(row.split(DELIMITER, COL_LIMIT06)!=COL_LIMIT06)
+			if(row.splitWhitespace(COL_LIMIT06)!=COL_LIMIT06)
 				throw new IllegalArgumentException("Incorrect column count in data file, " //$NON-NLS-1$
 						+ "are you sure this is the right format for CoNLL 06?"); //$NON-NLS-1$
 
@@ -274,7 +395,7 @@ public class CONLLUtils {
 		for(int i=0; i<size; i++) {
 
 			row = buffer.getRow(i);
-			if(row.split(DELIMITER, COL_LIMIT06)!=COL_LIMIT06)
+			if(row.splitWhitespace(COL_LIMIT06)!=COL_LIMIT06)
 				throw new IllegalArgumentException("Incorrect column count in data file, " //$NON-NLS-1$
 						+ "are you sure this is the right format for CoNLL 06?"); //$NON-NLS-1$
 
@@ -334,4 +455,23 @@ public class CONLLUtils {
 
 		return s;
 	}
+
+	/**
+	 * Resolves the symbol id of the given column directly from the
+	 * underlying buffer, so no {@code String} is created for values
+	 * already present in the table.
+	 */
+	private static int intern(Row row, int index, String def, SymbolTable.Cache table) {
+		Cursor cursor = row.getSplitCursor(index);
+		int id;
+		if(StringUtil.equals(cursor, US) || cursor.isEmpty()) {
+			id = table.intern(def);
+		} else {
+			id = table.intern(cursor);
+		}
+
+		cursor.recycle();
+
+		return id;
+	}
 }
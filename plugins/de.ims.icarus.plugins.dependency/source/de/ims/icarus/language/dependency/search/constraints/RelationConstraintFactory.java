@@ -25,12 +25,13 @@
  */
 package de.ims.icarus.language.dependency.search.constraints;
 
+import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.language.dependency.search.DependencyTargetTree;
 import de.ims.icarus.search_tools.SearchConstraint;
 import de.ims.icarus.search_tools.SearchOperator;
 import de.ims.icarus.search_tools.standard.AbstractConstraintFactory;
 import de.ims.icarus.search_tools.standard.DefaultCaseInsensitiveConstraint;
-import de.ims.icarus.search_tools.standard.DefaultConstraint;
+import de.ims.icarus.search_tools.standard.DefaultSymbolConstraint;
 import de.ims.icarus.util.Options;
 
 /**
@@ -59,7 +60,7 @@ public class RelationConstraintFactory extends AbstractConstraintFactory {
 			return new RelationCIConstraint(value, operator);
 	}
 
-	private static class RelationConstraint extends DefaultConstraint {
+	private static class RelationConstraint extends DefaultSymbolConstraint {
 
 		private static final long serialVersionUID = 1716609613318759367L;
 
@@ -67,6 +68,11 @@ public class RelationConstraintFactory extends AbstractConstraintFactory {
 			super(TOKEN, value, operator);
 		}
 
+		@Override
+		protected String getSymbolKey() {
+			return LanguageConstants.DEPREL_KEY;
+		}
+
 		@Override
 		public Object getInstance(Object value) {
 			return ((DependencyTargetTree)value).getRelation();
@@ -91,6 +97,11 @@ public class RelationConstraintFactory extends AbstractConstraintFactory {
 			return ((DependencyTargetTree)value).getRelation().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((DependencyTargetTree)value).getRelation();
+		}
+
 		@Override
 		public RelationCIConstraint clone() {
 			return (RelationCIConstraint) super.clone();
@@ -0,0 +1,717 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.errormining;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.ims.icarus.search_tools.Search;
+import de.ims.icarus.ui.tasks.TaskManager;
+
+/**
+ * Integer based engine for growing variation n-grams. Word forms and tags
+ * of the corpus are interned once into {@code int} ids and every n-gram is
+ * addressed by a 64 bit polynomial hash over its token ids, stored in
+ * primitive hash maps. Extending all n-grams of length k to k+1 is split
+ * into contiguous chunks of the current n-grams which are processed in
+ * parallel and merged in chunk order afterwards, so the resulting
+ * {@link ItemInNuclei} and {@link SentenceInfo} objects are identical (in
+ * content and order) to a sequential run.
+ *
+ * @author Gregor Thiele
+ * @version $Id$
+ *
+ */
+public class NGramEngine {
+
+	private static final long HASH_BASE = 0x9E3779B97F4A7C15L;
+	private static final int NONE = -1;
+
+	private static final String SEPARATOR = " "; //$NON-NLS-1$
+
+	private final TObjectIntHashMap<String> formIds = new TObjectIntHashMap<>(10_000, 0.5f, NONE);
+	private final List<String> forms = new ArrayList<>();
+	private final TObjectIntHashMap<String> tagIds = new TObjectIntHashMap<>(100, 0.5f, NONE);
+	private final List<String> tags = new ArrayList<>();
+
+	// Token table: interned forms and tags per sentence
+	private final List<int[]> sentenceForms = new ArrayList<>();
+	private final List<int[]> sentenceTags = new ArrayList<>();
+
+	// Forms that are variation nuclei and their first sentence info per sentence
+	private boolean[] nucleusForms;
+	private TLongObjectHashMap<SentenceInfo> nucleusInfos;
+
+	private final int workerCount;
+
+	public NGramEngine() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	public NGramEngine(int workerCount) {
+		this.workerCount = Math.max(1, workerCount);
+	}
+
+	private static int intern(String s, TObjectIntHashMap<String> ids, List<String> values) {
+		int id = ids.get(s);
+		if(id==NONE) {
+			id = values.size();
+			values.add(s);
+			ids.put(s, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Adds the next sentence of the corpus. Sentences have to be added in
+	 * the order of their sentence numbers. A {@code null} tag is stored the
+	 * same way it shows up when concatenated into a tag sequence.
+	 */
+	public void addSentence(String[] sentenceForms, String[] sentenceTags) {
+		int length = sentenceForms.length;
+		int[] formIds = new int[length];
+		int[] tagIds = new int[length];
+
+		for(int i=0; i<length; i++) {
+			formIds[i] = intern(sentenceForms[i], this.formIds, forms);
+			tagIds[i] = intern(String.valueOf(sentenceTags[i]), this.tagIds, tags);
+		}
+
+		this.sentenceForms.add(formIds);
+		this.sentenceTags.add(tagIds);
+	}
+
+	public int getSentenceCount() {
+		return sentenceForms.size();
+	}
+
+	/**
+	 * Hashes the word forms and tags of all sentences, identifying the
+	 * corpus exactly as the miner sees it.
+	 */
+	public long getFingerprint() {
+		long hash = sentenceForms.size();
+		for(int s=0; s<sentenceForms.size(); s++) {
+			int[] formIds = sentenceForms.get(s);
+			int[] tagIds = sentenceTags.get(s);
+
+			hash = hash*HASH_BASE + formIds.length;
+			for(int i=0; i<formIds.length; i++) {
+				hash = hash*HASH_BASE + forms.get(formIds[i]).hashCode();
+				hash = hash*HASH_BASE + tags.get(tagIds[i]).hashCode();
+			}
+		}
+		return hash;
+	}
+
+	public String getForm(int formId) {
+		return forms.get(formId);
+	}
+
+	public int getFormId(String form) {
+		return formIds.get(form);
+	}
+
+	public int getFormCount() {
+		return forms.size();
+	}
+
+	int[] getSentenceForms(int sentenceNr) {
+		return sentenceForms.get(sentenceNr);
+	}
+
+	int[] getSentenceTags(int sentenceNr) {
+		return sentenceTags.get(sentenceNr);
+	}
+
+	public String getTag(int tagId) {
+		return tags.get(tagId);
+	}
+
+	/**
+	 * Converts the filtered uni-grams into the first n-gram level and
+	 * prepares the lookup of nuclei used while extending n-grams.
+	 */
+	public List<NGramGroup> createUniGrams(Map<String, ArrayList<ItemInNuclei>> uniGrams) {
+		nucleusForms = new boolean[forms.size()];
+		nucleusInfos = new TLongObjectHashMap<>();
+
+		List<NGramGroup> result = new ArrayList<>(uniGrams.size());
+
+		for(Map.Entry<String, ArrayList<ItemInNuclei>> entry : uniGrams.entrySet()) {
+			int formId = formIds.get(entry.getKey());
+			if(formId==NONE) {
+				continue;
+			}
+
+			nucleusForms[formId] = true;
+
+			NGramGroup group = new NGramGroup(new int[]{formId}, formId+1L);
+			group.key = entry.getKey();
+
+			for(ItemInNuclei item : entry.getValue()) {
+				int tagId = intern(item.getPosTag(), tagIds, tags);
+				group.variants.add(new Variant(new int[]{tagId}, tagId+1L, item));
+
+				// Remember first info per sentence for nucleus lookups
+				for(int i=0; i<item.getSentenceInfoSize(); i++) {
+					SentenceInfo sentenceInfo = item.getSentenceInfoAt(i);
+					long key = pack(formId, sentenceInfo.getSentenceNr());
+					if(!nucleusInfos.containsKey(key)) {
+						nucleusInfos.put(key, sentenceInfo);
+					}
+				}
+			}
+
+			result.add(group);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Rebuilds the n-grams of an already mined level so that extension can
+	 * continue from there. The uni-grams are needed for the nuclei lookup.
+	 */
+	public List<NGramGroup> resume(Map<String, ArrayList<ItemInNuclei>> uniGrams,
+			Map<String, ArrayList<ItemInNuclei>> level) {
+		createUniGrams(uniGrams);
+
+		List<NGramGroup> result = new ArrayList<>(level.size());
+
+		for(Map.Entry<String, ArrayList<ItemInNuclei>> entry : level.entrySet()) {
+			NGramGroup group = null;
+
+			for(ItemInNuclei item : entry.getValue()) {
+				SentenceInfo sentenceInfo = item.getSentenceInfoAt(0);
+				int begin = sentenceInfo.getSentenceBegin()-1;
+				int end = sentenceInfo.getSentenceEnd();
+
+				if(group==null) {
+					int[] tokens = Arrays.copyOfRange(
+							sentenceForms.get(sentenceInfo.getSentenceNr()), begin, end);
+					group = new NGramGroup(tokens, hash(tokens));
+					group.key = entry.getKey();
+				}
+
+				int[] tags = Arrays.copyOfRange(
+						sentenceTags.get(sentenceInfo.getSentenceNr()), begin, end);
+				group.variants.add(new Variant(tags, hash(tags), item));
+			}
+
+			if(group!=null) {
+				result.add(group);
+			}
+		}
+
+		return result;
+	}
+
+	private static long hash(int[] ids) {
+		long hash = 0;
+		for(int id : ids) {
+			hash = hash*HASH_BASE + id+1L;
+		}
+		return hash;
+	}
+
+	private static long pack(int formId, int sentenceNr) {
+		return ((long)formId<<32) | (sentenceNr & 0xFFFFFFFFL);
+	}
+
+	private SentenceInfo getNucleusInfo(int formId, int sentenceNr) {
+		if(formId>=nucleusForms.length || !nucleusForms[formId]) {
+			return null;
+		}
+		return nucleusInfos.get(pack(formId, sentenceNr));
+	}
+
+	/**
+	 * Extends every n-gram of the given level by one token to the left and
+	 * to the right. N-grams that are created by both a left and a right
+	 * extension keep only the occurrences of the left extension. Returns
+	 * {@code null} if the search got cancelled.
+	 */
+	public List<NGramGroup> extend(List<NGramGroup> input, final Search search) throws InterruptedException {
+		if(input.isEmpty()) {
+			return new ArrayList<>();
+		}
+
+		final long pow = power(input.get(0).tokens.length);
+
+		// Split input into contiguous chunks of roughly equal occurrence counts
+		long total = 0;
+		for(NGramGroup group : input) {
+			total += group.getOccurrenceCount();
+		}
+		long chunkSize = Math.max(1, total / (workerCount*4));
+
+		final List<Chunk> chunks = new ArrayList<>();
+		int begin = 0;
+		long size = 0;
+		for(int i=0; i<input.size(); i++) {
+			size += input.get(i).getOccurrenceCount();
+			if(size>=chunkSize || i==input.size()-1) {
+				chunks.add(new Chunk(input, begin, i+1));
+				begin = i+1;
+				size = 0;
+			}
+		}
+
+		final AtomicInteger nextChunk = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(chunks.size());
+		final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+		Runnable worker = new Runnable() {
+
+			@Override
+			public void run() {
+				int index;
+				while((index = nextChunk.getAndIncrement())<chunks.size()) {
+					try {
+						if(error.get()==null && !search.isCancelled()) {
+							process(chunks.get(index), pow, search);
+						}
+					} catch(RuntimeException e) {
+						error.compareAndSet(null, e);
+					} finally {
+						latch.countDown();
+					}
+				}
+			}
+		};
+
+		// The calling thread takes part, so we never wait on unstarted helpers
+		int helpers = Math.min(workerCount, chunks.size())-1;
+		for(int i=0; i<helpers; i++) {
+			TaskManager.getInstance().execute(worker);
+		}
+		worker.run();
+
+		latch.await();
+
+		if(error.get()!=null)
+			throw error.get();
+		if(search.isCancelled()) {
+			return null;
+		}
+
+		// Deterministic merge in chunk order
+		GroupTable left = chunks.get(0).left;
+		GroupTable right = chunks.get(0).right;
+		for(int i=1; i<chunks.size(); i++) {
+			left.merge(chunks.get(i).left);
+			right.merge(chunks.get(i).right);
+		}
+
+		List<NGramGroup> result = new ArrayList<>(left.groups);
+		for(NGramGroup group : right.groups) {
+			if(left.find(group.hash, group.tokens)==null) {
+				result.add(group);
+			}
+		}
+
+		return result;
+	}
+
+	private static long power(int exponent) {
+		long result = 1;
+		for(int i=0; i<exponent; i++) {
+			result *= HASH_BASE;
+		}
+		return result;
+	}
+
+	private void process(Chunk chunk, long pow, Search search) {
+		GroupTable left = chunk.left;
+		GroupTable right = chunk.right;
+
+		for(int g=chunk.begin; g<chunk.end; g++) {
+			if(search.isCancelled()) {
+				return;
+			}
+
+			NGramGroup group = chunk.input.get(g);
+
+			for(Variant variant : group.variants) {
+				ItemInNuclei item = variant.item;
+
+				for(int s=0; s<item.getSentenceInfoSize(); s++) {
+					SentenceInfo sentenceInfo = item.getSentenceInfoAt(s);
+					int sentenceNr = sentenceInfo.getSentenceNr();
+					int[] forms = sentenceForms.get(sentenceNr);
+					int[] tags = sentenceTags.get(sentenceNr);
+
+					// Word left of the n-gram (sentence positions are 1-based)
+					int leftIndex = sentenceInfo.getSentenceBegin()-2;
+					if(leftIndex>=0) {
+						int form = forms[leftIndex];
+						int tag = tags[leftIndex];
+
+						long hash = (form+1L)*pow + group.hash;
+						NGramGroup target = left.findLeft(hash, form, group.tokens);
+						if(target==null) {
+							target = left.add(new NGramGroup(prepend(form, group.tokens), hash));
+						}
+
+						long tagHash = (tag+1L)*pow + variant.hash;
+						Variant targetVariant = target.findVariantLeft(tagHash, tag, variant.tags);
+						if(targetVariant==null) {
+							ItemInNuclei newItem = new ItemInNuclei();
+							newItem.setPosTag(this.tags.get(tag)+SEPARATOR+item.getPosTag());
+							targetVariant = new Variant(prepend(tag, variant.tags), tagHash, newItem);
+							target.variants.add(targetVariant);
+						} else {
+							targetVariant.item.setCount(targetVariant.item.getCount()+1);
+						}
+
+						SentenceInfo nucleusInfo = getNucleusInfo(form, sentenceNr);
+						if(nucleusInfo!=null) {
+							targetVariant.item.addNewNucleiToSentenceInfoLeft(sentenceInfo, nucleusInfo);
+						} else {
+							targetVariant.item.addNewSentenceInfoLeft(sentenceInfo);
+						}
+					}
+
+					// Word right of the n-gram
+					int rightIndex = sentenceInfo.getSentenceEnd();
+					if(rightIndex<forms.length) {
+						int form = forms[rightIndex];
+						int tag = tags[rightIndex];
+
+						long hash = group.hash*HASH_BASE + form+1L;
+						NGramGroup target = right.findRight(hash, group.tokens, form);
+						if(target==null) {
+							target = right.add(new NGramGroup(append(group.tokens, form), hash));
+						}
+
+						long tagHash = variant.hash*HASH_BASE + tag+1L;
+						Variant targetVariant = target.findVariantRight(tagHash, variant.tags, tag);
+						if(targetVariant==null) {
+							ItemInNuclei newItem = new ItemInNuclei();
+							newItem.setPosTag(item.getPosTag()+SEPARATOR+this.tags.get(tag));
+							targetVariant = new Variant(append(variant.tags, tag), tagHash, newItem);
+							target.variants.add(targetVariant);
+						} else {
+							targetVariant.item.setCount(targetVariant.item.getCount()+1);
+						}
+
+						SentenceInfo nucleusInfo = getNucleusInfo(form, sentenceNr);
+						if(nucleusInfo!=null) {
+							targetVariant.item.addNewNucleiToSentenceInfoRight(sentenceInfo, nucleusInfo);
+						} else {
+							targetVariant.item.addNewSentenceInfoRigth(sentenceInfo);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static int[] prepend(int value, int[] array) {
+		int[] result = new int[array.length+1];
+		result[0] = value;
+		System.arraycopy(array, 0, result, 1, array.length);
+		return result;
+	}
+
+	private static int[] append(int[] array, int value) {
+		int[] result = new int[array.length+1];
+		System.arraycopy(array, 0, result, 0, array.length);
+		result[array.length] = value;
+		return result;
+	}
+
+	/**
+	 * Removes all n-grams that show only a single tag sequence and
+	 * therefore no longer contain any variation.
+	 */
+	public static void removeInvariant(List<NGramGroup> groups) {
+		for(Iterator<NGramGroup> it = groups.iterator(); it.hasNext();) {
+			if(it.next().variants.size()==1) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Removes all n-grams whose variation is restricted to the outer
+	 * {@code fringeSize} positions on either side.
+	 */
+	public static void distrustFringe(List<NGramGroup> groups, int fringeSize) {
+		for(Iterator<NGramGroup> it = groups.iterator(); it.hasNext();) {
+			NGramGroup group = it.next();
+			int length = group.tokens.length;
+
+			boolean keep = false;
+			for(int k=fringeSize; k<length-fringeSize && !keep; k++) {
+				keep = group.hasVariation(k);
+			}
+
+			if(!keep) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Builds the string key of the given n-gram, the word forms joined
+	 * by single spaces.
+	 */
+	public String getKey(NGramGroup group) {
+		if(group.key==null) {
+			StringBuilder sb = new StringBuilder();
+			for(int i=0; i<group.tokens.length; i++) {
+				if(i>0) {
+					sb.append(SEPARATOR);
+				}
+				sb.append(forms.get(group.tokens[i]));
+			}
+			group.key = sb.toString();
+		}
+		return group.key;
+	}
+
+	/**
+	 * A single n-gram with all its tag sequences (variants)
+	 *
+	 * @author Gregor Thiele
+	 * @version $Id$
+	 *
+	 */
+	public static class NGramGroup {
+		private final int[] tokens;
+		private final long hash;
+		private final List<Variant> variants = new ArrayList<>(2);
+		private String key;
+
+		NGramGroup(int[] tokens, long hash) {
+			this.tokens = tokens;
+			this.hash = hash;
+		}
+
+		public int length() {
+			return tokens.length;
+		}
+
+		public ArrayList<ItemInNuclei> getItems() {
+			ArrayList<ItemInNuclei> items = new ArrayList<>(variants.size());
+			for(Variant variant : variants) {
+				items.add(variant.item);
+			}
+			return items;
+		}
+
+		long getOccurrenceCount() {
+			long count = 0;
+			for(Variant variant : variants) {
+				count += variant.item.getSentenceInfoSize();
+			}
+			return count;
+		}
+
+		boolean hasVariation(int position) {
+			int tag = variants.get(0).tags[position];
+			for(int i=1; i<variants.size(); i++) {
+				if(variants.get(i).tags[position]!=tag) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		Variant findVariant(long hash, int[] tags) {
+			for(int i=0; i<variants.size(); i++) {
+				Variant variant = variants.get(i);
+				if(variant.hash==hash && Arrays.equals(variant.tags, tags)) {
+					return variant;
+				}
+			}
+			return null;
+		}
+
+		Variant findVariantLeft(long hash, int tag, int[] tags) {
+			for(int i=0; i<variants.size(); i++) {
+				Variant variant = variants.get(i);
+				if(variant.hash==hash && equalsLeft(variant.tags, tag, tags)) {
+					return variant;
+				}
+			}
+			return null;
+		}
+
+		Variant findVariantRight(long hash, int[] tags, int tag) {
+			for(int i=0; i<variants.size(); i++) {
+				Variant variant = variants.get(i);
+				if(variant.hash==hash && equalsRight(variant.tags, tags, tag)) {
+					return variant;
+				}
+			}
+			return null;
+		}
+	}
+
+	private static class Variant {
+		private final int[] tags;
+		private final long hash;
+		private final ItemInNuclei item;
+
+		Variant(int[] tags, long hash, ItemInNuclei item) {
+			this.tags = tags;
+			this.hash = hash;
+			this.item = item;
+		}
+	}
+
+	// a1 == [value] + a2
+	private static boolean equalsLeft(int[] a1, int value, int[] a2) {
+		if(a1.length!=a2.length+1 || a1[0]!=value) {
+			return false;
+		}
+		for(int i=0; i<a2.length; i++) {
+			if(a1[i+1]!=a2[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// a1 == a2 + [value]
+	private static boolean equalsRight(int[] a1, int[] a2, int value) {
+		if(a1.length!=a2.length+1 || a1[a2.length]!=value) {
+			return false;
+		}
+		for(int i=0; i<a2.length; i++) {
+			if(a1[i]!=a2[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Insertion ordered set of n-grams, hashed by their token hash. Groups
+	 * with colliding hashes are chained via {@code next}.
+	 */
+	private static class GroupTable {
+		private final TLongIntHashMap heads = new TLongIntHashMap(64, 0.5f, 0L, NONE);
+		private final List<NGramGroup> groups = new ArrayList<>();
+		private int[] next = new int[64];
+
+		NGramGroup add(NGramGroup group) {
+			int index = groups.size();
+			groups.add(group);
+
+			if(index>=next.length) {
+				int[] newNext = new int[next.length*2];
+				System.arraycopy(next, 0, newNext, 0, next.length);
+				next = newNext;
+			}
+			next[index] = heads.get(group.hash);
+			heads.put(group.hash, index);
+
+			return group;
+		}
+
+		NGramGroup find(long hash, int[] tokens) {
+			for(int i = heads.get(hash); i!=NONE; i = next[i]) {
+				NGramGroup group = groups.get(i);
+				if(Arrays.equals(group.tokens, tokens)) {
+					return group;
+				}
+			}
+			return null;
+		}
+
+		NGramGroup findLeft(long hash, int token, int[] tokens) {
+			for(int i = heads.get(hash); i!=NONE; i = next[i]) {
+				NGramGroup group = groups.get(i);
+				if(equalsLeft(group.tokens, token, tokens)) {
+					return group;
+				}
+			}
+			return null;
+		}
+
+		NGramGroup findRight(long hash, int[] tokens, int token) {
+			for(int i = heads.get(hash); i!=NONE; i = next[i]) {
+				NGramGroup group = groups.get(i);
+				if(equalsRight(group.tokens, tokens, token)) {
+					return group;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Appends the content of another table, preserving the order in
+		 * which n-grams, variants and occurrences appear.
+		 */
+		void merge(GroupTable other) {
+			for(NGramGroup group : other.groups) {
+				NGramGroup target = find(group.hash, group.tokens);
+				if(target==null) {
+					add(group);
+					continue;
+				}
+
+				for(Variant variant : group.variants) {
+					Variant targetVariant = target.findVariant(variant.hash, variant.tags);
+					if(targetVariant==null) {
+						target.variants.add(variant);
+					} else {
+						ItemInNuclei item = targetVariant.item;
+						item.sl.addAll(variant.item.sl);
+						item.setCount(item.getCount()+variant.item.getCount());
+					}
+				}
+			}
+		}
+	}
+
+	private static class Chunk {
+		private final List<NGramGroup> input;
+		private final int begin, end;
+		private final GroupTable left = new GroupTable();
+		private final GroupTable right = new GroupTable();
+
+		Chunk(List<NGramGroup> input, int begin, int end) {
+			this.input = input;
+			this.begin = begin;
+			this.end = end;
+		}
+	}
+}
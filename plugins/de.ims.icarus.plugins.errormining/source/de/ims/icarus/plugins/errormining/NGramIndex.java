@@ -0,0 +1,341 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.errormining;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import de.ims.icarus.Core;
+import de.ims.icarus.logging.LoggerFactory;
+
+/**
+ * Persistent storage for the variation n-grams of one mining run. An index
+ * is identified by the fingerprint of the mined corpus (word forms and
+ * tags as seen by the miner) together with all options that influence the
+ * result. The n-grams are stored level by level (length 2 and up) before
+ * any post-filtering, so a later run with the same or a lower n-gram limit
+ * can be answered from the index alone and a run with a higher limit can
+ * continue from the last stored level.
+ * <p>
+ * At most {@value #MAX_FILES} index files are kept. Loading an index
+ * marks it as recently used and saving one removes the least recently
+ * used files beyond that limit.
+ *
+ * @author Gregor Thiele
+ * @version $Id$
+ *
+ */
+public class NGramIndex {
+
+	private static final int MAGIC = 0x4E47494E; // "NGIN"
+	private static final int VERSION = 1;
+
+	private static final String FOLDER_NAME = "errormining"; //$NON-NLS-1$
+	private static final String FILE_EXTENSION = ".ngi"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of index files kept in the cache folder
+	 */
+	public static final int MAX_FILES = 16;
+
+	private final long fingerprint;
+	private final int miningMode;
+	private final boolean useFringe;
+	private final int fringeSize;
+	private final boolean useNumberWildcard;
+	private final boolean useSuffixArray;
+
+	private List<Map<String, ArrayList<ItemInNuclei>>> levels = Collections.emptyList();
+	private boolean exhausted = false;
+	private boolean loaded = false;
+
+	public NGramIndex(long fingerprint, int miningMode, boolean useFringe,
+			int fringeSize, boolean useNumberWildcard, boolean useSuffixArray) {
+		this.fingerprint = fingerprint;
+		this.miningMode = miningMode;
+		this.useFringe = useFringe;
+		this.fringeSize = fringeSize;
+		this.useNumberWildcard = useNumberWildcard;
+		this.useSuffixArray = useSuffixArray;
+	}
+
+	public long getKey() {
+		long key = fingerprint;
+		key = key*31 + miningMode;
+		key = key*31 + (useFringe ? fringeSize+1 : 0);
+		key = key*31 + (useNumberWildcard ? 1 : 0);
+		key = key*31 + (useSuffixArray ? 1 : 0);
+		return key;
+	}
+
+	public Path getFile() {
+		return Core.getCore().getCacheFolder().resolve(FOLDER_NAME).resolve(
+				String.format("%016x", getKey())+FILE_EXTENSION); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the stored n-grams, one map per level starting with length 2
+	 */
+	public List<Map<String, ArrayList<ItemInNuclei>>> getLevels() {
+		return levels;
+	}
+
+	/**
+	 * Returns whether the stored run ended because no n-gram could be
+	 * extended any further (as opposed to hitting the n-gram limit).
+	 */
+	public boolean isExhausted() {
+		return exhausted;
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	public int getLastLevel() {
+		return levels.size()+1;
+	}
+
+	/**
+	 * Returns whether a run with the given n-gram limit ({@code 0} for no
+	 * limit) can be answered from the stored levels without mining.
+	 */
+	public boolean covers(int nGramLimit) {
+		return loaded && (exhausted || (nGramLimit!=0 && nGramLimit<=getLastLevel()));
+	}
+
+	/**
+	 * Reads the index file if it exists and matches this index. Returns
+	 * {@code false} if there is no usable index.
+	 */
+	public boolean load() throws IOException {
+		Path file = getFile();
+		if(!Files.exists(file)) {
+			return false;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new GZIPInputStream(Files.newInputStream(file))))) {
+
+			if(in.readInt()!=MAGIC || in.readInt()!=VERSION
+					|| in.readLong()!=fingerprint
+					|| in.readInt()!=miningMode
+					|| in.readBoolean()!=useFringe
+					|| in.readInt()!=fringeSize
+					|| in.readBoolean()!=useNumberWildcard
+					|| in.readBoolean()!=useSuffixArray) {
+				return false;
+			}
+
+			boolean exhausted = in.readBoolean();
+			int levelCount = in.readInt();
+			List<Map<String, ArrayList<ItemInNuclei>>> levels = new ArrayList<>(levelCount);
+
+			for(int l=0; l<levelCount; l++) {
+				int size = in.readInt();
+				Map<String, ArrayList<ItemInNuclei>> level = new LinkedHashMap<>(size*2);
+
+				for(int e=0; e<size; e++) {
+					String key = in.readUTF();
+					int itemCount = in.readInt();
+					ArrayList<ItemInNuclei> items = new ArrayList<>(itemCount);
+
+					for(int i=0; i<itemCount; i++) {
+						items.add(readItem(in));
+					}
+
+					level.put(key, items);
+				}
+
+				levels.add(level);
+			}
+
+			this.levels = levels;
+			this.exhausted = exhausted;
+			this.loaded = true;
+		}
+
+		// Mark as recently used
+		try {
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch(IOException e) {
+			LoggerFactory.log(this, Level.FINE, "Failed to update access time of n-gram index: "+file, e); //$NON-NLS-1$
+		}
+
+		return true;
+	}
+
+	private static ItemInNuclei readItem(DataInputStream in) throws IOException {
+		ItemInNuclei item = new ItemInNuclei();
+		item.setPosTag(in.readUTF());
+		item.setCount(in.readInt());
+
+		int infoCount = in.readInt();
+		for(int i=0; i<infoCount; i++) {
+			SentenceInfo sentenceInfo = new SentenceInfo();
+			sentenceInfo.setSentenceNr(in.readInt());
+			sentenceInfo.setSentenceBegin(in.readInt());
+			sentenceInfo.setSentenceEnd(in.readInt());
+			sentenceInfo.setNucleiIndex(in.readInt());
+
+			int nucleiCount = in.readInt();
+			for(int n=0; n<nucleiCount; n++) {
+				sentenceInfo.addNucleiIndexList(in.readInt());
+			}
+
+			item.sl.add(sentenceInfo);
+		}
+
+		return item;
+	}
+
+	/**
+	 * Writes the given levels to the index file. The file is written to a
+	 * temporary location first and then moved in place.
+	 */
+	public void save(List<Map<String, ArrayList<ItemInNuclei>>> levels,
+			boolean exhausted) throws IOException {
+		Path file = getFile();
+		Files.createDirectories(file.getParent());
+		Path tmp = file.resolveSibling(file.getFileName()+".tmp"); //$NON-NLS-1$
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(fingerprint);
+			out.writeInt(miningMode);
+			out.writeBoolean(useFringe);
+			out.writeInt(fringeSize);
+			out.writeBoolean(useNumberWildcard);
+			out.writeBoolean(useSuffixArray);
+
+			out.writeBoolean(exhausted);
+			out.writeInt(levels.size());
+
+			for(Map<String, ArrayList<ItemInNuclei>> level : levels) {
+				out.writeInt(level.size());
+
+				for(Map.Entry<String, ArrayList<ItemInNuclei>> entry : level.entrySet()) {
+					out.writeUTF(entry.getKey());
+					out.writeInt(entry.getValue().size());
+
+					for(ItemInNuclei item : entry.getValue()) {
+						writeItem(out, item);
+					}
+				}
+			}
+		}
+
+		Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+
+		this.levels = levels;
+		this.exhausted = exhausted;
+		this.loaded = true;
+
+		trimFiles(file);
+	}
+
+	/**
+	 * Deletes the least recently used index files until no more than
+	 * {@link #MAX_FILES} remain. The given file is always kept.
+	 */
+	private void trimFiles(Path keep) {
+		final List<Path> files = new ArrayList<>();
+		final Map<Path, FileTime> times = new LinkedHashMap<>();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+				keep.getParent(), "*"+FILE_EXTENSION)) { //$NON-NLS-1$
+			for(Path file : stream) {
+				if(!file.equals(keep)) {
+					files.add(file);
+					times.put(file, Files.getLastModifiedTime(file));
+				}
+			}
+		} catch(IOException e) {
+			LoggerFactory.log(this, Level.WARNING, "Failed to list n-gram index files", e); //$NON-NLS-1$
+			return;
+		}
+
+		if(files.size()<MAX_FILES) {
+			return;
+		}
+
+		// Most recently used first
+		Collections.sort(files, new Comparator<Path>() {
+
+			@Override
+			public int compare(Path p1, Path p2) {
+				return times.get(p2).compareTo(times.get(p1));
+			}
+		});
+
+		for(Path file : files.subList(MAX_FILES-1, files.size())) {
+			try {
+				Files.deleteIfExists(file);
+			} catch(IOException e) {
+				LoggerFactory.log(this, Level.WARNING, "Failed to delete n-gram index: "+file, e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static void writeItem(DataOutputStream out, ItemInNuclei item) throws IOException {
+		out.writeUTF(item.getPosTag());
+		out.writeInt(item.getCount());
+		out.writeInt(item.getSentenceInfoSize());
+
+		for(int i=0; i<item.getSentenceInfoSize(); i++) {
+			SentenceInfo sentenceInfo = item.getSentenceInfoAt(i);
+			out.writeInt(sentenceInfo.getSentenceNr());
+			out.writeInt(sentenceInfo.getSentenceBegin());
+			out.writeInt(sentenceInfo.getSentenceEnd());
+			out.writeInt(sentenceInfo.getNucleiIndex());
+
+			out.writeInt(sentenceInfo.getNucleiIndexListSize());
+			for(int n=0; n<sentenceInfo.getNucleiIndexListSize(); n++) {
+				out.writeInt(sentenceInfo.getNucleiIndexListAt(n));
+			}
+		}
+	}
+}
@@ -0,0 +1,465 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.errormining;
+
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.ims.icarus.search_tools.Search;
+
+/**
+ * Suffix array backend for variation n-gram mining. The word forms of the
+ * entire corpus are concatenated into one sequence of token ids with a
+ * unique sentinel after every sentence, so that no repeated n-gram can
+ * span a sentence boundary. A suffix array (prefix doubling, O(N log N))
+ * and an LCP array (Kasai et al., O(N)) are built once and all repeated
+ * n-grams of all lengths are enumerated in a single bottom-up pass over
+ * the LCP intervals.
+ * <p>
+ * An n-gram is a variation n-gram if at least one of its positions shows
+ * different tags across its occurrences (restricted to the non-fringe
+ * positions once the fringe heuristic applies). This is exactly the set
+ * of n-grams the level-wise extension in {@link NGrams} produces, since a
+ * varying position keeps varying in every shorter n-gram that covers it.
+ * N-grams of one length are reported in suffix array order and their
+ * occurrences in corpus order.
+ *
+ * @author Gregor Thiele
+ * @version $Id$
+ *
+ */
+public class NGramSuffixIndex {
+
+	private final NGramEngine engine;
+
+	// Concatenated corpus, form ids for tokens and unique ids >= formCount for sentinels
+	private final int[] text;
+	private final int[] tags;
+	private final int[] sentenceOf;
+	private final int[] sentenceStart;
+	private final int formCount;
+
+	private final int[] suffixArray;
+	private final int[] lcp;
+
+	// Candidates per n-gram length, stored as pairs of suffix array bounds
+	private final List<TIntArrayList> candidates = new ArrayList<>();
+	private boolean[] extendable = new boolean[16];
+	private boolean[] nucleusForms;
+
+	public NGramSuffixIndex(NGramEngine engine) {
+		this.engine = engine;
+
+		int sentenceCount = engine.getSentenceCount();
+		int size = sentenceCount;
+		for(int s=0; s<sentenceCount; s++) {
+			size += engine.getSentenceForms(s).length;
+		}
+
+		formCount = engine.getFormCount();
+		text = new int[size];
+		tags = new int[size];
+		sentenceOf = new int[size];
+		sentenceStart = new int[sentenceCount];
+
+		int pos = 0;
+		for(int s=0; s<sentenceCount; s++) {
+			int[] forms = engine.getSentenceForms(s);
+			int[] sentenceTags = engine.getSentenceTags(s);
+
+			sentenceStart[s] = pos;
+			System.arraycopy(forms, 0, text, pos, forms.length);
+			System.arraycopy(sentenceTags, 0, tags, pos, forms.length);
+			Arrays.fill(sentenceOf, pos, pos+forms.length+1, s);
+			pos += forms.length;
+
+			text[pos] = formCount+s;
+			tags[pos] = -1;
+			pos++;
+		}
+
+		suffixArray = buildSuffixArray(text, formCount+sentenceCount);
+		lcp = buildLcp(text, suffixArray);
+	}
+
+	/**
+	 * Sorts all suffixes by prefix doubling. Every round ranks the
+	 * suffixes by their first 2k tokens using two stable counting sorts.
+	 */
+	private static int[] buildSuffixArray(int[] text, int alphabetSize) {
+		int n = text.length;
+		int[] sa = new int[n];
+		int[] rank = new int[n];
+		int[] tmp = new int[n];
+		int[] count = new int[Math.max(alphabetSize, n)+1];
+
+		if(n==0) {
+			return sa;
+		}
+
+		for(int i=0; i<n; i++) {
+			count[text[i]]++;
+		}
+		for(int i=1; i<=alphabetSize; i++) {
+			count[i] += count[i-1];
+		}
+		for(int i=n-1; i>=0; i--) {
+			sa[--count[text[i]]] = i;
+		}
+
+		int classes = 1;
+		rank[sa[0]] = 0;
+		for(int i=1; i<n; i++) {
+			if(text[sa[i]]!=text[sa[i-1]]) {
+				classes++;
+			}
+			rank[sa[i]] = classes-1;
+		}
+
+		for(int k=1; classes<n; k<<=1) {
+			// Order by second key: suffixes without one come first
+			int p = 0;
+			for(int i=n-k; i<n; i++) {
+				tmp[p++] = i;
+			}
+			for(int i=0; i<n; i++) {
+				if(sa[i]>=k) {
+					tmp[p++] = sa[i]-k;
+				}
+			}
+
+			// Stable sort by first key
+			Arrays.fill(count, 0, classes+1, 0);
+			for(int i=0; i<n; i++) {
+				count[rank[i]]++;
+			}
+			for(int i=1; i<classes; i++) {
+				count[i] += count[i-1];
+			}
+			for(int i=n-1; i>=0; i--) {
+				sa[--count[rank[tmp[i]]]] = tmp[i];
+			}
+
+			tmp[sa[0]] = 0;
+			classes = 1;
+			for(int i=1; i<n; i++) {
+				int a = sa[i-1], b = sa[i];
+				int ra = a+k<n ? rank[a+k] : -1;
+				int rb = b+k<n ? rank[b+k] : -1;
+				if(rank[a]!=rank[b] || ra!=rb) {
+					classes++;
+				}
+				tmp[b] = classes-1;
+			}
+
+			int[] swap = rank;
+			rank = tmp;
+			tmp = swap;
+		}
+
+		return sa;
+	}
+
+	/**
+	 * Kasai et al.: {@code lcp[i]} is the length of the common prefix of
+	 * the suffixes at {@code sa[i-1]} and {@code sa[i]}.
+	 */
+	private static int[] buildLcp(int[] text, int[] sa) {
+		int n = text.length;
+		int[] inverse = new int[n];
+		int[] lcp = new int[n];
+
+		for(int i=0; i<n; i++) {
+			inverse[sa[i]] = i;
+		}
+
+		int h = 0;
+		for(int i=0; i<n; i++) {
+			if(inverse[i]>0) {
+				int j = sa[inverse[i]-1];
+				while(i+h<n && j+h<n && text[i+h]==text[j+h]) {
+					h++;
+				}
+				lcp[inverse[i]] = h;
+				if(h>0) {
+					h--;
+				}
+			} else {
+				h = 0;
+			}
+		}
+
+		return lcp;
+	}
+
+	/**
+	 * Collects the variation n-grams of all lengths up to {@code maxLength}
+	 * ({@code 0} for no limit) in one pass over the LCP intervals. The
+	 * given uni-grams are the variation nuclei. Returns {@code false} if
+	 * the search got cancelled.
+	 */
+	public boolean collect(Map<String, ArrayList<ItemInNuclei>> uniGrams,
+			int maxLength, boolean useFringe, int fringeSize, Search search) {
+
+		nucleusForms = new boolean[formCount];
+		for(String key : uniGrams.keySet()) {
+			int formId = engine.getFormId(key);
+			if(formId!=-1) {
+				nucleusForms[formId] = true;
+			}
+		}
+
+		// Uni-grams can be extended if any nucleus has a neighbor
+		for(int pos=0; pos<text.length && !extendable[1]; pos++) {
+			int formId = text[pos];
+			if(formId<formCount && nucleusForms[formId]) {
+				extendable[1] = isExtendable(pos, 1);
+			}
+		}
+
+		if(maxLength<=0) {
+			maxLength = Integer.MAX_VALUE;
+		}
+
+		int n = text.length;
+		int[] stackLcp = new int[64];
+		int[] stackLb = new int[64];
+		int top = 0;
+		int[] varying = new int[16];
+
+		for(int i=1; i<=n; i++) {
+			if((i & 0xFFFF)==0 && search.isCancelled()) {
+				return false;
+			}
+
+			int value = i<n ? lcp[i] : 0;
+			int lb = i-1;
+
+			while(value<stackLcp[top]) {
+				int intervalLcp = stackLcp[top];
+				lb = stackLb[top];
+				top--;
+
+				int parentLcp = Math.max(value, stackLcp[top]);
+				varying = processInterval(lb, i-1, parentLcp, intervalLcp,
+						maxLength, useFringe, fringeSize, varying);
+			}
+
+			if(value>stackLcp[top]) {
+				top++;
+				if(top==stackLcp.length) {
+					stackLcp = Arrays.copyOf(stackLcp, top*2);
+					stackLb = Arrays.copyOf(stackLb, top*2);
+				}
+				stackLcp[top] = value;
+				stackLb[top] = lb;
+			}
+		}
+
+		return !search.isCancelled();
+	}
+
+	/**
+	 * All suffixes in {@code sa[lb..rb]} share their first {@code lcp}
+	 * tokens, so every length in {@code (parentLcp, lcp]} denotes one
+	 * n-gram with exactly these occurrences.
+	 */
+	private int[] processInterval(int lb, int rb, int parentLcp, int lcp,
+			int maxLength, boolean useFringe, int fringeSize, int[] varying) {
+		int minLength = Math.max(parentLcp+1, 2);
+		int length = Math.min(lcp, maxLength);
+		if(minLength>length) {
+			return varying;
+		}
+
+		if(varying.length<length+1) {
+			varying = new int[Math.max(length+1, varying.length*2)];
+		}
+
+		// varying[k] is the number of varying positions before k
+		int first = suffixArray[lb];
+		for(int k=0; k<length; k++) {
+			int tag = tags[first+k];
+			boolean varies = false;
+			for(int j=lb+1; j<=rb && !varies; j++) {
+				varies = tags[suffixArray[j]+k]!=tag;
+			}
+			varying[k+1] = varying[k] + (varies ? 1 : 0);
+		}
+
+		for(int m=minLength; m<=length; m++) {
+			int begin = 0, end = m;
+			if(isFringeActive(m, useFringe, fringeSize)) {
+				begin = fringeSize;
+				end = m-fringeSize;
+			}
+
+			if(end<=begin || varying[end]-varying[begin]==0) {
+				continue;
+			}
+
+			getCandidates(m).add(lb);
+			getCandidates(m).add(rb);
+
+			if(!isExtendable(m)) {
+				for(int j=lb; j<=rb; j++) {
+					if(isExtendable(suffixArray[j], m)) {
+						setExtendable(m);
+						break;
+					}
+				}
+			}
+		}
+
+		return varying;
+	}
+
+	/**
+	 * The fringe heuristic applies to n-grams that are created while at
+	 * least {@code 2*fringeSize} uni-gram extensions have been done.
+	 */
+	public static boolean isFringeActive(int length, boolean useFringe, int fringeSize) {
+		return useFringe && length-1>=fringeSize*2;
+	}
+
+	private boolean isExtendable(int pos, int length) {
+		return pos>sentenceStart[sentenceOf[pos]] || text[pos+length]<formCount;
+	}
+
+	private TIntArrayList getCandidates(int length) {
+		while(candidates.size()<=length) {
+			candidates.add(null);
+		}
+		TIntArrayList list = candidates.get(length);
+		if(list==null) {
+			list = new TIntArrayList();
+			candidates.set(length, list);
+		}
+		return list;
+	}
+
+	private void setExtendable(int length) {
+		if(length>=extendable.length) {
+			extendable = Arrays.copyOf(extendable, Math.max(length+1, extendable.length*2));
+		}
+		extendable[length] = true;
+	}
+
+	/**
+	 * Returns whether any variation n-gram of the given length has an
+	 * occurrence that can be extended within its sentence.
+	 */
+	public boolean isExtendable(int length) {
+		return length<extendable.length && extendable[length];
+	}
+
+	/**
+	 * Creates the variation n-grams of the given length, keyed by their
+	 * word forms and grouped into one {@link ItemInNuclei} per tag sequence.
+	 */
+	public Map<String, ArrayList<ItemInNuclei>> createNGrams(int length) {
+		Map<String, ArrayList<ItemInNuclei>> result = new LinkedHashMap<String, ArrayList<ItemInNuclei>>();
+		if(length>=candidates.size() || candidates.get(length)==null) {
+			return result;
+		}
+
+		TIntArrayList list = candidates.get(length);
+		StringBuilder sb = new StringBuilder();
+
+		for(int c=0; c<list.size(); c+=2) {
+			int lb = list.get(c);
+			int rb = list.get(c+1);
+
+			int[] positions = Arrays.copyOfRange(suffixArray, lb, rb+1);
+			Arrays.sort(positions);
+
+			Map<String, ItemInNuclei> variants = new LinkedHashMap<>();
+
+			for(int pos : positions) {
+				sb.setLength(0);
+				for(int k=0; k<length; k++) {
+					if(k>0) {
+						sb.append(' ');
+					}
+					sb.append(engine.getTag(tags[pos+k]));
+				}
+				String posTag = sb.toString();
+
+				ItemInNuclei item = variants.get(posTag);
+				if(item==null) {
+					item = new ItemInNuclei();
+					item.setPosTag(posTag);
+					variants.put(posTag, item);
+				} else {
+					item.setCount(item.getCount()+1);
+				}
+
+				item.sl.add(createSentenceInfo(pos, length));
+			}
+
+			sb.setLength(0);
+			int first = positions[0];
+			for(int k=0; k<length; k++) {
+				if(k>0) {
+					sb.append(' ');
+				}
+				sb.append(engine.getForm(text[first+k]));
+			}
+
+			result.put(sb.toString(), new ArrayList<>(variants.values()));
+		}
+
+		return result;
+	}
+
+	private SentenceInfo createSentenceInfo(int pos, int length) {
+		int sentenceNr = sentenceOf[pos];
+		int begin = pos-sentenceStart[sentenceNr]+1;
+
+		SentenceInfo sentenceInfo = new SentenceInfo();
+		sentenceInfo.setSentenceNr(sentenceNr);
+		sentenceInfo.setSentenceBegin(begin);
+		sentenceInfo.setSentenceEnd(begin+length-1);
+
+		boolean first = true;
+		for(int k=0; k<length; k++) {
+			if(nucleusForms[text[pos+k]]) {
+				if(first) {
+					sentenceInfo.setNucleiIndex(begin+k);
+					first = false;
+				}
+				sentenceInfo.addNucleiIndexList(begin+k);
+			}
+		}
+
+		return sentenceInfo;
+	}
+}
@@ -39,6 +39,7 @@ import javax.xml.transform.TransformerException;
 import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.language.dependency.DependencySentenceData;
 import de.ims.icarus.logging.LoggerFactory;
+import de.ims.icarus.plugins.errormining.NGramEngine.NGramGroup;
 import de.ims.icarus.search_tools.Search;
 import de.ims.icarus.ui.dialog.DialogFactory;
 import de.ims.icarus.util.Options;
@@ -57,6 +58,8 @@ public class NGrams {
 	protected int nGramLimit;
 	protected boolean useFringe;
 	protected boolean useNumberWildcard;
+	protected boolean useSuffixArray;
+	protected boolean usePersistentIndex;
 
 	//protected List<ItemInNuclei> items;
 	protected Map<String, ArrayList<ItemInNuclei>> nGramCache;	
@@ -64,8 +67,11 @@ public class NGrams {
 	protected Options options;
 	
 	protected List<DependencySentenceData> corpus;
+	protected NGramEngine engine;
+	protected List<Map<String, ArrayList<ItemInNuclei>>> nGramLevels;
 	
 	private boolean usedFringe = false;
+	private boolean exhausted = false;
 	private static Pattern numberPattern = Pattern.compile("^[0-9]"); //$NON-NLS-1$
 	private static String numberString = "[number-wildcard]"; //$NON-NLS-1$
 
@@ -139,9 +145,13 @@ public class NGrams {
 		this.useFringe = options.getBoolean("UseFringe"); //$NON-NLS-1$
 		this.nGramLimit = options.getInteger("NGramLIMIT"); //$NON-NLS-1$
 		this.useNumberWildcard = options.getBoolean("UseNumberWildcard"); //$NON-NLS-1$
+		this.useSuffixArray = options.getBoolean("UseSuffixArray"); //$NON-NLS-1$
+		this.usePersistentIndex = options.getBoolean("UsePersistentIndex"); //$NON-NLS-1$
 				
 		nGramCache = new LinkedHashMap<String,ArrayList<ItemInNuclei>>();
 		corpus = new ArrayList<DependencySentenceData>();
+		engine = new NGramEngine();
+		nGramLevels = new ArrayList<Map<String, ArrayList<ItemInNuclei>>>();
 		
 		miningMode = setMiningMode();
 		System.out.println(miningMode);
@@ -172,9 +182,13 @@ public class NGrams {
 			this.fringeSize = options.getInteger("FringeSIZE");  //$NON-NLS-1$
 			this.useFringe = options.getBoolean("UseFringe"); //$NON-NLS-1$
 			this.useNumberWildcard = options.getBoolean("UseNumberWildcard"); //$NON-NLS-1$
+			this.useSuffixArray = options.getBoolean("UseSuffixArray"); //$NON-NLS-1$
+			this.usePersistentIndex = options.getBoolean("UsePersistentIndex"); //$NON-NLS-1$
 			
 			nGramCache = new LinkedHashMap<String,ArrayList<ItemInNuclei>>();
 			corpus = new ArrayList<DependencySentenceData>();
+			engine = new NGramEngine();
+			nGramLevels = new ArrayList<Map<String, ArrayList<ItemInNuclei>>>();
 		}
 
 
@@ -324,8 +338,14 @@ public class NGrams {
 		//TODO should be removed later
 		corpus.add(dd);
 		
+		String[] forms = new String[dd.length()];
+		String[] tags = new String[dd.length()];
+		
 		for (int wordIndex = 0; wordIndex < dd.length(); wordIndex++) {
 			String currentWord = checkForNumber(dd.getForm(wordIndex));
+			String currentTag = getTagQuery(getTag(dd,wordIndex));
+			forms[wordIndex] = currentWord;
+			tags[wordIndex] = currentTag;
 			//checkForNumber(dd.getForm(wordIndex));
 			//System.out.print(currentWord + " ");
 
@@ -335,7 +355,7 @@ public class NGrams {
 			// item already in list? only add new tags
 			if (nGramCache.containsKey(currentWord)) {
 				 
-				if (getTagQuery(getTag(dd,wordIndex)) != null){
+				if (currentTag != null){
 					ArrayList<ItemInNuclei> items = nGramCache.get(currentWord);
 	
 					boolean knownTag = false;
@@ -344,7 +364,7 @@ public class NGrams {
 						// increment when tag found again
 						ItemInNuclei item = items.get(i);
 						//System.out.println(item.getPosTag() +" vs "+ getTagQuery(getTagQuery(getTag(dd,wordIndex))));
-						if (item.getPosTag().equals(getTagQuery(getTag(dd,wordIndex)))) {
+						if (item.getPosTag().equals(currentTag)) {
 							int oldCount = item.getCount();
 							item.setCount(oldCount + 1);
 							item.addNewSentenceInfoUniGrams(sentenceNr, wordIndex+1);
@@ -356,16 +376,16 @@ public class NGrams {
 					if (!knownTag) {
 						//System.out.println("faulty Tag@ " + sentenceNr + " " + sentencelength);
 						ItemInNuclei item = new ItemInNuclei();
-						item.setPosTag(ensureValid(getTagQuery(getTag(dd,wordIndex))));
+						item.setPosTag(ensureValid(currentTag));
 						item.addNewSentenceInfoUniGrams(sentenceNr, wordIndex+1);
 						items.add(item);
 					}
 				}
 			} else {
-				if (getTagQuery(getTag(dd,wordIndex)) != null){
+				if (currentTag != null){
 					ArrayList<ItemInNuclei> items = new ArrayList<ItemInNuclei>();
 					ItemInNuclei item = new ItemInNuclei();
-					item.setPosTag(ensureValid(getTagQuery(getTag(dd,wordIndex))));
+					item.setPosTag(ensureValid(currentTag));
 					item.addNewSentenceInfoUniGrams(sentenceNr, wordIndex+1);
 					items.add(item);
 	
@@ -373,6 +393,8 @@ public class NGrams {
 				}
 			}
 		}
+		
+		engine.addSentence(forms, tags);
 	}
 	
 	
@@ -630,101 +652,6 @@ public class NGrams {
 	}
 	
 	
-	/**
-	 * Examine only non-fringe nuclei, fringe = edge of variation n-gram
-	 * 
-	 * @param input
-	 * @return 
-	 */
-	private Map<String, ArrayList<ItemInNuclei>> distrustFringeHeuristic(Map<String,ArrayList<ItemInNuclei>> input){
-		
-		ArrayList<String> removeFringeFromNGrams = new ArrayList<String>();
-		
-		for(Iterator<String> i = input.keySet().iterator(); i.hasNext();){
-			String key = i.next();
-			ArrayList<ItemInNuclei> arrItem = input.get(key);
-			//System.out.println(key);
-			
-			int nonfringeItems = 0;
-			
-			String[] keySplitted = key.split(" "); //$NON-NLS-1$
-			for (int k = fringeSize; k < keySplitted.length-fringeSize; k++) {			
-				if(containsNonFringe(k, arrItem)){
-					nonfringeItems++;					
-				}
-			}
-			
-			//count > 0 => we have at least one item that is no fringe
-			if(nonfringeItems == 0){
-				if(!removeFringeFromNGrams.contains(key)){
-					//System.out.println("FringeKey " + key);
-					removeFringeFromNGrams.add(key);
-				}
-			}
-			
-//			for(int j = 0; j < arrItem.size(); j++){
-//				
-//				
-//				ItemInNuclei iin = arrItem.get(j);
-//				System.out.println(iin.getPosTag());
-
-//				for (int s = 0; s < iin.getSentenceInfoSize(); s++){
-//					SentenceInfo si = iin.getSentenceInfoAt(s);
-//					
-//					/*
-//					 * we only want to remove items where we have fringe;
-//					 * when there is a ngram with more than one nuclei we check
-//					 * for every nuclei if its fringe, if there is at most
-//					 * one nuclei NOT fringe we will keep the ngram no matter if
-//					 * the others are fringe nucleis or not
-//					 */
-//					
-//					// new version should work now and only delete fringe
-//					// within an ngram with 2+ nuclei if both are fringe
-//					if(getFringeItem(si)){
-//						//System.out.println("FringeKey " + key);
-//						if(!removeFringeFromNGrams.contains(key)){
-//							//System.out.println("FringeKey " + key);
-//							removeFringeFromNGrams.add(key);
-//						}
-//					}
-//				}
-//			}
-		}
-				
-		//System.out.println("FringeItems to Remove: " + removeFringeFromNGrams.size());
-		for(int i = 0; i < removeFringeFromNGrams.size(); i++){
-			//System.out.println("Remove " + removeFringeFromNGrams.get(i));
-			input.remove(removeFringeFromNGrams.get(i));
-		}
-
-		removeFringeFromNGrams.clear();
-		return input;
-		
-	}
-	
-
-
-	/**
-	 * @param k 
-	 * @param arrItem
-	 */
-	private boolean containsNonFringe(int k, ArrayList<ItemInNuclei> iinList) {
-		List<String> test = new ArrayList<>();
-		
-		for(int i = 0; i < iinList.size(); i++){
-			String[] s = iinList.get(i).getPosTag().split(" "); //$NON-NLS-1$
-			if(!test.contains(s[k])){
-				test.add(s[k]);
-			}
-		}		
-		if (test.size() > 1){
-			return true;
-		}		
-		return false;		
-	}
-	
-	
 	private boolean containsVariation(int k, ArrayList<ItemInNuclei> iinList) {
 		List<String> test = new ArrayList<>();
 		
@@ -790,329 +717,175 @@ public class NGrams {
 	}
 	
 
-	private void createNGrams(Map<String, ArrayList<ItemInNuclei>> inputNGram,
-									boolean lb, boolean rb){
-		
-		Map<String, ArrayList<ItemInNuclei>> outputNGram = new LinkedHashMap<String, ArrayList<ItemInNuclei>>();
-		Map<String, ArrayList<ItemInNuclei>> outputNGramR = new LinkedHashMap<String, ArrayList<ItemInNuclei>>();
-		boolean reachedLeftBoarder = lb;
-		boolean reachedRightBoarder = rb;
-
-
-		for(Iterator<String> it = inputNGram.keySet().iterator(); it.hasNext();){
-			String key = it.next();
-			ArrayList<ItemInNuclei> iiArr = inputNGram.get(key);
-			//System.out.println(key);			
-
-			if(search.isCancelled()){
-				//System.out.println(search.isCancelled());
-				return;
-			}
-			
-			for (int tagSize = 0 ; tagSize < iiArr.size(); tagSize++){
-				
-				ItemInNuclei iin = iiArr.get(tagSize);
-			
-				for (int s = 0 ; s < iin.getSentenceInfoSize(); s++){
-					
-					SentenceInfo si = iin.getSentenceInfoAt(s);
-					//System.out.println("SISIZE"+si.getNucleiIndexListSize());
-					
-					//start sentencecount at 1 so decrement
-					DependencySentenceData dd = corpus.get(si.getSentenceNr());
-					int startIndex = si.getSentenceBegin()-1;
-					int endIndex = si.getSentenceEnd()-1;
-					
-					//System.out.println("Startindex " + startIndex);				
-
-					/*
-					System.out.println("Sentence: " + si.getSentenceNr() +
-										" NucleiLSize " + si.getNucleiIndexListSize() + 
-										" NucleiForm " + dd.getForm(si.getNucleiIndexListAt(0)-1));
-					*/
-					
-					StringBuilder posTagBuilder = new StringBuilder();
-					
-					/* 
-					 * *************************************************************
-					 * first: check if item is not the last item in the sentence,
-					 * (we can't skip sentence boarders)
-					 * second: check if item is already in input Map 
-					 * *************************************************************
-					 */	
-					if (!reachedLeftBoarder) {
-
-						StringBuilder leftKey = new StringBuilder();
-						// new key
-						if (startIndex > 0) {
-
-							String leftForm = checkForNumber(dd.getForm(startIndex -1));
-							String leftPOS = getTagQuery(getTag(dd,startIndex - 1));
-							
-							//check if leftword is found in grams -> add new nucleipos to sentence
-							boolean addNewNuclei = nGramCache.containsKey(leftForm);
-							
-							leftKey.append(leftForm).append(" ").append(key); //$NON-NLS-1$
-							posTagBuilder.append(leftPOS).append(" ").append(iin.getPosTag()); //$NON-NLS-1$
-							//System.out.println("Left: "+ leftForm + " " + leftPOS);
-							//System.out.println(leftKey + " " + posTagBuilder.toString());
-							
-							// extend existing gram with values
-							if (outputNGram.containsKey(leftKey.toString())) {	
-								
-								// leftSide(outputNGram.get(leftKey.toString()), si, leftPOS);
-								ArrayList<ItemInNuclei> itemsTemp = outputNGram.get(leftKey.toString());
-
-								boolean knownTag = false;
-								
-								for (int i = 0; i < itemsTemp.size(); i++) {
-									// increment when tag found again
-									ItemInNuclei item = itemsTemp.get(i);
-									//System.out.println(item.getPosTag() + " vs "+ leftPOS);
-									
-									if (item.getPosTag().equals(posTagBuilder.toString())) {
-										if (addNewNuclei){											
-											SentenceInfo sitemp = returnSentenceInfoNREqual(nGramCache.get(leftForm), si.getSentenceNr());
-											addNucleiLeft(item, posTagBuilder.toString(), si, sitemp, true);
-											knownTag = true;
-										} else {											
-											addSentenceInfoLeft(item, posTagBuilder.toString(), si, true);
-											knownTag = true;
-										}
-									}
-								}
-								
-								//outputNGram.put(leftKey.toString(), itemsTemp);
-
-
-								// new pos tag found; add to list
-								if (!knownTag) {
-									ItemInNuclei item = new ItemInNuclei();
-									//already an unigram
-									if (addNewNuclei){										
-										SentenceInfo sitemp = returnSentenceInfoNREqual(nGramCache.get(leftForm), si.getSentenceNr());
-										addNucleiLeft(item, posTagBuilder.toString(), si, sitemp, false);
-										itemsTemp.add(item);
-									} else {
-										addSentenceInfoLeft(item, posTagBuilder.toString(), si, false);
-										itemsTemp.add(item);
-									}
-								}
-
-							} else {
-								ArrayList<ItemInNuclei> items = new ArrayList<ItemInNuclei>();
-								ItemInNuclei item = new ItemInNuclei();
-								
-								//already an unigram
-								if (addNewNuclei){
-									SentenceInfo sitemp = returnSentenceInfoNREqual(nGramCache.get(leftForm), si.getSentenceNr());
-									addNucleiLeft(item, posTagBuilder.toString(), si, sitemp, false);
-									items.add(item);
-								} else {
-									addSentenceInfoLeft(item, posTagBuilder.toString(), si, false);
-									items.add(item);
-								}								
-								outputNGram.put(leftKey.toString(), items);
-							}
-		
-							
-						} else {
-							//reachedLeftBoarder = true;
-						}
-					}
-					
-					
-					
-					/* 
-					 * *************************************************************
-					 * first: check if item is not the last item in the sentence,
-					 * (we can't skip sentence boarders)
-					 * second: check if item is already in input Map 
-					 * *************************************************************
-					 */					
-					if(!reachedRightBoarder){
-						
-						StringBuilder rightKey = new StringBuilder();
-						int sentenceSize = dd.length()-1;
-						
-						//System.out.println("End: " + endIndex + " SIze " + dd.length());
-
-//						if ((endIndex < sentenceSize)
-//								&& (!inputNGram.containsKey("getRWord"))) {
-
-						
-						if (endIndex < sentenceSize) {
-
-							String rightForm = checkForNumber(dd.getForm(endIndex + 1));
-							String rightPOS = getTagQuery(getTag(dd,endIndex + 1));
-							
-							//check if leftword is found in grams -> add new nucleipos to sentence
-							boolean addNewNuclei = nGramCache.containsKey(rightForm);
-							
-							rightKey.append(key).append(" ").append(rightForm); //$NON-NLS-1$
-							posTagBuilder.delete(0, posTagBuilder.length());
-							posTagBuilder.append(iin.getPosTag()).append(" ").append(rightPOS); //$NON-NLS-1$
-														
-							// extend existing gram with values
-							if (outputNGramR.containsKey(rightKey.toString())) {	
-
-								// leftSide(outputNGram.get(leftKey.toString()), si, leftPOS);
-								ArrayList<ItemInNuclei> itemsTemp = outputNGramR.get(rightKey.toString());
-
-								boolean knownTag = false;
-
-								for (int i = 0; i < itemsTemp.size(); i++) {
-									// increment when tag found again
-									ItemInNuclei item = itemsTemp.get(i);
-									
-									// System.out.println(item.getPosTag()
-									// +" vs "+ getTagQuery(getTag(dd,wordIndex)));
-
-									if (item.getPosTag().equals(posTagBuilder.toString())) {
-										//int oldCount = item.getCount();
-										if (addNewNuclei){											
-											SentenceInfo sitemp = returnSentenceInfoNREqual(nGramCache.get(rightForm), si.getSentenceNr());
-											addNucleiRigth(item, posTagBuilder.toString(), si, sitemp, true);
-											knownTag = true;
-										} else {											
-											addSentenceInfoRigth(item, si, posTagBuilder.toString(), true);
-											knownTag = true;
-										}
-									}
-								}
-								
-
-								// new pos tag found; add to list
-								if (!knownTag) {
-									ItemInNuclei item = new ItemInNuclei();
-									//already an unigram
-									if (addNewNuclei){										
-										SentenceInfo sitemp = returnSentenceInfoNREqual(nGramCache.get(rightForm), si.getSentenceNr());
-										addNucleiRigth(item, posTagBuilder.toString(), si, sitemp, false);
-										itemsTemp.add(item);
-									} else {		
-										addSentenceInfoRigth(item, si, posTagBuilder.toString(), false);
-										itemsTemp.add(item);
-									}
-								}
-
-							} else {
-								ArrayList<ItemInNuclei> items = new ArrayList<ItemInNuclei>();
-								ItemInNuclei item = new ItemInNuclei();
-								
-								//already an unigram
-								if (addNewNuclei){									
-									SentenceInfo sitemp = returnSentenceInfoNREqual(nGramCache.get(rightForm), si.getSentenceNr());
-									addNucleiRigth(item, posTagBuilder.toString(), si, sitemp, false);
-									items.add(item);
-								} else {
-									addSentenceInfoRigth(item, si, posTagBuilder.toString(), false);
-									items.add(item);
-								}
-								//System.out.println("<<<<<<"+rightKey.toString());
-								outputNGramR.put(rightKey.toString(), items);
-							}
-							
-							
-						} else {
-							//reachedRightBoarder = true;
-						}
-					}
-					
-				}	
+	/**
+	 * Creates all n-grams beyond the uni-grams, either from scratch or by
+	 * reusing (and if needed extending) a persistent {@link NGramIndex}.
+	 */
+	private void mineNGrams(){
+		NGramIndex index = null;
+		if(usePersistentIndex){
+			index = new NGramIndex(engine.getFingerprint(), miningMode,
+					useFringe, fringeSize, useNumberWildcard, useSuffixArray);
+			try {
+				index.load();
+			} catch (Exception e) {
+				LoggerFactory.log(this, Level.WARNING, "Failed to load n-gram index", e); //$NON-NLS-1$
 			}
 		}
 		
+		boolean finished;
 		
-	
-		//merge leftSide (outputNGram) with rightSide (outputNGramR)
-//		System.out.println("SizeL " + outputNGram.size());
-//		System.out.println("SizeR " + outputNGramR.size());
-		outputNGram = mergeResults(outputNGram, outputNGramR);
-//		System.out.println("SizeMerged " + outputNGram.size());
-		
-//		//TODO enable filter option for dependency?
-//		if(nGramCount == 4){
-//			nGramPoSFilter(outputNGram);
-//		}
-
+		if(index != null && index.covers(nGramLimit)){
+			replayLevels(index.getLevels(), index.isExhausted());
+			return;
+		} else if(index != null && index.isLoaded() && !useSuffixArray
+				&& !index.getLevels().isEmpty()){
+			// continue from the last stored level
+			List<Map<String, ArrayList<ItemInNuclei>>> levels = index.getLevels();
+			replayLevels(levels, false);
+			finished = createNGrams(engine.resume(nGramCache, levels.get(levels.size()-1)));
+		} else if(useSuffixArray){
+			finished = createNGramsFromIndex();
+		} else {
+			finished = createNGrams(engine.createUniGrams(nGramCache));
+		}
 		
-//		for(Iterator<String> i = outputNGram.keySet().iterator(); i.hasNext();){
-//			String key = i.next();
-//			ArrayList<ItemInNuclei> arrItem = outputNGram.get(key);
-//			//only one PoS Tag found -> add to delete list;
-//			if (arrItem.size() > 1){
-//				System.out.println("ToKeep ---------------> " + key);
-//			}
-//		}
-
-		if (outputNGram.size() > 0) {
-			
-			// items with length one -> no longer variation --> remove
-			outputNGram = removeItemsLengthOne(outputNGram);
+		if(index != null && finished){
+			try {
+				index.save(nGramLevels, exhausted);
+			} catch (Exception e) {
+				LoggerFactory.log(this, Level.WARNING, "Failed to save n-gram index", e); //$NON-NLS-1$
+			}
+		}
+	}
+	
+	
+	/**
+	 * Adds previously mined levels to the cache, following the same passes
+	 * as an actual mining run.
+	 */
+	private void replayLevels(List<Map<String, ArrayList<ItemInNuclei>>> levels,
+			boolean levelsExhausted){
+		for(int i = 0; i < levels.size(); i++){
+			int length = i+2;
+			Map<String, ArrayList<ItemInNuclei>> result = levels.get(i);
 			
-			// remove items at the fringe
-
-			if (useFringe) {
-				//System.out.println(fringeSize);
-				if(nGramCount >= fringeSize*2){
-					outputNGram = distrustFringeHeuristic(outputNGram);
-					if(!usedFringe) {
-						usedFringe = true;
-					}
-				}
-				
+			if(NGramSuffixIndex.isFringeActive(length, useFringe, fringeSize)){
+				usedFringe = true;
 			}
 			
 			//add results into Cache
-			nGramCache.putAll(outputNGram);
-			
+			nGramCache.putAll(result);
+			nGramLevels.add(result);
 			
 			//continue creating ngrams?
-			if (continueNGrams()){	
-				nGramCount++;
-				//TODO print to console
-				nGramResults(outputNGram);	
-				createNGrams(outputNGram, false, false);
+			if (!continueNGrams()){
+				return;
 			}
+			
+			nGramCount++;
+			nGramResults(result);
 		}
+		
+		exhausted = levelsExhausted;
 	}
 	
 	
-	private Map<String, ArrayList<ItemInNuclei>> mergeResults(
-			Map<String, ArrayList<ItemInNuclei>> outputNGram,
-			Map<String, ArrayList<ItemInNuclei>> outputNGramR) {
-
-		Map<String, ArrayList<ItemInNuclei>> result = new LinkedHashMap<String, ArrayList<ItemInNuclei>>();
-
-		result.putAll(outputNGram);
-	
-	
-	for(Iterator<String> it = outputNGramR.keySet().iterator(); it.hasNext();){
-		String key = it.next();
-		if (result.containsKey(key)){
-			//System.out.println(key + " "+ outputNGram.get(key).get(0).getPosTag());
-			//System.out.println(key + " "+ outputNGramR.get(key).get(0).getPosTag());
-			//need merge
-			result.put(key, outputNGram.get(key));
-		} else {
-			result.put(key, outputNGramR.get(key));			
+	/**
+	 * Grows the variation n-grams level by level, starting with the given
+	 * n-grams of length {@link #nGramCount}. The actual extension runs on
+	 * the integer encoded corpus of the {@link NGramEngine}. Returns
+	 * {@code false} if mining was cancelled.
+	 */
+	private boolean createNGrams(List<NGramGroup> inputNGram){
+		try {
+			while(!inputNGram.isEmpty()){
+				List<NGramGroup> outputNGram = engine.extend(inputNGram, search);
+				
+				// cancelled
+				if(outputNGram == null){
+					return false;
+				}
+				
+				// no more extensions possible
+				if(outputNGram.isEmpty()){
+					break;
+				}
+				
+				// items with length one -> no longer variation --> remove
+				NGramEngine.removeInvariant(outputNGram);
+				
+				// remove items at the fringe
+				if (useFringe && nGramCount >= fringeSize*2) {
+					NGramEngine.distrustFringe(outputNGram, fringeSize);
+					usedFringe = true;
+				}
+				
+				Map<String, ArrayList<ItemInNuclei>> result = new LinkedHashMap<String, ArrayList<ItemInNuclei>>();
+				for(NGramGroup group : outputNGram){
+					result.put(engine.getKey(group), group.getItems());
+				}
+				
+				//add results into Cache
+				nGramCache.putAll(result);
+				nGramLevels.add(result);
+				
+				//continue creating ngrams?
+				if (!continueNGrams()){
+					return true;
+				}
+				
+				nGramCount++;
+				nGramResults(result);
+				inputNGram = outputNGram;
+			}
+		} catch (InterruptedException e) {
+			LoggerFactory.log(this, Level.WARNING, "Interrupted while creating n-grams", e); //$NON-NLS-1$
+			Thread.currentThread().interrupt();
+			return false;
 		}
-	}	
-	
-	//TODO add clean up of unused nucleus
-	//System.out.println("Checker " + isNucleiList("Dynamics", involvedSentences("General Dynamics")));
-//	for(Iterator<String> cleanKey = result.keySet().iterator(); cleanKey.hasNext();){
-//		String keyToCheck = cleanKey.next();
-//		ArrayList<ItemInNuclei> arrayList = result.get(keyToCheck);
-//		//cleanNuclei(arrayList, keyToCheck);		
-//	}
-	
-	return result;
+		
+		exhausted = true;
+		return true;
 	}
 	
 	
-	
+	/**
+	 * Same as {@link #createNGrams(List)} but collects the variation n-grams
+	 * of all lengths at once from a {@link NGramSuffixIndex} over the corpus.
+	 */
+	private boolean createNGramsFromIndex(){
+		NGramSuffixIndex index = new NGramSuffixIndex(engine);
+		
+		int maxLength = nGramLimit == 0 ? 0 : Math.max(nGramLimit, 2);
+		if(!index.collect(nGramCache, maxLength, useFringe, fringeSize, search)){
+			return false;
+		}
+		
+		// replay the passes of the level-wise extension
+		for(int length = 2; index.isExtendable(length-1); length++){
+			if(NGramSuffixIndex.isFringeActive(length, useFringe, fringeSize)){
+				usedFringe = true;
+			}
+			
+			Map<String, ArrayList<ItemInNuclei>> result = index.createNGrams(length);
+			
+			//add results into Cache
+			nGramCache.putAll(result);
+			nGramLevels.add(result);
+			
+			//continue creating ngrams?
+			if (!continueNGrams()){
+				return true;
+			}
+			
+			nGramCount++;
+			nGramResults(result);
+		}
+		
+		exhausted = true;
+		return true;
+	}
 	
 	
 	//TODO method to clean up unecessary nucleus 20.11
@@ -1206,83 +979,6 @@ public class NGrams {
 	}
 
 
-	/**
-	 * @param item
-	 * @param posTag
-	 * @param si
-	 * @param sitemp
-	 * @param inc
-	 */
-	private void addNucleiRigth(ItemInNuclei item, String posTag,
-			SentenceInfo si, SentenceInfo sitemp, boolean inc) {
-		if (inc){
-			int oldCount = item.getCount();
-			item.setCount(oldCount + 1);	
-		}
-		//System.out.println("Right: posTag " + posTag);
-		//System.out.println("Right: nuclei INDEX " + si.getNucleiIndex());		
-		item.setPosTag(ensureValid(posTag));
-		item.addNewNucleiToSentenceInfoRight(si, sitemp);		
-	}
-	
-	
-	/**
-	 * @param item
-	 * @param posTag
-	 * @param si
-	 * @param sitemp
-	 * @param inc
-	 */
-	private void addNucleiLeft(ItemInNuclei item, String posTag,
-			SentenceInfo si, SentenceInfo sitemp, boolean inc) {
-		if (inc){
-			int oldCount = item.getCount();
-			item.setCount(oldCount + 1);	
-		}
-		//System.out.println("Left: posTag " + posTag);
-		//System.out.println("Left nuclei INDEX " + si.getNucleiIndex());
-		item.setPosTag(ensureValid(posTag));
-		item.addNewNucleiToSentenceInfoLeft(si, sitemp);		
-	}
-
-
-
-	/**
-	 * @param item
-	 * @param si
-	 * @param posTag
-	 * @param inc
-	 */
-	private void addSentenceInfoRigth(ItemInNuclei item, SentenceInfo si,
-			String posTag, boolean inc) {
-		if (inc){
-			int oldCount = item.getCount();
-			item.setCount(oldCount + 1);	
-		}
-//		System.out.println("SentenceRight: posTag " + posTag);
-//		System.out.println("SentenceRight INDEX " + si.getNucleiIndex());
-		item.setPosTag(ensureValid(posTag));											
-		item.addNewSentenceInfoRigth(si);
-	}
-
-
-	/**
-	 * @param item
-	 * @param posTag
-	 * @param si
-	 */
-	private void addSentenceInfoLeft(ItemInNuclei item, String posTag, SentenceInfo si, boolean inc) {
-		if (inc){
-			int oldCount = item.getCount();
-			item.setCount(oldCount + 1);	
-		}
-//		System.out.println("SentenceLeft: posTag " + posTag);
-//		System.out.println("SentenceLeft INDEX " + si.getNucleiIndex());
-		item.setPosTag(ensureValid(posTag));
-		item.addNewSentenceInfoLeft(si);
-	}
-
-	
 	protected String getTagQuery(String qtag){
 		String tag = qtag;
 		for(int i = 0; i < queryList.size(); i++){
@@ -1439,7 +1135,7 @@ public class NGrams {
 
 
 		if(nGramLimit != 1) {
-			createNGrams(nGramCache, false, false);				
+			mineNGrams();				
 		}		
 		
 		//show fringe info dialog the following  must apply:
@@ -25,6 +25,9 @@
  */
 package de.ims.icarus.plugins.errormining;
 
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -66,7 +69,7 @@ public class NGramsDependency {
 	//NIL stuff
 	protected Map<Integer,ArrayList<Integer>> nilCache;
 	protected Map<Integer,ArrayList<Integer>> nilEqualSentencesCache;
-	protected Map<String,ArrayList<Integer>> nilLexiconCache;
+	protected Map<String,TIntArrayList> nilLexiconCache;
 
 
 	protected List<DependencySentenceData> corpus;
@@ -108,7 +111,7 @@ public class NGramsDependency {
 //		corpus = new ArrayList<DependencySentenceData>();
 //
 //		nilCache = new LinkedHashMap<Integer,ArrayList<Integer>>();
-//		nilLexiconCache = new LinkedHashMap<String,ArrayList<Integer>>();
+//		nilLexiconCache = new LinkedHashMap<String,TIntArrayList>();
 	}
 
 
@@ -134,7 +137,7 @@ public class NGramsDependency {
 		corpus = new ArrayList<DependencySentenceData>();
 
 		nilCache = new LinkedHashMap<Integer,ArrayList<Integer>>();
-		nilLexiconCache = new LinkedHashMap<String,ArrayList<Integer>>();
+		nilLexiconCache = new LinkedHashMap<String,TIntArrayList>();
 	}
 
 
@@ -159,7 +162,7 @@ public class NGramsDependency {
 		corpus = new ArrayList<DependencySentenceData>();
 
 		nilCache = new LinkedHashMap<Integer,ArrayList<Integer>>();
-		nilLexiconCache = new LinkedHashMap<String,ArrayList<Integer>>();
+		nilLexiconCache = new LinkedHashMap<String,TIntArrayList>();
 	}
 
 
@@ -278,16 +281,15 @@ public class NGramsDependency {
 			//System.out.print(currentWord + " "); //$NON-NLS-1$
 
 
-			if(nilLexiconCache.containsKey(currentWord)){
-				if(!nilLexiconCache.get(currentWord).contains(sentenceNr)){
-					nilLexiconCache.get(currentWord).add(sentenceNr);
-				}
-
-			} else {
-				ArrayList<Integer> snrList = new ArrayList<Integer>();
-				snrList.add(sentenceNr);
+			// sentences arrive in ascending order, so postings stay sorted
+			TIntArrayList snrList = nilLexiconCache.get(currentWord);
+			if(snrList == null){
+				snrList = new TIntArrayList();
 				nilLexiconCache.put(currentWord, snrList);
 			}
+			if(snrList.isEmpty() || snrList.get(snrList.size()-1) != sentenceNr){
+				snrList.add(sentenceNr);
+			}
 
 
 			int headIndex = dd.getHead(wordIndex);
@@ -1519,7 +1521,7 @@ public class NGramsDependency {
 			String[] keySplit = key.split(" "); //$NON-NLS-1$
 
 			//List including all sentenceNo where the current keypair occurs
-			List<Integer> list = sentencesWithSameKeypair(keySplit);
+			TIntArrayList list = sentencesWithSameKeypair(keySplit);
 
 			boolean nilAdded = false;
 
@@ -1608,16 +1610,33 @@ public class NGramsDependency {
 	 * @param keySplit
 	 * @return
 	 */
-	private List<Integer> sentencesWithSameKeypair(String[] keyPair) {
-		List<Integer> tempList = new ArrayList<Integer>();
-		tempList.addAll(nilLexiconCache.get(keyPair[0]));
+	private TIntArrayList sentencesWithSameKeypair(String[] keyPair) {
+		TIntArrayList tempList = new TIntArrayList();
+		if(keyPair.length < 2){
+			return tempList;
+		}
 
-//		System.out.println("a:" + keyPair[0] + " b:" + keyPair[1]);
-//		System.out.println("a:" + nilLexiconCache.get(keyPair[0]));
-//		System.out.println("b:" + nilLexiconCache.get(keyPair[1]));
+		TIntArrayList a = nilLexiconCache.get(keyPair[0]);
+		TIntArrayList b = nilLexiconCache.get(keyPair[1]);
+		if(a == null || b == null){
+			return tempList;
+		}
 
-		tempList.retainAll(nilLexiconCache.get(keyPair[1]));
-		//System.out.println("tl:" + tempList);
+		// both postings are sorted, so a linear merge yields the intersection
+		int i = 0, j = 0;
+		while(i < a.size() && j < b.size()){
+			int snrA = a.get(i);
+			int snrB = b.get(j);
+			if(snrA < snrB){
+				i++;
+			} else if(snrA > snrB){
+				j++;
+			} else {
+				tempList.add(snrA);
+				i++;
+				j++;
+			}
+		}
 
 		return tempList;
 	}
@@ -1735,41 +1754,62 @@ public class NGramsDependency {
 		nilEqualSentencesCache = new LinkedHashMap<>();
 
 		for (Integer length : removeItemsSnr(nilCache).keySet()){
+			List<Integer> tmp = nilCache.get(length);
+
+			// group sentences by fingerprint, each sentence is hashed once
+			TLongObjectHashMap<List<List<Integer>>> groups = new TLongObjectHashMap<>();
+			List<List<Integer>> classes = new ArrayList<>(tmp.size());
+
+			for (int snr = 0; snr < tmp.size(); snr++) {
+				DependencySentenceData dd = corpus.get(tmp.get(snr));
+				long fingerprint = fingerprint(dd);
 
-			for (int snr = 0; snr < nilCache.get(length).size(); snr++) {
-				List<Integer> tmp = nilCache.get(length);
+				List<List<Integer>> candidates = groups.get(fingerprint);
+				if(candidates == null){
+					candidates = new ArrayList<>(1);
+					groups.put(fingerprint, candidates);
+				}
+
+				// rule out hash collisions against one member of each class
+				List<Integer> equalSentences = null;
+				for(List<Integer> candidate : candidates){
+					if(isEqualDependencySentenceData(dd, corpus.get(candidate.get(0)))){
+						equalSentences = candidate;
+						break;
+					}
+				}
+				if(equalSentences == null){
+					equalSentences = new ArrayList<Integer>();
+					candidates.add(equalSentences);
+				}
+
+				equalSentences.add(tmp.get(snr));
+				classes.add(equalSentences);
+			}
 
-				List<Integer> result = sentenceMultipleOccurence(tmp.get(snr), tmp);
-				if(result.size() > 0){
-					nilEqualSentencesCache.put(tmp.get(snr), (ArrayList<Integer>) result);
+			for (int snr = 0; snr < tmp.size(); snr++) {
+				List<Integer> equalSentences = classes.get(snr);
+				if(equalSentences.size() > 1){
+					ArrayList<Integer> result = new ArrayList<Integer>(equalSentences);
+					result.remove(tmp.get(snr));
+					nilEqualSentencesCache.put(tmp.get(snr), result);
 				}
-				//System.out.println("Test " + tmp.get(snr) +" " + sentenceMultipleOccurence(tmp.get(snr), tmp) + tmp);
 			}
 		}
 	}
 
 
 	/**
-	 * @param snr
-	 * @param tmp
+	 * Polynomial 64 bit hash over the normalized word forms of a sentence
+	 * @param dd
+	 * @return
 	 */
-	private List<Integer> sentenceMultipleOccurence(int snr, List<Integer> tmp) {
-		DependencySentenceData dd = corpus.get(snr);
-
-		List<Integer> equalSentences = new ArrayList<Integer>();
-
-		for(int i = 0; i < tmp.size(); i++){
-			//dont compare same sentences
-			if(snr != tmp.get(i)){
-				DependencySentenceData ddTemp = corpus.get(tmp.get(i));
-
-				if(isEqualDependencySentenceData(dd,ddTemp)){
-					equalSentences.add(tmp.get(i));
-				}
-				//System.out.println("snr " + snr + " compare " + tmp.get(i));
-			}
+	private long fingerprint(DependencySentenceData dd) {
+		long hash = dd.length();
+		for(int index = 0; index < dd.length(); index++){
+			hash = hash * 0x9E3779B97F4A7C15L + checkForNumber(dd.getForm(index)).hashCode();
 		}
-		return equalSentences;
+		return hash;
 	}
 
 
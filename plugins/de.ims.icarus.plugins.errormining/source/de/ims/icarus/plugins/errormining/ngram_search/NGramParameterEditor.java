@@ -103,6 +103,11 @@ public class NGramParameterEditor implements Editor<Options>, NGramParameters {
 		formBuilder.addToggleFormEntry(CREATE_XML_OUTPUT,
 				"plugins.errormining.labels.createxmlOutput"); //$NON-NLS-1$
 		
+		formBuilder.addToggleFormEntry(USE_SUFFIX_ARRAY,
+				"plugins.errormining.labels.suffixArray"); //$NON-NLS-1$
+		formBuilder.addToggleFormEntry(USE_PERSISTENT_INDEX,
+				"plugins.errormining.labels.persistentIndex"); //$NON-NLS-1$
+		
 		
 //		entry = new InputFormEntry("plugins.errormining.labels.nilSentenceMatch") //$NON-NLS-1$
 //					.setDocument(new NumberDocument());
@@ -162,6 +167,13 @@ public class NGramParameterEditor implements Editor<Options>, NGramParameters {
 							options.get(CREATE_XML_OUTPUT,
 										DEFAULT_CREATE_XML_OUTPUT));
 		
+		formBuilder.setValue(USE_SUFFIX_ARRAY,
+							options.get(USE_SUFFIX_ARRAY,
+										DEFAULT_USE_SUFFIX_ARRAY));
+		formBuilder.setValue(USE_PERSISTENT_INDEX,
+							options.get(USE_PERSISTENT_INDEX,
+										DEFAULT_USE_PERSISTENT_INDEX));
+		
 	}
 	
 
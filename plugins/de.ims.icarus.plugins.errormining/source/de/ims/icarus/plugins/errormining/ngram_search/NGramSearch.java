@@ -80,6 +80,8 @@ public class NGramSearch extends AbstractParallelSearch implements
 	protected final int gramsGreaterX;
 	protected final int sentenceLimit;
 	protected final boolean createXML;
+	protected final boolean useSuffixArray;
+	protected final boolean usePersistentIndex;
 	protected List<NGramQAttributes> nqList;
 
 	/**
@@ -106,6 +108,10 @@ public class NGramSearch extends AbstractParallelSearch implements
 				DEFAULT_GRAMS_GREATERX);
 		createXML = getParameters().getBoolean(CREATE_XML_OUTPUT,
 				DEFAULT_CREATE_XML_OUTPUT);
+		useSuffixArray = getParameters().getBoolean(USE_SUFFIX_ARRAY,
+				DEFAULT_USE_SUFFIX_ARRAY);
+		usePersistentIndex = getParameters().getBoolean(USE_PERSISTENT_INDEX,
+				DEFAULT_USE_PERSISTENT_INDEX);
 	}
 
 	public NGramSearch(NGramSearchFactoryDependency factory, SearchQuery query,
@@ -126,6 +132,10 @@ public class NGramSearch extends AbstractParallelSearch implements
 				DEFAULT_GRAMS_GREATERX);
 		createXML = getParameters().getBoolean(CREATE_XML_OUTPUT,
 				DEFAULT_CREATE_XML_OUTPUT);
+		useSuffixArray = getParameters().getBoolean(USE_SUFFIX_ARRAY,
+				DEFAULT_USE_SUFFIX_ARRAY);
+		usePersistentIndex = getParameters().getBoolean(USE_PERSISTENT_INDEX,
+				DEFAULT_USE_PERSISTENT_INDEX);
 	}
 
 	/**
@@ -168,6 +178,8 @@ public class NGramSearch extends AbstractParallelSearch implements
 	 */
 	@Override
 	protected int getMaxWorkerCount() {
+		// Every worker would mine the complete corpus on its own, the
+		// n-gram extension itself is spread over all cores by NGramEngine
 		return 1;
 	}
 
@@ -190,12 +202,12 @@ public class NGramSearch extends AbstractParallelSearch implements
 	}
 
 	/**
-	 * @see de.ims.icarus.search_tools.standard.AbstractParallelSearch#itemProcessed(de.ims.icarus.search_tools.standard.AbstractParallelSearch.ItemBuffer)
+	 * @see de.ims.icarus.search_tools.standard.AbstractParallelSearch#itemsProcessed(int)
 	 */
 	@Override
-	protected void itemProcessed(ItemBuffer buffer) {
+	protected void itemsProcessed(int count) {
 		synchronized (this) {
-			processed++;
+			processed += count;
 			double total = source.size();
 			setProgress(50 + (int) (processed / total * 50d));
 		}
@@ -269,10 +281,6 @@ public class NGramSearch extends AbstractParallelSearch implements
 		return new EntryBuilder(1);
 	}
 
-	protected GroupCache createCache() {
-		return result.createCache();
-	}
-
 	protected Options createOptions() {
 
 		Options options = new Options();
@@ -280,6 +288,8 @@ public class NGramSearch extends AbstractParallelSearch implements
 		options.put("FringeSIZE", fringeSize); //$NON-NLS-1$
 		options.put("NGramLIMIT", ngramResultLimit); //$NON-NLS-1$
 		options.put("UseNumberWildcard", useNumberWildcard); //$NON-NLS-1$
+		options.put("UseSuffixArray", useSuffixArray); //$NON-NLS-1$
+		options.put("UsePersistentIndex", usePersistentIndex); //$NON-NLS-1$
 		return options;
 	}
 
@@ -47,6 +47,10 @@ public interface NGramParameters {
 	
 	public static final String CREATE_XML_OUTPUT = "createxmlOutput"; //$NON-NLS-1$
 	
+	public static final String USE_SUFFIX_ARRAY = "suffixArray"; //$NON-NLS-1$
+	
+	public static final String USE_PERSISTENT_INDEX = "persistentIndex"; //$NON-NLS-1$
+	
 
 	//default values
 	public static final boolean DEFAULT_USE_NUMBER_WILDCARD = true;
@@ -56,4 +60,6 @@ public interface NGramParameters {
 	public static final int DEFAULT_GRAMS_GREATERX = 0;
 	public static final int DEFAULT_SENTENCE_LIMIT = 0;
 	public static final boolean DEFAULT_CREATE_XML_OUTPUT = false; 
+	public static final boolean DEFAULT_USE_SUFFIX_ARRAY = false;
+	public static final boolean DEFAULT_USE_PERSISTENT_INDEX = true;
 }
@@ -0,0 +1,51 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language;
+
+
+/**
+ * A {@code SentenceDataList} that publishes its items while it is still
+ * being filled, e.g. while a treebank is loading. As long as {@link #isGrowing()}
+ * returns {@code true} the value of {@link #size()} only reflects the number
+ * of items published so far.
+ * <p>
+ * Calls to {@link #get(int, DataType, AvailabilityObserver)} for indices
+ * that are not available yet return {@code null} and notify the given
+ * observer once the item has been published. If the list stops growing
+ * before the requested index is reached the observer is notified with
+ * a {@code null} item.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public interface IncrementalSentenceDataList extends SentenceDataList {
+
+	/**
+	 * Returns {@code true} if items are still being added to this list.
+	 */
+	boolean isGrowing();
+}
@@ -0,0 +1,53 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language;
+
+/**
+ * Models sentence data that stores some of its annotations as ids into
+ * corpus wide {@link SymbolTable}s. Clients that need to compare many
+ * values can resolve the ids of their own values once and then compare
+ * plain integers instead of strings.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public interface SymbolEncodedSentenceData extends SentenceData {
+
+	/**
+	 * Returns the table used to encode the annotation stored for
+	 * {@code key} or {@code null} if that annotation is not
+	 * symbol encoded.
+	 */
+	SymbolTable getSymbolTable(String key);
+
+	/**
+	 * Returns the id of the annotation value stored for {@code key} at
+	 * the given position or {@link SymbolTable#UNKNOWN_ID} if that
+	 * annotation is not symbol encoded.
+	 */
+	int getSymbolId(int index, String key);
+}
@@ -0,0 +1,265 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import de.ims.icarus.util.strings.StringUtil;
+
+/**
+ * Maps distinct string values to dense integer ids. A single table is
+ * meant to be shared by all the sentences of one corpus so that each
+ * annotation value is stored only once and the sentences themselves
+ * only need to keep the ids.
+ * <p>
+ * Lookups accept arbitrary {@code CharSequence} objects so that parsers
+ * can resolve values directly from their read buffers without creating
+ * a temporary {@code String} for every token. Ids are assigned in order
+ * of first occurrence and are never reused or removed.
+ * <p>
+ * Adding and looking up values is synchronized. Resolving ids via
+ * {@link #getSymbol(int)} and {@link #size()} do not require a lock.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class SymbolTable implements Serializable {
+
+	private static final long serialVersionUID = -4262410785227106632L;
+
+	public static final int UNKNOWN_ID = -1;
+
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private final String name;
+
+	private volatile String[] symbols;
+	private volatile int size = 0;
+
+	// Open addressing hash table of (id+1) values, 0 marks an empty slot
+	private int[] slots;
+	private int[] hashes;
+
+	public SymbolTable(String name) {
+		this(name, DEFAULT_CAPACITY);
+	}
+
+	public SymbolTable(String name, int capacity) {
+		if(capacity<1)
+			throw new IllegalArgumentException("Capacity must be positive: "+capacity); //$NON-NLS-1$
+
+		this.name = name;
+
+		symbols = new String[capacity];
+		hashes = new int[capacity];
+		slots = new int[tableSizeFor(capacity)];
+	}
+
+	private static int tableSizeFor(int capacity) {
+		int n = Integer.highestOneBit(capacity*2-1)<<1;
+		return Math.max(n, 16);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the number of symbols currently stored in this table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the value for the given id or {@code null} if
+	 * {@code id} equals {@link #UNKNOWN_ID}.
+	 */
+	public String getSymbol(int id) {
+		if(id==UNKNOWN_ID) {
+			return null;
+		}
+		if(id<0 || id>=size)
+			throw new IndexOutOfBoundsException("Unknown symbol id: "+id); //$NON-NLS-1$
+
+		return symbols[id];
+	}
+
+	/**
+	 * Returns the id of the given value or {@link #UNKNOWN_ID} if
+	 * it has not been added to this table yet.
+	 */
+	public synchronized int lookup(CharSequence s) {
+		if(s==null) {
+			return UNKNOWN_ID;
+		}
+
+		int slot = findSlot(s, StringUtil.hash(s));
+		return slots[slot]-1;
+	}
+
+	/**
+	 * Returns the id of the given value, adding it to this table
+	 * if required.
+	 */
+	public synchronized int intern(CharSequence s) {
+		if(s==null)
+			throw new NullPointerException("Invalid symbol"); //$NON-NLS-1$
+
+		int hash = StringUtil.hash(s);
+		int slot = findSlot(s, hash);
+		int id = slots[slot]-1;
+
+		if(id!=UNKNOWN_ID) {
+			return id;
+		}
+
+		id = size;
+
+		String[] symbols = this.symbols;
+		String symbol = StringUtil.toString(s);
+
+		if(id==symbols.length) {
+			int capacity = symbols.length<<1;
+			symbols = Arrays.copyOf(symbols, capacity);
+			symbols[id] = symbol;
+			hashes = Arrays.copyOf(hashes, capacity);
+			this.symbols = symbols;
+		} else {
+			symbols[id] = symbol;
+		}
+		hashes[id] = hash;
+
+		slots[slot] = id+1;
+		size = id+1;
+
+		if(size*2>slots.length) {
+			rehash();
+		}
+
+		return id;
+	}
+
+	private int findSlot(CharSequence s, int hash) {
+		int[] slots = this.slots;
+		int mask = slots.length-1;
+		int slot = spread(hash) & mask;
+
+		for(;;) {
+			int value = slots[slot];
+			if(value==0) {
+				return slot;
+			}
+			int id = value-1;
+			if(hashes[id]==hash && StringUtil.equals(s, symbols[id])) {
+				return slot;
+			}
+			slot = (slot+1) & mask;
+		}
+	}
+
+	private void rehash() {
+		int[] slots = new int[this.slots.length<<1];
+		int mask = slots.length-1;
+
+		for(int id=0; id<size; id++) {
+			int slot = spread(hashes[id]) & mask;
+			while(slots[slot]!=0) {
+				slot = (slot+1) & mask;
+			}
+			slots[slot] = id+1;
+		}
+
+		this.slots = slots;
+	}
+
+	private static int spread(int h) {
+		h ^= (h >>> 16);
+		return h * 0x9E3779B9;
+	}
+
+	/**
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "SymbolTable["+name+": "+size+" symbols]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Front-end for a shared table that is meant to be used by a single
+	 * thread only. Values already seen by the cache are resolved without
+	 * touching the lock of the shared table, so multiple threads can add
+	 * to the same table without constantly competing for it.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public static class Cache {
+
+		private final SymbolTable table;
+		private final SymbolTable local;
+
+		// Maps local ids to (id+1) in the shared table
+		private int[] mapping;
+
+		public Cache(SymbolTable table) {
+			if(table==null)
+				throw new NullPointerException("Invalid table"); //$NON-NLS-1$
+
+			this.table = table;
+
+			local = new SymbolTable(table.getName());
+			mapping = new int[DEFAULT_CAPACITY];
+		}
+
+		public SymbolTable getTable() {
+			return table;
+		}
+
+		/**
+		 * Returns the id of the given value in the shared table,
+		 * adding it to that table if required.
+		 */
+		public int intern(CharSequence s) {
+			int localId = local.intern(s);
+			if(localId>=mapping.length) {
+				mapping = Arrays.copyOf(mapping, mapping.length<<1);
+			}
+
+			int id = mapping[localId]-1;
+			if(id==UNKNOWN_ID) {
+				id = table.intern(local.getSymbol(localId));
+				mapping[localId] = id+1;
+			}
+
+			return id;
+		}
+	}
+}
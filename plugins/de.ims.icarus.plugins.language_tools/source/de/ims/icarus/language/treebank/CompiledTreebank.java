@@ -0,0 +1,63 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.treebank;
+
+import de.ims.icarus.language.SentenceData;
+
+/**
+ * Read-only view on a treebank stored in a binary format created by
+ * some {@link CompiledTreebankFormat}. Implementations usually map the
+ * underlying file into memory and create sentence objects on demand,
+ * so the data does not have to fit on the heap.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public interface CompiledTreebank {
+
+	int size();
+
+	SentenceData get(int index);
+
+	/**
+	 * Returns the length of the sentence at the given index without
+	 * having to access the actual sentence data.
+	 */
+	int getLength(int index);
+
+	/**
+	 * Returns value frequencies stored with the compiled data or
+	 * {@code null} if the format does not store them.
+	 */
+	TreebankStatistics getStatistics();
+
+	/**
+	 * Releases all resources held by this treebank. Sentences obtained
+	 * before remain valid.
+	 */
+	void close();
+}
@@ -0,0 +1,79 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.treebank;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import de.ims.icarus.language.SentenceData;
+
+/**
+ * Binary storage format for the content of a treebank file. Treebanks
+ * write their data in this format once it has been parsed and on later
+ * loads open the compiled file instead of parsing the source again.
+ * Compiled files record size and modification time of their source file
+ * as well as the id of the reader that parsed it and are ignored once
+ * the source changes or a different reader is used.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public interface CompiledTreebankFormat {
+
+	/**
+	 * Writes the given sentences to {@code file}. The {@code readerId}
+	 * identifies the reader (and therefore the selection of annotations)
+	 * that produced the {@code items}.
+	 *
+	 * @throws de.ims.icarus.language.UnsupportedSentenceDataException if
+	 * one of the {@code items} cannot be stored in this format
+	 */
+	void write(Path file, Path source, String readerId,
+			List<? extends SentenceData> items) throws IOException;
+
+	/**
+	 * Opens a file previously created by {@link #write(Path, Path, String, List)}.
+	 * Returns {@code null} if the file does not exist, if it is out
+	 * of date with respect to the given {@code source} file or if it
+	 * was written for a different reader.
+	 */
+	CompiledTreebank open(Path file, Path source, String readerId) throws IOException;
+
+	/**
+	 * Implemented by {@link de.ims.icarus.language.SentenceDataReader readers}
+	 * whose output can be stored in a compiled format.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public interface Provider {
+
+		CompiledTreebankFormat getCompiledFormat();
+	}
+}
@@ -0,0 +1,411 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.treebank;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.language.SentenceData;
+
+/**
+ * Inverted index mapping the values of basic token annotations to the
+ * indices of all the sentences containing at least one token with that
+ * value. Posting lists are stored delta encoded as variable length
+ * integers.
+ * <p>
+ * An index can be persisted next to the treebank file it was built for.
+ * The stored copy remembers size and modification time of that file as
+ * well as the identity of the reader that delivered the sentences and is
+ * discarded as soon as any of them changes.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class TreebankIndex implements LanguageConstants {
+
+	/**
+	 * Property keys for which posting lists are collected.
+	 */
+	public static final String[] DEFAULT_KEYS = {
+		FORM_KEY,
+		LEMMA_KEY,
+		POS_KEY,
+		DEPREL_KEY,
+		FEATURES_KEY,
+	};
+
+	public static final String FILE_SUFFIX = ".tidx"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x49434958; // "ICIX"
+	private static final int VERSION = 2;
+
+	private static final int[] EMPTY = new int[0];
+
+	private final int itemCount;
+	private final Map<String, Map<String, byte[]>> postings;
+
+	protected TreebankIndex(int itemCount, Map<String, Map<String, byte[]>> postings) {
+		this.itemCount = itemCount;
+		this.postings = postings;
+	}
+
+	/**
+	 * Returns the number of sentences this index was built for.
+	 */
+	public int getItemCount() {
+		return itemCount;
+	}
+
+	public boolean isSupported(String key) {
+		return postings.containsKey(key);
+	}
+
+	/**
+	 * Returns the number of sentences that contain the given value
+	 * or {@code -1} if the property denoted by {@code key} is not indexed.
+	 */
+	public int getSentenceCount(String key, String value) {
+		Map<String, byte[]> map = postings.get(key);
+		if(map==null) {
+			return -1;
+		}
+
+		byte[] data = map.get(value);
+		return data==null ? 0 : readCount(data);
+	}
+
+	/**
+	 * Returns the ascending indices of all sentences containing
+	 * the given value or {@code null} if the property denoted by
+	 * {@code key} is not indexed.
+	 */
+	public int[] getPostings(String key, String value) {
+		Map<String, byte[]> map = postings.get(key);
+		if(map==null) {
+			return null;
+		}
+
+		byte[] data = map.get(value);
+		if(data==null) {
+			return EMPTY;
+		}
+
+		return decode(data);
+	}
+
+	/**
+	 * Intersects two ascending lists of sentence indices.
+	 */
+	public static int[] intersect(int[] p1, int[] p2) {
+		int[] result = new int[Math.min(p1.length, p2.length)];
+		int size = 0;
+
+		int i1 = 0, i2 = 0;
+		while(i1<p1.length && i2<p2.length) {
+			int v1 = p1[i1];
+			int v2 = p2[i2];
+
+			if(v1==v2) {
+				result[size++] = v1;
+				i1++;
+				i2++;
+			} else if(v1<v2) {
+				i1++;
+			} else {
+				i2++;
+			}
+		}
+
+		return size==result.length ? result : Arrays.copyOf(result, size);
+	}
+
+	private static int readCount(byte[] data) {
+		int value = 0;
+		int shift = 0;
+		for(int i=0; ; i++) {
+			byte b = data[i];
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80)==0) {
+				return value;
+			}
+			shift += 7;
+		}
+	}
+
+	private static int[] decode(byte[] data) {
+		int pos = 0;
+		int[] result = null;
+		int size = 0;
+		int last = -1;
+
+		while(pos<data.length) {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = data[pos++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while((b & 0x80)!=0);
+
+			if(result==null) {
+				// First entry holds the length of the list
+				result = new int[value];
+			} else {
+				last += value;
+				result[size++] = last;
+			}
+		}
+
+		return result==null ? EMPTY : result;
+	}
+
+	/**
+	 * Returns the file an index for the given treebank file is stored in.
+	 * Different readers may deliver different annotations for the same
+	 * file, so every {@code readerId} gets its own index file.
+	 */
+	public static Path getIndexFile(Path treebankFile, String readerId) {
+		return treebankFile.resolveSibling(treebankFile.getFileName()
+				+"."+String.format("%08x", readerId.hashCode())+FILE_SUFFIX); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Writes this index to the given file, recording size and
+	 * modification time of the {@code source} file it belongs to
+	 * together with the id of the reader used to parse it.
+	 */
+	public void save(Path file, Path source, String readerId) throws IOException {
+		try(DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(Files.size(source));
+			out.writeLong(Files.getLastModifiedTime(source).toMillis());
+			out.writeUTF(readerId);
+			out.writeInt(itemCount);
+
+			out.writeInt(postings.size());
+			for(Entry<String, Map<String, byte[]>> entry : postings.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().size());
+
+				for(Entry<String, byte[]> posting : entry.getValue().entrySet()) {
+					byte[] data = posting.getValue();
+					out.writeUTF(posting.getKey());
+					out.writeInt(data.length);
+					out.write(data);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads an index previously written by {@link #save(Path, Path, String)}.
+	 * Returns {@code null} if the file does not exist, if it is out
+	 * of date with respect to the given {@code source} file or if it
+	 * was built from the output of another reader.
+	 */
+	public static TreebankIndex load(Path file, Path source, String readerId) throws IOException {
+		if(!Files.exists(file) || !Files.exists(source)) {
+			return null;
+		}
+
+		try(DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file)))) {
+			if(in.readInt()!=MAGIC || in.readInt()!=VERSION) {
+				return null;
+			}
+			if(in.readLong()!=Files.size(source)
+					|| in.readLong()!=Files.getLastModifiedTime(source).toMillis()) {
+				return null;
+			}
+			if(!readerId.equals(in.readUTF())) {
+				return null;
+			}
+
+			int itemCount = in.readInt();
+
+			int keyCount = in.readInt();
+			Map<String, Map<String, byte[]>> postings = new HashMap<>(keyCount*2);
+			for(int i=0; i<keyCount; i++) {
+				String key = in.readUTF();
+				int entryCount = in.readInt();
+
+				Map<String, byte[]> map = new HashMap<>(entryCount*2);
+				for(int j=0; j<entryCount; j++) {
+					String value = in.readUTF();
+					byte[] data = new byte[in.readInt()];
+					in.readFully(data);
+					map.put(value, data);
+				}
+				postings.put(key, map);
+			}
+
+			return new TreebankIndex(itemCount, postings);
+		}
+	}
+
+	/**
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public static class Builder {
+
+		private final String[] keys;
+		private final Map<String, Map<String, PostingBuffer>> buffers = new HashMap<>();
+
+		private int itemCount = 0;
+
+		public Builder() {
+			this(DEFAULT_KEYS);
+		}
+
+		public Builder(String[] keys) {
+			if(keys==null)
+				throw new NullPointerException("Invalid keys"); //$NON-NLS-1$
+
+			this.keys = keys.clone();
+
+			for(String key : keys) {
+				buffers.put(key, new HashMap<String, PostingBuffer>(1000));
+			}
+		}
+
+		/**
+		 * Adds the tokens of the sentence stored at the given
+		 * index. Sentences have to be added in ascending order.
+		 */
+		public void process(int index, SentenceData data) {
+			if(index<itemCount)
+				throw new IllegalArgumentException("Sentences must be added in ascending order: "+index); //$NON-NLS-1$
+
+			itemCount = index+1;
+
+			int size = data.length();
+
+			for(String key : keys) {
+				Map<String, PostingBuffer> map = buffers.get(key);
+
+				for(int i=0; i<size; i++) {
+					Object value = data.getProperty(i, key);
+					if(!(value instanceof String)) {
+						continue;
+					}
+
+					PostingBuffer buffer = map.get(value);
+					if(buffer==null) {
+						buffer = new PostingBuffer();
+						map.put((String)value, buffer);
+					}
+					buffer.add(index);
+				}
+			}
+		}
+
+		public TreebankIndex build() {
+			Map<String, Map<String, byte[]>> postings = new HashMap<>();
+
+			for(Entry<String, Map<String, PostingBuffer>> entry : buffers.entrySet()) {
+				Map<String, PostingBuffer> source = entry.getValue();
+				Map<String, byte[]> map = new HashMap<>(source.size()*2);
+
+				for(Entry<String, PostingBuffer> posting : source.entrySet()) {
+					map.put(posting.getKey(), posting.getValue().toArray());
+				}
+
+				postings.put(entry.getKey(), map);
+			}
+
+			return new TreebankIndex(itemCount, postings);
+		}
+	}
+
+	private static class PostingBuffer {
+		private byte[] data = new byte[4];
+		private int size = 0;
+		private int count = 0;
+		private int last = -1;
+
+		void add(int index) {
+			if(index==last) {
+				return;
+			}
+
+			write(index-last);
+			last = index;
+			count++;
+		}
+
+		private void write(int value) {
+			if(size+5>data.length) {
+				data = Arrays.copyOf(data, data.length*2);
+			}
+
+			while((value & ~0x7F)!=0) {
+				data[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			data[size++] = (byte) value;
+		}
+
+		byte[] toArray() {
+			// Prepend the length of the list
+			int header = count;
+			int headerSize = 1;
+			while((header & ~0x7F)!=0) {
+				header >>>= 7;
+				headerSize++;
+			}
+
+			byte[] result = new byte[headerSize+size];
+			int pos = 0;
+			header = count;
+			while((header & ~0x7F)!=0) {
+				result[pos++] = (byte) ((header & 0x7F) | 0x80);
+				header >>>= 7;
+			}
+			result[pos++] = (byte) header;
+
+			System.arraycopy(data, 0, result, pos, size);
+
+			return result;
+		}
+	}
+}
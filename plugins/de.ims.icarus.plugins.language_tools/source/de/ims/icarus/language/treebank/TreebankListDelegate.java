@@ -36,8 +36,8 @@ import javax.swing.event.ChangeListener;
 import de.ims.icarus.io.Loadable;
 import de.ims.icarus.language.AvailabilityObserver;
 import de.ims.icarus.language.DataType;
+import de.ims.icarus.language.IncrementalSentenceDataList;
 import de.ims.icarus.language.SentenceData;
-import de.ims.icarus.language.SentenceDataList;
 import de.ims.icarus.util.NamedObject;
 import de.ims.icarus.util.data.ContentType;
 
@@ -47,7 +47,7 @@ import de.ims.icarus.util.data.ContentType;
  * @version $Id$
  *
  */
-public class TreebankListDelegate implements SentenceDataList, NamedObject, Loadable {
+public class TreebankListDelegate implements IncrementalSentenceDataList, NamedObject, Loadable {
 
 	private Reference<Treebank> ref;
 	
@@ -170,6 +170,16 @@ public class TreebankListDelegate implements SentenceDataList, NamedObject, Load
 		return treebank==null ? null : treebank.get(index, type, observer);
 	}
 
+	/**
+	 * @see de.ims.icarus.language.IncrementalSentenceDataList#isGrowing()
+	 */
+	@Override
+	public boolean isGrowing() {
+		Treebank treebank = getTreebank();
+		return treebank instanceof IncrementalSentenceDataList
+				&& ((IncrementalSentenceDataList)treebank).isGrowing();
+	}
+
 	/**
 	 * @see de.ims.icarus.util.NamedObject#getName()
 	 */
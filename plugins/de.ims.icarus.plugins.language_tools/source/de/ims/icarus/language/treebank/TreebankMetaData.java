@@ -38,5 +38,18 @@ public interface TreebankMetaData {
 	public static final String ITEM_COUNT = "itemCount"; //$NON-NLS-1$
 	public static final String AVERAGE_LENGTH = "averageLength"; //$NON-NLS-1$
 
+	/**
+	 * Value histograms for basic token annotations, stored
+	 * as {@link TreebankStatistics} object.
+	 */
+	public static final String VALUE_STATISTICS = "valueStatistics"; //$NON-NLS-1$
+
+	/**
+	 * Inverted index over basic token annotations, stored as
+	 * {@link TreebankIndex} object. Only present if index creation
+	 * is enabled.
+	 */
+	public static final String TOKEN_INDEX = "tokenIndex"; //$NON-NLS-1$
+
 	Object getValue(String key);
 }
@@ -47,13 +47,37 @@ public class TreebankMetaDataBuilder {
 
 	private TIntIntMap counter = new TIntIntHashMap(100);
 
+	private TreebankStatistics statistics;
+
+	private TreebankIndex tokenIndex;
+
 	public TreebankMetaDataBuilder() {
-		// no-op
+		this(true);
+	}
+
+	/**
+	 * @param collectStatistics whether or not value statistics should
+	 * be collected for all the processed sentences
+	 */
+	public TreebankMetaDataBuilder(boolean collectStatistics) {
+		if(collectStatistics) {
+			statistics = new TreebankStatistics();
+		}
 	}
 
 	public void process(SentenceData data) {
-		int len = data.length();
+		processLength(data.length());
+
+		if(statistics!=null) {
+			statistics.process(data);
+		}
+	}
 
+	/**
+	 * Adds a sentence of the given length without collecting
+	 * any value statistics for it.
+	 */
+	public void processLength(int len) {
 		dataCount++;
 		totalLength += len;
 		maxLength = Math.max(maxLength, len);
@@ -67,6 +91,21 @@ public class TreebankMetaDataBuilder {
 		counter.put(len, count);
 	}
 
+	/**
+	 * Replaces the value statistics collected so far, e.g. with
+	 * statistics that have been stored together with the data.
+	 */
+	public void setStatistics(TreebankStatistics statistics) {
+		if(statistics==null)
+			throw new NullPointerException("Invalid statistics"); //$NON-NLS-1$
+
+		this.statistics = statistics;
+	}
+
+	public void setTokenIndex(TreebankIndex tokenIndex) {
+		this.tokenIndex = tokenIndex;
+	}
+
 	public TreebankMetaData buildMetaData() {
 		Map<String, Object> metaData = new HashMap<>();
 
@@ -86,6 +125,15 @@ public class TreebankMetaDataBuilder {
 			}
 		}
 
+		if(statistics!=null) {
+			statistics.compact();
+			metaData.put(TreebankMetaData.VALUE_STATISTICS, statistics);
+		}
+
+		if(tokenIndex!=null) {
+			metaData.put(TreebankMetaData.TOKEN_INDEX, tokenIndex);
+		}
+
 		return new DefaultTreebankMetaData(metaData);
 	}
 
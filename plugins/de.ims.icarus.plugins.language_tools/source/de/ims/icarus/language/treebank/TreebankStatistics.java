@@ -0,0 +1,177 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.language.treebank;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.language.SentenceData;
+
+/**
+ * Value frequencies for the basic token level annotations of a
+ * treebank. Histograms are collected once while the treebank is
+ * being loaded and are used by search engines to estimate how
+ * selective a certain constraint will be.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class TreebankStatistics implements LanguageConstants {
+
+	/**
+	 * Property keys for which value histograms are collected.
+	 */
+	public static final String[] DEFAULT_KEYS = {
+		FORM_KEY,
+		LEMMA_KEY,
+		POS_KEY,
+		DEPREL_KEY,
+		FEATURES_KEY,
+	};
+
+	private final String[] keys;
+	private final Map<String, TObjectIntHashMap<String>> histograms = new HashMap<>();
+
+	private long tokenCount = 0;
+
+	public TreebankStatistics() {
+		this(DEFAULT_KEYS);
+	}
+
+	public TreebankStatistics(String[] keys) {
+		if(keys==null)
+			throw new NullPointerException("Invalid keys"); //$NON-NLS-1$
+
+		this.keys = keys.clone();
+
+		for(String key : keys) {
+			histograms.put(key, new TObjectIntHashMap<String>(1000));
+		}
+	}
+
+	/**
+	 * Adds all the tokens of the given sentence to the
+	 * value histograms.
+	 */
+	public void process(SentenceData data) {
+		int size = data.length();
+		tokenCount += size;
+
+		for(String key : keys) {
+			TObjectIntHashMap<String> histogram = histograms.get(key);
+
+			for(int i=0; i<size; i++) {
+				Object value = data.getProperty(i, key);
+				if(value instanceof String) {
+					histogram.adjustOrPutValue((String)value, 1, 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds {@code count} occurrences of the given value to the histogram
+	 * for {@code key}. Used to restore statistics that have been stored
+	 * together with a treebank. Note that this does not change the
+	 * total number of tokens, see {@link #addTokenCount(long)}.
+	 */
+	public void add(String key, String value, int count) {
+		TObjectIntHashMap<String> histogram = histograms.get(key);
+		if(histogram!=null && value!=null) {
+			histogram.adjustOrPutValue(value, count, count);
+		}
+	}
+
+	public void addTokenCount(long count) {
+		tokenCount += count;
+	}
+
+	public String[] getKeys() {
+		return keys.clone();
+	}
+
+	/**
+	 * Releases unused capacity of the underlying histograms. Should
+	 * be called once all sentences have been processed.
+	 */
+	public void compact() {
+		for(TObjectIntHashMap<String> histogram : histograms.values()) {
+			histogram.compact();
+		}
+	}
+
+	public long getTokenCount() {
+		return tokenCount;
+	}
+
+	public boolean isSupported(String key) {
+		return histograms.containsKey(key);
+	}
+
+	/**
+	 * Returns the number of tokens that carry the given {@code value}
+	 * for the property denoted by {@code key} or {@code -1} if no
+	 * histogram was collected for that property.
+	 */
+	public int getFrequency(String key, String value) {
+		TObjectIntHashMap<String> histogram = histograms.get(key);
+		if(histogram==null) {
+			return -1;
+		}
+
+		return histogram.get(value);
+	}
+
+	/**
+	 * Returns the number of distinct values collected for the
+	 * given property or {@code -1} if it is not supported.
+	 */
+	public int getValueCount(String key) {
+		TObjectIntHashMap<String> histogram = histograms.get(key);
+		return histogram==null ? -1 : histogram.size();
+	}
+
+	/**
+	 * Returns the fraction of all tokens that carry the given
+	 * {@code value} or {@code -1} if no information is available.
+	 */
+	public double getSelectivity(String key, String value) {
+		if(tokenCount==0) {
+			return -1;
+		}
+
+		int frequency = getFrequency(key, value);
+		if(frequency<0) {
+			return -1;
+		}
+
+		return frequency/(double)tokenCount;
+	}
+}
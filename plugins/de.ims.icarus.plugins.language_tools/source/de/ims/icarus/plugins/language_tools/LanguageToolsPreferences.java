@@ -47,6 +47,12 @@ public class LanguageToolsPreferences {
 
 		builder.addBooleanEntry("showIndex", true); //$NON-NLS-1$
 		builder.addBooleanEntry("showCorpusIndex", false); //$NON-NLS-1$
+		builder.back();
+		// TREEBANK GROUP
+		builder.addGroup("treebank", true); //$NON-NLS-1$
+		builder.addBooleanEntry("buildTokenIndex", true); //$NON-NLS-1$
+		builder.addBooleanEntry("persistTokenIndex", true); //$NON-NLS-1$
+		builder.addBooleanEntry("compileTreebank", true); //$NON-NLS-1$
 	}
 
 }
@@ -25,24 +25,35 @@
  */
 package de.ims.icarus.plugins.language_tools.treebank;
 
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 import org.java.plugin.registry.Extension;
 
+import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.language.AvailabilityObserver;
 import de.ims.icarus.language.DataType;
 import de.ims.icarus.language.Grammar;
+import de.ims.icarus.language.IncrementalSentenceDataList;
 import de.ims.icarus.language.LanguageManager;
 import de.ims.icarus.language.SentenceData;
 import de.ims.icarus.language.SentenceDataReader;
 import de.ims.icarus.language.UnsupportedSentenceDataException;
 import de.ims.icarus.language.treebank.AbstractTreebank;
+import de.ims.icarus.language.treebank.CompiledTreebank;
+import de.ims.icarus.language.treebank.CompiledTreebankFormat;
 import de.ims.icarus.language.treebank.Treebank;
 import de.ims.icarus.language.treebank.TreebankDescriptor;
 import de.ims.icarus.language.treebank.TreebankEvents;
+import de.ims.icarus.language.treebank.TreebankIndex;
 import de.ims.icarus.language.treebank.TreebankMetaData;
 import de.ims.icarus.language.treebank.TreebankMetaDataBuilder;
 import de.ims.icarus.language.treebank.TreebankRegistry;
@@ -62,15 +73,29 @@ import de.ims.icarus.util.mem.Link;
  *
  */
 @HeapMember
-public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank {
+public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank, IncrementalSentenceDataList {
 
 	public static final String READER_EXTENSION_PROPERTY = "DefaultSimpleTreebank::reader_extension"; //$NON-NLS-1$
 
 	public static final String READER_PROPERTY_PREFIX = "DefaultSimpleTreebank::reader::"; //$NON-NLS-1$
 
+	public static final String COMPILED_FILE_SUFFIX = ".tbin"; //$NON-NLS-1$
+
+	/**
+	 * Number of sentences read from the source file between two
+	 * publications of the loaded prefix.
+	 */
+	public static final int PUBLISH_INTERVAL = 256;
+
 	@Link
 	protected List<SentenceData> buffer;
 
+	/**
+	 * Memory mapped content, used instead of {@link #buffer}
+	 * when a compiled version of the treebank is available.
+	 */
+	protected CompiledTreebank compiled;
+
 	protected boolean editable = false;
 
 	protected Grammar grammar;
@@ -80,6 +105,17 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 
 	protected transient SentenceDataReader reader;
 
+	/**
+	 * Sentences made available to other threads while loading from
+	 * the source file is in progress. {@code null} otherwise.
+	 */
+	protected volatile PublishedItems published;
+
+	/**
+	 * Requests for sentences that have not been published yet.
+	 */
+	protected final List<PendingRequest> pendingRequests = new ArrayList<>();
+
 	protected Extension readerExtension;
 
 	protected TreebankMetaData metaData;
@@ -183,9 +219,7 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 			return;
 		}
 
-		if(buffer==null) {
-			buffer = new ArrayList<>();
-		}
+		ensureBuffer();
 
 		if(index==buffer.size()) {
 			buffer.add(item);
@@ -205,15 +239,35 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 		if(!isEditable())
 			throw new UnsupportedOperationException();
 
-		if(buffer==null) {
-			return;
-		}
+		ensureBuffer();
 
 		SentenceData item = buffer.remove(index);
 		eventSource.fireEvent(new EventObject(TreebankEvents.REMOVED,
 				"item", item, "index", index)); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
+	/**
+	 * Makes sure there is a modifiable buffer, copying the content of
+	 * a {@link #compiled} treebank if required.
+	 */
+	protected synchronized void ensureBuffer() {
+		if(buffer!=null) {
+			return;
+		}
+
+		if(compiled!=null) {
+			int size = compiled.size();
+			buffer = new ArrayList<>(size);
+			for(int i=0; i<size; i++) {
+				buffer.add(compiled.get(i));
+			}
+			compiled.close();
+			compiled = null;
+		} else {
+			buffer = new ArrayList<>();
+		}
+	}
+
 	/**
 	 * @see de.ims.icarus.language.treebank.Treebank#isLoaded()
 	 */
@@ -230,6 +284,14 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 		return loading.get();
 	}
 
+	/**
+	 * @see de.ims.icarus.language.IncrementalSentenceDataList#isGrowing()
+	 */
+	@Override
+	public boolean isGrowing() {
+		return published!=null;
+	}
+
 	/**
 	 * @see de.ims.icarus.language.treebank.Treebank#load()
 	 */
@@ -248,36 +310,349 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 			throw new IllegalStateException("Loading already in progress"); //$NON-NLS-1$
 
 		eventSource.fireEvent(new EventObject(TreebankEvents.LOADING));
+		try {
+			String readerId = getReaderId(reader);
+			CompiledTreebankFormat format = getCompiledFormat(reader);
+			CompiledTreebank compiled = openCompiled(format, readerId);
+
+			if(compiled!=null) {
+				loadCompiled(compiled, readerId);
+			} else {
+				loadSource(reader, format, readerId);
+			}
+		} finally {
+			loading.set(false);
+			eventSource.fireEvent(new EventObject(TreebankEvents.LOADED));
+
+			TreebankRegistry.getInstance().treebankChanged(this);
+		}
+	}
+
+	/**
+	 * Parses the treebank file with the given reader and stores the
+	 * result in a compiled version if possible. While parsing, the
+	 * prefix read so far is published every {@value #PUBLISH_INTERVAL}
+	 * sentences.
+	 */
+	protected void loadSource(SentenceDataReader reader, CompiledTreebankFormat format,
+			String readerId) throws Exception {
+		SentenceData[] items = new SentenceData[200];
+		int size = 0;
+		publish(items, size);
 		try {
 			reader.init(location, new Options(getProperties()));
-			List<SentenceData> buffer = new ArrayList<>(200);
-			TreebankMetaDataBuilder metaDataBuilder = new TreebankMetaDataBuilder();
+			TreebankMetaDataBuilder metaDataBuilder = new TreebankMetaDataBuilder(
+					isValueStatisticsEnabled());
 			SentenceData item;
 
+			TreebankIndex tokenIndex = null;
+			TreebankIndex.Builder indexBuilder = null;
+			if(isTokenIndexEnabled()) {
+				tokenIndex = loadTokenIndex(readerId);
+				if(tokenIndex==null) {
+					indexBuilder = new TreebankIndex.Builder();
+				}
+			}
+
 			while((item = reader.next())!=null) {
 				if(Thread.currentThread().isInterrupted())
 					throw new InterruptedException();
 
-				buffer.add(item);
+				if(indexBuilder!=null) {
+					indexBuilder.process(size, item);
+				}
+				if(size==items.length) {
+					items = Arrays.copyOf(items, size<<1);
+				}
+				items[size++] = item;
 				metaDataBuilder.process(item);
 
+				if(size%PUBLISH_INTERVAL==0) {
+					publish(items, size);
+				}
+
 				//eventSource.fireEvent(new EventObject(TreebankEvents.ADDED, "item", item)); //$NON-NLS-1$
 			}
+			publish(items, size);
+
+			List<SentenceData> buffer = new ArrayList<>(Arrays.asList(items).subList(0, size));
+
+			if(indexBuilder!=null) {
+				tokenIndex = indexBuilder.build();
+				saveTokenIndex(tokenIndex, readerId);
+			} else if(tokenIndex!=null && tokenIndex.getItemCount()!=buffer.size()) {
+				// Stored index does not match the data the reader delivered
+				tokenIndex = null;
+			}
+			metaDataBuilder.setTokenIndex(tokenIndex);
+
+			// Switch to the compiled data so the parsed sentences can be released
+			CompiledTreebank compiled = saveCompiled(format, buffer, readerId);
+
 			synchronized (this) {
-				this.buffer = buffer;
+				if(compiled!=null) {
+					this.compiled = compiled;
+					this.buffer = null;
+				} else {
+					this.buffer = buffer;
+				}
 				loaded = true;
 				metaData = metaDataBuilder.buildMetaData();
 			}
 		} finally {
-			loading.set(false);
+			endPublishing();
+
 			try {
 				reader.close();
 			} catch(Exception e) {
 				LoggerFactory.log(this, Level.SEVERE, "Failed to close reader for treebank: "+getName(), e); //$NON-NLS-1$
 			}
-			eventSource.fireEvent(new EventObject(TreebankEvents.LOADED));
+		}
+	}
 
-			TreebankRegistry.getInstance().treebankChanged(this);
+	/**
+	 * Makes the first {@code size} sentences of the given array visible
+	 * to readers and serves all pending requests they cover.
+	 */
+	protected void publish(SentenceData[] items, int size) {
+		List<PendingRequest> ready = null;
+
+		synchronized (pendingRequests) {
+			published = new PublishedItems(items, size);
+
+			for(Iterator<PendingRequest> i = pendingRequests.iterator(); i.hasNext();) {
+				PendingRequest request = i.next();
+				if(request.index<size) {
+					if(ready==null) {
+						ready = new ArrayList<>();
+					}
+					ready.add(request);
+					i.remove();
+				}
+			}
+		}
+
+		if(ready!=null) {
+			for(PendingRequest request : ready) {
+				request.serve(items[request.index]);
+			}
+		}
+	}
+
+	/**
+	 * Stops publishing of partially loaded data. Remaining requests are
+	 * served from the final content, requests for indices that turned
+	 * out to be out of bounds receive a {@code null} item.
+	 */
+	protected void endPublishing() {
+		List<PendingRequest> remaining;
+
+		synchronized (pendingRequests) {
+			published = null;
+
+			if(pendingRequests.isEmpty()) {
+				return;
+			}
+			remaining = new ArrayList<>(pendingRequests);
+			pendingRequests.clear();
+		}
+
+		int size = size();
+		for(PendingRequest request : remaining) {
+			request.serve(request.index<size ? get(request.index, DataType.SYSTEM) : null);
+		}
+	}
+
+	/**
+	 * Returns the sentence at the given index if already loaded. Otherwise
+	 * the request is stored and the observer will be notified once the
+	 * sentence is published or loading has finished.
+	 */
+	protected SentenceData requestItem(int index, AvailabilityObserver observer) {
+		synchronized (pendingRequests) {
+			PublishedItems published = this.published;
+			if(published!=null) {
+				if(index<published.size) {
+					return published.items[index];
+				}
+
+				pendingRequests.add(new PendingRequest(index, observer));
+				return null;
+			}
+		}
+
+		// Loading finished in the meantime
+		SentenceData item = index<size() ? get(index, DataType.SYSTEM) : null;
+		if(item==null) {
+			observer.dataAvailable(index, null);
+		}
+		return item;
+	}
+
+	/**
+	 * Uses the given compiled treebank as content. Meta data is restored
+	 * from the compiled file, only the token index might have to be built
+	 * by visiting all the sentences.
+	 */
+	protected void loadCompiled(CompiledTreebank compiled, String readerId) throws Exception {
+		TreebankMetaDataBuilder metaDataBuilder = new TreebankMetaDataBuilder(false);
+		int size = compiled.size();
+
+		for(int i=0; i<size; i++) {
+			metaDataBuilder.processLength(compiled.getLength(i));
+		}
+		if(compiled.getStatistics()!=null) {
+			metaDataBuilder.setStatistics(compiled.getStatistics());
+		}
+
+		TreebankIndex tokenIndex = null;
+		if(isTokenIndexEnabled()) {
+			tokenIndex = loadTokenIndex(readerId);
+			if(tokenIndex!=null && tokenIndex.getItemCount()!=size) {
+				tokenIndex = null;
+			}
+
+			if(tokenIndex==null) {
+				TreebankIndex.Builder indexBuilder = new TreebankIndex.Builder();
+				for(int i=0; i<size; i++) {
+					if(Thread.currentThread().isInterrupted())
+						throw new InterruptedException();
+
+					indexBuilder.process(i, compiled.get(i));
+				}
+				tokenIndex = indexBuilder.build();
+				saveTokenIndex(tokenIndex, readerId);
+			}
+		}
+		metaDataBuilder.setTokenIndex(tokenIndex);
+
+		synchronized (this) {
+			this.buffer = null;
+			this.compiled = compiled;
+			loaded = true;
+			metaData = metaDataBuilder.buildMetaData();
+		}
+	}
+
+	/**
+	 * Returns an identifier for the kind of data the given reader produces.
+	 * Readers for the same file format may still pick different columns
+	 * (e.g. gold or predicted annotations), so data stored alongside the
+	 * treebank file is only reused for readers with the same id.
+	 */
+	protected String getReaderId(SentenceDataReader reader) {
+		return reader.getClass().getName();
+	}
+
+	protected boolean isCompiledStorageEnabled() {
+		return location.isLocal() && ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.languageTools.treebank.compileTreebank"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the compiled format supported by the given reader or
+	 * {@code null} if the reader's output cannot be compiled or
+	 * compiled storage is disabled.
+	 */
+	protected CompiledTreebankFormat getCompiledFormat(SentenceDataReader reader) {
+		if(!(reader instanceof CompiledTreebankFormat.Provider) || !isCompiledStorageEnabled()) {
+			return null;
+		}
+
+		return ((CompiledTreebankFormat.Provider)reader).getCompiledFormat();
+	}
+
+	public static Path getCompiledFile(Path treebankFile, String readerId) {
+		return treebankFile.resolveSibling(treebankFile.getFileName()
+				+"."+String.format("%08x", readerId.hashCode())+COMPILED_FILE_SUFFIX); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tries to open an up to date compiled version of the treebank
+	 * that was created with the same kind of reader.
+	 */
+	protected CompiledTreebank openCompiled(CompiledTreebankFormat format, String readerId) {
+		if(format==null) {
+			return null;
+		}
+
+		Path file = location.getLocalPath();
+		try {
+			return format.open(getCompiledFile(file, readerId), file, readerId);
+		} catch(IOException e) {
+			LoggerFactory.log(this, Level.WARNING, "Failed to open compiled data for treebank: "+getName(), e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the given sentences in the compiled format and returns
+	 * the freshly opened result or {@code null} if writing failed.
+	 */
+	protected CompiledTreebank saveCompiled(CompiledTreebankFormat format,
+			List<SentenceData> items, String readerId) {
+		if(format==null || items.isEmpty()) {
+			return null;
+		}
+
+		Path file = location.getLocalPath();
+		Path compiledFile = getCompiledFile(file, readerId);
+		try {
+			format.write(compiledFile, file, readerId, items);
+			return format.open(compiledFile, file, readerId);
+		} catch(IOException | UnsupportedSentenceDataException e) {
+			LoggerFactory.log(this, Level.WARNING, "Failed to save compiled data for treebank: "+getName(), e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	/**
+	 * Value statistics are only used to plan searches, so there is no
+	 * need to collect them when query planning is disabled.
+	 */
+	protected boolean isValueStatisticsEnabled() {
+		return Boolean.TRUE.equals(ConfigRegistry.getGlobalRegistry().getValue(
+				"plugins.searchTools.optimizeQueryPlan")); //$NON-NLS-1$
+	}
+
+	protected boolean isTokenIndexEnabled() {
+		return ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.languageTools.treebank.buildTokenIndex"); //$NON-NLS-1$
+	}
+
+	protected boolean isTokenIndexPersistent() {
+		return location.isLocal() && ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.languageTools.treebank.persistTokenIndex"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tries to read a token index stored next to the treebank file.
+	 * Returns {@code null} if there is no up to date index available.
+	 */
+	protected TreebankIndex loadTokenIndex(String readerId) {
+		if(!isTokenIndexPersistent()) {
+			return null;
+		}
+
+		Path file = location.getLocalPath();
+		try {
+			return TreebankIndex.load(TreebankIndex.getIndexFile(file, readerId), file, readerId);
+		} catch(IOException e) {
+			LoggerFactory.log(this, Level.WARNING, "Failed to read token index for treebank: "+getName(), e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	protected void saveTokenIndex(TreebankIndex tokenIndex, String readerId) {
+		if(!isTokenIndexPersistent()) {
+			return;
+		}
+
+		Path file = location.getLocalPath();
+		try {
+			tokenIndex.save(TreebankIndex.getIndexFile(file, readerId), file, readerId);
+		} catch(IOException e) {
+			LoggerFactory.log(this, Level.WARNING, "Failed to save token index for treebank: "+getName(), e); //$NON-NLS-1$
 		}
 	}
 
@@ -286,6 +661,15 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 	 */
 	@Override
 	public int size() {
+		PublishedItems published = this.published;
+		if(published!=null) {
+			return published.size;
+		}
+
+		CompiledTreebank compiled = this.compiled;
+		if(compiled!=null) {
+			return compiled.size();
+		}
 		return buffer==null ? 0 : buffer.size();
 	}
 
@@ -303,6 +687,10 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 			loaded = false;
 			int size = size();
 			buffer = null;
+			if(compiled!=null) {
+				compiled.close();
+				compiled = null;
+			}
 
 			eventSource.fireEvent(new EventObject(TreebankEvents.FREED));
 
@@ -353,7 +741,62 @@ public class DefaultSimpleTreebank extends AbstractTreebank implements Treebank
 	@Override
 	public SentenceData get(int index, DataType type,
 			AvailabilityObserver observer) {
-		SentenceData item = buffer==null ? null : buffer.get(index);
-		return type==DataType.SYSTEM ? item : null;
+		if(type!=DataType.SYSTEM) {
+			return null;
+		}
+
+		PublishedItems published = this.published;
+		if(published!=null) {
+			if(index<published.size) {
+				return published.items[index];
+			}
+			return observer==null ? null : requestItem(index, observer);
+		}
+
+		CompiledTreebank compiled = this.compiled;
+		if(compiled!=null) {
+			return compiled.get(index);
+		}
+
+		return buffer==null ? null : buffer.get(index);
+	}
+
+	/**
+	 * Immutable view on the prefix of sentences loaded so far.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	protected static final class PublishedItems {
+		final SentenceData[] items;
+		final int size;
+
+		PublishedItems(SentenceData[] items, int size) {
+			this.items = items;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	protected static final class PendingRequest {
+		final int index;
+		private final Reference<AvailabilityObserver> observer;
+
+		PendingRequest(int index, AvailabilityObserver observer) {
+			this.index = index;
+			this.observer = new WeakReference<>(observer);
+		}
+
+		void serve(SentenceData item) {
+			AvailabilityObserver observer = this.observer.get();
+			if(observer!=null) {
+				observer.dataAvailable(index, item);
+			}
+		}
 	}
 }
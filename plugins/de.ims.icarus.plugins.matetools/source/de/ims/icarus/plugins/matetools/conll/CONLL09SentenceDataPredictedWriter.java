@@ -34,7 +34,7 @@ import de.ims.icarus.language.SentenceData;
 import de.ims.icarus.language.SentenceDataWriter;
 import de.ims.icarus.language.UnsupportedSentenceDataException;
 import de.ims.icarus.language.dependency.DependencyConstants;
-import de.ims.icarus.language.dependency.SimpleDependencyData;
+import de.ims.icarus.language.dependency.DependencySentenceData;
 import de.ims.icarus.logging.LoggerFactory;
 import de.ims.icarus.util.Options;
 import de.ims.icarus.util.data.ContentType;
@@ -96,13 +96,13 @@ public class CONLL09SentenceDataPredictedWriter implements SentenceDataWriter {
 
 		SentenceData09 currentData = new SentenceData09();
 
-		SimpleDependencyData sdd;
+		DependencySentenceData sdd;
 
 		try {
 			if (Thread.currentThread().isInterrupted())
 					throw new InterruptedException();
 
-				sdd = (SimpleDependencyData) data;
+				sdd = (DependencySentenceData) data;
 				currentData.init(LanguageUtils.getForms(sdd));
 
 				initSystem(currentData, sdd.length());
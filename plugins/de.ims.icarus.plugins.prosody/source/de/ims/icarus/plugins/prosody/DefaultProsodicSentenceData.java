@@ -29,6 +29,7 @@ import java.lang.reflect.Array;
 
 import de.ims.icarus.language.coref.DefaultCoreferenceData;
 import de.ims.icarus.language.coref.DocumentData;
+import de.ims.icarus.util.CompactProperties;
 
 /**
  * @author Markus Gärtner
@@ -39,6 +40,8 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 
 	private static final long serialVersionUID = 649080115736671895L;
 
+	private SyllableStore syllables;
+
 	/**
 	 * @param document
 	 * @param forms
@@ -61,6 +64,77 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 		return (DefaultProsodicSentenceData)super.clone();
 	}
 
+	/**
+	 * Returns the columnar storage of syllable based float properties,
+	 * creating it if required.
+	 */
+	protected SyllableStore getSyllables() {
+		if(syllables==null) {
+			syllables = new SyllableStore();
+		}
+		return syllables;
+	}
+
+	/**
+	 * Compacts the syllable storage. Should be called by readers once
+	 * all the words of this sentence have been loaded.
+	 */
+	public void packSyllables() {
+		if(syllables!=null) {
+			syllables.pack();
+		}
+	}
+
+	/**
+	 * Returns a copy of the values held in the syllable storage, named
+	 * {@code key_index} like other word level properties.
+	 */
+	public CompactProperties collectSyllableProperties() {
+		CompactProperties result = new CompactProperties();
+		if(syllables==null) {
+			return result;
+		}
+
+		for(int word=0; word<syllables.getWordCount(); word++) {
+			for(int column=0; column<SyllableStore.COLUMN_COUNT; column++) {
+				float[] values = syllables.get(column, word);
+				if(values!=null) {
+					result.put(SyllableStore.keyOf(column)+'_'+word, values);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @see de.ims.icarus.language.BasicSentenceData#setProperty(int, java.lang.String, java.lang.Object)
+	 */
+	@Override
+	public void setProperty(int index, String key, Object value) {
+		if((value==null || value instanceof float[]) && SyllableStore.indexOf(key)!=-1) {
+			getSyllables().set(SyllableStore.indexOf(key), index, (float[]) value);
+		} else {
+			super.setProperty(index, key, value);
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.language.BasicSentenceData#getProperty(int, java.lang.String)
+	 */
+	@Override
+	public Object getProperty(int index, String key) {
+		int column = syllables==null ? -1 : SyllableStore.indexOf(key);
+		if(column!=-1) {
+			float[] values = syllables.get(column, index);
+			if(values!=null) {
+				return values;
+			}
+		}
+
+		return super.getProperty(index, key);
+	}
+
 	/**
 	 * @see de.ims.icarus.language.coref.DefaultCoreferenceData#getDocument()
 	 */
@@ -159,7 +233,24 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 			return (double)Math.max(getPainteC1(index, sylIndex), getPainteC2(index, sylIndex));
 
 		default:
+			int column = syllables==null ? -1 : SyllableStore.indexOf(key);
+			if(column!=-1 && syllables.length(column, index)!=-1) {
+				return syllables.length(column, index)<=sylIndex ?
+						null : syllables.get(column, index, sylIndex);
+			}
+
 			Object array = getIndexedProperty(index, key);
+			if(array instanceof String[]) {
+				String[] values = (String[]) array;
+				return values.length<=sylIndex ? null : values[sylIndex];
+			} else if(array instanceof int[]) {
+				int[] values = (int[]) array;
+				return values.length<=sylIndex ? null : values[sylIndex];
+			} else if(array instanceof boolean[]) {
+				boolean[] values = (boolean[]) array;
+				return values.length<=sylIndex ? null : values[sylIndex];
+			}
+
 			return (array==null || !array.getClass().isArray() || Array.getLength(array)<=sylIndex) ?
 					null : Array.get(array, sylIndex);
 		}
@@ -205,9 +296,8 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 		return value==null ? DATA_UNDEFINED_VALUE : value[syllable];
 	}
 
-	private float getSyllableFloatProperty(int index, String key, int syllable) {
-		float[] value = (float[])getIndexedProperty(index, key);
-		return value==null ? DATA_UNDEFINED_VALUE : value[syllable];
+	private float getSyllableFloatProperty(int index, int column, int syllable) {
+		return syllables==null ? DATA_UNDEFINED_VALUE : syllables.get(column, index, syllable);
 	}
 
 	private String getSyllableStringProperty(int index, String key, int syllable) {
@@ -249,7 +339,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getSyllableTimestamp(int index, int syllable) {
-		return getSyllableFloatProperty(index, SYLLABLE_TIMESTAMP_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.SYLLABLE_TIMESTAMP, syllable);
 	}
 
 	/**
@@ -292,7 +382,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getSyllableDuration(int index, int syllable) {
-		return getSyllableFloatProperty(index, SYLLABLE_DURATION_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.SYLLABLE_DURATION, syllable);
 	}
 
 	/**
@@ -300,7 +390,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getVowelDuration(int index, int syllable) {
-		return getSyllableFloatProperty(index, VOWEL_DURATION_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.VOWEL_DURATION, syllable);
 	}
 
 	/**
@@ -308,7 +398,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getSyllableStartPitch(int index, int syllable) {
-		return getSyllableFloatProperty(index, SYLLABLE_STARTPITCH_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.SYLLABLE_STARTPITCH, syllable);
 	}
 
 	/**
@@ -316,7 +406,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getSyllableMidPitch(int index, int syllable) {
-		return getSyllableFloatProperty(index, SYLLABLE_MIDPITCH_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.SYLLABLE_MIDPITCH, syllable);
 	}
 
 	/**
@@ -324,7 +414,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getSyllableEndPitch(int index, int syllable) {
-		return getSyllableFloatProperty(index, SYLLABLE_ENDPITCH_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.SYLLABLE_ENDPITCH, syllable);
 	}
 
 	/**
@@ -387,7 +477,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getPainteA1(int index, int syllable) {
-		return getSyllableFloatProperty(index, PAINTE_A1_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.PAINTE_A1, syllable);
 	}
 
 	/**
@@ -395,7 +485,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getPainteA2(int index, int syllable) {
-		return getSyllableFloatProperty(index, PAINTE_A2_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.PAINTE_A2, syllable);
 	}
 
 	/**
@@ -403,7 +493,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getPainteB(int index, int syllable) {
-		return getSyllableFloatProperty(index, PAINTE_B_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.PAINTE_B, syllable);
 	}
 
 	/**
@@ -411,7 +501,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getPainteC1(int index, int syllable) {
-		return getSyllableFloatProperty(index, PAINTE_C1_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.PAINTE_C1, syllable);
 	}
 
 	/**
@@ -419,7 +509,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getPainteC2(int index, int syllable) {
-		return getSyllableFloatProperty(index, PAINTE_C2_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.PAINTE_C2, syllable);
 	}
 
 	/**
@@ -427,7 +517,7 @@ public class DefaultProsodicSentenceData extends DefaultCoreferenceData implemen
 	 */
 	@Override
 	public float getPainteD(int index, int syllable) {
-		return getSyllableFloatProperty(index, PAINTE_D_KEY, syllable);
+		return getSyllableFloatProperty(index, SyllableStore.PAINTE_D, syllable);
 	}
 
 //	public void setSyllableStressed(int index, int syllable, boolean stressed) {
@@ -27,6 +27,7 @@ package de.ims.icarus.plugins.prosody;
 
 import de.ims.icarus.language.coref.DocumentData;
 import de.ims.icarus.language.coref.DocumentSet;
+import de.ims.icarus.plugins.prosody.painte.PaIntEIndex;
 import de.ims.icarus.util.data.ContentType;
 
 /**
@@ -36,6 +37,36 @@ import de.ims.icarus.util.data.ContentType;
  */
 public class ProsodicDocumentSet extends DocumentSet {
 
+	private PaIntEIndex painteIndex;
+
+	/**
+	 * Returns an index over the PaIntE parameters of all syllables in this
+	 * set, with sentences numbered consecutively across documents. The index
+	 * is built on first access and rebuilt if sentences have been added since.
+	 */
+	public synchronized PaIntEIndex getPaIntEIndex() {
+		int sentenceCount = 0;
+		for(int i=0; i<size(); i++) {
+			sentenceCount += get(i).size();
+		}
+
+		if(painteIndex==null || painteIndex.getSentenceCount()!=sentenceCount) {
+			PaIntEIndex.Builder builder = new PaIntEIndex.Builder();
+
+			int index = 0;
+			for(int i=0; i<size(); i++) {
+				DocumentData document = get(i);
+				for(int j=0; j<document.size(); j++) {
+					builder.process(index++, (ProsodicSentenceData) document.get(j));
+				}
+			}
+
+			painteIndex = builder.build();
+		}
+
+		return painteIndex;
+	}
+
 	public void add(DefaultProsodicDocumentData data) {
 		super.add(data);
 	}
@@ -67,4 +98,14 @@ public class ProsodicDocumentSet extends DocumentSet {
 		return ProsodyUtils.getProsodyDocumentContentType();
 	}
 
+	/**
+	 * @see de.ims.icarus.language.coref.DocumentSet#free()
+	 */
+	@Override
+	public synchronized void free() {
+		painteIndex = null;
+
+		super.free();
+	}
+
 }
@@ -206,6 +206,8 @@ public class ProsodyPreferences {
 		builder.setProperties(builder.addListEntry("folders", EntryType.STRING), //$NON-NLS-1$
 				ConfigConstants.HANDLER, new ConfigUtils.FileHandler(false, true));
 		builder.addBooleanEntry("includeSubFolders", false); //$NON-NLS-1$
+		builder.addIntegerEntry("maxOpenFiles", 10, 1, 100); //$NON-NLS-1$
+		builder.addIntegerEntry("segmentCacheSize", 32, 0, 512); //$NON-NLS-1$
 
 		// END AUDIO PLAYER GROUP
 		builder.back();
@@ -235,6 +237,7 @@ public class ProsodyPreferences {
 		// SEARCH GROUP
 		builder.addGroup("search", true); //$NON-NLS-1$
 		builder.addBooleanEntry("allowCompactConstraints", true); //$NON-NLS-1$
+		builder.addBooleanEntry("usePaIntEIndex", true); //$NON-NLS-1$
 
 		// ACCENT SHAPE SUBGROUP
 		builder.addGroup("accentShape", true); //$NON-NLS-1$
@@ -0,0 +1,300 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.prosody;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Columnar storage for the floating point syllable properties of a single
+ * sentence. While a sentence is being loaded the values are kept as one array
+ * per word and column. A call to {@link #pack()} merges them into dense
+ * {@code float} columns that share a single syllable offset table, so that
+ * typed lookups only cost a few array accesses.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class SyllableStore implements ProsodyConstants, Serializable {
+
+	private static final long serialVersionUID = -3197461374541094385L;
+
+	public static final int SYLLABLE_TIMESTAMP = 0;
+	public static final int SYLLABLE_DURATION = 1;
+	public static final int VOWEL_DURATION = 2;
+	public static final int SYLLABLE_STARTPITCH = 3;
+	public static final int SYLLABLE_MIDPITCH = 4;
+	public static final int SYLLABLE_ENDPITCH = 5;
+	public static final int PAINTE_A1 = 6;
+	public static final int PAINTE_A2 = 7;
+	public static final int PAINTE_B = 8;
+	public static final int PAINTE_C1 = 9;
+	public static final int PAINTE_C2 = 10;
+	public static final int PAINTE_D = 11;
+
+	public static final int COLUMN_COUNT = 12;
+
+	private static final String[] keys = {
+		SYLLABLE_TIMESTAMP_KEY,
+		SYLLABLE_DURATION_KEY,
+		VOWEL_DURATION_KEY,
+		SYLLABLE_STARTPITCH_KEY,
+		SYLLABLE_MIDPITCH_KEY,
+		SYLLABLE_ENDPITCH_KEY,
+		PAINTE_A1_KEY,
+		PAINTE_A2_KEY,
+		PAINTE_B_KEY,
+		PAINTE_C1_KEY,
+		PAINTE_C2_KEY,
+		PAINTE_D_KEY,
+	};
+
+	/**
+	 * Returns the column used to store the given property or {@code -1}
+	 * if the property is not handled by this storage.
+	 */
+	public static int indexOf(String key) {
+		switch (key) {
+		case SYLLABLE_TIMESTAMP_KEY: return SYLLABLE_TIMESTAMP;
+		case SYLLABLE_DURATION_KEY: return SYLLABLE_DURATION;
+		case VOWEL_DURATION_KEY: return VOWEL_DURATION;
+		case SYLLABLE_STARTPITCH_KEY: return SYLLABLE_STARTPITCH;
+		case SYLLABLE_MIDPITCH_KEY: return SYLLABLE_MIDPITCH;
+		case SYLLABLE_ENDPITCH_KEY: return SYLLABLE_ENDPITCH;
+		case PAINTE_A1_KEY: return PAINTE_A1;
+		case PAINTE_A2_KEY: return PAINTE_A2;
+		case PAINTE_B_KEY: return PAINTE_B;
+		case PAINTE_C1_KEY: return PAINTE_C1;
+		case PAINTE_C2_KEY: return PAINTE_C2;
+		case PAINTE_D_KEY: return PAINTE_D;
+
+		default:
+			return -1;
+		}
+	}
+
+	public static String keyOf(int column) {
+		return keys[column];
+	}
+
+	// Loading state: [column][word] -> values
+	private float[][][] pending;
+
+	// Packed state
+	private int wordCount;
+	private int[] offsets;
+	private float[][] columns;
+	// Per column and word lengths, only present for columns that deviate from the offset table
+	private int[][] lengths;
+
+	public SyllableStore() {
+		pending = new float[COLUMN_COUNT][][];
+	}
+
+	public boolean isPacked() {
+		return pending==null;
+	}
+
+	public int getWordCount() {
+		return wordCount;
+	}
+
+	public void set(int column, int word, float[] values) {
+		if(word<0)
+			throw new IndexOutOfBoundsException("Invalid word index: "+word); //$NON-NLS-1$
+
+		if(isPacked()) {
+			unpack();
+		}
+
+		float[][] words = pending[column];
+		if(words==null) {
+			words = new float[Math.max(word+1, 10)][];
+			pending[column] = words;
+		} else if(word>=words.length) {
+			words = Arrays.copyOf(words, Math.max(word+1, words.length*2));
+			pending[column] = words;
+		}
+
+		words[word] = values;
+		wordCount = Math.max(wordCount, word+1);
+	}
+
+	/**
+	 * Returns the values stored for the given word or {@code null} if the
+	 * column has not been set for that word. For a packed storage the returned
+	 * array is a copy.
+	 */
+	public float[] get(int column, int word) {
+		if(word>=wordCount) {
+			return null;
+		}
+
+		if(!isPacked()) {
+			float[][] words = pending[column];
+			return (words==null || word>=words.length) ? null : words[word];
+		}
+
+		float[] values = columns[column];
+		if(values==null) {
+			return null;
+		}
+
+		int begin = offsets[word];
+		int length = length(column, word);
+
+		return length==-1 ? null : Arrays.copyOfRange(values, begin, begin+length);
+	}
+
+	/**
+	 * Returns the number of values stored for the given word or {@code -1}
+	 * if the column has not been set for that word.
+	 */
+	public int length(int column, int word) {
+		if(word>=wordCount) {
+			return -1;
+		}
+
+		if(!isPacked()) {
+			float[][] words = pending[column];
+			float[] values = (words==null || word>=words.length) ? null : words[word];
+			return values==null ? -1 : values.length;
+		}
+
+		if(columns[column]==null) {
+			return -1;
+		}
+
+		int[] columnLengths = lengths[column];
+		return columnLengths==null ? offsets[word+1]-offsets[word] : columnLengths[word];
+	}
+
+	/**
+	 * Fetches a single value. Returns {@link #DATA_UNDEFINED_VALUE} if the
+	 * column has not been set for the given word.
+	 */
+	public float get(int column, int word, int syllable) {
+		int length = length(column, word);
+		if(length==-1) {
+			return DATA_UNDEFINED_VALUE;
+		}
+
+		if(syllable<0 || syllable>=length)
+			throw new ArrayIndexOutOfBoundsException(syllable);
+
+		return isPacked() ? columns[column][offsets[word]+syllable]
+				: pending[column][word][syllable];
+	}
+
+	/**
+	 * Merges all pending per-word arrays into dense columns. Every word is
+	 * assigned as many slots as its longest array, shorter arrays are
+	 * padded with {@link #DATA_UNDEFINED_VALUE}.
+	 */
+	public void pack() {
+		if(isPacked()) {
+			return;
+		}
+
+		int[] offsets = new int[wordCount+1];
+		for(int word=0; word<wordCount; word++) {
+			int size = 0;
+			for(float[][] words : pending) {
+				if(words!=null && word<words.length && words[word]!=null) {
+					size = Math.max(size, words[word].length);
+				}
+			}
+			offsets[word+1] = offsets[word]+size;
+		}
+
+		int total = offsets[wordCount];
+		float[][] columns = new float[COLUMN_COUNT][];
+		int[][] lengths = new int[COLUMN_COUNT][];
+
+		for(int column=0; column<COLUMN_COUNT; column++) {
+			float[][] words = pending[column];
+			if(words==null) {
+				continue;
+			}
+
+			float[] values = new float[total];
+			int[] columnLengths = null;
+
+			for(int word=0; word<wordCount; word++) {
+				float[] source = word<words.length ? words[word] : null;
+				int begin = offsets[word];
+				int size = offsets[word+1]-begin;
+				int length = source==null ? -1 : source.length;
+
+				if(length>0) {
+					System.arraycopy(source, 0, values, begin, length);
+				}
+				if(length<size) {
+					Arrays.fill(values, begin+Math.max(length, 0), begin+size, DATA_UNDEFINED_VALUE);
+				}
+
+				if(length!=size && columnLengths==null) {
+					columnLengths = new int[wordCount];
+					for(int i=0; i<word; i++) {
+						columnLengths[i] = offsets[i+1]-offsets[i];
+					}
+				}
+				if(columnLengths!=null) {
+					columnLengths[word] = length;
+				}
+			}
+
+			columns[column] = values;
+			lengths[column] = columnLengths;
+		}
+
+		this.offsets = offsets;
+		this.columns = columns;
+		this.lengths = lengths;
+		pending = null;
+	}
+
+	private void unpack() {
+		float[][][] pending = new float[COLUMN_COUNT][][];
+		for(int column=0; column<COLUMN_COUNT; column++) {
+			if(columns[column]==null) {
+				continue;
+			}
+
+			float[][] words = new float[Math.max(wordCount, 10)][];
+			for(int word=0; word<wordCount; word++) {
+				words[word] = get(column, word);
+			}
+			pending[column] = words;
+		}
+
+		this.pending = pending;
+		offsets = null;
+		columns = null;
+		lengths = null;
+	}
+}
@@ -887,6 +887,8 @@ public final class DirndlIOUtils implements ProsodyConstants {
 				result.setProperty(SPEAKER_KEY, speaker);
 			}
 
+			result.packSyllables();
+
 			result.setIndex(document.size());
 			document.add(result);
 
@@ -504,6 +504,7 @@ public class UniSylDocumentReader implements Reader<ProsodicDocumentData>, DataC
 		}
 		sentence.setForms(forms);
 		sentence.setIndex(document.size());
+		sentence.packSyllables();
 	}
 
 	private void expandSyllableStressArray(int index) {
@@ -0,0 +1,131 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.prosody.painte;
+
+import java.util.Arrays;
+
+/**
+ * Fixed set of sampling positions on the horizontal axis of a PaIntE curve.
+ * The positions are identical to those visited by stepping from the left border
+ * to the right one in {@code resolution} steps, so curves that never change
+ * during a search (e.g. the ones defined by a constraint) can be sampled once
+ * and then be compared against target curves by simple array traversal.
+ * <p>
+ * Like the bounded syllable constraints the grid only uses resolutions from
+ * {@value #MIN_RESOLUTION} to {@value #MAX_RESOLUTION}. Values outside that
+ * range are clamped, an undefined (non-positive) resolution is replaced by
+ * {@value #DEFAULT_RESOLUTION}.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class PaIntECurveGrid {
+
+	public static final int MIN_RESOLUTION = 10;
+	public static final int MAX_RESOLUTION = 1000;
+	public static final int DEFAULT_RESOLUTION = 30;
+
+	private final double leftBorder, rightBorder;
+	private final int resolution;
+
+	private final double[] xs;
+
+	public PaIntECurveGrid(double leftBorder, double rightBorder, int resolution) {
+		resolution = checkResolution(resolution);
+
+		this.leftBorder = leftBorder;
+		this.rightBorder = rightBorder;
+		this.resolution = resolution;
+
+		double stepSize = (rightBorder-leftBorder)/resolution;
+
+		double[] xs = new double[resolution+2];
+		int size = 0;
+		double x = leftBorder;
+
+		// Accumulate exactly like the original step loop to hit the same positions
+		while(x<=rightBorder) {
+			if(size==xs.length) {
+				xs = Arrays.copyOf(xs, size*2);
+			}
+			xs[size++] = x;
+			x += stepSize;
+		}
+
+		this.xs = size==xs.length ? xs : Arrays.copyOf(xs, size);
+	}
+
+	private static int checkResolution(int resolution) {
+		if(resolution<=0) {
+			return DEFAULT_RESOLUTION;
+		}
+
+		return Math.max(MIN_RESOLUTION, Math.min(MAX_RESOLUTION, resolution));
+	}
+
+	public double getLeftBorder() {
+		return leftBorder;
+	}
+
+	public double getRightBorder() {
+		return rightBorder;
+	}
+
+	public int getResolution() {
+		return resolution;
+	}
+
+	public boolean matches(double leftBorder, double rightBorder, int resolution) {
+		return this.leftBorder==leftBorder && this.rightBorder==rightBorder
+				&& this.resolution==checkResolution(resolution);
+	}
+
+	public int size() {
+		return xs.length;
+	}
+
+	public double getX(int index) {
+		return xs[index];
+	}
+
+	public double[] sample(PaIntEParams params) {
+		return sample(params, new double[xs.length]);
+	}
+
+	public double[] sample(PaIntEParams params, double[] buffer) {
+		final double a1 = params.a1, a2 = params.a2, b = params.b;
+		final double c1 = params.c1, c2 = params.c2, d = params.d;
+		final double g = params.alignment;
+		final double[] xs = this.xs;
+
+		for(int i=0; i<xs.length; i++) {
+			buffer[i] = PaIntEUtils.calcY(xs[i], a1, a2, b, c1, c2, d, g);
+		}
+
+		return buffer;
+	}
+}
@@ -0,0 +1,416 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.prosody.painte;
+
+import gnu.trove.list.array.TFloatArrayList;
+import gnu.trove.list.array.TIntArrayList;
+
+import java.util.BitSet;
+
+import de.ims.icarus.plugins.prosody.ProsodicSentenceData;
+
+/**
+ * Static k-d tree over the PaIntE parameters of all syllables in a corpus.
+ * Besides the six raw parameters every entry stores the height of the curve at
+ * its peak position and the integral of the curve over the standard window
+ * {@value #INTEGRAL_LEFT} to {@value #INTEGRAL_RIGHT}. Entries map back to
+ * (sentence, word, syllable) triples, so range queries can be used to determine
+ * the sentences that possibly contain a matching syllable without loading or
+ * scanning any other sentence.
+ * <p>
+ * The tree is stored implicitly: for every sub range of the entry arrays the
+ * median element with respect to the split dimension of that level sits in the
+ * middle, smaller elements to its left and larger ones to its right.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class PaIntEIndex {
+
+	public static final int A1 = 0;
+	public static final int A2 = 1;
+	public static final int B = 2;
+	public static final int C1 = 3;
+	public static final int C2 = 4;
+	public static final int D = 5;
+	public static final int PEAK = 6;
+	public static final int INTEGRAL = 7;
+
+	public static final int DIMENSIONS = 8;
+
+	/**
+	 * Window used for the precomputed integral, identical to the default
+	 * borders of the integral constraint.
+	 */
+	public static final double INTEGRAL_LEFT = -1.0;
+	public static final double INTEGRAL_RIGHT = 2.0;
+
+	private final int sentenceCount;
+	private final int size;
+
+	// size*DIMENSIONS values in tree order
+	private final float[] features;
+	private final int[] sentences;
+	private final int[] words;
+	private final int[] syllables;
+
+	protected PaIntEIndex(int sentenceCount, float[] features, int[] sentences, int[] words, int[] syllables) {
+		this.sentenceCount = sentenceCount;
+		this.features = features;
+		this.sentences = sentences;
+		this.words = words;
+		this.syllables = syllables;
+
+		size = sentences.length;
+	}
+
+	/**
+	 * Returns the number of sentences that have been processed
+	 * while building this index.
+	 */
+	public int getSentenceCount() {
+		return sentenceCount;
+	}
+
+	/**
+	 * Returns the number of indexed syllables.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getSentence(int entry) {
+		return sentences[entry];
+	}
+
+	public int getWord(int entry) {
+		return words[entry];
+	}
+
+	public int getSyllable(int entry) {
+		return syllables[entry];
+	}
+
+	public float getFeature(int entry, int dimension) {
+		return features[entry*DIMENSIONS+dimension];
+	}
+
+	/**
+	 * Fills the given parameter object with the values of a
+	 * single entry.
+	 */
+	public void getParams(int entry, PaIntEParams params) {
+		int offset = entry*DIMENSIONS;
+		params.a1 = features[offset+A1];
+		params.a2 = features[offset+A2];
+		params.b = features[offset+B];
+		params.c1 = features[offset+C1];
+		params.c2 = features[offset+C2];
+		params.d = features[offset+D];
+		params.alignment = PaIntEParams.DEFAULT_ALIGNMENT;
+	}
+
+	/**
+	 * Visits all entries whose features lie within the given bounds.
+	 * Dimensions with a {@code null} bound or where both bounds
+	 * are infinite are not checked. Entries holding {@code NaN} for
+	 * a checked dimension never match.
+	 */
+	public void find(Query query, EntryHandler handler) {
+		if(size>0) {
+			find(query, handler, 0, size, 0);
+		}
+	}
+
+	private void find(Query query, EntryHandler handler, int from, int to, int depth) {
+		while(from<to) {
+			int mid = (from+to)>>>1;
+			int dim = depth%DIMENSIONS;
+			float value = features[mid*DIMENSIONS+dim];
+
+			if(query.contains(features, mid)) {
+				handler.entryFound(this, mid);
+			}
+
+			boolean left, right;
+			if(!query.isActive(dim)) {
+				left = right = true;
+			} else if(Float.isNaN(value)) {
+				// NaN values are sorted last and never match
+				left = true;
+				right = false;
+			} else {
+				left = query.min[dim]<=value;
+				right = query.max[dim]>=value;
+			}
+
+			depth++;
+
+			if(left && right) {
+				find(query, handler, from, mid, depth);
+				from = mid+1;
+			} else if(left) {
+				to = mid;
+			} else if(right) {
+				from = mid+1;
+			} else {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the sorted indices of all sentences that contain at least
+	 * one entry inside the query bounds that is also accepted by the
+	 * optional filter.
+	 */
+	public int[] getSentences(Query query, final EntryFilter filter) {
+		final BitSet result = new BitSet(sentenceCount);
+
+		find(query, new EntryHandler() {
+
+			@Override
+			public void entryFound(PaIntEIndex index, int entry) {
+				if(filter==null || filter.accept(index, entry)) {
+					result.set(sentences[entry]);
+				}
+			}
+		});
+
+		int[] indices = new int[result.cardinality()];
+		int pos = 0;
+		for(int i=result.nextSetBit(0); i>=0; i=result.nextSetBit(i+1)) {
+			indices[pos++] = i;
+		}
+
+		return indices;
+	}
+
+	public interface EntryHandler {
+		void entryFound(PaIntEIndex index, int entry);
+	}
+
+	public interface EntryFilter {
+		boolean accept(PaIntEIndex index, int entry);
+	}
+
+	/**
+	 * Axis aligned bounding box in the feature space of the index.
+	 */
+	public static class Query {
+
+		final double[] min = new double[DIMENSIONS];
+		final double[] max = new double[DIMENSIONS];
+		private final boolean[] active = new boolean[DIMENSIONS];
+
+		private boolean empty = true;
+
+		public Query() {
+			for(int i=0; i<DIMENSIONS; i++) {
+				min[i] = Double.NEGATIVE_INFINITY;
+				max[i] = Double.POSITIVE_INFINITY;
+			}
+		}
+
+		public Query setMin(int dimension, double value) {
+			min[dimension] = Math.max(min[dimension], value);
+			active[dimension] = true;
+			empty = false;
+			return this;
+		}
+
+		public Query setMax(int dimension, double value) {
+			max[dimension] = Math.min(max[dimension], value);
+			active[dimension] = true;
+			empty = false;
+			return this;
+		}
+
+		public Query setRange(int dimension, double min, double max) {
+			setMin(dimension, min);
+			setMax(dimension, max);
+			return this;
+		}
+
+		public boolean isActive(int dimension) {
+			return active[dimension];
+		}
+
+		/**
+		 * Returns {@code true} if no dimension has been restricted.
+		 */
+		public boolean isEmpty() {
+			return empty;
+		}
+
+		boolean contains(float[] features, int entry) {
+			int offset = entry*DIMENSIONS;
+			for(int i=0; i<DIMENSIONS; i++) {
+				if(!active[i]) {
+					continue;
+				}
+				float value = features[offset+i];
+				if(!(value>=min[i] && value<=max[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	public static class Builder {
+
+		private final PaIntEParams params = new PaIntEParams();
+
+		private final TFloatArrayList features = new TFloatArrayList();
+		private final TIntArrayList sentences = new TIntArrayList();
+		private final TIntArrayList words = new TIntArrayList();
+		private final TIntArrayList syllables = new TIntArrayList();
+
+		private int sentenceCount = 0;
+
+		/**
+		 * Adds all syllables of the given sentence. Sentences have to be
+		 * processed in ascending order of their index.
+		 */
+		public void process(int index, ProsodicSentenceData sentence) {
+			sentenceCount = Math.max(sentenceCount, index+1);
+
+			if(sentence==null) {
+				return;
+			}
+
+			for(int word=0; word<sentence.length(); word++) {
+				int sylCount = sentence.getSyllableCount(word);
+				for(int syl=0; syl<sylCount; syl++) {
+					params.setParams(sentence, word, syl);
+
+					features.add((float) params.a1);
+					features.add((float) params.a2);
+					features.add((float) params.b);
+					features.add((float) params.c1);
+					features.add((float) params.c2);
+					features.add((float) params.d);
+					features.add((float) PaIntEUtils.calcY(params.b, params));
+					features.add((float) PaIntEUtils.calcIntegral(INTEGRAL_LEFT, INTEGRAL_RIGHT, params));
+
+					sentences.add(index);
+					words.add(word);
+					syllables.add(syl);
+				}
+			}
+		}
+
+		public PaIntEIndex build() {
+			int size = sentences.size();
+			int[] order = new int[size];
+			for(int i=0; i<size; i++) {
+				order[i] = i;
+			}
+
+			float[] source = features.toArray();
+			buildTree(source, order, 0, size, 0);
+
+			float[] features = new float[size*DIMENSIONS];
+			int[] sentences = new int[size];
+			int[] words = new int[size];
+			int[] syllables = new int[size];
+
+			for(int i=0; i<size; i++) {
+				int entry = order[i];
+				System.arraycopy(source, entry*DIMENSIONS, features, i*DIMENSIONS, DIMENSIONS);
+				sentences[i] = this.sentences.getQuick(entry);
+				words[i] = this.words.getQuick(entry);
+				syllables[i] = this.syllables.getQuick(entry);
+			}
+
+			return new PaIntEIndex(sentenceCount, features, sentences, words, syllables);
+		}
+
+		private static void buildTree(float[] features, int[] order, int from, int to, int depth) {
+			while(to-from>1) {
+				int mid = (from+to)>>>1;
+				select(features, order, from, to-1, mid, depth%DIMENSIONS);
+
+				depth++;
+				buildTree(features, order, from, mid, depth);
+				from = mid+1;
+			}
+		}
+
+		private static float key(float[] features, int[] order, int pos, int dim) {
+			return features[order[pos]*DIMENSIONS+dim];
+		}
+
+		private static void swap(int[] order, int i, int j) {
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+
+		/**
+		 * Rearranges the given range so that position {@code k} holds the
+		 * element that would be there if the range was sorted, using
+		 * {@link Float#compare(float, float)} as ordering.
+		 */
+		private static void select(float[] features, int[] order, int left, int right, int k, int dim) {
+			while(right>left) {
+				// Median of three as pivot
+				int mid = (left+right)>>>1;
+				if(Float.compare(key(features, order, mid, dim), key(features, order, left, dim))<0) {
+					swap(order, left, mid);
+				}
+				if(Float.compare(key(features, order, right, dim), key(features, order, left, dim))<0) {
+					swap(order, left, right);
+				}
+				if(Float.compare(key(features, order, right, dim), key(features, order, mid, dim))<0) {
+					swap(order, mid, right);
+				}
+				float pivot = key(features, order, mid, dim);
+
+				int i = left, j = right;
+				while(i<=j) {
+					while(Float.compare(key(features, order, i, dim), pivot)<0) i++;
+					while(Float.compare(key(features, order, j, dim), pivot)>0) j--;
+					if(i<=j) {
+						swap(order, i, j);
+						i++;
+						j--;
+					}
+				}
+
+				if(k<=j) {
+					right = j;
+				} else if(k>=i) {
+					left = i;
+				} else {
+					return;
+				}
+			}
+		}
+	}
+}
@@ -26,17 +26,69 @@
 package de.ims.icarus.plugins.prosody.painte;
 
 
+/**
+ * Compares two PaIntE curves point by point on a fixed sample grid.
+ * Once {@link #prepare(PaIntEConstraintParams)} has been called the curve of
+ * the constraint is only sampled once and subsequent calls to
+ * {@link #apply(PaIntEConstraintParams, PaIntEConstraintParams)} with the
+ * same constraint only need to evaluate the target curve. In addition the
+ * analytic bounds of the target curve are used to decide most comparisons
+ * without sampling it at all.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
 public class PaIntEIntervalOperator implements PaIntEOperator {
 
-	private final double leftBorder, rightBorder, stepSize;
+	private final PaIntECurveGrid grid;
 	private final NumberOperator operator;
+	private final boolean comparison;
+
+	private PaIntEConstraintParams preparedConstraints;
+	private double[] constraintYs;
+	private double constraintMinY, constraintMaxY;
 
 	public PaIntEIntervalOperator(double leftBorder, double rightBorder, int resolution, NumberOperator operator) {
-		this.leftBorder = leftBorder;
-		this.rightBorder = rightBorder;
 		this.operator = operator;
 
-		stepSize = (rightBorder-leftBorder)/resolution;
+		grid = new PaIntECurveGrid(leftBorder, rightBorder, resolution);
+		comparison = PaIntEUtils.isComparison(operator);
+	}
+
+	public PaIntECurveGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Samples the given constraint curve once. The constraint must not
+	 * be modified as long as it is used in combination with this operator.
+	 */
+	public void prepare(PaIntEConstraintParams constraints) {
+		if(constraints==null) {
+			preparedConstraints = null;
+			constraintYs = null;
+			return;
+		}
+
+		double[] ys = grid.sample(constraints);
+
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		boolean valid = ys.length>0;
+		for(double y : ys) {
+			if(Double.isNaN(y)) {
+				valid = false;
+			}
+			min = Math.min(min, y);
+			max = Math.max(max, y);
+		}
+
+		// Bounds are only usable if every sample is a real number
+		constraintMinY = valid ? min : Double.NaN;
+		constraintMaxY = valid ? max : Double.NaN;
+		constraintYs = ys;
+		preparedConstraints = constraints;
 	}
 
 	/**
@@ -44,21 +96,58 @@ public class PaIntEIntervalOperator implements PaIntEOperator {
 	 */
 	@Override
 	public boolean apply(PaIntEConstraintParams target, PaIntEConstraintParams constraints) {
-		double x = leftBorder;
+		if(constraints!=preparedConstraints || constraintYs==null) {
+			return applyUnprepared(target, constraints);
+		}
 
-		while(x<=rightBorder) {
-			double yTarget = PaIntEUtils.calcY(x, target);
-			double yConstraint = PaIntEUtils.calcY(x, constraints);
+		if(comparison && !Double.isNaN(constraintMinY) && PaIntEUtils.isFinite(target)) {
+			double targetMinY = PaIntEUtils.calcMinY(target);
+			double targetMaxY = PaIntEUtils.calcMaxY(target);
 
-			if(!operator.apply(yTarget, yConstraint)) {
+			/*
+			 *  For comparisons the set of satisfying pairs is a half-plane.
+			 *  So if all 4 corners of the box spanned by both value ranges
+			 *  share the same outcome, every sample pair does as well.
+			 */
+			boolean c0 = operator.apply(targetMinY, constraintMinY);
+			boolean c1 = operator.apply(targetMinY, constraintMaxY);
+			boolean c2 = operator.apply(targetMaxY, constraintMinY);
+			boolean c3 = operator.apply(targetMaxY, constraintMaxY);
+
+			if(c0 && c1 && c2 && c3) {
+				return true;
+			} else if(!c0 && !c1 && !c2 && !c3) {
 				return false;
 			}
+		}
+
+		final double a1 = target.a1, a2 = target.a2, b = target.b;
+		final double c1 = target.c1, c2 = target.c2, d = target.d;
+		final double g = target.alignment;
+		final double[] ys = constraintYs;
 
-			x += stepSize;
+		for(int i=0; i<ys.length; i++) {
+			double yTarget = PaIntEUtils.calcY(grid.getX(i), a1, a2, b, c1, c2, d, g);
+
+			if(!operator.apply(yTarget, ys[i])) {
+				return false;
+			}
 		}
 
 		return true;
 	}
 
+	private boolean applyUnprepared(PaIntEConstraintParams target, PaIntEConstraintParams constraints) {
+		for(int i=0; i<grid.size(); i++) {
+			double x = grid.getX(i);
+			double yTarget = PaIntEUtils.calcY(x, target);
+			double yConstraint = PaIntEUtils.calcY(x, constraints);
+
+			if(!operator.apply(yTarget, yConstraint)) {
+				return false;
+			}
+		}
 
+		return true;
+	}
 }
\ No newline at end of file
@@ -117,6 +117,51 @@ public class PaIntEUtils {
 		return d - (c1/(1+exp(-a1*(b-x)+alignment))) - (c2/(1+exp(-a2*(x-b)+alignment)));
 	}
 
+	/**
+	 * Lower bound of the curve over the entire horizontal axis. Since both
+	 * sigmoid terms lie within {@code [0,1]} the curve can never drop below
+	 * {@code d} minus the positive amplitudes.
+	 */
+	public static double calcMinY(PaIntEParams params) {
+		return params.d - Math.max(params.c1, 0) - Math.max(params.c2, 0);
+	}
+
+	/**
+	 * Upper bound of the curve over the entire horizontal axis.
+	 *
+	 * @see #calcMinY(PaIntEParams)
+	 */
+	public static double calcMaxY(PaIntEParams params) {
+		return params.d - Math.min(params.c1, 0) - Math.min(params.c2, 0);
+	}
+
+	/**
+	 * Returns {@code true} if all parameters that take part in curve
+	 * evaluation are finite, i.e. if the curve never yields {@code NaN}
+	 * and the bounds given by {@link #calcMinY(PaIntEParams)} and
+	 * {@link #calcMaxY(PaIntEParams)} hold.
+	 */
+	public static boolean isFinite(PaIntEParams params) {
+		return isFinite(params.a1) && isFinite(params.a2) && isFinite(params.b)
+				&& isFinite(params.c1) && isFinite(params.c2) && isFinite(params.d)
+				&& isFinite(params.alignment);
+	}
+
+	private static boolean isFinite(double v) {
+		return !Double.isNaN(v) && !Double.isInfinite(v);
+	}
+
+	/**
+	 * Returns whether the given operator is one of the plain comparisons
+	 * defined in this class. For those the set of value pairs satisfying
+	 * the operator is a half-plane, which allows to decide the outcome for
+	 * an entire range of values by only checking its corners.
+	 */
+	public static boolean isComparison(NumberOperator operator) {
+		return operator==lessThan || operator==lessOrEqual
+				|| operator==greaterThan || operator==greaterOrEqual;
+	}
+
 	public static double calcIntegral(double x, double a1, double a2, double b, double c1, double c2, double d, double alignment) {
 //		String s ="(-c1 + d)*x - (c2*Log[-E^(a2*b + m) - E^(a2*x)])/a2 + (c1*Log[1 + E^(-(a1*b) + m + a1*x)])/a1";
 //		String s ="-c1*(-log(exp(a1*x+m-a1*b)+1)/a1 + x + m/a1 - b) - c2*log(exp(a2*x)+exp(m+a2*b))/a2 + d*x";
@@ -0,0 +1,143 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.prosody.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.ims.icarus.language.treebank.TreebankIndex;
+import de.ims.icarus.plugins.prosody.painte.PaIntEIndex;
+import de.ims.icarus.plugins.prosody.search.constraints.painte.PaIntEIndexedConstraint;
+import de.ims.icarus.search_tools.EdgeType;
+import de.ims.icarus.search_tools.NodeType;
+import de.ims.icarus.search_tools.SearchConstraint;
+import de.ims.icarus.search_tools.SearchEdge;
+import de.ims.icarus.search_tools.SearchGraph;
+import de.ims.icarus.search_tools.SearchNode;
+
+/**
+ * Uses a {@link PaIntEIndex} to determine the sentences that can possibly
+ * satisfy a query. Only constraints implementing {@link PaIntEIndexedConstraint}
+ * on nodes that are required for every match are taken into account, i.e.
+ * nodes that are neither negated nor part of a disjunction and whose ancestors
+ * satisfy the same condition.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class PaIntEIndexFilter {
+
+	private final PaIntEIndex index;
+
+	public PaIntEIndexFilter(PaIntEIndex index) {
+		if(index==null)
+			throw new NullPointerException("Invalid index"); //$NON-NLS-1$
+
+		this.index = index;
+	}
+
+	/**
+	 * Returns the ascending indices of all sentences that contain a
+	 * candidate syllable for every mandatory indexed constraint in the
+	 * given graph or {@code null} if the graph contains no constraints
+	 * that could be resolved by the index.
+	 */
+	public int[] getCandidates(SearchGraph graph) {
+		SearchNode[] roots = graph.getRootNodes();
+		if(roots==null || roots.length==0) {
+			return null;
+		}
+		if(roots.length>1 && graph.getRootOperator()==SearchGraph.OPERATOR_DISJUNCTION) {
+			return null;
+		}
+
+		List<int[]> candidates = new ArrayList<>();
+		for(SearchNode root : roots) {
+			collect(root, null, candidates);
+		}
+
+		if(candidates.isEmpty()) {
+			return null;
+		}
+
+		Collections.sort(candidates, new Comparator<int[]>() {
+
+			@Override
+			public int compare(int[] c1, int[] c2) {
+				return c1.length-c2.length;
+			}
+		});
+
+		int[] result = candidates.get(0);
+		for(int i=1; i<candidates.size() && result.length>0; i++) {
+			result = TreebankIndex.intersect(result, candidates.get(i));
+		}
+
+		return result;
+	}
+
+	private void collect(SearchNode node, SearchEdge head, List<int[]> candidates) {
+		if(node.isNegated() || node.getNodeType()==NodeType.DISJUNCTION) {
+			return;
+		}
+		if(head!=null && head.isNegated()) {
+			return;
+		}
+
+		collect(node.getConstraints(), candidates);
+
+		int edgeCount = node.getOutgoingEdgeCount();
+		for(int i=0; i<edgeCount; i++) {
+			SearchEdge edge = node.getOutgoingEdgeAt(i);
+			if(edge.getEdgeType()==EdgeType.LINK
+					|| edge.getEdgeType()==EdgeType.PRECEDENCE) {
+				continue;
+			}
+
+			collect(edge.getTarget(), edge, candidates);
+		}
+	}
+
+	private void collect(SearchConstraint[] constraints, List<int[]> candidates) {
+		if(constraints==null) {
+			return;
+		}
+
+		for(SearchConstraint constraint : constraints) {
+			if(constraint.isUndefined() || !(constraint instanceof PaIntEIndexedConstraint)) {
+				continue;
+			}
+
+			int[] list = ((PaIntEIndexedConstraint)constraint).getCandidates(index);
+			if(list!=null) {
+				candidates.add(list);
+			}
+		}
+	}
+}
@@ -25,14 +25,24 @@
  */
 package de.ims.icarus.plugins.prosody.search;
 
+import java.util.logging.Level;
+
+import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.language.SentenceDataList;
+import de.ims.icarus.language.treebank.TreebankIndex;
+import de.ims.icarus.logging.LoggerFactory;
+import de.ims.icarus.plugins.prosody.ProsodicDocumentSet;
 import de.ims.icarus.plugins.prosody.ProsodyUtils;
 import de.ims.icarus.plugins.prosody.annotation.ProsodyResultAnnotator;
+import de.ims.icarus.plugins.prosody.painte.PaIntEIndex;
+import de.ims.icarus.plugins.prosody.search.ProsodyTargetSelector.DocumentSetDelegate;
 import de.ims.icarus.search_tools.SearchFactory;
+import de.ims.icarus.search_tools.SearchGraph;
 import de.ims.icarus.search_tools.SearchQuery;
 import de.ims.icarus.search_tools.annotation.ResultAnnotator;
 import de.ims.icarus.search_tools.corpus.AbstractCorpusSearch;
 import de.ims.icarus.search_tools.tree.TargetTree;
+import de.ims.icarus.search_tools.util.SearchUtils;
 import de.ims.icarus.util.Options;
 import de.ims.icarus.util.data.ContentType;
 import de.ims.icarus.util.data.ContentTypeRegistry;
@@ -73,6 +83,51 @@ public class ProsodySearch extends AbstractCorpusSearch {
 		return (SentenceDataList) target;
 	}
 
+	protected boolean isPaIntEIndexPruning() {
+		return ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.prosody.search.usePaIntEIndex"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Additionally restricts the search to sentences that contain candidate
+	 * syllables for all mandatory PaIntE constraints, using the index of
+	 * the searched document set.
+	 *
+	 * @see de.ims.icarus.search_tools.corpus.AbstractCorpusSearch#createCandidateIndices()
+	 */
+	@Override
+	protected int[] createCandidateIndices() {
+		int[] candidates = super.createCandidateIndices();
+
+		Object target = getTarget();
+		if(!isPaIntEIndexPruning() || !(target instanceof DocumentSetDelegate)) {
+			return candidates;
+		}
+
+		DocumentSetDelegate delegate = (DocumentSetDelegate) target;
+		if(!delegate.isLoaded() || !(delegate.getDescriptor().get() instanceof ProsodicDocumentSet)) {
+			return candidates;
+		}
+
+		PaIntEIndex index = ((ProsodicDocumentSet)delegate.getDescriptor().get()).getPaIntEIndex();
+		if(index.getSentenceCount()!=source.size()) {
+			return candidates;
+		}
+
+		SearchGraph graph = SearchUtils.instantiate(getSearchGraph(),
+				getQuery().getConstraintContext(), getParameters());
+
+		int[] painteCandidates = new PaIntEIndexFilter(index).getCandidates(graph);
+		if(painteCandidates==null) {
+			return candidates;
+		}
+
+		LoggerFactory.log(this, Level.FINE, "PaIntE index reduced search space from " //$NON-NLS-1$
+				+source.size()+" to "+painteCandidates.length+" sentences"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		return candidates==null ? painteCandidates : TreebankIndex.intersect(candidates, painteCandidates);
+	}
+
 	/**
 	 * @see de.ims.icarus.search_tools.tree.AbstractTreeSearch#createAnnotator()
 	 */
@@ -92,6 +92,11 @@ public class ProsodyEntityConstraintFactory extends AbstractConstraintFactory {
 			return ((ProsodyTargetTree)value).getSpeakerFeatures().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((ProsodyTargetTree)value).getSpeakerFeatures();
+		}
+
 		@Override
 		public ProsodyEntityCIConstraint clone() {
 			return new ProsodyEntityCIConstraint(getValue(), getOperator());
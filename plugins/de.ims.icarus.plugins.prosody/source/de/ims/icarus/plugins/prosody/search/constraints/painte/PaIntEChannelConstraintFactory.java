@@ -32,6 +32,7 @@ import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.plugins.prosody.ProsodyConstants;
 import de.ims.icarus.plugins.prosody.ProsodyUtils;
 import de.ims.icarus.plugins.prosody.painte.PaIntEConstraintParams;
+import de.ims.icarus.plugins.prosody.painte.PaIntECurveGrid;
 import de.ims.icarus.plugins.prosody.painte.PaIntEUtils;
 import de.ims.icarus.plugins.prosody.search.ProsodyTargetTree;
 import de.ims.icarus.plugins.prosody.ui.details.ProsodySentenceDetailPresenter;
@@ -129,6 +130,10 @@ public class PaIntEChannelConstraintFactory extends AbstractConstraintFactory {
 		protected transient boolean compact = false;
 		protected transient CompactCurveBuffer curveBuffer;
 
+		// Sampled channel borders for the non-compact mode
+		protected transient PaIntECurveGrid grid;
+		protected transient double[] lowerYs, upperYs;
+
 		public PaIntEChannelConstraint(Object value, SearchOperator operator, Object specifier) {
 			super(TOKEN, value, operator, specifier);
 		}
@@ -194,6 +199,17 @@ public class PaIntEChannelConstraintFactory extends AbstractConstraintFactory {
 			if(compact && curveBuffer==null) {
 				curveBuffer = new CompactCurveBuffer();
 			}
+
+			if(compact) {
+				grid = null;
+				lowerYs = upperYs = null;
+			} else {
+				if(grid==null || !grid.matches(leftBorder, rightBorder, resolution)) {
+					grid = new PaIntECurveGrid(leftBorder, rightBorder, resolution);
+				}
+				lowerYs = grid.sample(lowerParams);
+				upperYs = grid.sample(upperParams);
+			}
 		}
 
 		private boolean isInside(double v) {
@@ -239,6 +255,24 @@ public class PaIntEChannelConstraintFactory extends AbstractConstraintFactory {
 					state = next;
 				}
 
+				return state.getResult();
+			} else if(upperYs!=null) {
+
+				CurveState state = CurveState.BLANK;
+				CurveState next = null;
+
+				for(int i=0; i<upperYs.length; i++) {
+					double yTarget = PaIntEUtils.calcY(grid.getX(i), valueParams);
+
+					next = state.compute(upperYs[i], lowerYs[i], yTarget);
+
+					if(next==null) {
+						break;
+					}
+
+					state = next;
+				}
+
 				return state.getResult();
 			} else {
 
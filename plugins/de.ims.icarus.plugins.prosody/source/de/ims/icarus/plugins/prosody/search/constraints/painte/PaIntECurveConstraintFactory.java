@@ -86,6 +86,24 @@ public class PaIntECurveConstraintFactory  extends AbstractConstraintFactory {
 			return intervalOperator.apply(target, constraintParams);
 		}
 
+		/**
+		 * Samples the constraint curve once so that matching only needs to
+		 * evaluate the target curves.
+		 *
+		 * @see de.ims.icarus.search_tools.standard.DefaultConstraint#prepare()
+		 */
+		@Override
+		public void prepare() {
+			super.prepare();
+
+			if(!intervalOperator.getGrid().matches(leftBorder, rightBorder, resolution)) {
+				NumberOperator numberOperator = PaIntEUtils.getNumberOperator(getOperator());
+				intervalOperator = new PaIntEIntervalOperator(leftBorder, rightBorder, resolution, numberOperator);
+			}
+
+			intervalOperator.prepare(constraintParams);
+		}
+
 		@Override
 		public void setOperator(SearchOperator operator) {
 			super.setOperator(operator);
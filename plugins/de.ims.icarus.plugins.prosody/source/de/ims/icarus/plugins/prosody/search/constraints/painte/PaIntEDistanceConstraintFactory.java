@@ -29,6 +29,9 @@ import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.config.ConfigRegistry.Handle;
 import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.language.LanguageUtils;
+import de.ims.icarus.plugins.prosody.painte.PaIntEConstraintParams;
+import de.ims.icarus.plugins.prosody.painte.PaIntEIndex;
+import de.ims.icarus.plugins.prosody.painte.PaIntEParams;
 import de.ims.icarus.plugins.prosody.search.ProsodyTargetTree;
 import de.ims.icarus.search_tools.SearchConstraint;
 import de.ims.icarus.search_tools.SearchOperator;
@@ -92,7 +95,7 @@ public class PaIntEDistanceConstraintFactory extends AbstractConstraintFactory {
 		return new PaIntEDistanceConstraint(value, operator, specifier);
 	}
 
-	private static class PaIntEDistanceConstraint extends AbstractParameterizedPaIntEConstraint {
+	private static class PaIntEDistanceConstraint extends AbstractParameterizedPaIntEConstraint implements PaIntEIndexedConstraint {
 
 		private static final long serialVersionUID = 6887748634037055630L;
 
@@ -148,48 +151,109 @@ public class PaIntEDistanceConstraintFactory extends AbstractConstraintFactory {
 
 			valueParams.setParams(tree.getSource(), tree.getNodeIndex(), syllable);
 
-			/*
-			 * dist = ||a-b||2 = sqrt(sum((a1-b1)²...(an-bn)²))
-			 */
+			return distance(valueParams);
+		}
 
-			double sum = 0;
+		private double distance(PaIntEParams value) {
+			/*
+			 * dist = ||a-b||2 = sqrt(sum((a1-b1)²...(an-bn)²))
+			 */
+
+			double sum = 0;
+
+			// A1
+			if(specifierParams.isA1Active()) {
+				sum += Math.pow((specifierParams.getA1()-value.getA1()), 2.0);
+			}
+
+			// A2
+			if(specifierParams.isA2Active()) {
+				sum += Math.pow((specifierParams.getA2()-value.getA2()), 2.0);
+			}
+
+			// B
+			if(specifierParams.isBActive()) {
+				sum += Math.pow((specifierParams.getB()-value.getB()), 2.0);
+			}
+
+			// C1
+			if(specifierParams.isC1Active()) {
+				sum += Math.pow((specifierParams.getC1()-value.getC1()), 2.0);
+			}
+
+			// C2
+			if(specifierParams.isC2Active()) {
+				sum += Math.pow((specifierParams.getC2()-value.getC2()), 2.0);
+			}
+
+			// D
+			if(specifierParams.isDActive()) {
+				sum += Math.pow((specifierParams.getD()-value.getD()), 2.0);
+			}
+
+			// Alignment
+			if(specifierParams.isAlignmentActive()) {
+				sum += Math.pow((specifierParams.getAlignment()-value.getAlignment()), 2.0);
+			}
+
+			return Math.sqrt(sum);
+		}
 
-			// A1
-			if(specifierParams.isA1Active()) {
-				sum += Math.pow((specifierParams.getA1()-valueParams.getA1()), 2.0);
+		/**
+		 * Only an upper limit on the distance can be translated into a
+		 * bounding box around the parameters given as specifier. Candidates
+		 * inside the box are then checked with the exact distance.
+		 *
+		 * @see de.ims.icarus.plugins.prosody.search.constraints.painte.PaIntEIndexedConstraint#getCandidates(de.ims.icarus.plugins.prosody.painte.PaIntEIndex)
+		 */
+		@Override
+		public int[] getCandidates(PaIntEIndex index) {
+			final SearchOperator operator = getOperator();
+			if(specifierParams==null || isUndefined()
+					|| (operator!=DefaultSearchOperator.LESS_THAN
+						&& operator!=DefaultSearchOperator.LESS_OR_EQUAL)) {
+				return null;
 			}
 
-			// A2
+			final Object constraint = getConstraint();
+			double limit = ((Number) constraint).doubleValue();
+			// Leave some room for rounding, the filter below decides exactly
+			double radius = limit + Math.abs(limit)*1e-9 + 1e-9;
+
+			PaIntEIndex.Query query = new PaIntEIndex.Query();
+			if(specifierParams.isA1Active()) {
+				query.setRange(PaIntEIndex.A1, specifierParams.getA1()-radius, specifierParams.getA1()+radius);
+			}
 			if(specifierParams.isA2Active()) {
-				sum += Math.pow((specifierParams.getA2()-valueParams.getA2()), 2.0);
+				query.setRange(PaIntEIndex.A2, specifierParams.getA2()-radius, specifierParams.getA2()+radius);
 			}
-
-			// B
 			if(specifierParams.isBActive()) {
-				sum += Math.pow((specifierParams.getB()-valueParams.getB()), 2.0);
+				query.setRange(PaIntEIndex.B, specifierParams.getB()-radius, specifierParams.getB()+radius);
 			}
-
-			// C1
 			if(specifierParams.isC1Active()) {
-				sum += Math.pow((specifierParams.getC1()-valueParams.getC1()), 2.0);
+				query.setRange(PaIntEIndex.C1, specifierParams.getC1()-radius, specifierParams.getC1()+radius);
 			}
-
-			// C2
 			if(specifierParams.isC2Active()) {
-				sum += Math.pow((specifierParams.getC2()-valueParams.getC2()), 2.0);
+				query.setRange(PaIntEIndex.C2, specifierParams.getC2()-radius, specifierParams.getC2()+radius);
 			}
-
-			// D
 			if(specifierParams.isDActive()) {
-				sum += Math.pow((specifierParams.getD()-valueParams.getD()), 2.0);
+				query.setRange(PaIntEIndex.D, specifierParams.getD()-radius, specifierParams.getD()+radius);
 			}
 
-			// Alignment
-			if(specifierParams.isAlignmentActive()) {
-				sum += Math.pow((specifierParams.getAlignment()-valueParams.getAlignment()), 2.0);
+			if(query.isEmpty()) {
+				return null;
 			}
 
-			return Math.sqrt(sum);
+			final PaIntEConstraintParams params = new PaIntEConstraintParams();
+
+			return index.getSentences(query, new PaIntEIndex.EntryFilter() {
+
+				@Override
+				public boolean accept(PaIntEIndex index, int entry) {
+					index.getParams(entry, params);
+					return operator.apply(distance(params), constraint);
+				}
+			});
 		}
 	}
 
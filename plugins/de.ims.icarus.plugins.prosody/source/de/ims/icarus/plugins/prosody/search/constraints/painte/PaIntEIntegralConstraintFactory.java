@@ -27,6 +27,7 @@ package de.ims.icarus.plugins.prosody.search.constraints.painte;
 
 import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.language.LanguageUtils;
+import de.ims.icarus.plugins.prosody.painte.PaIntEIndex;
 import de.ims.icarus.plugins.prosody.painte.PaIntEParams;
 import de.ims.icarus.plugins.prosody.painte.PaIntEUtils;
 import de.ims.icarus.plugins.prosody.search.ProsodyTargetTree;
@@ -87,7 +88,7 @@ public class PaIntEIntegralConstraintFactory extends AbstractConstraintFactory {
 		return new PaIntEIntegralConstraint(value, operator, specifier);
 	}
 
-	private static class PaIntEIntegralConstraint extends BoundedSyllableConstraint {
+	private static class PaIntEIntegralConstraint extends BoundedSyllableConstraint implements PaIntEIndexedConstraint {
 
 		private static final long serialVersionUID = -284378544802853009L;
 
@@ -117,5 +118,49 @@ public class PaIntEIntegralConstraintFactory extends AbstractConstraintFactory {
 
 			return PaIntEUtils.calcIntegral(leftBorder, rightBorder, params);
 		}
+
+		/**
+		 * The index only stores integrals over its standard window, so other
+		 * borders cannot be resolved. Precomputed values are used to narrow down
+		 * the candidates, which are then checked with the exact integral.
+		 *
+		 * @see de.ims.icarus.plugins.prosody.search.constraints.painte.PaIntEIndexedConstraint#getCandidates(de.ims.icarus.plugins.prosody.painte.PaIntEIndex)
+		 */
+		@Override
+		public int[] getCandidates(PaIntEIndex index) {
+			final SearchOperator operator = getOperator();
+			if(isUndefined() || leftBorder!=PaIntEIndex.INTEGRAL_LEFT
+					|| rightBorder!=PaIntEIndex.INTEGRAL_RIGHT) {
+				return null;
+			}
+
+			final Object constraint = getConstraint();
+			double value = ((Number) constraint).doubleValue();
+			// Integrals are stored as float values inside the index
+			double margin = Math.abs(value)*1e-6 + 1e-6;
+
+			PaIntEIndex.Query query = new PaIntEIndex.Query();
+			if(operator==DefaultSearchOperator.LESS_THAN || operator==DefaultSearchOperator.LESS_OR_EQUAL) {
+				query.setMax(PaIntEIndex.INTEGRAL, value+margin);
+			} else if(operator==DefaultSearchOperator.GREATER_THAN || operator==DefaultSearchOperator.GREATER_OR_EQUAL) {
+				query.setMin(PaIntEIndex.INTEGRAL, value-margin);
+			} else if(operator==DefaultSearchOperator.EQUALS) {
+				query.setRange(PaIntEIndex.INTEGRAL, value-margin, value+margin);
+			} else {
+				return null;
+			}
+
+			final PaIntEParams params = new PaIntEParams();
+
+			return index.getSentences(query, new PaIntEIndex.EntryFilter() {
+
+				@Override
+				public boolean accept(PaIntEIndex index, int entry) {
+					index.getParams(entry, params);
+					return operator.apply(PaIntEUtils.calcIntegral(
+							leftBorder, rightBorder, params), constraint);
+				}
+			});
+		}
 	}
 }
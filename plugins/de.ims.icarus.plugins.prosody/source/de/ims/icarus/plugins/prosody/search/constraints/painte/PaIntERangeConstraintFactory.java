@@ -28,6 +28,7 @@ package de.ims.icarus.plugins.prosody.search.constraints.painte;
 import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.plugins.prosody.ProsodyConstants;
 import de.ims.icarus.plugins.prosody.painte.PaIntEConstraintParams;
+import de.ims.icarus.plugins.prosody.painte.PaIntEIndex;
 import de.ims.icarus.plugins.prosody.search.ProsodyTargetTree;
 import de.ims.icarus.plugins.prosody.search.constraints.SyllableConstraint;
 import de.ims.icarus.search_tools.SearchConstraint;
@@ -71,7 +72,7 @@ public class PaIntERangeConstraintFactory extends AbstractConstraintFactory impl
 		return new ProsodyPaIntERangeConstraint(value, operator, specifier);
 	}
 
-	private static class ProsodyPaIntERangeConstraint extends DefaultConstraint implements SyllableConstraint {
+	private static class ProsodyPaIntERangeConstraint extends DefaultConstraint implements SyllableConstraint, PaIntEIndexedConstraint {
 
 		private static final long serialVersionUID = 7309790344228778387L;
 
@@ -123,6 +124,63 @@ public class PaIntERangeConstraintFactory extends AbstractConstraintFactory impl
 							&& fromParams!=null && fromParams.isUndefined());
 		}
 
+		/**
+		 * @see de.ims.icarus.plugins.prosody.search.constraints.painte.PaIntEIndexedConstraint#getCandidates(de.ims.icarus.plugins.prosody.painte.PaIntEIndex)
+		 */
+		@Override
+		public int[] getCandidates(PaIntEIndex index) {
+			PaIntEIndex.Query query = new PaIntEIndex.Query();
+
+			if(fromParams!=null && !fromParams.isUndefined()) {
+				if(!fromParams.isCompact()) {
+					if(fromParams.isA1Active()) {
+						query.setMin(PaIntEIndex.A1, fromParams.getA1());
+					}
+					if(fromParams.isA2Active()) {
+						query.setMin(PaIntEIndex.A2, fromParams.getA2());
+					}
+				}
+				if(fromParams.isBActive()) {
+					query.setMin(PaIntEIndex.B, fromParams.getB());
+				}
+				if(fromParams.isC1Active()) {
+					query.setMin(PaIntEIndex.C1, fromParams.getC1());
+				}
+				if(fromParams.isC2Active()) {
+					query.setMin(PaIntEIndex.C2, fromParams.getC2());
+				}
+				if(fromParams.isDActive()) {
+					query.setMin(PaIntEIndex.D, fromParams.getD());
+				}
+			}
+
+			if(toParams!=null && !toParams.isUndefined()) {
+				if(!toParams.isCompact()) {
+					if(toParams.isA1Active()) {
+						query.setMax(PaIntEIndex.A1, toParams.getA1());
+					}
+					if(toParams.isA2Active()) {
+						query.setMax(PaIntEIndex.A2, toParams.getA2());
+					}
+				}
+				if(toParams.isBActive()) {
+					query.setMax(PaIntEIndex.B, toParams.getB());
+				}
+				if(toParams.isC1Active()) {
+					query.setMax(PaIntEIndex.C1, toParams.getC1());
+				}
+				if(toParams.isC2Active()) {
+					query.setMax(PaIntEIndex.C2, toParams.getC2());
+				}
+				if(toParams.isDActive()) {
+					query.setMax(PaIntEIndex.D, toParams.getD());
+				}
+			}
+
+			// Alignment is not part of the index and therefore ignored
+			return query.isEmpty() ? null : index.getSentences(query, null);
+		}
+
 		/**
 		 * @see de.ims.icarus.search_tools.SearchConstraint#matches(java.lang.Object)
 		 */
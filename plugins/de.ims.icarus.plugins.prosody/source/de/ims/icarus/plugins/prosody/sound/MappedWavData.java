@@ -0,0 +1,291 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.plugins.prosody.sound;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Read-only view on the PCM data region of a RIFF/WAVE file. The {@code data}
+ * chunk is mapped into memory once, so sample ranges can be handed out as
+ * buffer slices without seeking or copying. Files that are not plain PCM
+ * wave files (or whose data chunk exceeds the size of a single mapping) are
+ * rejected by {@link #open(Path)} and should be handled via the
+ * {@link javax.sound.sampled.AudioSystem} instead.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class MappedWavData {
+
+	private static final int WAVE_FORMAT_PCM = 0x0001;
+	private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+	private static final int RIFF_HEADER_SIZE = 12;
+	private static final int CHUNK_HEADER_SIZE = 8;
+
+	/**
+	 * Size of the canonical wave header as written by {@link #writeHeader(AudioFormat, int, ByteBuffer)}
+	 */
+	public static final int CANONICAL_HEADER_SIZE = 44;
+
+	private final Path path;
+	private final AudioFormat audioFormat;
+	private final long dataOffset;
+	private final long frameLength;
+	private final MappedByteBuffer data;
+
+	private MappedWavData(Path path, AudioFormat audioFormat, long dataOffset, MappedByteBuffer data) {
+		this.path = path;
+		this.audioFormat = audioFormat;
+		this.dataOffset = dataOffset;
+		this.data = data;
+
+		frameLength = data.capacity() / audioFormat.getFrameSize();
+	}
+
+	/**
+	 * Parses the chunk structure of the given file and maps its {@code data}
+	 * chunk. Returns {@code null} if the file is no PCM wave file that can be
+	 * mapped in a single buffer.
+	 */
+	public static MappedWavData open(Path path) throws IOException {
+		if (path == null)
+			throw new NullPointerException("Invalid path"); //$NON-NLS-1$
+
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+
+			ByteBuffer header = ByteBuffer.allocate(RIFF_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			if(!readFully(channel, header, 0)) {
+				return null;
+			}
+
+			if(header.getInt(0)!=fourCC("RIFF") || header.getInt(8)!=fourCC("WAVE")) { //$NON-NLS-1$ //$NON-NLS-2$
+				return null;
+			}
+
+			AudioFormat audioFormat = null;
+			ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			long position = RIFF_HEADER_SIZE;
+
+			while(position+CHUNK_HEADER_SIZE<=fileSize) {
+				chunkHeader.clear();
+				if(!readFully(channel, chunkHeader, position)) {
+					return null;
+				}
+
+				int chunkId = chunkHeader.getInt(0);
+				long chunkSize = chunkHeader.getInt(4) & 0xFFFFFFFFL;
+				long chunkStart = position+CHUNK_HEADER_SIZE;
+
+				if(chunkId==fourCC("fmt ")) { //$NON-NLS-1$
+					audioFormat = readFormat(channel, chunkStart, chunkSize);
+					if(audioFormat==null) {
+						return null;
+					}
+				} else if(chunkId==fourCC("data")) { //$NON-NLS-1$
+					if(audioFormat==null) {
+						return null;
+					}
+
+					// Streamed or truncated files might declare more data than actually present
+					long dataSize = Math.min(chunkSize, fileSize-chunkStart);
+					int frameSize = audioFormat.getFrameSize();
+					dataSize -= dataSize % frameSize;
+
+					if(dataSize>Integer.MAX_VALUE) {
+						return null;
+					}
+
+					MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, dataSize);
+					data.order(ByteOrder.LITTLE_ENDIAN);
+
+					return new MappedWavData(path, audioFormat, chunkStart, data);
+				}
+
+				// Chunks are word aligned
+				position = chunkStart + chunkSize + (chunkSize & 1);
+			}
+		}
+
+		return null;
+	}
+
+	private static AudioFormat readFormat(FileChannel channel, long offset, long size) throws IOException {
+		if(size<16) {
+			return null;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, 40)).order(ByteOrder.LITTLE_ENDIAN);
+		if(!readFully(channel, buffer, offset)) {
+			return null;
+		}
+
+		int formatTag = buffer.getShort(0) & 0xFFFF;
+		int channels = buffer.getShort(2) & 0xFFFF;
+		int sampleRate = buffer.getInt(4);
+		int blockAlign = buffer.getShort(12) & 0xFFFF;
+		int bitsPerSample = buffer.getShort(14) & 0xFFFF;
+
+		if(formatTag==WAVE_FORMAT_EXTENSIBLE) {
+			// Sub-format GUID starts at offset 24, its first two bytes hold the actual format tag
+			if(buffer.capacity()<26) {
+				return null;
+			}
+			formatTag = buffer.getShort(24) & 0xFFFF;
+		}
+
+		if(formatTag!=WAVE_FORMAT_PCM || channels<1 || sampleRate<1
+				|| blockAlign<1 || bitsPerSample<1) {
+			return null;
+		}
+
+		// 8 bit wave data is stored unsigned, everything else signed
+		AudioFormat.Encoding encoding = bitsPerSample<=8 ?
+				AudioFormat.Encoding.PCM_UNSIGNED : AudioFormat.Encoding.PCM_SIGNED;
+
+		return new AudioFormat(encoding, sampleRate, bitsPerSample,
+				channels, blockAlign, sampleRate, false);
+	}
+
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while(buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if(read<0) {
+				return false;
+			}
+			position += read;
+		}
+		buffer.flip();
+		return true;
+	}
+
+	private static int fourCC(String id) {
+		return (id.charAt(0)) | (id.charAt(1)<<8) | (id.charAt(2)<<16) | (id.charAt(3)<<24);
+	}
+
+	/**
+	 * Writes a canonical 44 byte PCM wave header for the given amount of
+	 * sample data into the supplied buffer.
+	 */
+	public static void writeHeader(AudioFormat audioFormat, int dataSize, ByteBuffer buffer) {
+		int channels = audioFormat.getChannels();
+		int sampleRate = (int) audioFormat.getSampleRate();
+		int frameSize = audioFormat.getFrameSize();
+
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(fourCC("RIFF")); //$NON-NLS-1$
+		buffer.putInt(CANONICAL_HEADER_SIZE-8+dataSize);
+		buffer.putInt(fourCC("WAVE")); //$NON-NLS-1$
+		buffer.putInt(fourCC("fmt ")); //$NON-NLS-1$
+		buffer.putInt(16);
+		buffer.putShort((short) WAVE_FORMAT_PCM);
+		buffer.putShort((short) channels);
+		buffer.putInt(sampleRate);
+		buffer.putInt(sampleRate*frameSize);
+		buffer.putShort((short) frameSize);
+		buffer.putShort((short) audioFormat.getSampleSizeInBits());
+		buffer.putInt(fourCC("data")); //$NON-NLS-1$
+		buffer.putInt(dataSize);
+	}
+
+	/**
+	 * Returns a read-only slice of the mapped sample data covering the
+	 * given frames (both inclusive). The range is clipped to the available
+	 * data. The returned buffer shares its content with the mapping.
+	 */
+	public ByteBuffer getFrames(long startFrame, long endFrame) {
+		startFrame = Math.max(0, Math.min(startFrame, frameLength));
+		endFrame = Math.max(startFrame-1, Math.min(endFrame, frameLength-1));
+
+		int frameSize = audioFormat.getFrameSize();
+
+		ByteBuffer buffer = data.duplicate();
+		buffer.limit((int) ((endFrame+1) * frameSize));
+		buffer.position((int) (startFrame * frameSize));
+
+		return buffer.slice().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Returns a read-only slice of the sample data between the two offsets,
+	 * given in seconds as provided by {@link SoundOffsets}.
+	 */
+	public ByteBuffer getRange(float beginOffset, float endOffset) {
+		float frameRate = audioFormat.getFrameRate();
+
+		long startFrame = beginOffset==SoundOffsets.NO_VALUE ?
+				0 : SoundOffsets.toFrames(beginOffset, frameRate);
+		long endFrame = endOffset==SoundOffsets.NO_VALUE ?
+				frameLength-1 : SoundOffsets.toFrames(endOffset, frameRate);
+
+		return getFrames(startFrame, endFrame);
+	}
+
+	/**
+	 * @return the path
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	/**
+	 * @return the audioFormat
+	 */
+	public AudioFormat getAudioFormat() {
+		return audioFormat;
+	}
+
+	/**
+	 * @return the byte offset of the first sample within the file
+	 */
+	public long getDataOffset() {
+		return dataOffset;
+	}
+
+	/**
+	 * @return the frameLength
+	 */
+	public long getFrameLength() {
+		return frameLength;
+	}
+
+	/**
+	 * @return the size of the mapped sample data in bytes
+	 */
+	public int getDataSize() {
+		return data.capacity();
+	}
+}
@@ -29,18 +29,25 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
@@ -93,6 +100,12 @@ public class SoundPlayer {
 	// Maps file name to sound file instances
 	private Map<String, SoundFile> fileCache = new HashMap<>();
 
+	// Currently open files in access order, bounded by maxOpenFiles
+	private final Map<SoundFile, Boolean> openFiles = new LinkedHashMap<>(16, 0.75f, true);
+	private int maxOpenFiles = 10;
+
+	private final SegmentCache segmentCache = new SegmentCache();
+
 	private SoundPlayer() {
 		Core.getCore().addShutdownHook(new ShutdownHook());
 
@@ -121,9 +134,15 @@ public class SoundPlayer {
 		}
 
 		folders.clear();
+		segmentCache.clear();
+
+		ConfigRegistry registry = ConfigRegistry.getGlobalRegistry();
+
+		List<?> folderList = registry.getList("plugins.prosody.audioPlayer.folders"); //$NON-NLS-1$
+		boolean includeSubFolders = registry.getBoolean("plugins.prosody.audioPlayer.includeSubFolders"); //$NON-NLS-1$
 
-		List<?> folderList = ConfigRegistry.getGlobalRegistry().getList("plugins.prosody.audioPlayer.folders"); //$NON-NLS-1$
-		boolean includeSubFolders = ConfigRegistry.getGlobalRegistry().getBoolean("plugins.prosody.audioPlayer.includeSubFolders"); //$NON-NLS-1$
+		maxOpenFiles = Math.max(1, registry.getInteger("plugins.prosody.audioPlayer.maxOpenFiles")); //$NON-NLS-1$
+		segmentCache.setMaxSize(registry.getInteger("plugins.prosody.audioPlayer.segmentCacheSize") * 1024L * 1024L); //$NON-NLS-1$
 
 		if(folderList.isEmpty()) {
 			return;
@@ -157,7 +176,7 @@ public class SoundPlayer {
 		}
 	}
 
-	public SoundFile getSoundFile(String fileName) throws SoundException {
+	public synchronized SoundFile getSoundFile(String fileName) throws SoundException {
 		if (fileName == null)
 			throw new NullPointerException("Invalid fileName"); //$NON-NLS-1$
 
@@ -245,26 +264,75 @@ public class SoundPlayer {
 		if(!Files.exists(path, LinkOption.NOFOLLOW_LINKS))
 			throw new SoundException("Audio file does not exist: "+path); //$NON-NLS-1$
 
-		try(AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(path.toFile())) {
-			soundFile.audioFormat = audioInputStream.getFormat();
-
-			soundFile.frameLength = audioInputStream.getFrameLength();
-			soundFile.microSecondsLength = (long) (soundFile.frameLength * 1000 / soundFile.audioFormat.getFrameRate());
-		} catch (UnsupportedAudioFileException e) {
-			throw new SoundException("Unsupported audio format in file: "+path, e); //$NON-NLS-1$
+		// Plain PCM wave files get their data chunk mapped directly
+		try {
+			soundFile.wavData = MappedWavData.open(path);
 		} catch (IOException e) {
-			throw new SoundException("Failed to load audio file: "+path, e); //$NON-NLS-1$
+			throw new SoundException("Failed to map audio file: "+path, e); //$NON-NLS-1$
 		}
 
-		try {
-			// Open file only for reading!
-			soundFile.randomAccessFile = new RandomAccessFile(path.toFile(), "r"); //$NON-NLS-1$
-		} catch (FileNotFoundException e) {
-			// Should not happen, going to catch anyways
-			throw new SoundException("Audio file does not exist: "+path); //$NON-NLS-1$
+		if(soundFile.wavData!=null) {
+			soundFile.audioFormat = soundFile.wavData.getAudioFormat();
+			soundFile.frameLength = soundFile.wavData.getFrameLength();
+		} else {
+			try(AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(path.toFile())) {
+				soundFile.audioFormat = audioInputStream.getFormat();
+
+				soundFile.frameLength = audioInputStream.getFrameLength();
+			} catch (UnsupportedAudioFileException e) {
+				throw new SoundException("Unsupported audio format in file: "+path, e); //$NON-NLS-1$
+			} catch (IOException e) {
+				throw new SoundException("Failed to load audio file: "+path, e); //$NON-NLS-1$
+			}
+
+			try {
+				// Open file only for reading!
+				soundFile.randomAccessFile = new RandomAccessFile(path.toFile(), "r"); //$NON-NLS-1$
+			} catch (FileNotFoundException e) {
+				// Should not happen, going to catch anyways
+				throw new SoundException("Audio file does not exist: "+path); //$NON-NLS-1$
+			}
 		}
+		soundFile.microSecondsLength = (long) (soundFile.frameLength * 1000 / soundFile.audioFormat.getFrameRate());
 
 		soundFile.state = FileState.OPEN;
+
+		openFiles.put(soundFile, Boolean.TRUE);
+		trimOpenFiles(soundFile);
+	}
+
+	/**
+	 * Closes the least recently used files until no more than {@code maxOpenFiles}
+	 * files remain open. Files that are currently played back or waiting in the
+	 * dispatch thread to be played back are never closed.
+	 */
+	private void trimOpenFiles(SoundFile keep) {
+		int excess = openFiles.size()-maxOpenFiles;
+		if(excess<=0) {
+			return;
+		}
+
+		SoundDispatchThread thread = dispatchThread;
+
+		List<SoundFile> victims = new ArrayList<>(excess);
+		for(Iterator<SoundFile> it = openFiles.keySet().iterator(); it.hasNext() && victims.size()<excess;) {
+			SoundFile soundFile = it.next();
+			if(soundFile==keep || (thread!=null && thread.isPending(soundFile))) {
+				continue;
+			}
+			FileState state = soundFile.getState();
+			if(state!=FileState.ACTIVE && state!=FileState.PAUSED) {
+				victims.add(soundFile);
+			}
+		}
+
+		for(SoundFile soundFile : victims) {
+			try {
+				close(soundFile);
+			} catch(Exception e) {
+				LoggerFactory.warning(this, "Failed to close least recently used sound file: "+soundFile.getPath(), e); //$NON-NLS-1$
+			}
+		}
 	}
 
 	public synchronized void close(SoundFile soundFile) throws SoundException {
@@ -277,12 +345,18 @@ public class SoundPlayer {
 		if(state!=FileState.OPEN && state!=FileState.INACTIVE)
 			throw new IllegalStateException("Cannot close sound file while in state: "+state); //$NON-NLS-1$
 
+		openFiles.remove(soundFile);
+
 		try {
-			soundFile.randomAccessFile.close();
+			if(soundFile.randomAccessFile!=null) {
+				soundFile.randomAccessFile.close();
+			}
 		} catch (IOException e) {
 			throw new SoundException("Failed to close sound file: "+soundFile.path); //$NON-NLS-1$
 		} finally {
 			soundFile.randomAccessFile = null;
+			// Mapping is released once the buffer gets collected
+			soundFile.wavData = null;
 		}
 
 		soundFile.state = FileState.CLOSED;
@@ -294,6 +368,11 @@ public class SoundPlayer {
 
 		//TODO sanity checks!
 
+		// Mark as most recently used
+		if(openFiles.containsKey(soundFile)) {
+			openFiles.put(soundFile, Boolean.TRUE);
+		}
+
 		dispatchThread().scheduleFile(soundFile);
 	}
 
@@ -361,6 +440,22 @@ public class SoundPlayer {
 			endFrame = soundFile.getFrameLength()-1;
 		}
 
+		if(soundFile.wavData!=null) {
+			ByteBuffer data = soundFile.wavData.getFrames(startFrame, endFrame);
+
+			ByteBuffer header = ByteBuffer.allocate(MappedWavData.CANONICAL_HEADER_SIZE);
+			MappedWavData.writeHeader(soundFile.getAudioFormat(), data.remaining(), header);
+			out.write(header.array());
+
+			// Do not close the channel, since that would close the supplied stream
+			WritableByteChannel channel = Channels.newChannel(out);
+			while(data.hasRemaining()) {
+				channel.write(data);
+			}
+			out.flush();
+			return;
+		}
+
 		RandomAccessFile source = soundFile.randomAccessFile;
 
 		AudioFormat audioFormat = soundFile.getAudioFormat();
@@ -435,6 +530,7 @@ public class SoundPlayer {
 
 		private FileState state = FileState.BLANK;
 		private RandomAccessFile randomAccessFile;
+		private MappedWavData wavData;
 
 		private long startFrame = 0, endFrame = LanguageConstants.DATA_UNDEFINED_VALUE;
 		private boolean repeating = false;
@@ -564,6 +660,18 @@ public class SoundPlayer {
 			return microSecondsLength;
 		}
 
+		/**
+		 * Returns the mapped sample data of this file or {@code null} if the
+		 * file is not open or could not be mapped (e.g. non-PCM encodings).
+		 */
+		public MappedWavData getWavData() {
+			return wavData;
+		}
+
+		public boolean isMapped() {
+			return wavData!=null;
+		}
+
 		public boolean isOpen() {
 			FileState state = getState();
 			return state!=FileState.BLANK
@@ -615,6 +723,9 @@ public class SoundPlayer {
 
 		private BlockingQueue<SoundFile> queue = new LinkedBlockingQueue<>(1);
 
+		// Last scheduled file until its playback has actually started
+		private final AtomicReference<SoundFile> pendingFile = new AtomicReference<>();
+
 		private volatile boolean active = true;
 
 		private volatile boolean doStop = false;
@@ -648,7 +759,12 @@ public class SoundPlayer {
 			doPause = false;
 		}
 
+		boolean isPending(SoundFile soundFile) {
+			return pendingFile.get()==soundFile;
+		}
+
 		void scheduleFile(SoundFile soundFile) {
+			pendingFile.set(soundFile);
 			queue.clear();
 			queue.offer(soundFile);
 			doStop = true;
@@ -715,6 +831,7 @@ public class SoundPlayer {
 
 					if(!activeFile.isOpen()) {
 						LoggerFactory.error(this, "Cannot play sound file in state: "+activeFile.getState()); //$NON-NLS-1$
+						releasePending(activeFile);
 						continue;
 					}
 
@@ -738,13 +855,23 @@ public class SoundPlayer {
 
 					// Activate sound file
 					activeFile.setState(FileState.ACTIVE);
+					releasePending(activeFile);
 
 					RandomAccessFile source = activeFile.randomAccessFile;
+					MappedWavData wavData = activeFile.wavData;
+					ByteBuffer segment = null;
+					if(wavData!=null) {
+						segment = getInstance().segmentCache.getSegment(wavData, startFrame, endFrame);
+					}
 
 					while(!doStop && activeFile.isActive()) {
 
 						try {
-							streamAudio(source, startFrame, endFrame, activeFile);
+							if(segment!=null) {
+								streamAudio(segment.duplicate(), activeFile);
+							} else {
+								streamAudio(source, startFrame, endFrame, activeFile);
+							}
 						} catch (IOException e) {
 							LoggerFactory.error(this, "I/O error during play back of file: "+activeFile.getPath(), e); //$NON-NLS-1$
 							break;
@@ -765,6 +892,10 @@ public class SoundPlayer {
 			}
 		}
 
+		private void releasePending(SoundFile soundFile) {
+			pendingFile.compareAndSet(soundFile, null);
+		}
+
 		private void streamAudio(RandomAccessFile source, long startFrame, long endFrame, SoundFile soundFile) throws IOException {
 
 			sharedSoundLine.flush();
@@ -825,6 +956,141 @@ public class SoundPlayer {
 //			sharedSoundLine.drain();
 		}
 
+		private void streamAudio(ByteBuffer data, SoundFile soundFile) {
+
+			sharedSoundLine.flush();
+
+			AudioFormat audioFormat = soundFile.getAudioFormat();
+			int frameSize = audioFormat.getFrameSize();
+
+			// Make a small 0.1 seconds buffer
+			int bufferSize = frameSize * (int)Math.ceil(audioFormat.getFrameRate() / 10);
+			byte[] buffer = data.hasArray() ? data.array() : new byte[bufferSize];
+
+			while(!doStop && data.hasRemaining()) {
+
+				if(doPause) {
+					soundFile.setState(FileState.PAUSED);
+					while(doPause && !doStop) {
+						// Busy waiting
+					}
+					soundFile.setState(FileState.ACTIVE);
+
+					if(doStop) {
+						break;
+					}
+				}
+
+				int bytesToWrite = Math.min(bufferSize, data.remaining());
+				int position = data.position();
+
+				int bytesWritten;
+				if(data.hasArray()) {
+					// Pre-rendered segments can be written without intermediate copy
+					bytesWritten = sharedSoundLine.write(buffer, data.arrayOffset()+position, bytesToWrite);
+				} else {
+					data.get(buffer, 0, bytesToWrite);
+					bytesWritten = sharedSoundLine.write(buffer, 0, bytesToWrite);
+				}
+
+				data.position(position+bytesWritten);
+
+				// Line got stopped or flushed
+				if(bytesWritten<bytesToWrite) {
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Size-bounded LRU cache of pre-rendered sample data for the segments
+	 * (sentences, words or syllables) that got played recently. Segments that
+	 * exceed the size of the cache are streamed directly from the mapping.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	private static class SegmentCache {
+
+		private final LinkedHashMap<SegmentKey, byte[]> segments = new LinkedHashMap<>(64, 0.75f, true);
+		private long maxSize = 32 * 1024 * 1024;
+		private long size = 0;
+
+		synchronized void setMaxSize(long maxSize) {
+			this.maxSize = Math.max(0, maxSize);
+			trim(0);
+		}
+
+		synchronized void clear() {
+			segments.clear();
+			size = 0;
+		}
+
+		ByteBuffer getSegment(MappedWavData wavData, long startFrame, long endFrame) {
+			ByteBuffer data = wavData.getFrames(startFrame, endFrame);
+			int length = data.remaining();
+
+			synchronized (this) {
+				if(length>maxSize) {
+					return data;
+				}
+
+				SegmentKey key = new SegmentKey(wavData.getPath(), startFrame, endFrame);
+				byte[] segment = segments.get(key);
+				if(segment==null) {
+					segment = new byte[length];
+					data.get(segment);
+
+					trim(length);
+					segments.put(key, segment);
+					size += length;
+				}
+
+				return ByteBuffer.wrap(segment);
+			}
+		}
+
+		private void trim(long required) {
+			for(Iterator<byte[]> it = segments.values().iterator(); it.hasNext() && size+required>maxSize;) {
+				size -= it.next().length;
+				it.remove();
+			}
+		}
+	}
+
+	private static final class SegmentKey {
+		private final Path path;
+		private final long startFrame, endFrame;
+
+		SegmentKey(Path path, long startFrame, long endFrame) {
+			this.path = path;
+			this.startFrame = startFrame;
+			this.endFrame = endFrame;
+		}
+
+		/**
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return path.hashCode() * 31 + (int) (startFrame ^ (endFrame << 16));
+		}
+
+		/**
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+			if(obj instanceof SegmentKey) {
+				SegmentKey other = (SegmentKey) obj;
+				return startFrame==other.startFrame
+						&& endFrame==other.endFrame
+						&& path.equals(other.path);
+			}
+			return false;
+		}
 	}
 
 	private class ShutdownHook implements NamedRunnable {
@@ -66,6 +66,14 @@ public class SearchToolsPreferences {
 		builder.addIntegerEntry("searchTimeout", 0); //$NON-NLS-1$
 		builder.setProperties(builder.addIntegerEntry("maxCores", 0),  //$NON-NLS-1$
 				ConfigConstants.NOTE_KEY, "config.searchTools.maxCores.note"); //$NON-NLS-1$
+		builder.addBooleanEntry("chunkedDispatch", true); //$NON-NLS-1$
+		builder.addBooleanEntry("searchWhileLoading", true); //$NON-NLS-1$
+		builder.addBooleanEntry("compactResults", true); //$NON-NLS-1$
+		builder.setProperties(builder.addIntegerEntry("resultMemoryLimit", 256),  //$NON-NLS-1$
+				ConfigConstants.NOTE_KEY, "config.searchTools.resultMemoryLimit.note"); //$NON-NLS-1$
+		builder.addBooleanEntry("collectPerformanceInfo", false); //$NON-NLS-1$
+		builder.addBooleanEntry("optimizeQueryPlan", true); //$NON-NLS-1$
+		builder.addBooleanEntry("useTokenIndex", true); //$NON-NLS-1$
 		builder.setProperties(builder.addListEntry("groupColors", EntryType.COLOR,  //$NON-NLS-1$
 				Color.red.getRGB(), // red
 				Color.green.getRGB(), // green
@@ -39,6 +39,7 @@ import javax.swing.Timer;
 
 import de.ims.icarus.search_tools.Search;
 import de.ims.icarus.search_tools.SearchDescriptor;
+import de.ims.icarus.search_tools.result.AbstractSearchResult;
 import de.ims.icarus.search_tools.result.ResultEntry;
 import de.ims.icarus.search_tools.result.SearchResult;
 import de.ims.icarus.search_tools.util.SearchUtils;
@@ -173,6 +174,8 @@ public class SearchHistory extends AbstractListModel<SearchDescriptor> {
 		descriptor.getSearch().removePropertyChangeListener(getHandler());
 
 		fireIntervalRemoved(this, index, index);
+
+		disposeResult(descriptor);
 	}
 
 	public void clear() {
@@ -186,9 +189,30 @@ public class SearchHistory extends AbstractListModel<SearchDescriptor> {
 			descriptor.getSearch().removePropertyChangeListener(getHandler());
 		}
 
+		List<SearchDescriptor> removed = new ArrayList<>(descriptors);
 		descriptors.clear();
 
 		fireIntervalRemoved(this, 0, index);
+
+		for(SearchDescriptor descriptor : removed) {
+			disposeResult(descriptor);
+		}
+	}
+
+	/**
+	 * Releases storage held by the result of a search that has been
+	 * removed from the history. Listeners have already been notified
+	 * of the removal, so no view presents the result any more.
+	 */
+	private void disposeResult(SearchDescriptor descriptor) {
+		SearchResult result = descriptor.getSearchResult();
+		if(result instanceof AbstractSearchResult) {
+			((AbstractSearchResult)result).dispose();
+		}
+	}
+
+	public boolean containsSearch(Search search) {
+		return indexofSearch(search)!=-1;
 	}
 
 	private int indexofSearch(Search search) {
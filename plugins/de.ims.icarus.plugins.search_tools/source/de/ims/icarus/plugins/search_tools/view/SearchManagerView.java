@@ -36,11 +36,9 @@ import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -90,6 +88,8 @@ import de.ims.icarus.search_tools.SearchManager;
 import de.ims.icarus.search_tools.SearchQuery;
 import de.ims.icarus.search_tools.SearchResultExportHandler;
 import de.ims.icarus.search_tools.SearchTargetSelector;
+import de.ims.icarus.search_tools.io.BinarySearchWriter;
+import de.ims.icarus.search_tools.io.SearchBinaryConstants;
 import de.ims.icarus.search_tools.io.SearchReader;
 import de.ims.icarus.search_tools.io.SearchResolver;
 import de.ims.icarus.search_tools.io.SearchWriter;
@@ -262,6 +262,9 @@ public class SearchManagerView extends View {
 		boolean canFree = isLoadable && !isLoading && ((Loadable)target).isLoaded();
 		boolean canSave = hasResult && search.isDone() && search.isSerializable();
 		boolean canExport = hasResult && search.isDone() && exportHandlers!=null && !exportHandlers.isEmpty();
+		// Refinement requires the editor to target the same corpus as the selected search
+		boolean canRefine = canRun && hasResult && result.isFinal() && !search.isCancelled()
+				&& target!=null && target==descriptor.getTarget();
 
 		actionManager.setEnabled(hasResult,
 				"plugins.searchTools.searchManagerView.viewResultAction"); //$NON-NLS-1$
@@ -280,6 +283,8 @@ public class SearchManagerView extends View {
 				"plugins.searchTools.searchManagerView.saveSearchAction"); //$NON-NLS-1$
 		actionManager.setEnabled(canExport,
 				"plugins.searchTools.searchManagerView.exportResultAction"); //$NON-NLS-1$
+		actionManager.setEnabled(canRefine,
+				"plugins.searchTools.searchManagerView.refineSearchAction"); //$NON-NLS-1$
 	}
 
 	protected void showPopup(MouseEvent trigger) {
@@ -315,6 +320,8 @@ public class SearchManagerView extends View {
 				callbackHandler, "newSearch"); //$NON-NLS-1$
 		actionManager.addHandler("plugins.searchTools.searchManagerView.executeSearchAction",  //$NON-NLS-1$
 				callbackHandler, "executeSearch"); //$NON-NLS-1$
+		actionManager.addHandler("plugins.searchTools.searchManagerView.refineSearchAction",  //$NON-NLS-1$
+				callbackHandler, "refineSearch"); //$NON-NLS-1$
 		actionManager.addHandler("plugins.searchTools.searchManagerView.cancelSearchAction",  //$NON-NLS-1$
 				callbackHandler, "cancelSearch"); //$NON-NLS-1$
 		actionManager.addHandler("plugins.searchTools.searchManagerView.removeSearchAction",  //$NON-NLS-1$
@@ -539,6 +546,20 @@ public class SearchManagerView extends View {
 		}
 
 		public void executeSearch(ActionEvent e) {
+			startSearch(null);
+		}
+
+		public void refineSearch(ActionEvent e) {
+			SearchDescriptor selected = searchHistoryList.getSelectedValue();
+			SearchResult result = selected==null ? null : selected.getSearchResult();
+			if(result==null || !result.isFinal()) {
+				return;
+			}
+
+			startSearch(result);
+		}
+
+		private void startSearch(SearchResult refinedResult) {
 			if(currentSearchEditor.getEditingItem()==null) {
 				return;
 			}
@@ -569,6 +590,10 @@ public class SearchManagerView extends View {
 				}
 				currentSearchEditor.setEditingItem(descriptor.clone());
 
+				if(refinedResult!=null) {
+					clone.getSearch().setProperty(Search.REFINED_RESULT_PROPERTY, refinedResult);
+				}
+
 				searchHistory.addSearch(clone);
 
 				SearchManager.getInstance().executeSearch(clone.getSearch());
@@ -990,15 +1015,19 @@ public class SearchManagerView extends View {
 		}
 
 		private JFileChooser fileChooser;
+		private FileFilter binaryFilter;
 
 		private JFileChooser getFileChooser() {
 			if(fileChooser==null) {
 				fileChooser = new JFileChooser();
 
 				FileFilter defaultFilter = new DefaultFileFilter(".xml", "*.xml Files"); //$NON-NLS-1$ //$NON-NLS-2$
+				binaryFilter = new DefaultFileFilter(SearchBinaryConstants.FILE_ENDING,
+						"*"+SearchBinaryConstants.FILE_ENDING+" Files"); //$NON-NLS-1$ //$NON-NLS-2$
 
 				fileChooser.addChoosableFileFilter(defaultFilter);
-				fileChooser.setFileFilter(defaultFilter);
+				fileChooser.addChoosableFileFilter(binaryFilter);
+				fileChooser.setFileFilter(binaryFilter);
 
 				fileChooser.setCurrentDirectory(Core.getCore().getDataFolder().toFile());
 			}
@@ -1050,8 +1079,17 @@ public class SearchManagerView extends View {
 
 				filename = fileChooser.getSelectedFile().getAbsolutePath();
 
+				// Binary format unless xml is explicitly requested
+				String lowerName = filename.toLowerCase();
+				boolean binary = lowerName.endsWith(SearchBinaryConstants.FILE_ENDING)
+						|| (!lowerName.endsWith(".xml") && fileChooser.getFileFilter()==binaryFilter); //$NON-NLS-1$
+
 				// Append file extension if missing in name
-				if (!filename.toLowerCase().endsWith(".xml")) { //$NON-NLS-1$
+				if(binary) {
+					if(!lowerName.endsWith(SearchBinaryConstants.FILE_ENDING)) {
+						filename += SearchBinaryConstants.FILE_ENDING;
+					}
+				} else if (!lowerName.endsWith(".xml")) { //$NON-NLS-1$
 					filename += ".xml"; //$NON-NLS-1$
 				}
 
@@ -1066,7 +1104,7 @@ public class SearchManagerView extends View {
 					return;
 				}
 
-				SearchWriter writer = new SearchWriter(search);
+				SearchWriter writer = binary ? new BinarySearchWriter(search) : new SearchWriter(search);
 
 				String title = ResourceManager.getInstance().get("plugins.searchTools.searchManagerView.saveSearchTask.title"); //$NON-NLS-1$
 
@@ -1197,14 +1235,9 @@ public class SearchManagerView extends View {
 
 			TaskManager.getInstance().setIndeterminate(this, true);
 
-			try (OutputStream out = Files.newOutputStream(path,
-					StandardOpenOption.CREATE,
-					StandardOpenOption.WRITE,
-					StandardOpenOption.TRUNCATE_EXISTING)) {
-				writer.write(out);
+			writer.write(path);
 
-				LoggerFactory.info(this, "Search saved to file: "+path); //$NON-NLS-1$
-			}
+			LoggerFactory.info(this, "Search saved to file: "+path); //$NON-NLS-1$
 
 			return writer;
 		}
@@ -32,6 +32,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -43,6 +47,8 @@ import javax.swing.JTextArea;
 import javax.swing.JToolBar;
 import javax.swing.SwingConstants;
 import javax.swing.Timer;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 
 import org.java.plugin.registry.Extension;
 
@@ -50,12 +56,15 @@ import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.logging.LoggerFactory;
 import de.ims.icarus.plugins.PluginUtil;
 import de.ims.icarus.plugins.core.View;
+import de.ims.icarus.plugins.search_tools.view.SearchHistory;
 import de.ims.icarus.resources.ResourceManager;
 import de.ims.icarus.search_tools.Grouping;
 import de.ims.icarus.search_tools.Search;
+import de.ims.icarus.search_tools.Search.SearchPerformanceInfo;
 import de.ims.icarus.search_tools.SearchConstraint;
 import de.ims.icarus.search_tools.SearchManager;
 import de.ims.icarus.search_tools.result.SearchResult;
+import de.ims.icarus.search_tools.standard.DefaultSearchPerformanceInfo;
 import de.ims.icarus.ui.IconRegistry;
 import de.ims.icarus.ui.UIUtil;
 import de.ims.icarus.ui.Updatable;
@@ -95,6 +104,9 @@ public class SearchResultView extends View {
 
 	private CountLabelSet countLabelSet;
 
+	// Search of the presented result if it is part of the search history
+	private Search historySearch;
+
 	public SearchResultView() {
 		// no-op
 	}
@@ -134,6 +146,8 @@ public class SearchResultView extends View {
 
 		registerActionCallbacks();
 
+		SearchHistory.getSharedInstance().addListDataListener(handler);
+
 		showInfo(null);
 	}
 
@@ -155,6 +169,37 @@ public class SearchResultView extends View {
 				"plugins.searchTools.searchResultView.openPreferencesAction",  //$NON-NLS-1$
 				"plugins.searchTools.searchResultView.refreshAction",  //$NON-NLS-1$
 				"plugins.searchTools.searchResultView.clearViewAction"); //$NON-NLS-1$
+
+		boolean hasPerformanceInfo = getPerformanceInfo()!=null;
+
+		actionManager.setEnabled(hasPerformanceInfo,
+				"plugins.searchTools.searchResultView.showPerformanceInfoAction",  //$NON-NLS-1$
+				"plugins.searchTools.searchResultView.exportPerformanceInfoAction"); //$NON-NLS-1$
+
+		actionManager.setEnabled(getQueryPlan()!=null,
+				"plugins.searchTools.searchResultView.showQueryPlanAction"); //$NON-NLS-1$
+	}
+
+	private String getQueryPlan() {
+		SearchResult searchResult = getSearchResult();
+		Search search = searchResult==null ? null : searchResult.getSource();
+		if(search==null) {
+			return null;
+		}
+
+		Object plan = search.getProperty(Search.QUERY_PLAN_PROPERTY);
+		return plan instanceof String ? (String) plan : null;
+	}
+
+	private DefaultSearchPerformanceInfo getPerformanceInfo() {
+		SearchResult searchResult = getSearchResult();
+		Search search = searchResult==null ? null : searchResult.getSource();
+		if(search==null || !search.isDone()) {
+			return null;
+		}
+
+		SearchPerformanceInfo info = search.getPerformanceInfo();
+		return info instanceof DefaultSearchPerformanceInfo ? (DefaultSearchPerformanceInfo) info : null;
 	}
 
 	private void registerActionCallbacks() {
@@ -170,6 +215,12 @@ public class SearchResultView extends View {
 				callbackHandler, "openPreferences"); //$NON-NLS-1$
 		actionManager.addHandler("plugins.searchTools.searchResultView.clearViewAction",  //$NON-NLS-1$
 				callbackHandler, "clearView"); //$NON-NLS-1$
+		actionManager.addHandler("plugins.searchTools.searchResultView.showPerformanceInfoAction",  //$NON-NLS-1$
+				callbackHandler, "showPerformanceInfo"); //$NON-NLS-1$
+		actionManager.addHandler("plugins.searchTools.searchResultView.exportPerformanceInfoAction",  //$NON-NLS-1$
+				callbackHandler, "exportPerformanceInfo"); //$NON-NLS-1$
+		actionManager.addHandler("plugins.searchTools.searchResultView.showQueryPlanAction",  //$NON-NLS-1$
+				callbackHandler, "showQueryPlan"); //$NON-NLS-1$
 	}
 
 	public SearchResult getSearchResult() {
@@ -178,6 +229,9 @@ public class SearchResultView extends View {
 
 	@Override
 	public void close() {
+		if(handler!=null) {
+			SearchHistory.getSharedInstance().removeListDataListener(handler);
+		}
 		if(resultPresenter!=null) {
 			resultPresenter.close();
 			resultPresenter = null;
@@ -278,6 +332,8 @@ public class SearchResultView extends View {
 			options.putAll(search.getParameters());
 		}
 
+		historySearch = SearchHistory.getSharedInstance().containsSearch(search) ? search : null;
+
 		SearchResultPresenter resultPresenter = this.resultPresenter;
 
 		// Try to find a suitable presenter if the current one is incapable
@@ -442,7 +498,7 @@ public class SearchResultView extends View {
 		}
 	}
 
-	protected class Handler implements ActionListener, PropertyChangeListener {
+	protected class Handler implements ActionListener, PropertyChangeListener, ListDataListener {
 
 		/**
 		 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
@@ -471,6 +527,38 @@ public class SearchResultView extends View {
 		@Override
 		public void propertyChange(PropertyChangeEvent evt) {
 			refreshHitCount();
+			refreshActions();
+		}
+
+		/**
+		 * @see javax.swing.event.ListDataListener#intervalAdded(javax.swing.event.ListDataEvent)
+		 */
+		@Override
+		public void intervalAdded(ListDataEvent e) {
+			// no-op
+		}
+
+		/**
+		 * Clears the view when the search of the presented result has
+		 * been removed from the history, since its storage is about
+		 * to be released.
+		 *
+		 * @see javax.swing.event.ListDataListener#intervalRemoved(javax.swing.event.ListDataEvent)
+		 */
+		@Override
+		public void intervalRemoved(ListDataEvent e) {
+			if(historySearch!=null && !SearchHistory.getSharedInstance().containsSearch(historySearch)) {
+				historySearch = null;
+				reset();
+			}
+		}
+
+		/**
+		 * @see javax.swing.event.ListDataListener#contentsChanged(javax.swing.event.ListDataEvent)
+		 */
+		@Override
+		public void contentsChanged(ListDataEvent e) {
+			// no-op
 		}
 
 	}
@@ -524,6 +612,75 @@ public class SearchResultView extends View {
 				showError(ex);
 			}
 		}
+
+		public void showPerformanceInfo(ActionEvent e) {
+			DefaultSearchPerformanceInfo info = getPerformanceInfo();
+			if(info==null) {
+				return;
+			}
+
+			try {
+				DialogFactory.getGlobalFactory().showTextOutputDialog(getFrame(),
+						"plugins.searchTools.searchResultView.dialogs.performanceInfo.title",  //$NON-NLS-1$
+						"plugins.searchTools.searchResultView.dialogs.performanceInfo.message",  //$NON-NLS-1$
+						info.toReport());
+			} catch(Exception ex) {
+				LoggerFactory.log(this, Level.SEVERE,
+						"Failed to show performance info", ex); //$NON-NLS-1$
+				UIUtil.beep();
+
+				showError(ex);
+			}
+		}
+
+		public void showQueryPlan(ActionEvent e) {
+			String plan = getQueryPlan();
+			if(plan==null) {
+				return;
+			}
+
+			try {
+				DialogFactory.getGlobalFactory().showTextOutputDialog(getFrame(),
+						"plugins.searchTools.searchResultView.dialogs.queryPlan.title",  //$NON-NLS-1$
+						"plugins.searchTools.searchResultView.dialogs.queryPlan.message",  //$NON-NLS-1$
+						plan);
+			} catch(Exception ex) {
+				LoggerFactory.log(this, Level.SEVERE,
+						"Failed to show query plan", ex); //$NON-NLS-1$
+				UIUtil.beep();
+
+				showError(ex);
+			}
+		}
+
+		public void exportPerformanceInfo(ActionEvent e) {
+			DefaultSearchPerformanceInfo info = getPerformanceInfo();
+			if(info==null) {
+				return;
+			}
+
+			try {
+				// Obtain destination file (factory handles the 'overwrite' dialog)
+				Path file = DialogFactory.getGlobalFactory().showDestinationFileDialog(
+						getFrame(),
+						"plugins.searchTools.searchResultView.dialogs.exportPerformanceInfo.title",  //$NON-NLS-1$
+						null);
+
+				if(file==null) {
+					return;
+				}
+
+				try(Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+					info.writeJson(writer);
+				}
+			} catch(Exception ex) {
+				LoggerFactory.log(this, Level.SEVERE,
+						"Failed to export performance info", ex); //$NON-NLS-1$
+				UIUtil.beep();
+
+				showError(ex);
+			}
+		}
 	}
 
 	protected class CountLabelSet implements Updatable {
@@ -44,6 +44,18 @@ import de.ims.icarus.util.date.DateUtils;
  */
 public abstract class Search extends PropertyChangeSource implements SearchParameters {
 
+	/**
+	 * Property key under which search engines may store a textual
+	 * description of the execution plan chosen for the query.
+	 */
+	public static final String QUERY_PLAN_PROPERTY = "queryPlan"; //$NON-NLS-1$
+
+	/**
+	 * Property key for a {@link SearchResult} on the same target whose
+	 * sentences should be the only ones visited by this search.
+	 */
+	public static final String REFINED_RESULT_PROPERTY = "refinedResult"; //$NON-NLS-1$
+
 	private SearchState state = SearchState.BLANK;
 
 	private Object lock = new Object();
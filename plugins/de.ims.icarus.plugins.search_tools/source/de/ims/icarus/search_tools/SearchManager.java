@@ -32,8 +32,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.WeakHashMap;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeoutException;
@@ -50,12 +52,14 @@ import org.java.plugin.registry.ExtensionPoint;
 import de.ims.icarus.Core;
 import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.io.Loadable;
+import de.ims.icarus.language.IncrementalSentenceDataList;
 import de.ims.icarus.logging.LoggerFactory;
 import de.ims.icarus.plugins.PluginUtil;
 import de.ims.icarus.plugins.search_tools.SearchToolsConstants;
 import de.ims.icarus.resources.ResourceManager;
 import de.ims.icarus.search_tools.result.SearchResult;
 import de.ims.icarus.search_tools.standard.DefaultSearchOperator;
+import de.ims.icarus.search_tools.util.SearchUtils;
 import de.ims.icarus.ui.UIUtil;
 import de.ims.icarus.ui.dialog.DialogFactory;
 import de.ims.icarus.ui.tasks.TaskManager;
@@ -86,10 +90,26 @@ public final class SearchManager {
 	private Map<ContentType, ConstraintContext> mergedContexts = new HashMap<>();
 
 	// Maps strings to their compiled Pattern instance.
-	// We use a weak hash map here since we only need the Pattern
-	// as long as the respective string is used in some constraint
-	private static Map<String, Matcher> matcherCache = Collections.synchronizedMap(
-			new WeakHashMap<String, Matcher>());
+	// Every thread keeps its own small cache so that concurrent
+	// searches never contend for a shared lock. Constraints used
+	// by search engines compile their patterns in advance and only
+	// rely on this cache as a fallback.
+	private static final int MATCHER_CACHE_SIZE = 64;
+
+	private static final ThreadLocal<Map<String, Matcher>> matcherCache = new ThreadLocal<Map<String, Matcher>>() {
+		@Override
+		protected Map<String, Matcher> initialValue() {
+			return new LinkedHashMap<String, Matcher>(16, 0.75f, true) {
+
+				private static final long serialVersionUID = 4622539520327484722L;
+
+				@Override
+				protected boolean removeEldestEntry(Entry<String, Matcher> eldest) {
+					return size()>MATCHER_CACHE_SIZE;
+				}
+			};
+		}
+	};
 
 	private static volatile SearchManager instance;
 
@@ -148,7 +168,7 @@ public final class SearchManager {
 			return null;
 		}
 
-		Matcher matcher = matcherCache.remove(s);
+		Matcher matcher = matcherCache.get().remove(s);
 		if(matcher==null) {
 			// Do not catch PatternSyntaxException!
 			// We want whatever operation the pattern request was originated
@@ -172,7 +192,7 @@ public final class SearchManager {
 
 		matcher.reset();
 
-		matcherCache.put(matcher.pattern().pattern(), matcher);
+		matcherCache.get().put(matcher.pattern().pattern(), matcher);
 	}
 
 	public static ConstraintFactory[] getEdgeConstraintFactories(ConstraintFactory[] items) {
@@ -351,9 +371,11 @@ public final class SearchManager {
 			return;
 		}
 
-		// If target is not loaded delay search execution and attempt to load
+		// If target is not loaded delay search execution and attempt to load,
+		// unless the search can run on the target while it is loading
 		Object target = search.getTarget();
-		if(target instanceof Loadable && !((Loadable)target).isLoaded()) {
+		if(target instanceof Loadable && !((Loadable)target).isLoaded()
+				&& !isStreamingTarget(target)) {
 			TaskManager.getInstance().schedule(new LoadTargetJob(search), TaskPriority.HIGH, true);
 			return;
 		}
@@ -379,6 +401,21 @@ public final class SearchManager {
 		}
 	}
 
+	/**
+	 * Returns whether a search on the given target can be started while
+	 * the target is still loading.
+	 */
+	private static boolean isStreamingTarget(Object target) {
+		return target instanceof IncrementalSentenceDataList
+				&& ConfigRegistry.getGlobalRegistry().getBoolean(
+						"plugins.searchTools.searchWhileLoading"); //$NON-NLS-1$
+	}
+
+	private static boolean isGrowing(Object target) {
+		return target instanceof IncrementalSentenceDataList
+				&& ((IncrementalSentenceDataList)target).isGrowing();
+	}
+
 	private static class ExecuteSearchJob extends SwingWorker<Object, Object>
 			implements Identity, PropertyChangeListener {
 
@@ -459,6 +496,12 @@ public final class SearchManager {
 
 			firePropertyChange("indeterminate", false, true); //$NON-NLS-1$
 
+			TargetLoader loader = null;
+			Object target = search.getTarget();
+			if(target instanceof Loadable && !((Loadable)target).isLoaded()) {
+				loader = startLoading((Loadable) target);
+			}
+
 			search.execute();
 
 			firePropertyChange("indeterminate", true, false); //$NON-NLS-1$
@@ -478,6 +521,17 @@ public final class SearchManager {
 
 				setProgress(search.getProgress());
 
+				if(loader!=null && loader.error!=null) {
+					cancelSearch();
+					throw loader.error;
+				}
+
+				// Time spent waiting for a target that is still loading is not
+				// counted against the timeout
+				if(SearchUtils.isLoading(target)) {
+					startMillis = System.currentTimeMillis();
+				}
+
 				// Check for timeout
 				long duration = System.currentTimeMillis()-startMillis;
 				if(timeout!=0 && duration>timeout) {
@@ -495,6 +549,10 @@ public final class SearchManager {
 				}
 			}
 
+			// Result only covers part of the target if loading failed
+			if(loader!=null && loader.error!=null)
+				throw loader.error;
+
 			return null;
 		}
 
@@ -545,6 +603,40 @@ public final class SearchManager {
 			}
 		}
 
+		/**
+		 * Loads the target of a streaming search in the background and
+		 * waits until the target either started publishing its content
+		 * or is completely loaded. Returns the loader or {@code null} if
+		 * the target was already being loaded by someone else.
+		 */
+		private TargetLoader startLoading(Loadable loadable) throws Exception {
+			TargetLoader loader = null;
+			if(!loadable.isLoading()) {
+				loader = new TargetLoader(loadable);
+				Thread thread = new Thread(loader, "SearchTargetLoader"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				thread.start();
+			}
+
+			while(!loadable.isLoaded() && !isGrowing(loadable)) {
+				if(loader==null ? !loadable.isLoading() : loader.finished) {
+					break;
+				}
+				if(isCancelled()) {
+					throw new InterruptedException();
+				}
+
+				Thread.sleep(50);
+			}
+
+			if(loader!=null && loader.error!=null)
+				throw loader.error;
+			if(!loadable.isLoaded() && !isGrowing(loadable))
+				throw new IllegalStateException("Failed to load search target: "+loadable); //$NON-NLS-1$
+
+			return loader;
+		}
+
 		/**
 		 * @see java.beans.PropertyChangeListener#propertyChange(java.beans.PropertyChangeEvent)
 		 */
@@ -554,6 +646,42 @@ public final class SearchManager {
 		}
 	}
 
+	/**
+	 * Loads the target of a search that is already running on the
+	 * partially loaded content.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	private static class TargetLoader implements Runnable {
+
+		private final Loadable loadable;
+
+		volatile boolean finished = false;
+		volatile Exception error;
+
+		TargetLoader(Loadable loadable) {
+			this.loadable = loadable;
+		}
+
+		/**
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			try {
+				loadable.load();
+			} catch(Exception e) {
+				LoggerFactory.log(this, Level.SEVERE,
+						"Failed to load search target: "+String.valueOf(loadable), e); //$NON-NLS-1$
+				error = e;
+			} finally {
+				finished = true;
+			}
+		}
+	}
+
 	public static class LoadTargetJob extends SwingWorker<Loadable, Object>
 			implements Identity {
 
@@ -105,6 +105,11 @@ public class FeaturesConstraintFactory extends AbstractConstraintFactory {
 			return ((AbstractSentenceTargetTree<?>)value).getFeatures().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((AbstractSentenceTargetTree<?>)value).getFeatures();
+		}
+
 		@Override
 		public FeaturesCIConstraint clone() {
 			return new FeaturesCIConstraint(getValue(), getOperator());
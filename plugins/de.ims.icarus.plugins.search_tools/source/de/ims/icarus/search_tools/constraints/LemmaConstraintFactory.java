@@ -25,11 +25,12 @@
  */
 package de.ims.icarus.search_tools.constraints;
 
+import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.search_tools.SearchConstraint;
 import de.ims.icarus.search_tools.SearchOperator;
 import de.ims.icarus.search_tools.standard.AbstractConstraintFactory;
 import de.ims.icarus.search_tools.standard.DefaultCaseInsensitiveConstraint;
-import de.ims.icarus.search_tools.standard.DefaultConstraint;
+import de.ims.icarus.search_tools.standard.DefaultSymbolConstraint;
 import de.ims.icarus.search_tools.tree.AbstractSentenceTargetTree;
 import de.ims.icarus.util.Options;
 
@@ -59,7 +60,7 @@ public class LemmaConstraintFactory extends AbstractConstraintFactory {
 			return new LemmaCIConstraint(value, operator);
 	}
 
-	private static class LemmaConstraint extends DefaultConstraint {
+	private static class LemmaConstraint extends DefaultSymbolConstraint {
 
 		private static final long serialVersionUID = -2816057046153547371L;
 
@@ -67,6 +68,11 @@ public class LemmaConstraintFactory extends AbstractConstraintFactory {
 			super(TOKEN, value, operator);
 		}
 
+		@Override
+		protected String getSymbolKey() {
+			return LanguageConstants.LEMMA_KEY;
+		}
+
 		@Override
 		public Object getInstance(Object value) {
 			return ((AbstractSentenceTargetTree<?>)value).getLemma();
@@ -91,6 +97,11 @@ public class LemmaConstraintFactory extends AbstractConstraintFactory {
 			return ((AbstractSentenceTargetTree<?>)value).getLemma().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((AbstractSentenceTargetTree<?>)value).getLemma();
+		}
+
 		@Override
 		public LemmaCIConstraint clone() {
 			return new LemmaCIConstraint(getValue(), getOperator());
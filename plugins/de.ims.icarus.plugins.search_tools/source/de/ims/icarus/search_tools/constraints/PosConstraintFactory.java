@@ -25,11 +25,12 @@
  */
 package de.ims.icarus.search_tools.constraints;
 
+import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.search_tools.SearchConstraint;
 import de.ims.icarus.search_tools.SearchOperator;
 import de.ims.icarus.search_tools.standard.AbstractConstraintFactory;
 import de.ims.icarus.search_tools.standard.DefaultCaseInsensitiveConstraint;
-import de.ims.icarus.search_tools.standard.DefaultConstraint;
+import de.ims.icarus.search_tools.standard.DefaultSymbolConstraint;
 import de.ims.icarus.search_tools.tree.AbstractSentenceTargetTree;
 import de.ims.icarus.util.Options;
 
@@ -59,7 +60,7 @@ public class PosConstraintFactory extends AbstractConstraintFactory {
 			return new PosCIConstraint(value, operator);
 	}
 
-	private static class PosConstraint extends DefaultConstraint {
+	private static class PosConstraint extends DefaultSymbolConstraint {
 
 		private static final long serialVersionUID = 18977116270797226L;
 
@@ -67,6 +68,11 @@ public class PosConstraintFactory extends AbstractConstraintFactory {
 			super(TOKEN, value, operator);
 		}
 
+		@Override
+		protected String getSymbolKey() {
+			return LanguageConstants.POS_KEY;
+		}
+
 		@Override
 		public Object getInstance(Object value) {
 			return ((AbstractSentenceTargetTree<?>)value).getPos();
@@ -91,6 +97,11 @@ public class PosConstraintFactory extends AbstractConstraintFactory {
 			return ((AbstractSentenceTargetTree<?>)value).getPos().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			return ((AbstractSentenceTargetTree<?>)value).getPos();
+		}
+
 		@Override
 		public PosCIConstraint clone() {
 			return (PosCIConstraint) super.clone();
@@ -110,6 +110,12 @@ public class SentencePropertyConstraintFactory extends AbstractConstraintFactory
 			return p==null ? null : p.toString().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			Object p = ((AbstractSentenceTargetTree<?>)value).getSource().getProperty(getKey());
+			return p==null ? null : p.toString();
+		}
+
 		@Override
 		public SentencePropertyIConstraint clone() {
 			return new SentencePropertyIConstraint(getValue(), getOperator(), getSpecifier());
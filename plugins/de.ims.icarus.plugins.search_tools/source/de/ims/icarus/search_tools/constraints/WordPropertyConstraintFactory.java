@@ -113,6 +113,12 @@ public class WordPropertyConstraintFactory extends AbstractConstraintFactory {
 			return p==null ? null : p.toString().toLowerCase();
 		}
 
+		@Override
+		protected Object getCaseSensitiveInstance(Object value) {
+			Object p = ((TargetTree)value).getProperty(getKey());
+			return p==null ? null : p.toString();
+		}
+
 		@Override
 		public WordPropertyIConstraint clone() {
 			return new WordPropertyIConstraint(getValue(), getOperator(), getSpecifier());
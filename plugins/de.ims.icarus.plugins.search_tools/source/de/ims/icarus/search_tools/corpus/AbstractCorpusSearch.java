@@ -26,16 +26,26 @@
 package de.ims.icarus.search_tools.corpus;
 
 import java.util.List;
+import java.util.logging.Level;
+
+import de.ims.icarus.config.ConfigRegistry;
 
 import de.ims.icarus.language.AvailabilityObserver;
 import de.ims.icarus.language.DataType;
+import de.ims.icarus.language.IncrementalSentenceDataList;
 import de.ims.icarus.language.SentenceData;
 import de.ims.icarus.language.SentenceDataList;
+import de.ims.icarus.language.treebank.TreebankIndex;
+import de.ims.icarus.language.treebank.TreebankStatistics;
+import de.ims.icarus.logging.LoggerFactory;
 import de.ims.icarus.search_tools.SearchConstraint;
 import de.ims.icarus.search_tools.SearchFactory;
+import de.ims.icarus.search_tools.SearchGraph;
 import de.ims.icarus.search_tools.SearchQuery;
 import de.ims.icarus.search_tools.result.SearchResult;
 import de.ims.icarus.search_tools.tree.AbstractTreeSearch;
+import de.ims.icarus.search_tools.tree.SelectivityEstimator;
+import de.ims.icarus.search_tools.util.SearchUtils;
 import de.ims.icarus.util.Options;
 
 /**
@@ -90,6 +100,55 @@ public abstract class AbstractCorpusSearch extends AbstractTreeSearch {
 	@Override
 	protected abstract SentenceDataList createSource(Object target);
 
+	protected boolean isIndexPruning() {
+		return ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.searchTools.useTokenIndex"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Restricts the search to sentences that contain all the values
+	 * required by mandatory equality constraints, if the target treebank
+	 * provides a token index.
+	 */
+	@Override
+	protected int[] createCandidateIndices() {
+		if(!isIndexPruning()) {
+			return null;
+		}
+
+		TreebankIndex index = TreebankSelectivityEstimator.getTokenIndex(getTarget());
+		if(index==null || index.getItemCount()!=source.size()) {
+			return null;
+		}
+
+		SearchGraph graph = SearchUtils.instantiate(getSearchGraph(),
+				getQuery().getConstraintContext(), getParameters());
+
+		int[] candidates = new TreebankIndexFilter(index).getCandidates(graph);
+		if(candidates!=null) {
+			LoggerFactory.log(this, Level.FINE, "Token index reduced search space from " //$NON-NLS-1$
+					+source.size()+" to "+candidates.length+" sentences"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		return candidates;
+	}
+
+	@Override
+	protected SelectivityEstimator createSelectivityEstimator() {
+		TreebankStatistics statistics = TreebankSelectivityEstimator.getStatistics(getTarget());
+		return statistics==null ? null : new TreebankSelectivityEstimator(statistics);
+	}
+
+	/**
+	 * Searches treebanks that are still loading on the prefix published
+	 * so far, waiting for further sentences until loading has finished.
+	 */
+	@Override
+	protected boolean isSourceGrowing() {
+		return source instanceof IncrementalSentenceDataList
+				&& ((IncrementalSentenceDataList)source).isGrowing();
+	}
+
 	@Override
 	protected Object getTargetItem(int index) {
 		return ((SentenceDataList)source).get(index, dataType, observer);
@@ -151,6 +210,9 @@ public abstract class AbstractCorpusSearch extends AbstractTreeSearch {
 			int length = ((SentenceData) buffer.getData()).length();
 
 			if(length<minLength || length>maxLength) {
+				if(counter!=null) {
+					counter.itemIgnored();
+				}
 				return;
 			}
 
@@ -0,0 +1,155 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.corpus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import de.ims.icarus.language.treebank.TreebankIndex;
+import de.ims.icarus.search_tools.EdgeType;
+import de.ims.icarus.search_tools.NodeType;
+import de.ims.icarus.search_tools.SearchConstraint;
+import de.ims.icarus.search_tools.SearchEdge;
+import de.ims.icarus.search_tools.SearchGraph;
+import de.ims.icarus.search_tools.SearchNode;
+import de.ims.icarus.search_tools.standard.DefaultCaseInsensitiveConstraint;
+import de.ims.icarus.search_tools.standard.DefaultSearchOperator;
+
+/**
+ * Uses a {@link TreebankIndex} to determine the sentences that can
+ * possibly satisfy a query. Only case sensitive equality constraints
+ * on nodes that are required for every match are taken into account,
+ * i.e. nodes that are neither negated nor part of a disjunction and
+ * whose ancestors satisfy the same condition.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class TreebankIndexFilter {
+
+	private final TreebankIndex index;
+
+	public TreebankIndexFilter(TreebankIndex index) {
+		if(index==null)
+			throw new NullPointerException("Invalid index"); //$NON-NLS-1$
+
+		this.index = index;
+	}
+
+	/**
+	 * Returns the ascending indices of all sentences that contain
+	 * a value for every mandatory equality constraint in the given
+	 * graph or {@code null} if the graph contains no constraints
+	 * that could be resolved by the index.
+	 */
+	public int[] getCandidates(SearchGraph graph) {
+		SearchNode[] roots = graph.getRootNodes();
+		if(roots==null || roots.length==0) {
+			return null;
+		}
+		if(roots.length>1 && graph.getRootOperator()==SearchGraph.OPERATOR_DISJUNCTION) {
+			return null;
+		}
+
+		List<int[]> postings = new ArrayList<>();
+		for(SearchNode root : roots) {
+			collect(root, null, postings);
+		}
+
+		if(postings.isEmpty()) {
+			return null;
+		}
+
+		// Start with the shortest list to keep intermediate results small
+		Collections.sort(postings, new Comparator<int[]>() {
+
+			@Override
+			public int compare(int[] p1, int[] p2) {
+				return p1.length-p2.length;
+			}
+		});
+
+		int[] result = postings.get(0);
+		for(int i=1; i<postings.size() && result.length>0; i++) {
+			result = TreebankIndex.intersect(result, postings.get(i));
+		}
+
+		return result;
+	}
+
+	private void collect(SearchNode node, SearchEdge head, List<int[]> postings) {
+		if(node.isNegated() || node.getNodeType()==NodeType.DISJUNCTION) {
+			return;
+		}
+		if(head!=null && head.isNegated()) {
+			return;
+		}
+
+		if(head!=null) {
+			collect(head.getConstraints(), postings);
+		}
+		collect(node.getConstraints(), postings);
+
+		int edgeCount = node.getOutgoingEdgeCount();
+		for(int i=0; i<edgeCount; i++) {
+			SearchEdge edge = node.getOutgoingEdgeAt(i);
+			if(edge.getEdgeType()==EdgeType.LINK
+					|| edge.getEdgeType()==EdgeType.PRECEDENCE) {
+				continue;
+			}
+
+			collect(edge.getTarget(), edge, postings);
+		}
+	}
+
+	private void collect(SearchConstraint[] constraints, List<int[]> postings) {
+		if(constraints==null) {
+			return;
+		}
+
+		for(SearchConstraint constraint : constraints) {
+			if(constraint.isUndefined()
+					|| constraint.getOperator()!=DefaultSearchOperator.EQUALS
+					|| constraint instanceof DefaultCaseInsensitiveConstraint
+					|| !(constraint.getValue() instanceof String)) {
+				continue;
+			}
+
+			String key = TreebankSelectivityEstimator.getPropertyKey(constraint.getToken());
+			if(key==null) {
+				continue;
+			}
+
+			int[] list = index.getPostings(key, (String) constraint.getValue());
+			if(list!=null) {
+				postings.add(list);
+			}
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.corpus;
+
+import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.language.treebank.Treebank;
+import de.ims.icarus.language.treebank.TreebankIndex;
+import de.ims.icarus.language.treebank.TreebankListDelegate;
+import de.ims.icarus.language.treebank.TreebankMetaData;
+import de.ims.icarus.language.treebank.TreebankStatistics;
+import de.ims.icarus.search_tools.SearchConstraint;
+import de.ims.icarus.search_tools.SearchOperator;
+import de.ims.icarus.search_tools.constraints.FeaturesConstraintFactory;
+import de.ims.icarus.search_tools.constraints.FormConstraintFactory;
+import de.ims.icarus.search_tools.constraints.LemmaConstraintFactory;
+import de.ims.icarus.search_tools.constraints.PosConstraintFactory;
+import de.ims.icarus.search_tools.standard.DefaultCaseInsensitiveConstraint;
+import de.ims.icarus.search_tools.standard.DefaultSearchOperator;
+import de.ims.icarus.search_tools.tree.SelectivityEstimator;
+
+/**
+ * Estimates constraint selectivity based on the value histograms
+ * a treebank collected while being loaded.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class TreebankSelectivityEstimator implements SelectivityEstimator, LanguageConstants {
+
+	public static final String RELATION_TOKEN = "relation"; //$NON-NLS-1$
+
+	private final TreebankStatistics statistics;
+
+	public TreebankSelectivityEstimator(TreebankStatistics statistics) {
+		if(statistics==null)
+			throw new NullPointerException("Invalid statistics"); //$NON-NLS-1$
+
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Fetches the meta data value stored for {@code key} in the given
+	 * search target. Returns {@code null} if the target is no treebank
+	 * or if the treebank has not yet been loaded.
+	 */
+	public static Object getMetaDataValue(Object target, String key) {
+		if(target instanceof TreebankListDelegate) {
+			target = ((TreebankListDelegate)target).getTreebank();
+		}
+		if(!(target instanceof Treebank)) {
+			return null;
+		}
+
+		TreebankMetaData metaData = ((Treebank)target).getMetaData();
+		return metaData==null ? null : metaData.getValue(key);
+	}
+
+	public static TreebankStatistics getStatistics(Object target) {
+		Object value = getMetaDataValue(target, TreebankMetaData.VALUE_STATISTICS);
+		return value instanceof TreebankStatistics ? (TreebankStatistics) value : null;
+	}
+
+	public static TreebankIndex getTokenIndex(Object target) {
+		Object value = getMetaDataValue(target, TreebankMetaData.TOKEN_INDEX);
+		return value instanceof TreebankIndex ? (TreebankIndex) value : null;
+	}
+
+	/**
+	 * Maps constraint tokens to the property keys used
+	 * for {@link de.ims.icarus.language.SentenceData}.
+	 */
+	public static String getPropertyKey(String token) {
+		switch (token) {
+		case FormConstraintFactory.TOKEN:
+			return FORM_KEY;
+
+		case LemmaConstraintFactory.TOKEN:
+			return LEMMA_KEY;
+
+		case PosConstraintFactory.TOKEN:
+			return POS_KEY;
+
+		case RELATION_TOKEN:
+			return DEPREL_KEY;
+
+		case FeaturesConstraintFactory.TOKEN:
+			return FEATURES_KEY;
+
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.tree.SelectivityEstimator#estimate(de.ims.icarus.search_tools.SearchConstraint)
+	 */
+	@Override
+	public double estimate(SearchConstraint constraint) {
+		String key = getPropertyKey(constraint.getToken());
+		if(key==null || !statistics.isSupported(key)) {
+			return -1;
+		}
+
+		Object value = constraint.getValue();
+		if(!(value instanceof String)) {
+			return -1;
+		}
+
+		SearchOperator operator = constraint.getOperator();
+		boolean negated;
+		if(operator==DefaultSearchOperator.EQUALS) {
+			negated = false;
+		} else if(operator==DefaultSearchOperator.EQUALS_NOT) {
+			negated = true;
+		} else {
+			return -1;
+		}
+
+		double selectivity = statistics.getSelectivity(key, (String)value);
+
+		// Histograms are case sensitive, so a miss only proves
+		// absence for case sensitive constraints
+		if(selectivity<=0 && constraint instanceof DefaultCaseInsensitiveConstraint) {
+			return -1;
+		}
+		if(selectivity<0) {
+			return -1;
+		}
+
+		return negated ? 1.0-selectivity : selectivity;
+	}
+}
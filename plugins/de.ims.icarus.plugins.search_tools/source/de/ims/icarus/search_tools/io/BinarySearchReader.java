@@ -0,0 +1,223 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.java.plugin.registry.Extension;
+
+import de.ims.icarus.plugins.PluginUtil;
+import de.ims.icarus.search_tools.Search;
+import de.ims.icarus.search_tools.SearchDescriptor;
+import de.ims.icarus.search_tools.result.Hit;
+import de.ims.icarus.search_tools.result.ResultEntry;
+import de.ims.icarus.util.Options;
+
+/**
+ * Reads searches stored in the binary format written by
+ * {@link BinarySearchWriter}. Entries are streamed into the
+ * {@link SearchResolver} of the new search as they are decoded.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class BinarySearchReader implements SearchBinaryConstants {
+
+	private final Path path;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+
+	public BinarySearchReader(Path path) {
+		if (path == null)
+			throw new NullPointerException("Invalid path"); //$NON-NLS-1$
+
+		this.path = path;
+	}
+
+	/**
+	 * Returns {@code true} if the given file starts with the
+	 * header of a binary search file.
+	 */
+	public static boolean isBinarySearch(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(4);
+			while(header.hasRemaining()) {
+				if(channel.read(header)==-1) {
+					return false;
+				}
+			}
+			header.flip();
+
+			return header.getInt()==MAGIC;
+		}
+	}
+
+	/**
+	 * @return the path
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	public SearchDescriptor load() throws IOException {
+		SearchDescriptor descriptor = new SearchDescriptor();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			this.channel = channel;
+			buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			buffer.flip();
+
+			require(8);
+			if(buffer.getInt()!=MAGIC)
+				throw new IOException("Not a binary search file: "+path); //$NON-NLS-1$
+			int version = buffer.getInt();
+			if(version>VERSION)
+				throw new IOException("Unsupported format version "+version+" in file: "+path); //$NON-NLS-1$ //$NON-NLS-2$
+
+			Extension extension = PluginUtil.getExtension(readString());
+			descriptor.setFactoryExtension(extension);
+			// Instantiate factory
+			descriptor.getSearchFactory();
+
+			String target = readString();
+			String query = readString();
+
+			Options options = new Options();
+			int parameterCount = readVarInt();
+			for(int i=0; i<parameterCount; i++) {
+				String key = readString();
+				ParameterType type = ParameterType.parseParameterType(readString());
+				options.put(key, type.parse(readString()));
+			}
+			descriptor.setParameters(options);
+
+			try {
+				descriptor.createSearch(query, target);
+			} catch (Exception e) {
+				throw new IOException("Failed to create search", e); //$NON-NLS-1$
+			}
+
+			Search search = descriptor.getSearch();
+			SearchResolver resolver = search.getSearchResolver();
+
+			int dimension = readVarInt();
+			for(int i=0; i<dimension; i++) {
+				String[] labels = new String[readVarInt()];
+				for(int j=0; j<labels.length; j++) {
+					labels[j] = readString();
+				}
+				resolver.setGroupLabels(i, labels);
+			}
+
+			int[] groupIndices = new int[dimension];
+			int index = 0;
+
+			long header;
+			while((header = readVarLong())!=END_OF_ENTRIES) {
+				header--;
+
+				long zigzag = header >>> 1;
+				index += (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+
+				if((header & 1)!=0) {
+					for(int i=0; i<dimension; i++) {
+						groupIndices[i] = readVarInt();
+					}
+				}
+
+				Hit[] hits = new Hit[readVarInt()];
+				for(int i=0; i<hits.length; i++) {
+					int[] indices = new int[readVarInt()];
+					for(int j=0; j<indices.length; j++) {
+						indices[j] = readVarInt()-1;
+					}
+					hits[i] = new Hit(indices);
+				}
+
+				resolver.addResultEntry(new ResultEntry(index, hits), groupIndices);
+			}
+
+			resolver.finalizeSearch();
+		} finally {
+			channel = null;
+			buffer = null;
+		}
+
+		return descriptor;
+	}
+
+	private void require(int bytes) throws IOException {
+		if(buffer.remaining()>=bytes) {
+			return;
+		}
+
+		buffer.compact();
+		while(buffer.position()<bytes) {
+			if(channel.read(buffer)==-1)
+				throw new IOException("Unexpected end of file: "+path); //$NON-NLS-1$
+		}
+		buffer.flip();
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0L;
+		int shift = 0;
+		byte b;
+		do {
+			require(1);
+			b = buffer.get();
+			value |= (long)(b & 0x7F) << shift;
+			shift += 7;
+		} while((b & 0x80) != 0);
+
+		return value;
+	}
+
+	private int readVarInt() throws IOException {
+		return (int) readVarLong();
+	}
+
+	private String readString() throws IOException {
+		byte[] bytes = new byte[readVarInt()];
+
+		int offset = 0;
+		while(offset<bytes.length) {
+			require(1);
+			int length = Math.min(buffer.remaining(), bytes.length-offset);
+			buffer.get(bytes, offset, length);
+			offset += length;
+		}
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,231 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
+import javax.xml.stream.XMLStreamException;
+
+import de.ims.icarus.search_tools.Search;
+import de.ims.icarus.search_tools.SearchFactory;
+import de.ims.icarus.search_tools.result.Hit;
+import de.ims.icarus.search_tools.result.ResultEntry;
+import de.ims.icarus.util.Options;
+
+/**
+ * Writes searches in the compact binary format described in
+ * {@link SearchBinaryConstants}. Entries are delivered by the
+ * {@link SearchResolver} of the search just like for the xml format.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class BinarySearchWriter extends SearchWriter implements SearchBinaryConstants {
+
+	private WritableByteChannel channel;
+	private ByteBuffer buffer;
+
+	private int lastIndex;
+	private int[] lastIndices;
+
+	public BinarySearchWriter(Search search) {
+		super(search);
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.io.SearchWriter#write(java.nio.file.Path)
+	 */
+	@Override
+	public void write(Path path) throws IOException, InterruptedException,
+			XMLStreamException {
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(channel);
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.io.SearchWriter#write(java.io.OutputStream)
+	 */
+	@Override
+	public void write(OutputStream out) throws IOException,
+			InterruptedException, XMLStreamException {
+		write(Channels.newChannel(out));
+	}
+
+	private void write(WritableByteChannel channel) throws IOException, XMLStreamException {
+		this.channel = channel;
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		lastIndex = 0;
+		lastIndices = null;
+
+		try {
+			SearchFactory searchFactory = search.getFactory();
+
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+
+			writeString(searchFactory.getSerializedForm());
+			writeString(searchFactory.getSerializedTarget(search));
+			writeString(search.getQuery().getQueryString());
+
+			// Write parameters
+			Options options = search.getParameters();
+			if(!options.isEmpty()) {
+				options = resolver.prepareWrite(options);
+			}
+			writeVarLong(options.size());
+			for(Entry<String, Object> entry : options.entrySet()) {
+				ParameterType type = ParameterType.getType(entry.getValue());
+				writeString(entry.getKey());
+				writeString(type.toString());
+				writeString(type.toString(entry.getValue()));
+			}
+
+			// Write group dictionaries
+			writeVarLong(result.getDimension());
+			for(int i=0; i<result.getDimension(); i++) {
+				int count = result.getInstanceCount(i);
+				writeVarLong(count);
+				for(int j=0; j<count; j++) {
+					writeString(String.valueOf(result.getInstanceLabel(i, j)));
+				}
+			}
+
+			// Now write entries (delegate to resolver)
+			try {
+				resolver.writeResultEntries(this);
+			} catch(XMLStreamException e) {
+				if(e.getNestedException() instanceof IOException)
+					throw (IOException) e.getNestedException();
+				throw e;
+			}
+
+			writeVarLong(END_OF_ENTRIES);
+
+			flush();
+		} finally {
+			this.channel = null;
+			buffer = null;
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void ensure(int bytes) throws IOException {
+		if(buffer.remaining()<bytes) {
+			flush();
+		}
+	}
+
+	private void writeVarLong(long value) throws IOException {
+		ensure(10);
+		while((value & ~0x7FL) != 0L) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private void writeString(String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(bytes.length);
+
+		int offset = 0;
+		while(offset<bytes.length) {
+			ensure(1);
+			int length = Math.min(buffer.remaining(), bytes.length-offset);
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.io.SearchWriter#writeEntry(de.ims.icarus.search_tools.result.ResultEntry)
+	 */
+	@Override
+	public void writeEntry(ResultEntry entry) throws XMLStreamException {
+		writeEntry(entry, null);
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.io.SearchWriter#writeEntry(de.ims.icarus.search_tools.result.ResultEntry, int[])
+	 */
+	@Override
+	public void writeEntry(ResultEntry entry, int[] indices)
+			throws XMLStreamException {
+		try {
+			long delta = (long)entry.getIndex()-lastIndex;
+			long zigzag = (delta << 1) ^ (delta >> 63);
+
+			boolean groupsChanged = indices!=null && indices.length>0
+					&& !Arrays.equals(indices, lastIndices);
+
+			writeVarLong(((zigzag << 1) | (groupsChanged ? 1 : 0)) + 1);
+
+			if(groupsChanged) {
+				for(int index : indices) {
+					writeVarLong(index);
+				}
+				lastIndices = indices.clone();
+			}
+
+			writeVarLong(entry.getHitCount());
+			for(int i=0; i<entry.getHitCount(); i++) {
+				Hit hit = entry.getHit(i);
+				int width = hit.getIndexCount();
+				writeVarLong(width);
+				for(int j=0; j<width; j++) {
+					// Unallocated nodes are stored as -1
+					writeVarLong(hit.getIndex(j)+1L);
+				}
+			}
+
+			lastIndex = entry.getIndex();
+		} catch(IOException e) {
+			throw new XMLStreamException(e);
+		}
+	}
+}
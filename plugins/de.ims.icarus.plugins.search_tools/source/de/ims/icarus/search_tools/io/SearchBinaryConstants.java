@@ -0,0 +1,64 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.io;
+
+/**
+ * Layout of binary search files:
+ * <pre>
+ * magic, version                 fixed 4 byte integers
+ * factory, target, query         strings
+ * parameter count
+ *   key, type, value             strings
+ * dimension
+ *   label count, labels          one group dictionary per dimension
+ * entries                        until {@link #END_OF_ENTRIES}
+ * </pre>
+ * Every entry starts with a header of
+ * {@code ((zigzag(indexDelta)<<1) | groupsChanged) + 1} followed by
+ * the group indices (if changed), the number of hits and for each
+ * hit its width and the allocated nodes shifted by one. Sentence indices
+ * are delta coded against the previous entry. All numbers are stored as
+ * variable length integers, strings as UTF-8 bytes prefixed by their length.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public interface SearchBinaryConstants {
+
+	/**
+	 * "ICSR"
+	 */
+	public static final int MAGIC = 0x49435352;
+
+	public static final int VERSION = 1;
+
+	public static final String FILE_ENDING = ".isr"; //$NON-NLS-1$
+
+	public static final int END_OF_ENTRIES = 0;
+
+	public static final int BUFFER_SIZE = 1<<16;
+}
@@ -103,6 +103,10 @@ public class SearchReader implements SearchXmlConstants {
 
 	public SearchDescriptor load() throws IOException, SAXException {
 
+		if(BinarySearchReader.isBinarySearch(path)) {
+			return new BinarySearchReader(path).load();
+		}
+
 		descriptor = new SearchDescriptor();
 
 		SAXParserFactory parserFactory = SAXParserFactory.newInstance();
@@ -27,6 +27,9 @@ package de.ims.icarus.search_tools.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Map.Entry;
 
@@ -47,9 +50,9 @@ import de.ims.icarus.util.Options;
  */
 public class SearchWriter implements SearchXmlConstants {
 
-	private final Search search;
-	private final SearchResolver resolver;
-	private final SearchResult result;
+	protected final Search search;
+	protected final SearchResolver resolver;
+	protected final SearchResult result;
 
 	private StringBuilder characters = new StringBuilder();
 
@@ -108,6 +111,15 @@ public class SearchWriter implements SearchXmlConstants {
 		writer.writeCharacters("\r\n"); //$NON-NLS-1$
 	}
 
+	public void write(Path path) throws IOException, InterruptedException, XMLStreamException {
+		try (OutputStream out = Files.newOutputStream(path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			write(out);
+		}
+	}
+
 	public void write(OutputStream out) throws IOException, InterruptedException, XMLStreamException {
 
 		XMLOutputFactory factory = XMLOutputFactory.newFactory();
@@ -25,8 +25,12 @@
  */
 package de.ims.icarus.search_tools.result;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.xml.stream.XMLStreamException;
 
+import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.search_tools.ConstraintContext;
 import de.ims.icarus.search_tools.ConstraintFactory;
 import de.ims.icarus.search_tools.Search;
@@ -146,6 +150,40 @@ public abstract class AbstractSearchResult implements SearchResult {
 		return groupConstraints==null ? 0 : groupConstraints.length;
 	}
 
+	/**
+	 * Creates the list used to store result entries. Unless disabled by
+	 * the user entries are kept in a {@link PackedEntryList} that moves
+	 * entries exceeding the configured memory limit to disk.
+	 */
+	protected List<ResultEntry> createEntryList(int size) {
+		if(search==null) {
+			return new ArrayList<>(size);
+		}
+
+		ConfigRegistry config = ConfigRegistry.getGlobalRegistry();
+		if(config.getBoolean("plugins.searchTools.compactResults")) { //$NON-NLS-1$
+			long memoryLimit = config.getInteger(
+					"plugins.searchTools.resultMemoryLimit"); //$NON-NLS-1$
+			return new PackedEntryList(size, Math.max(0L, memoryLimit)*1024*1024);
+		}
+		return new ArrayList<>(size);
+	}
+
+	/**
+	 * Releases resources held by the entries of this result, like the
+	 * temporary file of a {@link PackedEntryList}. Called once the result
+	 * has been discarded, it must not be accessed afterwards.
+	 */
+	public void dispose() {
+		// no-op
+	}
+
+	protected static void closeEntryList(List<ResultEntry> list) {
+		if(list instanceof PackedEntryList) {
+			((PackedEntryList)list).close();
+		}
+	}
+
 	/**
 	 * @see de.ims.icarus.search_tools.result.SearchResult#getSource()
 	 */
@@ -61,7 +61,7 @@ public class DefaultSearchResult0D extends AbstractSearchResult {
 	public DefaultSearchResult0D(Search search, int size) {
 		super(search, null);
 
-		entries = new ArrayList<>(size);
+		entries = createEntryList(size);
 	}
 
 	public DefaultSearchResult0D(Search search, List<ResultEntry> entries) {
@@ -70,7 +70,8 @@ public class DefaultSearchResult0D extends AbstractSearchResult {
 		if(entries==null)
 			throw new NullPointerException("Invalid entry list"); //$NON-NLS-1$
 
-		this.entries = new ArrayList<>(entries);
+		this.entries = PackedEntryList.isPacked(entries) ?
+				new PackedEntryList(entries) : new ArrayList<>(entries);
 	}
 
 	/**
@@ -175,6 +176,14 @@ public class DefaultSearchResult0D extends AbstractSearchResult {
 		entries.clear();
 	}
 
+	/**
+	 * @see de.ims.icarus.search_tools.result.AbstractSearchResult#dispose()
+	 */
+	@Override
+	public void dispose() {
+		closeEntryList(entries);
+	}
+
 	@Override
 	public int getTotalHitCount() {
 		return hitCount;
@@ -235,6 +244,14 @@ public class DefaultSearchResult0D extends AbstractSearchResult {
 			DefaultSearchResult0D.this.commit(entry);
 		}
 
+		/**
+		 * @see de.ims.icarus.search_tools.standard.GroupCache#flush()
+		 */
+		@Override
+		public void flush() {
+			// no-op
+		}
+
 	}
 
 	protected class EntryList extends AbstractList<Object> implements DataList<Object> {
@@ -30,6 +30,8 @@ import static de.ims.icarus.search_tools.util.SearchUtils.checkResultEntry;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,9 +45,13 @@ import de.ims.icarus.search_tools.Search;
 import de.ims.icarus.search_tools.SearchConstraint;
 import de.ims.icarus.search_tools.io.SearchWriter;
 import de.ims.icarus.search_tools.standard.GroupCache;
+import de.ims.icarus.util.SubstitutionSupport;
 import de.ims.icarus.util.collections.CollectionUtils;
 import de.ims.icarus.util.data.ContentType;
 import de.ims.icarus.util.data.DataList;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.hash.THashSet;
 
 /**
@@ -66,6 +72,33 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 
 	public static final int DEFAULT_START_SIZE = 200;
 
+	/**
+	 * Maximum number of entries a {@link ResultNDCache} collects in its
+	 * local shard before merging them into the result.
+	 */
+	public static final int SHARD_FLUSH_SIZE = 512;
+
+	/**
+	 * Maximum time in milliseconds entries are held back in a local
+	 * shard, so that running searches still show live results.
+	 */
+	public static final long SHARD_FLUSH_INTERVAL = 500;
+
+	/**
+	 * Results with more dimensions commit every entry directly since
+	 * the local ids of all groups would no longer fit into one
+	 * {@code long} key with a reasonable number of bits per group.
+	 */
+	public static final int MAX_SHARD_DIMENSION = 7;
+
+	private static final Comparator<ResultEntry> INDEX_SORTER = new Comparator<ResultEntry>() {
+
+		@Override
+		public int compare(ResultEntry e1, ResultEntry e2) {
+			return Integer.compare(e1.getIndex(), e2.getIndex());
+		}
+	};
+
 	/**
 	 * Keeps track of the total permutation to be applied
 	 * on entries stored in {@link ResultNDCache} objects created
@@ -89,7 +122,7 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 		groupMatchCounts = new int[getDimension()][];
 
 		entries = new LinkedHashMap<>(size);
-		totalEntries = new ArrayList<>(size);
+		totalEntries = createEntryList(size);
 
 		dummyKey = new Key(getDimension());
 	}
@@ -103,13 +136,26 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 
 		List<ResultEntry> list = entries.get(dummyKey);
 		if(list==null && createIfMissing) {
-			list = new ArrayList<>(30);
+			list = totalEntries instanceof PackedEntryList ?
+					((PackedEntryList)totalEntries).createRows() : new ArrayList<ResultEntry>(30);
 			entries.put(dummyKey.clone(), list);
 		}
 
 		return list;
 	}
 
+	/**
+	 * Adds the entry stored at {@code row} of the total entry list
+	 * to the given group list.
+	 */
+	private void addToGroup(List<ResultEntry> list, int row, ResultEntry entry) {
+		if(list instanceof PackedEntryList.Rows) {
+			((PackedEntryList.Rows)list).addRow(row);
+		} else {
+			list.add(entry);
+		}
+	}
+
 	@Override
 	public SearchResult getSubResult(int... groupInstances) {
 		int dif = getDimension()-groupInstances.length;
@@ -211,6 +257,10 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 	}
 
 	private void incrementGroupCount(int groupId, int instanceId) {
+		addGroupCount(groupId, instanceId, 1);
+	}
+
+	private void addGroupCount(int groupId, int instanceId, int count) {
 
 		int[] counts = groupMatchCounts[groupId];
 		if(counts==null) {
@@ -220,10 +270,10 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 			counts = Arrays.copyOf(counts, instanceId*2);
 			groupMatchCounts[groupId] = counts;
 		}
-		counts[instanceId]++;
+		counts[instanceId] += count;
 	}
 
-	private void commitRecursive(ResultEntry entry, ResultNDCache cache, final int rawIndex) {
+	private void commitRecursive(ResultEntry entry, int row, ResultNDCache cache, final int rawIndex) {
 //		System.out.println(cache.instanceBuffer[indexPermutator[rawIndex]]);
 
 		for(String value : cache.instanceBuffer[indexPermutator[rawIndex]]) {
@@ -236,14 +286,14 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 			incrementGroupCount(rawIndex, index);
 
 			if(rawIndex<indexBuffer.length-1) {
-				commitRecursive(entry, cache, rawIndex+1);
+				commitRecursive(entry, row, cache, rawIndex+1);
 			} else {
 
 				// Generate key and ensure valid result list
 				List<ResultEntry> list = getList(indexBuffer, true);
 
 				// finally add the currently processed entry to the result list
-				list.add(entry);
+				addToGroup(list, row, entry);
 			}
 		}
 
@@ -254,8 +304,11 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 
 //		System.out.printf("entry={%s} multi=%b cache=%s\n", entry, cache.multiValueSets, cache);
 
+		int row = totalEntries.size();
+		totalEntries.add(entry);
+
 		if(cache.multiValueSets) {
-			commitRecursive(entry, cache, 0);
+			commitRecursive(entry, row, cache, 0);
 		} else {
 			for (int i = 0; i < indexBuffer.length; i++) {
 				Set<String> values = cache.instanceBuffer[indexPermutator[i]];
@@ -273,16 +326,122 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 			List<ResultEntry> list = getList(indexBuffer, true);
 
 			// finally add the currently processed entry to the result list
-			list.add(entry);
+			addToGroup(list, row, entry);
 		}
 
-		totalEntries.add(entry);
-
 		hitCount += entry.getHitCount();
 
 		cache.reset();
 	}
 
+	/**
+	 * Moves the content of the local shard of the given cache into this
+	 * result. Only the distinct labels of the shard are resolved against
+	 * the shared group instances, entry lists are appended in bulk.
+	 */
+	protected synchronized void merge(ResultNDCache cache) {
+		int dimension = getDimension();
+
+		// Translate local label ids of every cache slot into global ids
+		int[][] mapping = new int[cache.localLabels.length][];
+		for(int i=0; i<dimension; i++) {
+			int slot = indexPermutator[i];
+			SubstitutionSupport labels = cache.localLabels[slot];
+			int[] counts = cache.localCounts[slot];
+			int[] map = new int[labels.size()];
+
+			for(int id=0; id<map.length; id++) {
+				int index = groupInstances[i].substitute(labels.resubstitute(id));
+				map[id] = index;
+
+				addGroupCount(i, index, counts[id]);
+			}
+
+			mapping[slot] = map;
+		}
+
+		int base = totalEntries.size();
+		totalEntries.addAll(cache.localEntries);
+
+		for(TLongObjectIterator<TIntArrayList> it = cache.localGroups.iterator(); it.hasNext();) {
+			it.advance();
+			long key = it.key();
+
+			for(int i=0; i<dimension; i++) {
+				int slot = indexPermutator[i];
+				indexBuffer[i] = mapping[slot][cache.unpack(key, slot)];
+			}
+
+			List<ResultEntry> list = getList(indexBuffer, true);
+			TIntArrayList positions = it.value();
+			for(int i=0; i<positions.size(); i++) {
+				int position = positions.getQuick(i);
+				addToGroup(list, base+position, cache.localEntries.get(position));
+			}
+		}
+
+		hitCount += cache.localHitCount;
+	}
+
+	/**
+	 * Sorts all entry lists and the groups themselves in corpus order,
+	 * so that the final result does not depend on the order in which
+	 * workers committed their entries.
+	 */
+	protected void sortEntries() {
+		List<Entry<Key, List<ResultEntry>>> groups = new ArrayList<>(entries.entrySet());
+
+		if(totalEntries instanceof PackedEntryList) {
+			// Group lists only refer to rows, so translate them to the new order
+			int[] mapping = ((PackedEntryList)totalEntries).sortByIndex();
+			if(mapping!=null) {
+				for(Entry<Key, List<ResultEntry>> group : groups) {
+					((PackedEntryList.Rows)group.getValue()).remap(mapping);
+				}
+			}
+		} else {
+			Collections.sort(totalEntries, INDEX_SORTER);
+			for(Entry<Key, List<ResultEntry>> group : groups) {
+				Collections.sort(group.getValue(), INDEX_SORTER);
+			}
+		}
+
+		Collections.sort(groups, new Comparator<Entry<Key, List<ResultEntry>>>() {
+
+			@Override
+			public int compare(Entry<Key, List<ResultEntry>> g1,
+					Entry<Key, List<ResultEntry>> g2) {
+				int result = Integer.compare(g1.getValue().get(0).getIndex(),
+						g2.getValue().get(0).getIndex());
+
+				// Groups starting in the same sentence are sorted by their labels
+				int[] indices1 = g1.getKey().indices;
+				int[] indices2 = g2.getKey().indices;
+				for(int i=0; result==0 && i<indices1.length; i++) {
+					result = groupInstances[i].resubstitute(indices1[i]).compareTo(
+							groupInstances[i].resubstitute(indices2[i]));
+				}
+
+				return result;
+			}
+		});
+
+		entries.clear();
+		for(Entry<Key, List<ResultEntry>> group : groups) {
+			entries.put(group.getKey(), group.getValue());
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.result.AbstractSearchResult#finish()
+	 */
+	@Override
+	public synchronized void finish() {
+		sortEntries();
+
+		super.finish();
+	}
+
 	/**
 	 * @see de.ims.icarus.search_tools.result.SearchResult#clear()
 	 */
@@ -295,6 +454,14 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 		totalEntries.clear();
 	}
 
+	/**
+	 * @see de.ims.icarus.search_tools.result.AbstractSearchResult#dispose()
+	 */
+	@Override
+	public void dispose() {
+		closeEntryList(totalEntries);
+	}
+
 	@Override
 	public int getTotalHitCount() {
 		return hitCount;
@@ -398,8 +565,9 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 	public void addEntry(ResultEntry entry, int... groupIndices) {
 		checkResultEntry(entry);
 
-		getList(groupIndices, true).add(entry);
+		int row = totalEntries.size();
 		totalEntries.add(entry);
+		addToGroup(getList(groupIndices, true), row, entry);
 		hitCount += entry.getHitCount();
 
 		// Make sure that counts for each group's instances are updated as well!
@@ -473,6 +641,18 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 		}
 	}
 
+	/**
+	 * Collects the group instances of a single worker. Committed entries
+	 * are gathered in a private shard that uses local label ids and a
+	 * table keyed by the packed local ids of all groups. The shard is
+	 * merged into the result every {@value DefaultSearchResultND#SHARD_FLUSH_SIZE}
+	 * entries, after {@value DefaultSearchResultND#SHARD_FLUSH_INTERVAL} ms
+	 * and when the worker finishes.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
 	protected class ResultNDCache implements GroupCache {
 
 		@SuppressWarnings("unchecked")
@@ -482,10 +662,129 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 
 		protected boolean multiValueSets = false;
 
+		// Local shard, all arrays are indexed by cache slot
+		protected final SubstitutionSupport[] localLabels;
+		protected final int[][] localCounts;
+		protected final TLongObjectHashMap<TIntArrayList> localGroups;
+		protected final List<ResultEntry> localEntries;
+		protected int localHitCount = 0;
+		protected long lastFlush = System.currentTimeMillis();
+
+		private final int bitsPerSlot;
+		private final int maxLocalId;
+		private final long slotMask;
+
 		public ResultNDCache() {
 			for(int i=0; i<instanceBuffer.length; i++) {
 				instanceBuffer[i] = new THashSet<>();
 			}
+
+			int dimension = instanceBuffer.length;
+			if(dimension>MAX_SHARD_DIMENSION) {
+				localLabels = null;
+				localCounts = null;
+				localGroups = null;
+				localEntries = null;
+				bitsPerSlot = 0;
+				maxLocalId = 0;
+				slotMask = 0L;
+			} else {
+				localLabels = new SubstitutionSupport[dimension];
+				localCounts = new int[dimension][];
+				for(int i=0; i<dimension; i++) {
+					localLabels[i] = new SubstitutionSupport();
+					localCounts[i] = new int[100];
+				}
+				localGroups = new TLongObjectHashMap<>();
+				localEntries = new ArrayList<>(SHARD_FLUSH_SIZE);
+
+				bitsPerSlot = Math.min(31, 63/dimension);
+				slotMask = (1L<<bitsPerSlot)-1;
+				maxLocalId = (int) slotMask;
+			}
+		}
+
+		int unpack(long key, int slot) {
+			return (int) ((key>>>(slot*bitsPerSlot)) & slotMask);
+		}
+
+		private int localId(int slot, String value) {
+			if(value==null || "".equals(value)) { //$NON-NLS-1$
+				value = DUMMY_INSTANCE;
+			}
+			return localLabels[slot].substitute(value);
+		}
+
+		private void incrementLocalCount(int slot, int id) {
+			int[] counts = localCounts[slot];
+			if(counts.length<=id) {
+				counts = Arrays.copyOf(counts, id*2);
+				localCounts[slot] = counts;
+			}
+			counts[id]++;
+		}
+
+		private void addLocal(long key, int position) {
+			TIntArrayList list = localGroups.get(key);
+			if(list==null) {
+				list = new TIntArrayList(30);
+				localGroups.put(key, list);
+			}
+			list.add(position);
+		}
+
+		private void commitLocalRecursive(int position, int slot, long key) {
+			for(String value : instanceBuffer[slot]) {
+				int id = localId(slot, value);
+				incrementLocalCount(slot, id);
+
+				long slotKey = key | ((long)id<<(slot*bitsPerSlot));
+
+				if(slot<instanceBuffer.length-1) {
+					commitLocalRecursive(position, slot+1, slotKey);
+				} else {
+					addLocal(slotKey, position);
+				}
+			}
+		}
+
+		protected void commitLocal(ResultEntry entry) {
+			checkResultEntry(entry);
+
+			// Make sure all new labels can still be encoded in a key
+			for(int i=0; i<instanceBuffer.length; i++) {
+				if(localLabels[i].size()+instanceBuffer[i].size()>maxLocalId) {
+					flush();
+					break;
+				}
+			}
+
+			int position = localEntries.size();
+
+			if(multiValueSets) {
+				commitLocalRecursive(position, 0, 0L);
+			} else {
+				long key = 0L;
+				for(int i=0; i<instanceBuffer.length; i++) {
+					Set<String> values = instanceBuffer[i];
+					int id = localId(i, values.isEmpty() ? null : values.iterator().next());
+					incrementLocalCount(i, id);
+
+					key |= (long)id<<(i*bitsPerSlot);
+				}
+
+				addLocal(key, position);
+			}
+
+			localEntries.add(entry);
+			localHitCount += entry.getHitCount();
+
+			reset();
+
+			if(localEntries.size()>=SHARD_FLUSH_SIZE
+					|| System.currentTimeMillis()-lastFlush>=SHARD_FLUSH_INTERVAL) {
+				flush();
+			}
 		}
 
 		/**
@@ -538,9 +837,34 @@ public class DefaultSearchResultND extends AbstractSearchResult {
 		 */
 		@Override
 		public void commit(ResultEntry entry) {
-			DefaultSearchResultND.this.commit(entry, this);
+			if(localGroups==null) {
+				DefaultSearchResultND.this.commit(entry, this);
+			} else {
+				commitLocal(entry);
+			}
 		}
 
+		/**
+		 * @see de.ims.icarus.search_tools.standard.GroupCache#flush()
+		 */
+		@Override
+		public void flush() {
+			lastFlush = System.currentTimeMillis();
+
+			if(localGroups==null || localEntries.isEmpty()) {
+				return;
+			}
+
+			merge(this);
+
+			for(int i=0; i<localLabels.length; i++) {
+				Arrays.fill(localCounts[i], 0, localLabels[i].size(), 0);
+				localLabels[i].reset();
+			}
+			localGroups.clear();
+			localEntries.clear();
+			localHitCount = 0;
+		}
 	}
 
 	protected class EntryList extends AbstractList<Object> implements DataList<Object> {
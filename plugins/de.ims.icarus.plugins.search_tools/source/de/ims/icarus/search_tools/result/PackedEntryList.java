@@ -0,0 +1,764 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.result;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.logging.Level;
+
+import de.ims.icarus.Core;
+import de.ims.icarus.logging.LoggerFactory;
+import gnu.trove.list.array.TIntArrayList;
+
+/**
+ * Compact storage for {@link ResultEntry} objects. Instead of keeping
+ * one object per entry and hit the list stores all entries in primitive
+ * columns: the corpus index of every entry, the offset of its first hit
+ * and the concatenated allocations of all hits. As long as all hits of
+ * a page share the same number of allocated nodes the offsets of
+ * individual hits are not stored at all.
+ * <p>
+ * Hits are organized in pages of {@value #PAGE_SIZE} entries. If a
+ * memory limit is given, the least recently used full pages exceeding
+ * that limit are written to a temporary file and read back on demand.
+ * Only the corpus indices of all entries stay in memory.
+ * <p>
+ * Entries returned by {@link #get(int)} are created on demand. Since
+ * {@code ResultEntry} and {@code Hit} implement value based equality
+ * those views can be used as keys like the original entries.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class PackedEntryList extends AbstractList<ResultEntry> implements RandomAccess {
+
+	private static final Hit[] EMPTY_HITS = new Hit[0];
+
+	/**
+	 * Number of entries stored in a single page
+	 */
+	public static final int PAGE_SIZE = 4096;
+
+	private TIntArrayList indices;
+	private List<Page> pages;
+	private PageData tail;
+
+	/**
+	 * Maximum number of bytes used by full pages kept in memory,
+	 * {@code 0} if pages should never be written to disk.
+	 */
+	private final long memoryLimit;
+
+	// Guards all spilling related fields
+	private final Object pageLock = new Object();
+	private final LinkedHashMap<Page, Boolean> residentPages;
+	private long residentBytes = 0L;
+	private SpillFile spillFile;
+	private boolean spillFailed = false;
+
+	public PackedEntryList() {
+		this(100);
+	}
+
+	public PackedEntryList(int capacity) {
+		this(capacity, 0L);
+	}
+
+	public PackedEntryList(int capacity, long memoryLimit) {
+		if(memoryLimit<0)
+			throw new IllegalArgumentException("Negative memory limit: "+memoryLimit); //$NON-NLS-1$
+
+		this.memoryLimit = memoryLimit;
+
+		residentPages = memoryLimit>0 ? new LinkedHashMap<Page, Boolean>(16, 0.75f, true) : null;
+
+		indices = new TIntArrayList(capacity);
+		pages = new ArrayList<>();
+		tail = new PageData(Math.min(capacity, PAGE_SIZE));
+	}
+
+	public PackedEntryList(Collection<? extends ResultEntry> entries) {
+		this(Math.max(10, entries.size()), getMemoryLimit(entries));
+
+		if(entries instanceof PackedEntryList) {
+			PackedEntryList source = (PackedEntryList) entries;
+			for(int row=0; row<source.size(); row++) {
+				appendRow(source, row);
+			}
+		} else if(entries instanceof Rows) {
+			Rows rows = (Rows) entries;
+			for(int i=0; i<rows.rows.size(); i++) {
+				appendRow(rows.owner(), rows.rows.get(i));
+			}
+		} else {
+			addAll(entries);
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the given list stores its entries
+	 * in packed form.
+	 */
+	public static boolean isPacked(List<ResultEntry> list) {
+		return list instanceof PackedEntryList || list instanceof Rows;
+	}
+
+	private static long getMemoryLimit(Collection<? extends ResultEntry> entries) {
+		if(entries instanceof PackedEntryList) {
+			return ((PackedEntryList)entries).memoryLimit;
+		} else if(entries instanceof Rows) {
+			return ((Rows)entries).owner().memoryLimit;
+		} else {
+			return 0L;
+		}
+	}
+
+	/**
+	 * Creates the temporary file pages are written to once the
+	 * memory limit is exceeded.
+	 */
+	protected Path createSpillFile() throws IOException {
+		return Core.getCore().createTempFile("result"); //$NON-NLS-1$
+	}
+
+	private void endRow() {
+		tail.endRow();
+
+		if(tail.rows()==PAGE_SIZE) {
+			Page page = new Page(tail);
+			pages.add(page);
+			tail = new PageData(PAGE_SIZE);
+
+			page.data.trim();
+			if(memoryLimit>0) {
+				synchronized (pageLock) {
+					makeResident(page, page.data);
+				}
+			}
+		}
+	}
+
+	private PageData data(int row) {
+		return data(pages, tail, row);
+	}
+
+	private PageData data(List<Page> pages, PageData tail, int row) {
+		int pageIndex = row/PAGE_SIZE;
+		if(pageIndex==pages.size()) {
+			return tail;
+		}
+
+		Page page = pages.get(pageIndex);
+		if(memoryLimit==0) {
+			return page.data;
+		}
+
+		synchronized (pageLock) {
+			PageData data = page.data;
+			if(data==null) {
+				data = load(page);
+				makeResident(page, data);
+			} else {
+				// Refresh LRU position
+				residentPages.get(page);
+			}
+			return data;
+		}
+	}
+
+	// Requires pageLock
+	private void makeResident(Page page, PageData data) {
+		page.data = data;
+		residentPages.put(page, Boolean.TRUE);
+		residentBytes += data.bytes();
+
+		if(spillFailed) {
+			return;
+		}
+
+		Iterator<Page> it = residentPages.keySet().iterator();
+		while(residentBytes>memoryLimit && it.hasNext()) {
+			Page eldest = it.next();
+			if(eldest.file==null && !spill(eldest)) {
+				break;
+			}
+
+			residentBytes -= eldest.data.bytes();
+			eldest.data = null;
+			it.remove();
+		}
+	}
+
+	// Requires pageLock
+	private boolean spill(Page page) {
+		try {
+			if(spillFile==null) {
+				spillFile = new SpillFile(createSpillFile());
+			}
+			spillFile.write(page);
+			return true;
+		} catch(IOException e) {
+			LoggerFactory.log(this, Level.SEVERE,
+					"Failed to write result page - keeping remaining entries in memory", e); //$NON-NLS-1$
+			spillFailed = true;
+			return false;
+		}
+	}
+
+	// Requires pageLock
+	private PageData load(Page page) {
+		try {
+			return page.file.read(page);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to read result page from "+page.file.path, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Appends the entry at {@code row} of the given list without
+	 * creating intermediate objects.
+	 */
+	protected void appendRow(PackedEntryList source, int row) {
+		appendRow(source.indices.get(row), source.data(row), row%PAGE_SIZE);
+	}
+
+	private void appendRow(int index, PageData data, int localRow) {
+		indices.add(index);
+
+		int end = data.hitOffsets.get(localRow+1);
+		for(int hit = data.hitOffsets.get(localRow); hit<end; hit++) {
+			tail.addHit(data.allocation(hit));
+		}
+
+		endRow();
+	}
+
+	/**
+	 * @see java.util.AbstractList#add(java.lang.Object)
+	 */
+	@Override
+	public boolean add(ResultEntry entry) {
+		if(entry==null)
+			throw new NullPointerException("Invalid entry"); //$NON-NLS-1$
+
+		indices.add(entry.getIndex());
+
+		for(Hit hit : entry.getHits()) {
+			tail.addHit(hit.getIndices());
+		}
+
+		endRow();
+
+		modCount++;
+
+		return true;
+	}
+
+	/**
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public ResultEntry get(int row) {
+		int index = indices.get(row);
+		PageData data = data(row);
+		int localRow = row%PAGE_SIZE;
+
+		int begin = data.hitOffsets.get(localRow);
+		int end = data.hitOffsets.get(localRow+1);
+
+		Hit[] hits = EMPTY_HITS;
+		if(end>begin) {
+			hits = new Hit[end-begin];
+			for(int i=0; i<hits.length; i++) {
+				hits[i] = new Hit(data.allocation(begin+i));
+			}
+		}
+
+		return new ResultEntry(index, hits);
+	}
+
+	/**
+	 * Returns the corpus index of the entry at the given row.
+	 */
+	public int getIndex(int row) {
+		return indices.get(row);
+	}
+
+	/**
+	 * Returns the number of hits of the entry at the given row.
+	 */
+	public int getHitCount(int row) {
+		PageData data = data(row);
+		int localRow = row%PAGE_SIZE;
+		return data.hitOffsets.get(localRow+1)-data.hitOffsets.get(localRow);
+	}
+
+	/**
+	 * Compares the hits of the entries at the given rows the same way
+	 * {@link Hit#equals(Object)} does, without creating entry objects.
+	 */
+	public boolean equalHits(int row, PackedEntryList other, int otherRow) {
+		PageData data0 = data(row);
+		PageData data1 = other.data(otherRow);
+		int localRow0 = row%PAGE_SIZE;
+		int localRow1 = otherRow%PAGE_SIZE;
+
+		int hit0 = data0.hitOffsets.get(localRow0);
+		int hit1 = data1.hitOffsets.get(localRow1);
+		int count = data0.hitOffsets.get(localRow0+1)-hit0;
+		if(count!=data1.hitOffsets.get(localRow1+1)-hit1) {
+			return false;
+		}
+
+		for(int h=0; h<count; h++) {
+			int i0 = data0.allocationBegin(hit0+h);
+			int end0 = data0.allocationEnd(hit0+h);
+			int i1 = data1.allocationBegin(hit1+h);
+			int end1 = data1.allocationEnd(hit1+h);
+
+			while(i0<end0 && i1<end1) {
+				int v0 = data0.allocations.getQuick(i0);
+				int v1 = data1.allocations.getQuick(i1);
+				if(v0==-1) {
+					i0++;
+				} else if(v1==-1) {
+					i1++;
+				} else if(v0!=v1) {
+					return false;
+				} else {
+					i0++;
+					i1++;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return indices.size();
+	}
+
+	/**
+	 * @see java.util.AbstractList#clear()
+	 */
+	@Override
+	public void clear() {
+		indices = new TIntArrayList();
+		pages = new ArrayList<>();
+		tail = new PageData(PAGE_SIZE);
+
+		close();
+
+		modCount++;
+	}
+
+	/**
+	 * Discards all pages written to disk and deletes the underlying
+	 * temporary file.
+	 */
+	public void close() {
+		synchronized (pageLock) {
+			if(residentPages!=null) {
+				residentPages.clear();
+			}
+			residentBytes = 0L;
+
+			if(spillFile!=null) {
+				spillFile.close();
+				spillFile = null;
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code true} if some pages of this list have been
+	 * moved to disk.
+	 */
+	public boolean isSpilled() {
+		synchronized (pageLock) {
+			return spillFile!=null;
+		}
+	}
+
+	/**
+	 * Creates an empty view on a subset of the rows in this list.
+	 */
+	public Rows createRows() {
+		return new Rows(10);
+	}
+
+	/**
+	 * Stable sort of all rows by their corpus index. Returns the mapping
+	 * from old to new row numbers or {@code null} if the list was sorted
+	 * already.
+	 */
+	public int[] sortByIndex() {
+		int size = size();
+
+		boolean sorted = true;
+		for(int i=1; i<size && sorted; i++) {
+			sorted = indices.get(i-1)<=indices.get(i);
+		}
+		if(sorted) {
+			return null;
+		}
+
+		// Sort rows by packing (index, row) into longs
+		long[] order = new long[size];
+		for(int row=0; row<size; row++) {
+			order[row] = ((long)indices.get(row)<<32) | row;
+		}
+		Arrays.sort(order);
+
+		TIntArrayList oldIndices = indices;
+		List<Page> oldPages = pages;
+		PageData oldTail = tail;
+		SpillFile oldFile;
+		synchronized (pageLock) {
+			oldFile = spillFile;
+			spillFile = null;
+		}
+
+		indices = new TIntArrayList(size);
+		pages = new ArrayList<>();
+		tail = new PageData(PAGE_SIZE);
+
+		// Entries committed close in time are usually close in the corpus
+		// as well, so reading spilled pages in sorted order only keeps a
+		// few of them busy at any time
+		int[] mapping = new int[size];
+		for(int i=0; i<size; i++) {
+			int row = (int) order[i];
+			mapping[row] = i;
+			appendRow(oldIndices.get(row), data(oldPages, oldTail, row), row%PAGE_SIZE);
+		}
+
+		if(memoryLimit>0) {
+			synchronized (pageLock) {
+				for(Page page : oldPages) {
+					if(residentPages.remove(page)!=null) {
+						residentBytes -= page.data.bytes();
+					}
+				}
+			}
+		}
+		if(oldFile!=null) {
+			oldFile.close();
+		}
+
+		modCount++;
+
+		return mapping;
+	}
+
+	/**
+	 * A list of references to rows of the surrounding {@code PackedEntryList}.
+	 * Used for the entries of a single group, so that every entry is
+	 * stored only once regardless of how many groups it belongs to.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public class Rows extends AbstractList<ResultEntry> implements RandomAccess {
+
+		private final TIntArrayList rows;
+
+		Rows(int capacity) {
+			rows = new TIntArrayList(capacity);
+		}
+
+		PackedEntryList owner() {
+			return PackedEntryList.this;
+		}
+
+		public void addRow(int row) {
+			rows.add(row);
+			modCount++;
+		}
+
+		public int getRow(int index) {
+			return rows.get(index);
+		}
+
+		/**
+		 * Translates all rows according to the given mapping as returned
+		 * by {@link PackedEntryList#sortByIndex()} and restores ascending
+		 * order.
+		 */
+		public void remap(int[] mapping) {
+			for(int i=0; i<rows.size(); i++) {
+				rows.setQuick(i, mapping[rows.getQuick(i)]);
+			}
+			rows.sort();
+			modCount++;
+		}
+
+		/**
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public ResultEntry get(int index) {
+			return PackedEntryList.this.get(rows.get(index));
+		}
+
+		/**
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size() {
+			return rows.size();
+		}
+	}
+
+	/**
+	 * Hits of a single page. Hit offsets are local to the page.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	private static class PageData {
+
+		private final TIntArrayList hitOffsets;
+		private final TIntArrayList allocations;
+
+		/**
+		 * Offsets of the allocations of every hit. Only created once
+		 * hits with different allocation sizes have been added.
+		 */
+		private TIntArrayList allocOffsets;
+
+		private int hitWidth = -1;
+		private int hitCount = 0;
+
+		PageData(int capacity) {
+			hitOffsets = new TIntArrayList(capacity+1);
+			allocations = new TIntArrayList(capacity*4);
+
+			hitOffsets.add(0);
+		}
+
+		PageData(int[] buffer) {
+			int pos = 0;
+			hitWidth = buffer[pos++];
+			int offsetCount = buffer[pos++];
+			int allocationCount = buffer[pos++];
+			int allocOffsetCount = buffer[pos++];
+
+			hitOffsets = new TIntArrayList(Arrays.copyOfRange(buffer, pos, pos+offsetCount));
+			pos += offsetCount;
+			allocations = new TIntArrayList(Arrays.copyOfRange(buffer, pos, pos+allocationCount));
+			pos += allocationCount;
+			if(allocOffsetCount>=0) {
+				allocOffsets = new TIntArrayList(Arrays.copyOfRange(buffer, pos, pos+allocOffsetCount));
+			}
+
+			hitCount = hitOffsets.get(hitOffsets.size()-1);
+		}
+
+		int[] encode() {
+			int allocOffsetCount = allocOffsets==null ? -1 : allocOffsets.size();
+			int[] buffer = new int[4+hitOffsets.size()+allocations.size()+Math.max(0, allocOffsetCount)];
+
+			int pos = 0;
+			buffer[pos++] = hitWidth;
+			buffer[pos++] = hitOffsets.size();
+			buffer[pos++] = allocations.size();
+			buffer[pos++] = allocOffsetCount;
+
+			hitOffsets.toArray(buffer, 0, pos, hitOffsets.size());
+			pos += hitOffsets.size();
+			allocations.toArray(buffer, 0, pos, allocations.size());
+			pos += allocations.size();
+			if(allocOffsets!=null) {
+				allocOffsets.toArray(buffer, 0, pos, allocOffsets.size());
+			}
+
+			return buffer;
+		}
+
+		int rows() {
+			return hitOffsets.size()-1;
+		}
+
+		long bytes() {
+			int count = hitOffsets.size()+allocations.size();
+			if(allocOffsets!=null) {
+				count += allocOffsets.size();
+			}
+			return 4L*count;
+		}
+
+		void trim() {
+			hitOffsets.trimToSize();
+			allocations.trimToSize();
+			if(allocOffsets!=null) {
+				allocOffsets.trimToSize();
+			}
+		}
+
+		void addHit(int[] allocation) {
+			int width = allocation.length;
+
+			if(hitWidth==-1) {
+				hitWidth = width;
+			} else if(allocOffsets==null && width!=hitWidth) {
+				// Switch to explicit offsets for all hits
+				allocOffsets = new TIntArrayList(Math.max(10, hitCount*2));
+				for(int i=0; i<=hitCount; i++) {
+					allocOffsets.add(i*hitWidth);
+				}
+			}
+
+			allocations.add(allocation);
+			hitCount++;
+
+			if(allocOffsets!=null) {
+				allocOffsets.add(allocations.size());
+			}
+		}
+
+		void endRow() {
+			hitOffsets.add(hitCount);
+		}
+
+		int allocationBegin(int hit) {
+			return allocOffsets==null ? hit*hitWidth : allocOffsets.get(hit);
+		}
+
+		int allocationEnd(int hit) {
+			return allocOffsets==null ? (hit+1)*hitWidth : allocOffsets.get(hit+1);
+		}
+
+		int[] allocation(int hit) {
+			int begin = allocationBegin(hit);
+			return allocations.toArray(begin, allocationEnd(hit)-begin);
+		}
+	}
+
+	/**
+	 * A full page. Its data is {@code null} while the page only
+	 * exists on disk.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	private static class Page {
+		volatile PageData data;
+
+		SpillFile file;
+		long offset;
+		int length;
+
+		Page(PageData data) {
+			this.data = data;
+		}
+	}
+
+	/**
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	private static class SpillFile {
+		private final Path path;
+		private final FileChannel channel;
+		private long size = 0L;
+
+		SpillFile(Path path) throws IOException {
+			this.path = path;
+			path.toFile().deleteOnExit();
+
+			channel = FileChannel.open(path, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		void write(Page page) throws IOException {
+			int[] data = page.data.encode();
+			ByteBuffer buffer = ByteBuffer.allocate(data.length*4);
+			buffer.asIntBuffer().put(data);
+
+			long offset = size;
+			while(buffer.hasRemaining()) {
+				size += channel.write(buffer, size);
+			}
+
+			page.file = this;
+			page.offset = offset;
+			page.length = data.length;
+		}
+
+		PageData read(Page page) throws IOException {
+			ByteBuffer buffer = ByteBuffer.allocate(page.length*4);
+			long position = page.offset;
+			while(buffer.hasRemaining()) {
+				int count = channel.read(buffer, position);
+				if(count<0)
+					throw new IOException("Unexpected end of file"); //$NON-NLS-1$
+				position += count;
+			}
+			buffer.flip();
+
+			int[] data = new int[page.length];
+			IntBuffer ints = buffer.asIntBuffer();
+			ints.get(data);
+
+			return new PageData(data);
+		}
+
+		void close() {
+			try {
+				channel.close();
+				Files.deleteIfExists(path);
+			} catch(IOException e) {
+				LoggerFactory.log(this, Level.WARNING,
+						"Failed to delete result page file: "+path, e); //$NON-NLS-1$
+			}
+		}
+	}
+}
@@ -0,0 +1,496 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.result;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.ims.icarus.ui.tasks.TaskManager;
+
+/**
+ * Set operations on the entries of search results. Entries of both
+ * results are visited in corpus order in a single merge pass. Two entries
+ * are considered equal under the same conditions as
+ * {@link ResultEntry#equals(Object)}; for results stored in packed form
+ * this is decided on the raw columns without creating entry objects.
+ * Results that are not already in corpus order are sorted via a
+ * primitive permutation first.
+ * <p>
+ * Large inputs are split into ranges of sentence indices that are
+ * merged in parallel on the {@link TaskManager} executor, with the
+ * calling thread taking part in the work.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public final class ResultAlgebra {
+
+	private ResultAlgebra() {
+		// no-op
+	}
+
+	/**
+	 * Minimum number of entries per thread when merging in parallel
+	 */
+	public static final int PARALLEL_THRESHOLD = 1<<16;
+
+	public static enum SetOperation {
+		UNION {
+			@Override
+			boolean accept(boolean inA, boolean inB) {
+				return inA || inB;
+			}
+		},
+		INTERSECTION {
+			@Override
+			boolean accept(boolean inA, boolean inB) {
+				return inA && inB;
+			}
+		},
+		DIFFERENCE {
+			@Override
+			boolean accept(boolean inA, boolean inB) {
+				return inA && !inB;
+			}
+		},
+		SYMMETRIC_DIFFERENCE {
+			@Override
+			boolean accept(boolean inA, boolean inB) {
+				return inA != inB;
+			}
+		};
+
+		abstract boolean accept(boolean inA, boolean inB);
+	}
+
+	/**
+	 * Returns all entries of the given result, each entry only once.
+	 */
+	static List<ResultEntry> getEntries(final SearchResult result) {
+		if(result instanceof DefaultSearchResult0D) {
+			return ((DefaultSearchResult0D)result).entries;
+		} else if(result instanceof DefaultSearchResultND) {
+			return ((DefaultSearchResultND)result).totalEntries;
+		}
+
+		final int size = result.getTotalMatchCount();
+		return new AbstractList<ResultEntry>() {
+
+			@Override
+			public ResultEntry get(int index) {
+				return result.getRawEntry(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Returns the set of sentences matched by the given result.
+	 */
+	public static BitSet getSentences(SearchResult result) {
+		List<ResultEntry> entries = getEntries(result);
+		int size = entries.size();
+
+		BitSet sentences = new BitSet();
+		if(entries instanceof PackedEntryList) {
+			PackedEntryList packed = (PackedEntryList) entries;
+			for(int row=0; row<size; row++) {
+				sentences.set(packed.getIndex(row));
+			}
+		} else {
+			for(int i=0; i<size; i++) {
+				sentences.set(entries.get(i).getIndex());
+			}
+		}
+
+		return sentences;
+	}
+
+	/**
+	 * Returns the distinct sentences matched by the given result
+	 * in ascending order.
+	 */
+	public static int[] getSentenceIndices(SearchResult result) {
+		return toArray(getSentences(result));
+	}
+
+	public static int[] toArray(BitSet sentences) {
+		int[] indices = new int[sentences.cardinality()];
+		int index = 0;
+		for(int i=sentences.nextSetBit(0); i>=0; i=sentences.nextSetBit(i+1)) {
+			indices[index++] = i;
+		}
+		return indices;
+	}
+
+	/**
+	 * Applies the given operation on two sets of sentences.
+	 */
+	public static BitSet apply(SetOperation operation, BitSet a, BitSet b) {
+		BitSet result = (BitSet) a.clone();
+
+		switch (operation) {
+		case UNION:
+			result.or(b);
+			break;
+		case INTERSECTION:
+			result.and(b);
+			break;
+		case DIFFERENCE:
+			result.andNot(b);
+			break;
+		case SYMMETRIC_DIFFERENCE:
+			result.xor(b);
+			break;
+
+		default:
+			throw new IllegalArgumentException("Unknown operation: "+operation); //$NON-NLS-1$
+		}
+
+		return result;
+	}
+
+	/**
+	 * Applies the given operation on the entries of two results. The
+	 * returned list is in corpus order and packed if at least one of
+	 * the two results stores its entries in packed form.
+	 */
+	public static List<ResultEntry> apply(final SetOperation operation,
+			SearchResult a, SearchResult b) {
+		if(operation==null)
+			throw new NullPointerException("Invalid operation"); //$NON-NLS-1$
+
+		final SortedEntries entriesA = new SortedEntries(getEntries(a));
+		final SortedEntries entriesB = new SortedEntries(getEntries(b));
+		final boolean packed = entriesA.packed!=null || entriesB.packed!=null;
+
+		int total = entriesA.size+entriesB.size;
+		int parts = Math.min(Runtime.getRuntime().availableProcessors(), total/PARALLEL_THRESHOLD);
+
+		if(parts<2) {
+			List<ResultEntry> result = newList(packed, total);
+			merge(operation, entriesA, 0, entriesA.size, entriesB, 0, entriesB.size, result);
+			return result;
+		}
+
+		// Split the corpus at quantiles of the larger input
+		SortedEntries pivot = entriesA.size>=entriesB.size ? entriesA : entriesB;
+		final int[] boundsA = new int[parts+1];
+		final int[] boundsB = new int[parts+1];
+		for(int k=1; k<parts; k++) {
+			int sentence = pivot.index((int)((long)k*pivot.size/parts));
+			boundsA[k] = entriesA.lowerBound(sentence);
+			boundsB[k] = entriesB.lowerBound(sentence);
+		}
+		boundsA[parts] = entriesA.size;
+		boundsB[parts] = entriesB.size;
+
+		final int partCount = parts;
+		final List<List<ResultEntry>> partResults = new ArrayList<>(parts);
+		for(int k=0; k<parts; k++) {
+			partResults.add(null);
+		}
+		final AtomicInteger nextPart = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(parts);
+		final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+		Runnable worker = new Runnable() {
+
+			@Override
+			public void run() {
+				int part;
+				while((part = nextPart.getAndIncrement())<partCount) {
+					try {
+						List<ResultEntry> result = newList(packed,
+								boundsA[part+1]-boundsA[part]+boundsB[part+1]-boundsB[part]);
+						merge(operation,
+								entriesA, boundsA[part], boundsA[part+1],
+								entriesB, boundsB[part], boundsB[part+1], result);
+						partResults.set(part, result);
+					} catch(RuntimeException e) {
+						error.compareAndSet(null, e);
+					} finally {
+						latch.countDown();
+					}
+				}
+			}
+		};
+
+		// Helpers only pick up parts nobody claimed yet, so the calling
+		// thread never waits for work that has not been started
+		for(int i=1; i<parts; i++) {
+			TaskManager.getInstance().execute(worker);
+		}
+		worker.run();
+
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while combining results", e); //$NON-NLS-1$
+		}
+
+		if(error.get()!=null)
+			throw error.get();
+
+		List<ResultEntry> result = newList(packed, total);
+		for(List<ResultEntry> partResult : partResults) {
+			if(packed) {
+				PackedEntryList source = (PackedEntryList) partResult;
+				PackedEntryList target = (PackedEntryList) result;
+				for(int row=0; row<source.size(); row++) {
+					target.appendRow(source, row);
+				}
+			} else {
+				result.addAll(partResult);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Creates a new final result holding the entries obtained by applying
+	 * the given operation on two results. Grouping information is not
+	 * preserved.
+	 */
+	public static SearchResult combine(SetOperation operation,
+			SearchResult a, SearchResult b) {
+		DefaultSearchResult0D result = new DefaultSearchResult0D(a.getSource(),
+				apply(operation, a, b));
+
+		if(a instanceof AbstractSearchResult) {
+			result.setAnnotationBuffer(((AbstractSearchResult)a).getAnnotationBuffer());
+		}
+
+		result.finish();
+
+		return result;
+	}
+
+	private static List<ResultEntry> newList(boolean packed, int capacity) {
+		capacity = Math.max(10, capacity);
+		return packed ? new PackedEntryList(capacity) : new ArrayList<ResultEntry>(capacity);
+	}
+
+	private static void merge(SetOperation operation,
+			SortedEntries entriesA, int fromA, int toA,
+			SortedEntries entriesB, int fromB, int toB,
+			List<ResultEntry> result) {
+		boolean onlyA = operation.accept(true, false);
+		boolean onlyB = operation.accept(false, true);
+		boolean both = operation.accept(true, true);
+
+		int i = fromA;
+		int j = fromB;
+		while(i<toA || j<toB) {
+			if(j>=toB) {
+				if(!onlyA) {
+					break;
+				}
+				entriesA.append(i++, result);
+				continue;
+			} else if(i>=toA) {
+				if(!onlyB) {
+					break;
+				}
+				entriesB.append(j++, result);
+				continue;
+			}
+
+			int sentenceA = entriesA.index(i);
+			int sentenceB = entriesB.index(j);
+
+			if(sentenceA<sentenceB) {
+				if(onlyA) {
+					entriesA.append(i, result);
+				}
+				i++;
+			} else if(sentenceB<sentenceA) {
+				if(onlyB) {
+					entriesB.append(j, result);
+				}
+				j++;
+			} else {
+				// Find all entries for the current sentence
+				int endA = i+1;
+				while(endA<toA && entriesA.index(endA)==sentenceA) {
+					endA++;
+				}
+				int endB = j+1;
+				while(endB<toB && entriesB.index(endB)==sentenceB) {
+					endB++;
+				}
+
+				if(endA-i==1 && endB-j==1) {
+					if(equals(entriesA, i, entriesB, j)) {
+						if(both) {
+							entriesA.append(i, result);
+						}
+					} else {
+						if(onlyA) {
+							entriesA.append(i, result);
+						}
+						if(onlyB) {
+							entriesB.append(j, result);
+						}
+					}
+				} else {
+					// Rare case of multiple entries for one sentence
+					boolean[] matched = new boolean[endB-j];
+					for(int a=i; a<endA; a++) {
+						boolean found = false;
+						for(int b=j; b<endB && !found; b++) {
+							if(!matched[b-j] && equals(entriesA, a, entriesB, b)) {
+								matched[b-j] = true;
+								found = true;
+							}
+						}
+						if(found ? both : onlyA) {
+							entriesA.append(a, result);
+						}
+					}
+					if(onlyB) {
+						for(int b=j; b<endB; b++) {
+							if(!matched[b-j]) {
+								entriesB.append(b, result);
+							}
+						}
+					}
+				}
+
+				i = endA;
+				j = endB;
+			}
+		}
+	}
+
+	private static boolean equals(SortedEntries entriesA, int i, SortedEntries entriesB, int j) {
+		int rowA = entriesA.row(i);
+		int rowB = entriesB.row(j);
+
+		if(entriesA.packed!=null && entriesB.packed!=null) {
+			return entriesA.packed.equalHits(rowA, entriesB.packed, rowB);
+		}
+
+		return entriesA.list.get(rowA).equals(entriesB.list.get(rowB));
+	}
+
+	/**
+	 * Read-only view of a list of entries in corpus order.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	private static class SortedEntries {
+		final List<ResultEntry> list;
+		final PackedEntryList packed;
+		final int size;
+
+		/**
+		 * Maps positions in corpus order to rows in the list,
+		 * {@code null} if the list is sorted already.
+		 */
+		final int[] order;
+
+		SortedEntries(List<ResultEntry> list) {
+			this.list = list;
+			packed = list instanceof PackedEntryList ? (PackedEntryList)list : null;
+			size = list.size();
+
+			boolean sorted = true;
+			for(int row=1; row<size && sorted; row++) {
+				sorted = rawIndex(row-1)<=rawIndex(row);
+			}
+
+			if(sorted) {
+				order = null;
+			} else {
+				long[] keys = new long[size];
+				for(int row=0; row<size; row++) {
+					keys[row] = ((long)rawIndex(row)<<32) | row;
+				}
+				Arrays.sort(keys);
+
+				order = new int[size];
+				for(int i=0; i<size; i++) {
+					order[i] = (int) keys[i];
+				}
+			}
+		}
+
+		int rawIndex(int row) {
+			return packed==null ? list.get(row).getIndex() : packed.getIndex(row);
+		}
+
+		int row(int i) {
+			return order==null ? i : order[i];
+		}
+
+		int index(int i) {
+			return rawIndex(row(i));
+		}
+
+		/**
+		 * Returns the first position whose sentence index is not
+		 * less than the given one.
+		 */
+		int lowerBound(int sentence) {
+			int low = 0;
+			int high = size;
+			while(low<high) {
+				int mid = (low+high)>>>1;
+				if(index(mid)<sentence) {
+					low = mid+1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		void append(int i, List<ResultEntry> result) {
+			int row = row(i);
+			if(packed!=null && result instanceof PackedEntryList) {
+				((PackedEntryList)result).appendRow(packed, row);
+			} else {
+				result.add(list.get(row));
+			}
+		}
+	}
+}
@@ -26,10 +26,13 @@
 package de.ims.icarus.search_tools.standard;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.LinkedList;
+import java.util.Date;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 import javax.xml.stream.XMLStreamException;
@@ -38,6 +41,8 @@ import org.java.plugin.registry.Extension;
 
 import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.logging.LoggerFactory;
+import de.ims.icarus.search_tools.ConstraintContext;
+import de.ims.icarus.search_tools.ConstraintFactory;
 import de.ims.icarus.search_tools.InvalidSearchGraphException;
 import de.ims.icarus.search_tools.Search;
 import de.ims.icarus.search_tools.SearchConstraint;
@@ -55,6 +60,7 @@ import de.ims.icarus.search_tools.io.SearchWriter;
 import de.ims.icarus.search_tools.result.AbstractSearchResult;
 import de.ims.icarus.search_tools.result.DefaultSearchResult0D;
 import de.ims.icarus.search_tools.result.DefaultSearchResultND;
+import de.ims.icarus.search_tools.result.ResultAlgebra;
 import de.ims.icarus.search_tools.result.ResultEntry;
 import de.ims.icarus.search_tools.result.SearchResult;
 import de.ims.icarus.search_tools.util.SearchUtils;
@@ -80,6 +86,12 @@ public abstract class AbstractParallelSearch extends Search {
 
 	public static final int ANNOTATION_BUFFER_SIZE = 300;
 
+	/**
+	 * Number of processed items a worker accumulates before
+	 * reporting them to the search in chunked dispatch mode.
+	 */
+	public static final int PROGRESS_BATCH_SIZE = 64;
+
 	protected SearchResult result;
 
 	protected DataList<?> source;
@@ -88,12 +100,37 @@ public abstract class AbstractParallelSearch extends Search {
 	protected int pendingWorkers;
 	protected List<Worker> workers = Collections.synchronizedList(new ArrayList<Worker>());
 	protected TIntCollection pendingIndices = new TSynchronizedIntSet(new TIntHashSet());
-	protected Queue<ItemBuffer> pendingItems = new LinkedList<>();
+	protected Queue<ItemBuffer> pendingItems = new ConcurrentLinkedQueue<>();
 
 	protected final Object notifer = new Object();
 
 	protected int nextItemIndex = 0;
 
+	/**
+	 * Dispatcher used to hand out index ranges to workers. Remains
+	 * {@code null} when the search runs in legacy per-item mode.
+	 */
+	protected ChunkedItemDispatcher dispatcher;
+
+	/**
+	 * Ascending indices of the only items in the source list that
+	 * can possibly satisfy the query. If {@code null} all items
+	 * will be searched.
+	 */
+	protected int[] candidateIndices;
+
+	/**
+	 * Number of result entries committed so far. Only maintained when
+	 * a result limit is set.
+	 */
+	protected final AtomicInteger matchCounter = new AtomicInteger();
+
+	/**
+	 * Merged performance counters of all finished workers. Remains
+	 * {@code null} when performance monitoring is disabled.
+	 */
+	protected DefaultSearchPerformanceInfo performanceInfo;
+
 	protected final int resultLimit;
 	protected final SearchMode searchMode;
 	protected final Orientation orientation;
@@ -127,6 +164,13 @@ public abstract class AbstractParallelSearch extends Search {
 		if(source==null)
 			throw new IllegalStateException("Invalid source created"); //$NON-NLS-1$
 
+		candidateIndices = createCandidateIndices();
+
+		Object refinedResult = getProperty(REFINED_RESULT_PROPERTY);
+		if(refinedResult instanceof SearchResult) {
+			candidateIndices = refineCandidateIndices((SearchResult) refinedResult);
+		}
+
 		return true;
 	}
 
@@ -149,31 +193,143 @@ public abstract class AbstractParallelSearch extends Search {
 		return getQuery().getSearchGraph();
 	}
 
+	protected boolean isResultFilled() {
+		return resultLimit>0 && matchCounter.get()>=resultLimit;
+	}
+
+	protected boolean isPerformanceMonitoring() {
+		return ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.searchTools.collectPerformanceInfo"); //$NON-NLS-1$
+	}
+
+	protected boolean isChunkedDispatch() {
+		return ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.searchTools.chunkedDispatch"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Hook for subclasses to restrict the search to a subset of the
+	 * source list, e.g. based on an index of the searched corpus.
+	 * The returned indices must be sorted in ascending order.
+	 * Returns {@code null} to search all items.
+	 */
+	protected int[] createCandidateIndices() {
+		return null;
+	}
+
+	/**
+	 * Restricts the current candidates to the sentences matched by
+	 * an earlier result on the same target.
+	 */
+	protected int[] refineCandidateIndices(SearchResult refinedResult) {
+		BitSet sentences = ResultAlgebra.getSentences(refinedResult);
+
+		int size = source.size();
+		if(sentences.length()>size) {
+			sentences.clear(size, sentences.length());
+		}
+
+		if(candidateIndices!=null) {
+			BitSet candidates = new BitSet(size);
+			for(int index : candidateIndices) {
+				candidates.set(index);
+			}
+			sentences.and(candidates);
+		}
+
+		return ResultAlgebra.toArray(sentences);
+	}
+
+	/**
+	 * Hook for subclasses whose source list can still grow while the
+	 * search is running, e.g. a treebank that is being loaded. As long
+	 * as this method returns {@code true} workers wait for new items
+	 * instead of finishing once they reached the end of the source.
+	 * Items not yet available must be delivered via {@link #offerItem(int, Object)}.
+	 */
+	protected boolean isSourceGrowing() {
+		return false;
+	}
+
+	/**
+	 * Returns the number of items that will be handed out to workers.
+	 */
+	protected int getItemCount() {
+		return candidateIndices==null ? source.size() : candidateIndices.length;
+	}
+
+	/**
+	 * Translates a position in the sequence of items to be
+	 * searched into an index in the source list.
+	 */
+	protected int translateIndex(int position) {
+		return candidateIndices==null ? position : candidateIndices[position];
+	}
+
+	protected ItemRequestResult nextItem(Worker worker) {
+		if(dispatcher==null) {
+			return nextItem(worker.buffer);
+		}
+
+		ItemBuffer buffer = worker.buffer;
+
+		if(isCancelled()) {
+			return ItemRequestResult.SEARCH_FINISHED;
+		}
+
+		if(isResultFilled()) {
+			return ItemRequestResult.RESULT_FILLED;
+		}
+
+		// Check cached items
+		ItemBuffer cached = pendingItems.poll();
+		if(cached!=null) {
+			buffer.copy(cached);
+			return ItemRequestResult.ITEM_AVAILABLE;
+		}
+
+		int index = dispatcher.next(worker.slot);
+		if(index==-1) {
+			return ItemRequestResult.NO_MORE_ITEMS;
+		}
+		index = translateIndex(index);
+
+		Object data = getTargetItem(index);
+
+		if(data!=null) {
+			buffer.set(index, data);
+			return ItemRequestResult.ITEM_AVAILABLE;
+		} else {
+			pendingIndices.add(index);
+			return ItemRequestResult.ITEM_PENDING;
+		}
+	}
+
 	protected ItemRequestResult nextItem(ItemBuffer buffer) {
 		if(isCancelled()) {
 			return ItemRequestResult.SEARCH_FINISHED;
 		}
 
-		synchronized (result) {
-			if(resultLimit>0 && result.getTotalMatchCount()>=resultLimit) {
-				return ItemRequestResult.RESULT_FILLED;
-			}
+		if(isResultFilled()) {
+			return ItemRequestResult.RESULT_FILLED;
 		}
 
 		// Check cached items
-		synchronized (pendingItems) {
-			ItemBuffer cached = pendingItems.poll();
-			if(cached!=null) {
-				buffer.copy(cached);
-				return ItemRequestResult.ITEM_AVAILABLE;
-			}
+		ItemBuffer cached = pendingItems.poll();
+		if(cached!=null) {
+			buffer.copy(cached);
+			return ItemRequestResult.ITEM_AVAILABLE;
 		}
 
+		int position;
 		synchronized (this) {
-			int sourceSize = source.size();
-			int index = nextItemIndex++;
+			// Check growth first so that items published afterwards are covered by the count
+			boolean growing = candidateIndices==null && isSourceGrowing();
+			int itemCount = getItemCount();
+			position = nextItemIndex++;
 
-			if(index<sourceSize) {
+			if(position<itemCount) {
+				int index = translateIndex(position);
 				Object data = getTargetItem(index);
 
 				if(data!=null) {
@@ -183,10 +339,24 @@ public abstract class AbstractParallelSearch extends Search {
 					pendingIndices.add(index);
 					return ItemRequestResult.ITEM_PENDING;
 				}
+			} else if(!growing) {
+				return ItemRequestResult.NO_MORE_ITEMS;
 			}
+
+			// Register first, the source might answer synchronously
+			pendingIndices.add(position);
 		}
 
-		return ItemRequestResult.NO_MORE_ITEMS;
+		// Position lies beyond the items published so far
+		Object data = getTargetItem(position);
+
+		if(data!=null) {
+			pendingIndices.remove(position);
+			buffer.set(position, data);
+			return ItemRequestResult.ITEM_AVAILABLE;
+		} else {
+			return ItemRequestResult.ITEM_PENDING;
+		}
 	}
 
 	protected boolean hasUnprocessedItems() {
@@ -194,14 +364,22 @@ public abstract class AbstractParallelSearch extends Search {
 			return false;
 		}
 
-		synchronized (pendingItems) {
-			if(!pendingItems.isEmpty()) {
-				return true;
-			}
+		if(!pendingItems.isEmpty()) {
+			return true;
 		}
 
-		synchronized (this) {
-			if(nextItemIndex<source.size()) {
+		if(dispatcher!=null) {
+			if(dispatcher.hasRemaining()) {
+				return true;
+			}
+		} else {
+			boolean growing = candidateIndices==null && isSourceGrowing();
+			synchronized (this) {
+				if(nextItemIndex<getItemCount()) {
+					return true;
+				}
+			}
+			if(growing) {
 				return true;
 			}
 		}
@@ -218,9 +396,18 @@ public abstract class AbstractParallelSearch extends Search {
 	}
 
 	protected void itemProcessed(ItemBuffer buffer) {
+		itemsProcessed(1);
+	}
+
+	/**
+	 * Reports a batch of processed items. In chunked dispatch mode
+	 * workers only call this method every {@value #PROGRESS_BATCH_SIZE}
+	 * items and once more when they finish.
+	 */
+	protected void itemsProcessed(int count) {
 		synchronized (this) {
-			processed++;
-			double total = source.size();
+			processed += count;
+			double total = getItemCount();
 			setProgress((int)(processed/total * 100d));
 		}
 	}
@@ -235,10 +422,18 @@ public abstract class AbstractParallelSearch extends Search {
 	}
 
 	protected void offerItem(int index, Object data) {
-		synchronized (pendingItems) {
-			pendingItems.add(new ItemBuffer(index, data));
+		if(data==null) {
+			// Item will never be available, e.g. because the source stopped growing
+			pendingIndices.remove(index);
+
+			synchronized (notifer) {
+				notifer.notifyAll();
+			}
+			return;
 		}
 
+		pendingItems.add(new ItemBuffer(index, data));
+
 		pendingIndices.remove(index);
 
 		synchronized (notifer) {
@@ -368,7 +563,24 @@ public abstract class AbstractParallelSearch extends Search {
 
 	protected abstract Worker createWorker(int id);
 
+	/**
+	 * Creates a new {@link GroupCache} for a worker. If a result limit
+	 * is set the cache is wrapped so that committed entries are counted
+	 * without locking the result.
+	 */
+	protected GroupCache createCache() {
+		GroupCache cache = result.createCache();
+		if(resultLimit>0) {
+			cache = new CountingCache(cache, matchCounter);
+		}
+		return cache;
+	}
+
 	protected synchronized void workerFinished(Worker worker) {
+		if(performanceInfo!=null && worker.counter!=null) {
+			performanceInfo.merge(worker.counter);
+		}
+
 		pendingWorkers--;
 		if(pendingWorkers>0) {
 			return;
@@ -379,6 +591,26 @@ public abstract class AbstractParallelSearch extends Search {
 			finish();
 		}
 		finalizeResult(false);
+
+		if(performanceInfo!=null) {
+			finalizePerformanceInfo();
+		}
+	}
+
+	protected void finalizePerformanceInfo() {
+		long end = endTimestamp>0 ? endTimestamp : System.currentTimeMillis();
+		performanceInfo.setDuration(end-beginTimestamp);
+		performanceInfo.setReturnedItems(result.getTotalMatchCount());
+
+		ConstraintContext context = getQuery().getConstraintContext();
+		if(context!=null) {
+			for(DefaultSearchPerformanceInfo.ConstraintStats stats : performanceInfo.getConstraintStats()) {
+				ConstraintFactory factory = context.getFactory(stats.getToken());
+				if(factory!=null) {
+					performanceInfo.setConstraintLabel(stats.getToken(), factory.getName());
+				}
+			}
+		}
 	}
 
 	protected int getMaxWorkerCount() {
@@ -401,7 +633,14 @@ public abstract class AbstractParallelSearch extends Search {
 		if(result==null) {
 			return false;
 		}
-		if(source.size()==0) {
+
+		boolean growing = isSourceGrowing();
+		if(source.size()==0 && !growing) {
+			return false;
+		}
+		if(getItemCount()==0 && !growing) {
+			// Index based pruning left nothing to search
+			finalizeResult(false);
 			return false;
 		}
 
@@ -412,6 +651,17 @@ public abstract class AbstractParallelSearch extends Search {
 
 		pendingWorkers = cores;
 
+		if(isPerformanceMonitoring()) {
+			performanceInfo = new DefaultSearchPerformanceInfo(new Date(beginTimestamp), cores);
+		}
+
+		// Ranges cannot be assigned up front while the source is still growing
+		if(isChunkedDispatch() && !growing) {
+			dispatcher = candidateIndices==null ?
+					new ChunkedItemDispatcher(source, cores)
+					: new ChunkedItemDispatcher(candidateIndices.length, cores);
+		}
+
 		for(int i=0; i<cores; i++) {
 			Worker worker = createWorker(i);
 			workers.add(worker);
@@ -426,8 +676,7 @@ public abstract class AbstractParallelSearch extends Search {
 	 */
 	@Override
 	public SearchPerformanceInfo getPerformanceInfo() {
-		// TODO
-		return null;
+		return performanceInfo;
 	}
 
 	/**
@@ -518,13 +767,25 @@ public abstract class AbstractParallelSearch extends Search {
 
 		protected boolean cancelled = false;
 
+		/**
+		 * Counters for this worker or {@code null} if performance
+		 * monitoring is disabled.
+		 */
+		protected final PerformanceCounter counter;
+
 		private final int id;
 
 		private Thread thread;
 
+		private ChunkedItemDispatcher.Slot slot;
+
+		private int unreportedItems = 0;
+
 		protected Worker(int id) {
 			this.id = id;
 
+			counter = performanceInfo==null ? null : new PerformanceCounter();
+
 			init();
 
 			buffer = new ItemBuffer();
@@ -566,18 +827,27 @@ public abstract class AbstractParallelSearch extends Search {
 			// Save reference to current thread
 			thread = Thread.currentThread();
 
+			if(dispatcher!=null) {
+				slot = dispatcher.getSlot(id);
+			}
+
 			try {
 				search_loop : while(!isCancelled() && hasUnprocessedItems()) {
-					switch (nextItem(buffer)) {
+					switch (nextItem(this)) {
 					case ITEM_AVAILABLE: {
 							// Perform search operation on item
 							process();
 
 							// Notify search of processed item
-							itemProcessed(buffer);
+							if(slot==null) {
+								itemProcessed(buffer);
+							} else if(++unreportedItems>=PROGRESS_BATCH_SIZE) {
+								flushProgress();
+							}
 						}
 						break;
 					case ITEM_PENDING:
+						flushProgress();
 						try {
 							awaitItem();
 						} catch (InterruptedException e) {
@@ -604,17 +874,90 @@ public abstract class AbstractParallelSearch extends Search {
 						message, t);
 				dispatcher.showAsError();
 			} finally {
+				flushProgress();
 				cleanup();
 			}
 
 			workerFinished(this);
 		}
 
+		private void flushProgress() {
+			if(unreportedItems>0) {
+				itemsProcessed(unreportedItems);
+				unreportedItems = 0;
+			}
+		}
+
 		protected abstract void process();
 
 		protected abstract void cleanup();
 	}
 
+	/**
+	 * Wraps the cache of a worker and atomically increments a shared
+	 * counter for every committed entry.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	protected static class CountingCache implements GroupCache {
+
+		private final GroupCache cache;
+		private final AtomicInteger counter;
+
+		public CountingCache(GroupCache cache, AtomicInteger counter) {
+			if(cache==null)
+				throw new NullPointerException("Invalid cache"); //$NON-NLS-1$
+			if(counter==null)
+				throw new NullPointerException("Invalid counter"); //$NON-NLS-1$
+
+			this.cache = cache;
+			this.counter = counter;
+		}
+
+		/**
+		 * @see de.ims.icarus.search_tools.standard.GroupCache#cacheGroupInstance(int, java.lang.Object, boolean)
+		 */
+		@Override
+		public void cacheGroupInstance(int id, Object value, boolean replace) {
+			cache.cacheGroupInstance(id, value, replace);
+		}
+
+		/**
+		 * @see de.ims.icarus.search_tools.standard.GroupCache#lock()
+		 */
+		@Override
+		public void lock() {
+			cache.lock();
+		}
+
+		/**
+		 * @see de.ims.icarus.search_tools.standard.GroupCache#reset()
+		 */
+		@Override
+		public void reset() {
+			cache.reset();
+		}
+
+		/**
+		 * @see de.ims.icarus.search_tools.standard.GroupCache#commit(de.ims.icarus.search_tools.result.ResultEntry)
+		 */
+		@Override
+		public void commit(ResultEntry entry) {
+			cache.commit(entry);
+			counter.incrementAndGet();
+		}
+
+		/**
+		 * @see de.ims.icarus.search_tools.standard.GroupCache#flush()
+		 */
+		@Override
+		public void flush() {
+			cache.flush();
+		}
+	}
+
 	protected static class ItemBuffer {
 		private int index;
 		private Object data;
@@ -0,0 +1,283 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.standard;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.ims.icarus.util.data.DataList;
+
+/**
+ * Distributes the indices of a {@link DataList} among a fixed number
+ * of workers by handing out contiguous index ranges instead of single
+ * items. Each worker owns a {@link Slot} that holds its current range
+ * and consumes it without any further synchronization. Chunk sizes
+ * shrink as the remaining amount of unassigned items decreases (guided
+ * scheduling) and once the shared pool is exhausted idle workers steal
+ * half of the largest remaining range of another worker.
+ * <p>
+ * The size of the underlying list is read on every refill, so lists that
+ * grow while a search is running are supported.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class ChunkedItemDispatcher {
+
+	public static final int DEFAULT_MIN_CHUNK_SIZE = 8;
+	public static final int DEFAULT_MAX_CHUNK_SIZE = 4096;
+
+	/**
+	 * Divisor applied to the number of workers when computing the
+	 * next chunk size. Higher values result in smaller chunks and
+	 * therefore in a more even distribution of work.
+	 */
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	private final DataList<?> source;
+	private final int fixedSize;
+	private final Slot[] slots;
+	private final AtomicInteger nextIndex = new AtomicInteger();
+
+	private final int minChunkSize;
+	private final int maxChunkSize;
+
+	public ChunkedItemDispatcher(DataList<?> source, int workerCount) {
+		this(source, workerCount, DEFAULT_MIN_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+	}
+
+	public ChunkedItemDispatcher(DataList<?> source, int workerCount,
+			int minChunkSize, int maxChunkSize) {
+		this(source, -1, workerCount, minChunkSize, maxChunkSize);
+
+		if(source==null)
+			throw new NullPointerException("Invalid source"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates a dispatcher for a fixed number of positions that
+	 * does not depend on the size of a backing list.
+	 */
+	public ChunkedItemDispatcher(int size, int workerCount) {
+		this(null, size, workerCount, DEFAULT_MIN_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE);
+
+		if(size<0)
+			throw new IllegalArgumentException("Size must not be negative: "+size); //$NON-NLS-1$
+	}
+
+	private ChunkedItemDispatcher(DataList<?> source, int size, int workerCount,
+			int minChunkSize, int maxChunkSize) {
+		if(workerCount<1)
+			throw new IllegalArgumentException("Worker count must be positive: "+workerCount); //$NON-NLS-1$
+		if(minChunkSize<1 || maxChunkSize<minChunkSize)
+			throw new IllegalArgumentException("Invalid chunk size bounds: "+minChunkSize+"-"+maxChunkSize); //$NON-NLS-1$ //$NON-NLS-2$
+
+		this.source = source;
+		this.fixedSize = size;
+		this.minChunkSize = minChunkSize;
+		this.maxChunkSize = maxChunkSize;
+
+		slots = new Slot[workerCount];
+		for(int i=0; i<workerCount; i++) {
+			slots[i] = new Slot();
+		}
+	}
+
+	private int size() {
+		return source==null ? fixedSize : source.size();
+	}
+
+	public Slot getSlot(int workerId) {
+		return slots[workerId];
+	}
+
+	public int getWorkerCount() {
+		return slots.length;
+	}
+
+	/**
+	 * Returns the next index to be processed by the owner of the given
+	 * slot or {@code -1} if there are currently no more items left.
+	 */
+	public int next(Slot slot) {
+		for(;;) {
+			int index = slot.poll();
+			if(index!=-1) {
+				return index;
+			}
+
+			if(!refill(slot) && !steal(slot)) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code true} if either the shared pool or one of
+	 * the worker ranges still contains unprocessed indices.
+	 */
+	public boolean hasRemaining() {
+		if(nextIndex.get()<size()) {
+			return true;
+		}
+
+		for(Slot slot : slots) {
+			if(slot.remaining()>0) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns the total number of indices that have been assigned to
+	 * workers so far.
+	 */
+	public int getAssignedCount() {
+		return nextIndex.get();
+	}
+
+	private boolean refill(Slot slot) {
+		for(;;) {
+			int begin = nextIndex.get();
+			int size = size();
+			int remaining = size-begin;
+			if(remaining<=0) {
+				return false;
+			}
+
+			int chunkSize = remaining / (slots.length*CHUNKS_PER_WORKER);
+			chunkSize = Math.max(minChunkSize, Math.min(maxChunkSize, chunkSize));
+			int end = begin + Math.min(chunkSize, remaining);
+
+			if(nextIndex.compareAndSet(begin, end)) {
+				slot.assign(begin, end);
+				return true;
+			}
+		}
+	}
+
+	private boolean steal(Slot thief) {
+		for(;;) {
+			Slot victim = null;
+			int maxRemaining = 1;
+
+			for(Slot slot : slots) {
+				if(slot==thief) {
+					continue;
+				}
+				int remaining = slot.remaining();
+				if(remaining>maxRemaining) {
+					victim = slot;
+					maxRemaining = remaining;
+				}
+			}
+
+			if(victim==null) {
+				return false;
+			}
+
+			long range = victim.split();
+			if(range!=-1L) {
+				thief.assign(Slot.begin(range), Slot.end(range));
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Range of indices currently owned by a single worker. Both
+	 * bounds are packed into a single {@code long} so that the owner
+	 * and potential thieves can modify the range atomically.
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public static final class Slot {
+
+		// upper 32 bits: next index to hand out, lower 32 bits: end index (exclusive)
+		private final AtomicLong range = new AtomicLong();
+
+		static long pack(int begin, int end) {
+			return ((long)begin<<32) | (end & 0xFFFFFFFFL);
+		}
+
+		static int begin(long range) {
+			return (int)(range>>>32);
+		}
+
+		static int end(long range) {
+			return (int)range;
+		}
+
+		void assign(int begin, int end) {
+			range.set(pack(begin, end));
+		}
+
+		int remaining() {
+			long r = range.get();
+			return end(r)-begin(r);
+		}
+
+		int poll() {
+			for(;;) {
+				long r = range.get();
+				int begin = begin(r);
+				int end = end(r);
+				if(begin>=end) {
+					return -1;
+				}
+				if(range.compareAndSet(r, pack(begin+1, end))) {
+					return begin;
+				}
+			}
+		}
+
+		/**
+		 * Removes the upper half of the remaining indices and returns
+		 * them as a packed range, or {@code -1} if there is nothing left
+		 * that is worth stealing.
+		 */
+		long split() {
+			for(;;) {
+				long r = range.get();
+				int begin = begin(r);
+				int end = end(r);
+				int remaining = end-begin;
+				if(remaining<2) {
+					return -1L;
+				}
+				int mid = begin + remaining/2;
+				if(range.compareAndSet(r, pack(begin, mid))) {
+					return pack(mid, end);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,304 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.standard;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pre-compiled form of a regular expression used by search constraints.
+ * Expressions that consist of a plain literal, optionally anchored at
+ * the beginning and/or end of the input, are evaluated by simple
+ * string comparison. All other expressions are compiled once into a
+ * {@link Pattern} and evaluated with a reused {@link Matcher}.
+ * <p>
+ * When compiled in case insensitive mode the pattern is expected to
+ * be lowercased already and input is compared ignoring case, without
+ * creating lowercased copies of the input.
+ * <p>
+ * Instances are <b>not</b> thread-safe. Every thread has to use its own
+ * instance, obtained via {@link #copy()}.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public abstract class CompiledPattern {
+
+	private static final String META_CHARACTERS = "\\.[]{}()<>*+-=!?^$|"; //$NON-NLS-1$
+
+	private final String source;
+
+	protected CompiledPattern(String source) {
+		this.source = source;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * Returns {@code true} if the pattern can be found anywhere
+	 * in the given input, equivalent to {@link Matcher#find()}.
+	 */
+	public abstract boolean find(String input);
+
+	/**
+	 * Returns an instance with identical behavior that
+	 * can safely be used by another thread.
+	 */
+	public abstract CompiledPattern copy();
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+"["+source+"]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Compiles the given regular expression. Does not catch
+	 * {@link java.util.regex.PatternSyntaxException}.
+	 */
+	public static CompiledPattern compile(String regex) {
+		return compile(regex, false);
+	}
+
+	/**
+	 * Compiles the given regular expression, optionally ignoring case
+	 * when matching input. Does not catch
+	 * {@link java.util.regex.PatternSyntaxException}.
+	 */
+	public static CompiledPattern compile(String regex, boolean ignoreCase) {
+		if(regex==null)
+			throw new NullPointerException("Invalid regex"); //$NON-NLS-1$
+
+		int begin = 0;
+		int end = regex.length();
+
+		boolean anchoredStart = false;
+		boolean anchoredEnd = false;
+
+		if(regex.startsWith("^")) { //$NON-NLS-1$
+			anchoredStart = true;
+			begin++;
+		} else if(regex.startsWith(".*")) { //$NON-NLS-1$
+			begin += 2;
+		}
+
+		if(end>begin && regex.charAt(end-1)=='$' && !isEscaped(regex, end-1)) {
+			anchoredEnd = true;
+			end--;
+		} else if(end-2>=begin && regex.endsWith(".*") && !isEscaped(regex, end-2)) { //$NON-NLS-1$
+			end -= 2;
+		}
+
+		String literal = unescapeLiteral(regex, begin, end);
+		if(literal==null) {
+			int flags = ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+			return new RegexPattern(regex, Pattern.compile(regex, flags));
+		}
+
+		if(anchoredStart && anchoredEnd) {
+			return new EqualsPattern(regex, literal, ignoreCase);
+		} else if(anchoredStart) {
+			return new PrefixPattern(regex, literal, ignoreCase);
+		} else if(anchoredEnd) {
+			return new SuffixPattern(regex, literal, ignoreCase);
+		} else {
+			return new ContainsPattern(regex, literal, ignoreCase);
+		}
+	}
+
+	/**
+	 * Case insensitive version of {@link String#contains(CharSequence)}
+	 * that does not allocate any objects.
+	 */
+	public static boolean containsIgnoreCase(String s, String part) {
+		int length = part.length();
+		int max = s.length()-length;
+		for(int i=0; i<=max; i++) {
+			if(s.regionMatches(true, i, part, 0, length)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isEscaped(String s, int index) {
+		int count = 0;
+		while(index>0 && s.charAt(index-1)=='\\') {
+			count++;
+			index--;
+		}
+		return count%2==1;
+	}
+
+	/**
+	 * Returns the literal text described by the given region of
+	 * a regular expression or {@code null} if the region contains
+	 * any unescaped meta characters.
+	 */
+	private static String unescapeLiteral(String regex, int begin, int end) {
+		StringBuilder sb = null;
+
+		for(int i=begin; i<end; i++) {
+			char c = regex.charAt(i);
+
+			if(c=='\\') {
+				if(i+1>=end) {
+					return null;
+				}
+				char next = regex.charAt(i+1);
+				// Escaped letters and digits denote character classes etc.
+				if(Character.isLetterOrDigit(next)) {
+					return null;
+				}
+				if(sb==null) {
+					sb = new StringBuilder(end-begin);
+					sb.append(regex, begin, i);
+				}
+				sb.append(next);
+				i++;
+			} else if(META_CHARACTERS.indexOf(c)!=-1
+					|| Character.isHighSurrogate(c)) {
+				return null;
+			} else if(sb!=null) {
+				sb.append(c);
+			}
+		}
+
+		return sb==null ? regex.substring(begin, end) : sb.toString();
+	}
+
+	private static class RegexPattern extends CompiledPattern {
+
+		private final Pattern pattern;
+		private final Matcher matcher;
+
+		RegexPattern(String source, Pattern pattern) {
+			super(source);
+			this.pattern = pattern;
+			matcher = pattern.matcher(""); //$NON-NLS-1$
+		}
+
+		@Override
+		public boolean find(String input) {
+			return matcher.reset(input).find();
+		}
+
+		@Override
+		public CompiledPattern copy() {
+			return new RegexPattern(getSource(), pattern);
+		}
+	}
+
+	private static class ContainsPattern extends CompiledPattern {
+
+		private final String literal;
+		private final boolean ignoreCase;
+
+		ContainsPattern(String source, String literal, boolean ignoreCase) {
+			super(source);
+			this.literal = literal;
+			this.ignoreCase = ignoreCase;
+		}
+
+		@Override
+		public boolean find(String input) {
+			return ignoreCase ? containsIgnoreCase(input, literal) : input.contains(literal);
+		}
+
+		@Override
+		public CompiledPattern copy() {
+			return this;
+		}
+	}
+
+	private static class PrefixPattern extends CompiledPattern {
+
+		private final String literal;
+		private final boolean ignoreCase;
+
+		PrefixPattern(String source, String literal, boolean ignoreCase) {
+			super(source);
+			this.literal = literal;
+			this.ignoreCase = ignoreCase;
+		}
+
+		@Override
+		public boolean find(String input) {
+			return ignoreCase ? input.regionMatches(true, 0, literal, 0, literal.length()) : input.startsWith(literal);
+		}
+
+		@Override
+		public CompiledPattern copy() {
+			return this;
+		}
+	}
+
+	private static class SuffixPattern extends CompiledPattern {
+
+		private final String literal;
+		private final boolean ignoreCase;
+
+		SuffixPattern(String source, String literal, boolean ignoreCase) {
+			super(source);
+			this.literal = literal;
+			this.ignoreCase = ignoreCase;
+		}
+
+		@Override
+		public boolean find(String input) {
+			return ignoreCase ? input.regionMatches(true, input.length()-literal.length(), literal, 0, literal.length()) : input.endsWith(literal);
+		}
+
+		@Override
+		public CompiledPattern copy() {
+			return this;
+		}
+	}
+
+	private static class EqualsPattern extends CompiledPattern {
+
+		private final String literal;
+		private final boolean ignoreCase;
+
+		EqualsPattern(String source, String literal, boolean ignoreCase) {
+			super(source);
+			this.literal = literal;
+			this.ignoreCase = ignoreCase;
+		}
+
+		@Override
+		public boolean find(String input) {
+			return ignoreCase ? input.equalsIgnoreCase(literal) : input.equals(literal);
+		}
+
+		@Override
+		public CompiledPattern copy() {
+			return this;
+		}
+	}
+}
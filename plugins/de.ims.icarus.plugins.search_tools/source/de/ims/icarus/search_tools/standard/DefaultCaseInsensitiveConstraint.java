@@ -44,6 +44,12 @@ public class DefaultCaseInsensitiveConstraint extends DefaultConstraint {
 	@XmlTransient
 	protected Object lowercaseValue;
 
+	/**
+	 * Case insensitive pattern for the regex operators. Matches the
+	 * raw value from {@link #getCaseSensitiveInstance(Object)} directly.
+	 */
+	private transient CompiledPattern ciPattern;
+
 	public DefaultCaseInsensitiveConstraint(String token, Object value,
 			SearchOperator operator) {
 		super(token, value, operator);
@@ -75,11 +81,74 @@ public class DefaultCaseInsensitiveConstraint extends DefaultConstraint {
 		return lowercaseValue;
 	}
 
+	/**
+	 * Returns the value to be matched <i>without</i> converting it
+	 * to lower case. Subclasses that can provide this value should
+	 * override this method so that string comparisons can ignore
+	 * case in place instead of creating a lowercased copy for every
+	 * node that gets checked. The default implementation returns
+	 * {@code null}, which makes {@link #matches(Object)} fall back
+	 * to the lowercased result of {@link #getInstance(Object)}.
+	 */
+	protected Object getCaseSensitiveInstance(Object value) {
+		return null;
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.standard.DefaultConstraint#prepare()
+	 */
+	@Override
+	public void prepare() {
+		super.prepare();
+
+		ciPattern = null;
+
+		SearchOperator operator = getOperator();
+		if(operator==DefaultSearchOperator.MATCHES
+				|| operator==DefaultSearchOperator.MATCHES_NOT) {
+			if(lowercaseValue instanceof String && !((String)lowercaseValue).isEmpty()) {
+				ciPattern = CompiledPattern.compile((String) lowercaseValue, true);
+			}
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.standard.DefaultConstraint#matches(java.lang.Object)
+	 */
+	@Override
+	public boolean matches(Object value) {
+		if(lowercaseValue instanceof String) {
+			Object instance = getCaseSensitiveInstance(value);
+			if(instance instanceof String) {
+				String s = (String) instance;
+				String constraint = (String) lowercaseValue;
+				SearchOperator operator = getOperator();
+
+				if(operator==DefaultSearchOperator.EQUALS) {
+					return s.equalsIgnoreCase(constraint);
+				} else if(operator==DefaultSearchOperator.EQUALS_NOT) {
+					return !s.equalsIgnoreCase(constraint);
+				} else if(operator==DefaultSearchOperator.CONTAINS) {
+					return CompiledPattern.containsIgnoreCase(s, constraint);
+				} else if(operator==DefaultSearchOperator.CONTAINS_NOT) {
+					return !CompiledPattern.containsIgnoreCase(s, constraint);
+				} else if(ciPattern!=null) {
+					boolean found = ciPattern.find(s);
+					return operator==DefaultSearchOperator.MATCHES ? found : !found;
+				}
+			}
+		}
+
+		return super.matches(value);
+	}
+
 	/**
 	 * @see de.ims.icarus.search_tools.standard.DefaultConstraint#clone()
 	 */
 	@Override
 	public DefaultCaseInsensitiveConstraint clone() {
-		return (DefaultCaseInsensitiveConstraint) super.clone();
+		DefaultCaseInsensitiveConstraint clone = (DefaultCaseInsensitiveConstraint) super.clone();
+		clone.ciPattern = null;
+		return clone;
 	}
 }
\ No newline at end of file
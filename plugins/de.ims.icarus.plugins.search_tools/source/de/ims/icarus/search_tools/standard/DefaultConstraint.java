@@ -59,6 +59,12 @@ public class DefaultConstraint implements SearchConstraint, Cloneable {
 
 	private SearchOperator operator;
 
+	/**
+	 * Compiled form of the constraint value for regex operators.
+	 * Created in {@link #prepare()} and never shared between clones.
+	 */
+	private transient CompiledPattern pattern;
+
 	public DefaultConstraint(String token, Object value, SearchOperator operator) {
 		init();
 
@@ -113,6 +119,12 @@ public class DefaultConstraint implements SearchConstraint, Cloneable {
 	 */
 	@Override
 	public boolean matches(Object value) {
+		if(pattern!=null) {
+			Object instance = getInstance(value);
+			boolean found = instance!=null && pattern.find(instance.toString());
+			return operator==DefaultSearchOperator.MATCHES ? found : !found;
+		}
+
 		return operator.apply(getInstance(value), getConstraint());
 	}
 
@@ -129,6 +141,10 @@ public class DefaultConstraint implements SearchConstraint, Cloneable {
 	}
 
 	protected boolean matches(Object value, Object constraint) {
+		if(pattern!=null && pattern.getSource().equals(constraint)) {
+			return pattern.find((String)value);
+		}
+
 		Matcher matcher = SearchManager.getMatcher((String)constraint, (String)value);
 		boolean result = matcher==null ? false : matcher.find();
 
@@ -158,6 +174,7 @@ public class DefaultConstraint implements SearchConstraint, Cloneable {
 			throw new IllegalStateException();
 		}
 		clonedConstraint.active = false;
+		clonedConstraint.pattern = null;
 		return clonedConstraint;
 	}
 
@@ -167,9 +184,22 @@ public class DefaultConstraint implements SearchConstraint, Cloneable {
 				token, operator.getSymbol(), value);
 	}
 
+	/**
+	 * Compiles the constraint value if a regex operator is used, so
+	 * that subsequent calls to {@link #matches(Object)} do not need
+	 * to access any shared pattern cache.
+	 */
 	@Override
 	public void prepare() {
-		// nothing to do here
+		pattern = null;
+
+		if(operator==DefaultSearchOperator.MATCHES
+				|| operator==DefaultSearchOperator.MATCHES_NOT) {
+			Object constraint = getConstraint();
+			if(constraint instanceof String && !((String)constraint).isEmpty()) {
+				pattern = CompiledPattern.compile((String) constraint);
+			}
+		}
 	}
 
 	@XmlElements({
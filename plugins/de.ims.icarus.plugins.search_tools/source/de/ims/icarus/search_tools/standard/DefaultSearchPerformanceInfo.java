@@ -0,0 +1,374 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.standard;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.ims.icarus.resources.ResourceManager;
+import de.ims.icarus.search_tools.Search.SearchPerformanceInfo;
+import de.ims.icarus.util.CorruptedStateException;
+import de.ims.icarus.util.date.DateUtils;
+import de.ims.icarus.util.strings.StringUtil;
+
+/**
+ * Aggregates the {@link PerformanceCounter}s of all workers of a
+ * search into a single report. Besides the general fields defined in
+ * {@link SearchPerformanceInfo} this implementation keeps evaluation
+ * counts and accumulated evaluation times for every constraint token
+ * that was encountered during the search.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class DefaultSearchPerformanceInfo implements SearchPerformanceInfo {
+
+	private static final int FIELD_COUNT = RETURNED_ITEMS+1;
+
+	private final Date time;
+	private final int cores;
+	private long duration = 0;
+
+	private final long[] values = new long[FIELD_COUNT];
+
+	private long reloadedNodes = 0;
+	private long reloadTime = 0;
+
+	private final Map<String, ConstraintStats> constraintStats = new LinkedHashMap<>();
+
+	public DefaultSearchPerformanceInfo(Date time, int cores) {
+		if(time==null)
+			throw new NullPointerException("Invalid time"); //$NON-NLS-1$
+
+		this.time = time;
+		this.cores = cores;
+	}
+
+	/**
+	 * Adds all the values stored in the given counter to this info.
+	 */
+	public synchronized void merge(PerformanceCounter counter) {
+		if(counter==null)
+			throw new NullPointerException("Invalid counter"); //$NON-NLS-1$
+
+		values[VISITED_NODES] += counter.getVisitedNodes();
+		values[VISITED_EDGES] += counter.getVisitedEdges();
+		values[CHECKED_CONSTRAINTS] += counter.getCheckedConstraints();
+		values[PROCESSED_ITEMS] += counter.getProcessedItems();
+		values[IGNORED_ITEMS] += counter.getIgnoredItems();
+		values[MATCHED_ITEMS] += counter.getMatchedItems();
+
+		reloadedNodes += counter.getReloadedNodes();
+		reloadTime += counter.getReloadTime();
+
+		for(int i=0; i<counter.getTokenCount(); i++) {
+			String token = counter.getTokenAt(i);
+			ConstraintStats stats = constraintStats.get(token);
+			if(stats==null) {
+				stats = new ConstraintStats(token);
+				constraintStats.put(token, stats);
+			}
+
+			stats.checks += counter.getTokenChecks(i);
+			stats.time += counter.getTokenTime(i);
+		}
+	}
+
+	public synchronized void setReturnedItems(long count) {
+		values[RETURNED_ITEMS] = count;
+	}
+
+	public synchronized void setDuration(long duration) {
+		this.duration = duration;
+	}
+
+	/**
+	 * Assigns a human readable label (typically the name of the
+	 * responsible {@code ConstraintFactory}) to the statistics of
+	 * the given constraint token.
+	 */
+	public synchronized void setConstraintLabel(String token, String label) {
+		ConstraintStats stats = constraintStats.get(token);
+		if(stats!=null) {
+			stats.label = label;
+		}
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.Search.SearchPerformanceInfo#getTime()
+	 */
+	@Override
+	public Date getTime() {
+		return time;
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.Search.SearchPerformanceInfo#getDuration()
+	 */
+	@Override
+	public synchronized long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.Search.SearchPerformanceInfo#getPerformanceValue(int)
+	 */
+	@Override
+	public synchronized long getPerformanceValue(int field) {
+		if(field<VISITED_NODES || field>=FIELD_COUNT)
+			throw new IllegalArgumentException("Unknown performance field: "+field); //$NON-NLS-1$
+
+		return values[field];
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.Search.SearchPerformanceInfo#getCores()
+	 */
+	@Override
+	public int getCores() {
+		return cores;
+	}
+
+	public synchronized long getReloadedNodes() {
+		return reloadedNodes;
+	}
+
+	/**
+	 * Returns the accumulated time in nanoseconds spent on rebuilding
+	 * target trees.
+	 */
+	public synchronized long getReloadTime() {
+		return reloadTime;
+	}
+
+	/**
+	 * Returns the statistics of all constraint tokens sorted by
+	 * accumulated evaluation time in descending order.
+	 */
+	public synchronized List<ConstraintStats> getConstraintStats() {
+		List<ConstraintStats> result = new ArrayList<>(constraintStats.size());
+		for(ConstraintStats stats : constraintStats.values()) {
+			result.add(stats.clone());
+		}
+
+		Collections.sort(result, TIME_SORTER);
+
+		return result;
+	}
+
+	private static final Comparator<ConstraintStats> TIME_SORTER = new Comparator<ConstraintStats>() {
+
+		@Override
+		public int compare(ConstraintStats s1, ConstraintStats s2) {
+			return Long.compare(s2.time, s1.time);
+		}
+
+	};
+
+	/**
+	 * Creates a plain text report of this info suitable for
+	 * being displayed to the user.
+	 */
+	public String toReport() {
+		StringBuilder sb = new StringBuilder(400);
+
+		appendLine(sb, "time", DateUtils.formatDate(getTime())); //$NON-NLS-1$
+		appendLine(sb, "duration", DateUtils.formatMilliDuration(getDuration())); //$NON-NLS-1$
+		appendLine(sb, "cores", String.valueOf(getCores())); //$NON-NLS-1$
+		sb.append('\n');
+		appendLine(sb, "processedItems", StringUtil.formatDecimal(getPerformanceValue(PROCESSED_ITEMS))); //$NON-NLS-1$
+		appendLine(sb, "ignoredItems", StringUtil.formatDecimal(getPerformanceValue(IGNORED_ITEMS))); //$NON-NLS-1$
+		appendLine(sb, "matchedItems", StringUtil.formatDecimal(getPerformanceValue(MATCHED_ITEMS))); //$NON-NLS-1$
+		appendLine(sb, "returnedItems", StringUtil.formatDecimal(getPerformanceValue(RETURNED_ITEMS))); //$NON-NLS-1$
+		appendLine(sb, "visitedNodes", StringUtil.formatDecimal(getPerformanceValue(VISITED_NODES))); //$NON-NLS-1$
+		appendLine(sb, "visitedEdges", StringUtil.formatDecimal(getPerformanceValue(VISITED_EDGES))); //$NON-NLS-1$
+		appendLine(sb, "checkedConstraints", StringUtil.formatDecimal(getPerformanceValue(CHECKED_CONSTRAINTS))); //$NON-NLS-1$
+		appendLine(sb, "reloadedNodes", StringUtil.formatDecimal(getReloadedNodes())); //$NON-NLS-1$
+		appendLine(sb, "reloadTime", formatNanos(getReloadTime())); //$NON-NLS-1$
+
+		List<ConstraintStats> stats = getConstraintStats();
+		if(!stats.isEmpty()) {
+			sb.append('\n');
+			appendLine(sb, "constraints"); //$NON-NLS-1$
+			for(ConstraintStats stat : stats) {
+				sb.append("  "); //$NON-NLS-1$
+				appendLine(sb, "constraint", stat.getLabel(), //$NON-NLS-1$
+						StringUtil.formatDecimal(stat.getChecks()),
+						formatNanos(stat.getTime()),
+						String.valueOf(stat.getAverageTime()));
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private static void appendLine(StringBuilder sb, String key, Object...params) {
+		sb.append(ResourceManager.getInstance().get(
+				"plugins.searchTools.performanceInfo."+key, params)).append('\n'); //$NON-NLS-1$
+	}
+
+	private static String formatNanos(long nanos) {
+		return DateUtils.formatMilliDuration(nanos/1_000_000L);
+	}
+
+	/**
+	 * Writes this info as a single JSON object to the given writer.
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\n"); //$NON-NLS-1$
+		writeJsonField(writer, "time", DateUtils.formatDate(getTime()), true); //$NON-NLS-1$
+		writeJsonField(writer, "durationMillis", getDuration(), true); //$NON-NLS-1$
+		writeJsonField(writer, "cores", getCores(), true); //$NON-NLS-1$
+		writeJsonField(writer, "processedItems", getPerformanceValue(PROCESSED_ITEMS), true); //$NON-NLS-1$
+		writeJsonField(writer, "ignoredItems", getPerformanceValue(IGNORED_ITEMS), true); //$NON-NLS-1$
+		writeJsonField(writer, "matchedItems", getPerformanceValue(MATCHED_ITEMS), true); //$NON-NLS-1$
+		writeJsonField(writer, "returnedItems", getPerformanceValue(RETURNED_ITEMS), true); //$NON-NLS-1$
+		writeJsonField(writer, "visitedNodes", getPerformanceValue(VISITED_NODES), true); //$NON-NLS-1$
+		writeJsonField(writer, "visitedEdges", getPerformanceValue(VISITED_EDGES), true); //$NON-NLS-1$
+		writeJsonField(writer, "checkedConstraints", getPerformanceValue(CHECKED_CONSTRAINTS), true); //$NON-NLS-1$
+		writeJsonField(writer, "reloadedNodes", getReloadedNodes(), true); //$NON-NLS-1$
+		writeJsonField(writer, "reloadNanos", getReloadTime(), true); //$NON-NLS-1$
+
+		writer.write("  \"constraints\": ["); //$NON-NLS-1$
+		List<ConstraintStats> stats = getConstraintStats();
+		for(int i=0; i<stats.size(); i++) {
+			ConstraintStats stat = stats.get(i);
+			writer.write(i==0 ? "\n" : ",\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			writer.write("    {"); //$NON-NLS-1$
+			writer.write("\"token\": "); //$NON-NLS-1$
+			writeJsonString(writer, stat.getToken());
+			writer.write(", \"label\": "); //$NON-NLS-1$
+			writeJsonString(writer, stat.getLabel());
+			writer.write(", \"checks\": "); //$NON-NLS-1$
+			writer.write(String.valueOf(stat.getChecks()));
+			writer.write(", \"nanos\": "); //$NON-NLS-1$
+			writer.write(String.valueOf(stat.getTime()));
+			writer.write("}"); //$NON-NLS-1$
+		}
+		writer.write(stats.isEmpty() ? "]\n" : "\n  ]\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		writer.write("}\n"); //$NON-NLS-1$
+	}
+
+	private static void writeJsonField(Writer writer, String name, long value, boolean more) throws IOException {
+		writer.write("  \""); //$NON-NLS-1$
+		writer.write(name);
+		writer.write("\": "); //$NON-NLS-1$
+		writer.write(String.valueOf(value));
+		writer.write(more ? ",\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static void writeJsonField(Writer writer, String name, String value, boolean more) throws IOException {
+		writer.write("  \""); //$NON-NLS-1$
+		writer.write(name);
+		writer.write("\": "); //$NON-NLS-1$
+		writeJsonString(writer, value);
+		writer.write(more ? ",\n" : "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static void writeJsonString(Writer writer, String s) throws IOException {
+		if(s==null) {
+			writer.write("null"); //$NON-NLS-1$
+			return;
+		}
+
+		writer.write('"');
+		for(int i=0; i<s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"': writer.write("\\\""); break; //$NON-NLS-1$
+			case '\\': writer.write("\\\\"); break; //$NON-NLS-1$
+			case '\n': writer.write("\\n"); break; //$NON-NLS-1$
+			case '\r': writer.write("\\r"); break; //$NON-NLS-1$
+			case '\t': writer.write("\\t"); break; //$NON-NLS-1$
+			default:
+				if(c<0x20) {
+					writer.write(String.format("\\u%04x", (int)c)); //$NON-NLS-1$
+				} else {
+					writer.write(c);
+				}
+				break;
+			}
+		}
+		writer.write('"');
+	}
+
+	/**
+	 *
+	 * @author Markus Gärtner
+	 * @version $Id$
+	 *
+	 */
+	public static class ConstraintStats implements Cloneable {
+		private final String token;
+		private String label;
+		private long checks = 0;
+		private long time = 0;
+
+		ConstraintStats(String token) {
+			this.token = token;
+		}
+
+		public String getToken() {
+			return token;
+		}
+
+		public String getLabel() {
+			return label==null ? token : label;
+		}
+
+		public long getChecks() {
+			return checks;
+		}
+
+		/**
+		 * Returns the accumulated evaluation time in nanoseconds
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		public long getAverageTime() {
+			return checks==0 ? 0 : time/checks;
+		}
+
+		@Override
+		protected ConstraintStats clone() {
+			try {
+				return (ConstraintStats) super.clone();
+			} catch (CloneNotSupportedException e) {
+				throw new CorruptedStateException("Cannot clone cloneable super type: "+getClass(), e); //$NON-NLS-1$
+			}
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.standard;
+
+import de.ims.icarus.language.SymbolTable;
+import de.ims.icarus.search_tools.SearchConstraint;
+import de.ims.icarus.search_tools.SearchOperator;
+import de.ims.icarus.search_tools.tree.AbstractSentenceTargetTree;
+
+/**
+ * Constraint on an annotation that sentences might store as ids into
+ * a {@link SymbolTable}. When the current sentence does so, the
+ * {@link DefaultSearchOperator#EQUALS equality} operators compare the
+ * node's id with the id of the constraint value instead of comparing
+ * strings. The id of the constraint value is resolved once per table
+ * and only looked up again when either the table or the value changes.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public abstract class DefaultSymbolConstraint extends DefaultConstraint {
+
+	private static final long serialVersionUID = -1502870335003924712L;
+
+	private transient SymbolTable table;
+	private transient Object symbolValue;
+	private transient int tableSize;
+	private transient int constraintId = SymbolTable.UNKNOWN_ID;
+
+	public DefaultSymbolConstraint(String token, Object value,
+			SearchOperator operator) {
+		super(token, value, operator);
+	}
+
+	public DefaultSymbolConstraint(String token, Object value,
+			SearchOperator operator, Object specifier) {
+		super(token, value, operator, specifier);
+	}
+
+	/**
+	 * Returns the annotation key used to fetch symbol tables and ids
+	 * from the target sentence.
+	 */
+	protected abstract String getSymbolKey();
+
+	/**
+	 * @see de.ims.icarus.search_tools.standard.DefaultConstraint#matches(java.lang.Object)
+	 */
+	@Override
+	public boolean matches(Object value) {
+		SearchOperator operator = getOperator();
+		if((operator==DefaultSearchOperator.EQUALS || operator==DefaultSearchOperator.EQUALS_NOT)
+				&& value instanceof AbstractSentenceTargetTree && getConstraint() instanceof String) {
+			AbstractSentenceTargetTree<?> tree = (AbstractSentenceTargetTree<?>) value;
+			String key = getSymbolKey();
+			SymbolTable table = tree.getSymbolTable(key);
+
+			if(table!=null) {
+				// A value missing from the table cannot match any node, the
+				// node itself might also report UNKNOWN_ID for missing data
+				int constraintId = getConstraintId(table);
+				boolean equal = constraintId>=0 && tree.getSymbolId(key)==constraintId;
+				return operator==DefaultSearchOperator.EQUALS ? equal : !equal;
+			}
+		}
+
+		return super.matches(value);
+	}
+
+	private int getConstraintId(SymbolTable table) {
+		// Tables can grow while a corpus is still being loaded, so an
+		// unknown value has to be checked again when new symbols arrive
+		Object value = getConstraint();
+		if(table!=this.table || value!=symbolValue
+				|| (constraintId==SymbolTable.UNKNOWN_ID && table.size()!=tableSize)) {
+			tableSize = table.size();
+			constraintId = table.lookup((String) value);
+			symbolValue = value;
+			this.table = table;
+		}
+
+		return constraintId;
+	}
+
+	/**
+	 * @see de.ims.icarus.search_tools.standard.DefaultConstraint#clone()
+	 */
+	@Override
+	public SearchConstraint clone() {
+		DefaultSymbolConstraint clone = (DefaultSymbolConstraint) super.clone();
+		clone.table = null;
+		clone.symbolValue = null;
+		clone.tableSize = 0;
+		clone.constraintId = SymbolTable.UNKNOWN_ID;
+		return clone;
+	}
+}
@@ -43,6 +43,12 @@ public interface GroupCache {
 
 	void commit(ResultEntry entry);
 
+	/**
+	 * Makes sure all committed entries have been passed on to the
+	 * result. Called by search workers once they are done.
+	 */
+	void flush();
+
 	/**
 	 *
 	 */
@@ -67,5 +73,10 @@ public interface GroupCache {
 		public void commit(ResultEntry entry) {
 			// no-op
 		}
+
+		@Override
+		public void flush() {
+			// no-op
+		}
 	};
 }
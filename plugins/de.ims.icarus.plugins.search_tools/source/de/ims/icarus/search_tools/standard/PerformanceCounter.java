@@ -0,0 +1,166 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.standard;
+
+import java.util.Arrays;
+
+/**
+ * Mutable collection of performance counters owned by a single search
+ * worker. Instances are never shared between threads while a search is
+ * running and therefore need no synchronization. When a worker finishes
+ * its counters are merged into a {@link DefaultSearchPerformanceInfo}.
+ * <p>
+ * Components on the hot path of a search hold a reference to a counter
+ * that is {@code null} when performance monitoring is disabled, so the
+ * only remaining cost in that case is a single null check.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class PerformanceCounter {
+
+	private long visitedNodes = 0;
+	private long visitedEdges = 0;
+	private long checkedConstraints = 0;
+	private long processedItems = 0;
+	private long ignoredItems = 0;
+	private long matchedItems = 0;
+
+	private long reloadedNodes = 0;
+	private long reloadTime = 0;
+
+	private String[] tokens = new String[8];
+	private long[] tokenChecks = new long[8];
+	private long[] tokenTimes = new long[8];
+	private int tokenCount = 0;
+
+	public void nodeVisited() {
+		visitedNodes++;
+	}
+
+	public void edgeVisited() {
+		visitedEdges++;
+	}
+
+	public void itemProcessed() {
+		processedItems++;
+	}
+
+	public void itemIgnored() {
+		ignoredItems++;
+	}
+
+	public void itemMatched() {
+		matchedItems++;
+	}
+
+	/**
+	 * Records the rebuild of a target tree with the given number
+	 * of nodes that took {@code nanos} nanoseconds.
+	 */
+	public void treeReloaded(int size, long nanos) {
+		reloadedNodes += size;
+		reloadTime += nanos;
+	}
+
+	/**
+	 * Returns the slot used to store statistics for constraints of
+	 * the given token. Slots are meant to be resolved once when a matcher
+	 * gets attached to this counter and not during the actual search.
+	 */
+	public int getTokenSlot(String token) {
+		for(int i=0; i<tokenCount; i++) {
+			if(tokens[i].equals(token)) {
+				return i;
+			}
+		}
+
+		if(tokenCount>=tokens.length) {
+			int newSize = tokens.length*2;
+			tokens = Arrays.copyOf(tokens, newSize);
+			tokenChecks = Arrays.copyOf(tokenChecks, newSize);
+			tokenTimes = Arrays.copyOf(tokenTimes, newSize);
+		}
+
+		tokens[tokenCount] = token;
+		return tokenCount++;
+	}
+
+	public void constraintChecked(int slot, long nanos) {
+		checkedConstraints++;
+		tokenChecks[slot]++;
+		tokenTimes[slot] += nanos;
+	}
+
+	public long getVisitedNodes() {
+		return visitedNodes;
+	}
+
+	public long getVisitedEdges() {
+		return visitedEdges;
+	}
+
+	public long getCheckedConstraints() {
+		return checkedConstraints;
+	}
+
+	public long getProcessedItems() {
+		return processedItems;
+	}
+
+	public long getIgnoredItems() {
+		return ignoredItems;
+	}
+
+	public long getMatchedItems() {
+		return matchedItems;
+	}
+
+	public long getReloadedNodes() {
+		return reloadedNodes;
+	}
+
+	public long getReloadTime() {
+		return reloadTime;
+	}
+
+	public int getTokenCount() {
+		return tokenCount;
+	}
+
+	public String getTokenAt(int slot) {
+		return tokens[slot];
+	}
+
+	public long getTokenChecks(int slot) {
+		return tokenChecks[slot];
+	}
+
+	public long getTokenTime(int slot) {
+		return tokenTimes[slot];
+	}
+}
@@ -27,6 +27,8 @@ package de.ims.icarus.search_tools.tree;
 
 import de.ims.icarus.language.LanguageConstants;
 import de.ims.icarus.language.SentenceData;
+import de.ims.icarus.language.SymbolEncodedSentenceData;
+import de.ims.icarus.language.SymbolTable;
 import de.ims.icarus.util.CorruptedStateException;
 
 /**
@@ -85,6 +87,31 @@ public abstract class AbstractSentenceTargetTree<E extends SentenceData> extends
 		return data.getFeatures(nodePointer);
 	}
 
+	/**
+	 * Returns the symbol table used by the current sentence to encode the
+	 * annotation stored for {@code key} or {@code null} if the sentence
+	 * does not store that annotation as symbol ids.
+	 *
+	 * @see SymbolEncodedSentenceData
+	 */
+	public SymbolTable getSymbolTable(String key) {
+		return data instanceof SymbolEncodedSentenceData ?
+				((SymbolEncodedSentenceData)data).getSymbolTable(key) : null;
+	}
+
+	/**
+	 * Returns the symbol id of the annotation stored for {@code key} on
+	 * the current node or {@link SymbolTable#UNKNOWN_ID} if the sentence
+	 * does not store that annotation as symbol ids.
+	 */
+	public int getSymbolId(String key) {
+		if(nodePointer==-1)
+			throw new IllegalStateException("Current scope is not on a node"); //$NON-NLS-1$
+
+		return data instanceof SymbolEncodedSentenceData ?
+				((SymbolEncodedSentenceData)data).getSymbolId(nodePointer, key) : SymbolTable.UNKNOWN_ID;
+	}
+
 	// EDGE METHODS
 
 	public int getDistance() {
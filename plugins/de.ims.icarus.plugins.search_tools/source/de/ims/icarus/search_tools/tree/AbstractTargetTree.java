@@ -30,6 +30,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import de.ims.icarus.language.LanguageConstants;
+import de.ims.icarus.search_tools.standard.PerformanceCounter;
 import de.ims.icarus.util.CorruptedStateException;
 import de.ims.icarus.util.Options;
 
@@ -61,6 +62,9 @@ public abstract class AbstractTargetTree<E extends Object> implements TargetTree
 
 	protected int bufferSize = 200;
 
+	// Only set when performance monitoring is active
+	protected PerformanceCounter counter;
+
 	protected static final int LIST_START_SIZE = 3;
 
 	protected AbstractTargetTree() {
@@ -115,6 +119,14 @@ public abstract class AbstractTargetTree<E extends Object> implements TargetTree
 		return data;
 	}
 
+	public PerformanceCounter getPerformanceCounter() {
+		return counter;
+	}
+
+	public void setPerformanceCounter(PerformanceCounter counter) {
+		this.counter = counter;
+	}
+
 	protected abstract int fetchSize();
 
 	protected abstract int fetchHead(int index);
@@ -136,6 +148,8 @@ public abstract class AbstractTargetTree<E extends Object> implements TargetTree
 		if(!supports(source))
 			throw new NullPointerException("Invalid source data: "+source.getClass()); //$NON-NLS-1$
 
+		long start = counter==null ? 0L : System.nanoTime();
+
 		data = (E)source;
 
 		prepare(options);
@@ -216,6 +230,10 @@ public abstract class AbstractTargetTree<E extends Object> implements TargetTree
 		for(int root : roots) {
 			prepareDescendants0(root);
 		}
+
+		if(counter!=null) {
+			counter.treeReloaded(size, System.nanoTime()-start);
+		}
 	}
 
 	protected void prepareDescendants0(int index) {
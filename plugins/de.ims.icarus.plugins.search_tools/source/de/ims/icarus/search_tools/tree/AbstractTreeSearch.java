@@ -25,6 +25,7 @@
  */
 package de.ims.icarus.search_tools.tree;
 
+import de.ims.icarus.config.ConfigRegistry;
 import de.ims.icarus.search_tools.SearchFactory;
 import de.ims.icarus.search_tools.SearchQuery;
 import de.ims.icarus.search_tools.result.EntryBuilder;
@@ -55,11 +56,41 @@ public abstract class AbstractTreeSearch extends AbstractParallelSearch {
 
 	@Override
 	protected void initEngine() {
-		baseRootMatcher = new MatcherBuilder(this).createRootMatcher();
+		MatcherBuilder builder = new MatcherBuilder(this);
+		QueryPlanner planner = createQueryPlanner();
+		builder.setPlanner(planner);
+
+		baseRootMatcher = builder.createRootMatcher();
 		if(baseRootMatcher==null)
 			throw new IllegalStateException("Invalid root matcher created"); //$NON-NLS-1$
 
 		baseRootMatcher.setLeftToRight(SearchUtils.isLeftToRightSearch(this));
+
+		if(planner!=null) {
+			setProperty(QUERY_PLAN_PROPERTY, planner.getPlan());
+		}
+	}
+
+	protected boolean isQueryPlanning() {
+		return ConfigRegistry.getGlobalRegistry().getBoolean(
+				"plugins.searchTools.optimizeQueryPlan"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the estimator used to reorder the matcher tree or {@code null}
+	 * if the search target provides no statistics to base estimates on.
+	 */
+	protected SelectivityEstimator createSelectivityEstimator() {
+		return null;
+	}
+
+	protected QueryPlanner createQueryPlanner() {
+		if(!isQueryPlanning()) {
+			return null;
+		}
+
+		SelectivityEstimator estimator = createSelectivityEstimator();
+		return estimator==null ? null : new QueryPlanner(estimator);
 	}
 
 	@Override
@@ -80,10 +111,6 @@ public abstract class AbstractTreeSearch extends AbstractParallelSearch {
 		return new EntryBuilder(TreeUtils.getMaxId(baseRootMatcher)+1);
 	}
 
-	protected GroupCache createCache() {
-		return result.createCache();
-	}
-
 	protected Options createTreeOptions() {
 		return null;
 	}
@@ -116,6 +143,13 @@ public abstract class AbstractTreeSearch extends AbstractParallelSearch {
 			rootMatcher.setTargetTree(targetTree);
 			rootMatcher.setEntryBuilder(entryBuilder);
 
+			if(counter!=null) {
+				rootMatcher.setPerformanceCounter(counter);
+				if(targetTree instanceof AbstractTargetTree) {
+					((AbstractTargetTree<?>)targetTree).setPerformanceCounter(counter);
+				}
+			}
+
 			rootMatcher.prepare();
 		}
 
@@ -129,7 +163,14 @@ public abstract class AbstractTreeSearch extends AbstractParallelSearch {
 			entryBuilder.setIndex(buffer.getIndex());
 
 			// Let matcher do its part
-			rootMatcher.matches();
+			if(counter==null) {
+				rootMatcher.matches();
+			} else {
+				counter.itemProcessed();
+				if(rootMatcher.matches()) {
+					counter.itemMatched();
+				}
+			}
 		}
 
 		/**
@@ -137,6 +178,7 @@ public abstract class AbstractTreeSearch extends AbstractParallelSearch {
 		 */
 		@Override
 		protected void cleanup() {
+			cache.flush();
 			rootMatcher.close();
 			targetTree.close();
 		}
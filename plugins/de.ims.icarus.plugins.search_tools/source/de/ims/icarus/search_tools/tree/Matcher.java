@@ -39,6 +39,7 @@ import de.ims.icarus.search_tools.SearchNode;
 import de.ims.icarus.search_tools.result.EntryBuilder;
 import de.ims.icarus.search_tools.standard.GroupCache;
 import de.ims.icarus.search_tools.standard.IntOperator;
+import de.ims.icarus.search_tools.standard.PerformanceCounter;
 import de.ims.icarus.util.CorruptedStateException;
 
 
@@ -75,6 +76,10 @@ public class Matcher implements Cloneable, Comparable<Matcher> {
 	protected GroupCache cache;
 	protected EntryBuilder entryBuilder;
 
+	// Only set when performance monitoring is active
+	protected PerformanceCounter counter;
+	protected int[] constraintSlots;
+
 	protected int allocation = -1;
 
 	protected int height;
@@ -150,11 +155,19 @@ public class Matcher implements Cloneable, Comparable<Matcher> {
 				targetTree.viewNode(parentAllocation);
 				targetTree.viewChild(indexIterator.next());
 
+				if(counter!=null) {
+					counter.edgeVisited();
+				}
+
 				// Honor locked nodes that are allocated to other matchers!
 				if(targetTree.isNodeLocked()) {
 					continue;
 				}
 
+				if(counter!=null) {
+					counter.nodeVisited();
+				}
+
 				// Check for precedence constraints
 //				if(targetTree.getNodeIndex()<minIndex
 //						|| targetTree.getNodeIndex()>maxIndex) {
@@ -281,6 +294,10 @@ public class Matcher implements Cloneable, Comparable<Matcher> {
 			return true;
 		}
 
+		if(counter!=null) {
+			return matchesConstraintsMonitored();
+		}
+
 		for(SearchConstraint constraint : constraints) {
 			if(!constraint.matches(getTargetTree())) {
 				return false;
@@ -290,6 +307,25 @@ public class Matcher implements Cloneable, Comparable<Matcher> {
 		return true;
 	}
 
+	/**
+	 * Variant of {@link #matchesConstraints()} that records evaluation
+	 * count and time for every constraint in the attached
+	 * {@link PerformanceCounter}.
+	 */
+	protected boolean matchesConstraintsMonitored() {
+		for(int i=0; i<constraints.length; i++) {
+			long start = System.nanoTime();
+			boolean matched = constraints[i].matches(getTargetTree());
+			counter.constraintChecked(constraintSlots[i], System.nanoTime()-start);
+
+			if(!matched) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	protected void commit() {
 		cache.commit(entryBuilder.toEntry());
 	}
@@ -678,6 +714,46 @@ public class Matcher implements Cloneable, Comparable<Matcher> {
 		}
 	}
 
+	/**
+	 * Attaches a {@link PerformanceCounter} to this matcher and all
+	 * its linked matchers. Passing {@code null} disables monitoring.
+	 * <p>
+	 * Must be called after the final set of constraints has been
+	 * assigned (i.e. after {@link #setCache(GroupCache)}).
+	 */
+	public void setPerformanceCounter(PerformanceCounter counter) {
+		this.counter = counter;
+
+		constraintSlots = null;
+		if(counter!=null && constraints!=null) {
+			constraintSlots = new int[constraints.length];
+			for(int i=0; i<constraints.length; i++) {
+				constraintSlots[i] = counter.getTokenSlot(constraints[i].getToken());
+			}
+		}
+
+		if(next!=null) {
+			next.setPerformanceCounter(counter);
+		}
+		if(alternate!=null) {
+			alternate.setPerformanceCounter(counter);
+		}
+		if(exclusions!=null) {
+			for(Matcher matcher : exclusions) {
+				matcher.setPerformanceCounter(counter);
+			}
+		}
+		if(options!=null) {
+			for(Matcher option : options) {
+				option.setPerformanceCounter(counter);
+			}
+		}
+	}
+
+	public PerformanceCounter getPerformanceCounter() {
+		return counter;
+	}
+
 	public void setSearchMode(SearchMode searchMode) {
 		if(searchMode==null)
 			throw new NullPointerException("Invalid search mode"); //$NON-NLS-1$
@@ -764,6 +840,9 @@ public class Matcher implements Cloneable, Comparable<Matcher> {
 			throw new CorruptedStateException("Cannot clone cloneable super type: "+getClass(), e); //$NON-NLS-1$
 		}
 
+		// Iteration state must not be shared between workers
+		clone.indexIterator = indexIterator.clone();
+
 		return clone;
 	}
 
@@ -69,6 +69,8 @@ public class MatcherBuilder {
 
 	protected MatcherLinker linker;
 
+	protected QueryPlanner planner;
+
 	public MatcherBuilder(Search search) {
 		if(search==null)
 			throw new NullPointerException("Invalid search"); //$NON-NLS-1$
@@ -76,6 +78,14 @@ public class MatcherBuilder {
 		this.search = search;
 	}
 
+	public QueryPlanner getPlanner() {
+		return planner;
+	}
+
+	public void setPlanner(QueryPlanner planner) {
+		this.planner = planner;
+	}
+
 	protected MatcherLinker getLinker() {
 		if(linker==null) {
 			linker = new MatcherLinker();
@@ -108,6 +118,15 @@ public class MatcherBuilder {
 			optimizeTree(node);
 		}
 
+		// Reorder siblings based on estimated selectivity
+		if(planner!=null) {
+			// Matcher ids end up in stored hits, so they must not
+			// depend on the order chosen by the planner
+			assignIds(tree);
+
+			planner.plan(tree);
+		}
+
 		// Create all plain matchers
 		for(int i=0; i<tree.getChildCount(); i++) {
 			createMatcher0(null, tree.getChildAt(i), false);
@@ -438,6 +457,9 @@ public class MatcherBuilder {
 				i.remove();
 			}
 		}
+		if(planner!=null) {
+			planner.sortConstraints(constraints);
+		}
 		matcher.setConstraints(constraints.isEmpty() ? null : constraints.toArray(new SearchConstraint[0]));
 
 		matcher.setExclusionMember(exclusionMember);
@@ -512,6 +534,50 @@ public class MatcherBuilder {
 		}
 	}
 
+	/**
+	 * Assigns matcher ids to all nodes of the given (not yet planned) tree
+	 * in the same order {@link #linkMatcher0(TreeNode)} would visit them.
+	 * Negated inner nodes are skipped since they become exclusions which
+	 * never get linked.
+	 */
+	protected void assignIds(TreeNode tree) {
+		List<TreeNode> unnegatedRoots = tree.getUnnegatedChildren();
+		if(unnegatedRoots!=null) {
+			for(TreeNode root : unnegatedRoots) {
+				assignIds0(root);
+			}
+		}
+
+		List<TreeNode> negatedRoots = tree.getNegatedChildren();
+		if(negatedRoots!=null) {
+			for(TreeNode root : negatedRoots) {
+				assignIds0(root);
+			}
+		}
+	}
+
+	protected void assignIds0(TreeNode tree) {
+		getId(tree.getSearchNode());
+
+		List<TreeNode> unnegatedChildren = tree.getUnnegatedChildren();
+		if(unnegatedChildren!=null) {
+			for(TreeNode child : unnegatedChildren) {
+				assignIds0(child);
+			}
+		}
+
+		List<TreeNode> disjunctionChildren = tree.getDisjunctiveChildren();
+		if(disjunctionChildren!=null) {
+			for(TreeNode child : disjunctionChildren) {
+				assignIds0(child);
+			}
+		}
+
+		if(tree.getAlternate()!=null) {
+			assignIds0(tree.getAlternate());
+		}
+	}
+
 	protected int getId(SearchNode node) {
 		Integer id = idMap.get(node);
 		if(id==null) {
@@ -558,10 +624,29 @@ public class MatcherBuilder {
 			clone.setBefore(clonePrecedenceNodes(matcher.getBefore()));
 
 			clone.setOptions(cloneMatchers(matcher.getOptions()));
+
+			// Constraints may hold evaluation state (compiled patterns,
+			// group caches), so every clone needs its own instances
+			clone.setConstraints(cloneConstraints(matcher.getConstraints()));
 		}
 		return clone;
 	}
 
+	protected SearchConstraint[] cloneConstraints(SearchConstraint[] constraints) {
+		if(constraints==null) {
+			return null;
+		}
+
+		int size = constraints.length;
+		SearchConstraint[] clones = new SearchConstraint[size];
+
+		for(int i=0; i<size; i++) {
+			clones[i] = constraints[i].clone();
+		}
+
+		return clones;
+	}
+
 	protected Matcher[] cloneMatchers(Matcher[] matchers) {
 		if(matchers==null) {
 			return null;
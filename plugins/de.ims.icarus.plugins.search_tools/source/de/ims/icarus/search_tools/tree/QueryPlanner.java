@@ -0,0 +1,292 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.tree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.ims.icarus.resources.ResourceManager;
+import de.ims.icarus.search_tools.SearchConstraint;
+import de.ims.icarus.search_tools.SearchEdge;
+import de.ims.icarus.search_tools.SearchNode;
+import de.ims.icarus.search_tools.standard.DefaultSearchOperator;
+import de.ims.icarus.search_tools.tree.MatcherBuilder.TreeNode;
+
+/**
+ * Cost based ordering of the matcher tree created by a {@link MatcherBuilder}.
+ * Based on the selectivity estimates provided by a {@link SelectivityEstimator}
+ * unnegated sibling nodes are reordered so that the subtree least likely
+ * to match is tried first. Constraints within a single matcher are sorted
+ * the same way so that a node fails as early as possible.
+ * <p>
+ * Neither the set of matched nodes nor the grouping order is affected
+ * by the planner. Negated nodes and alternates keep their original order.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public class QueryPlanner {
+
+	/**
+	 * Selectivity assumed for constraints the estimator
+	 * does not provide information on
+	 */
+	public static final double DEFAULT_SELECTIVITY = 0.5;
+
+	protected final SelectivityEstimator estimator;
+
+	private final Map<TreeNode, Double> subtreeEstimates = new IdentityHashMap<>();
+
+	private String plan;
+
+	public QueryPlanner(SelectivityEstimator estimator) {
+		if(estimator==null)
+			throw new NullPointerException("Invalid estimator"); //$NON-NLS-1$
+
+		this.estimator = estimator;
+	}
+
+	public double estimate(SearchConstraint constraint) {
+		if(constraint.isUndefined()
+				|| constraint.getOperator()==DefaultSearchOperator.GROUPING) {
+			return 1.0;
+		}
+
+		double value = estimator.estimate(constraint);
+
+		return value<0 ? DEFAULT_SELECTIVITY : Math.min(1.0, value);
+	}
+
+	protected double estimate(SearchConstraint[] constraints) {
+		double value = 1.0;
+
+		if(constraints!=null) {
+			for(SearchConstraint constraint : constraints) {
+				value *= estimate(constraint);
+			}
+		}
+
+		return value;
+	}
+
+	/**
+	 * Estimates the fraction of target nodes that satisfy all the
+	 * constraints of the given node and its incoming edge.
+	 */
+	public double estimate(SearchNode node, SearchEdge edge) {
+		double value = estimate(node.getConstraints());
+		if(edge!=null) {
+			value *= estimate(edge.getConstraints());
+		}
+		return value;
+	}
+
+	protected double estimateSubtree(TreeNode tree) {
+		Double cached = subtreeEstimates.get(tree);
+		if(cached!=null) {
+			return cached.doubleValue();
+		}
+
+		double value;
+
+		if(tree.isDisjunction()) {
+			// Any of the alternates may satisfy the disjunction
+			value = 0.0;
+			for(int i=0; i<tree.getChildCount(); i++) {
+				TreeNode alternate = tree.getChildAt(i);
+				while(alternate!=null) {
+					if(!alternate.isNegated()) {
+						value += estimateSubtree(alternate);
+					}
+					alternate = alternate.getAlternate();
+				}
+			}
+			value = Math.min(1.0, value);
+		} else {
+			value = estimate(tree.getSearchNode(), tree.getSearchEdge());
+
+			for(int i=0; i<tree.getChildCount(); i++) {
+				TreeNode child = tree.getChildAt(i);
+				if(!child.isNegated()) {
+					value *= estimateSubtree(child);
+				}
+			}
+		}
+
+		subtreeEstimates.put(tree, value);
+
+		return value;
+	}
+
+	/**
+	 * Reorders the unnegated and non-disjunctive children of every node in
+	 * the given tree so that the most selective subtree comes first.
+	 */
+	public void plan(TreeNode tree) {
+		subtreeEstimates.clear();
+
+		plan0(tree);
+
+		StringBuilder sb = new StringBuilder();
+		for(int i=0; i<tree.getChildCount(); i++) {
+			describe(sb, tree.getChildAt(i), 0, false);
+		}
+		plan = sb.toString();
+	}
+
+	private final Comparator<TreeNode> subtreeSorter = new Comparator<TreeNode>() {
+
+		@Override
+		public int compare(TreeNode n1, TreeNode n2) {
+			return Double.compare(estimateSubtree(n1), estimateSubtree(n2));
+		}
+	};
+
+	protected void plan0(TreeNode tree) {
+		for(int i=0; i<tree.getChildCount(); i++) {
+			TreeNode child = tree.getChildAt(i);
+			while(child!=null) {
+				plan0(child);
+				child = child.getAlternate();
+			}
+		}
+
+		List<TreeNode> children = tree.getUnnegatedChildren();
+		if(children==null || children.size()<2) {
+			return;
+		}
+
+		// Remember the slots occupied by the sortable children so that
+		// negated and disjunctive siblings stay where they are
+		int[] slots = new int[children.size()];
+		for(int i=0; i<slots.length; i++) {
+			slots[i] = tree.indexOfChild(children.get(i));
+		}
+
+		List<TreeNode> sorted = new ArrayList<>(children);
+		Collections.sort(sorted, subtreeSorter);
+
+		for(int i=0; i<slots.length; i++) {
+			tree.setChild(slots[i], sorted.get(i));
+		}
+	}
+
+	private final Comparator<SearchConstraint> constraintSorter = new Comparator<SearchConstraint>() {
+
+		@Override
+		public int compare(SearchConstraint c1, SearchConstraint c2) {
+			return Double.compare(estimate(c1), estimate(c2));
+		}
+	};
+
+	/**
+	 * Sorts the given constraints so that the most selective
+	 * constraint comes first.
+	 */
+	public void sortConstraints(List<SearchConstraint> constraints) {
+		if(constraints!=null && constraints.size()>1) {
+			Collections.sort(constraints, constraintSorter);
+		}
+	}
+
+	protected void describe(StringBuilder sb, TreeNode tree, int depth, boolean alternate) {
+		for(int i=0; i<depth; i++) {
+			sb.append("  "); //$NON-NLS-1$
+		}
+
+		if(alternate) {
+			sb.append("| "); //$NON-NLS-1$
+		}
+
+		if(tree.isNegated()) {
+			sb.append('!');
+		}
+
+		if(tree.isDisjunction()) {
+			sb.append("OR"); //$NON-NLS-1$
+		} else {
+			List<SearchConstraint> constraints = new ArrayList<>();
+			feedConstraints(constraints, tree.getSearchEdge()==null ? null : tree.getSearchEdge().getConstraints());
+			feedConstraints(constraints, tree.getSearchNode().getConstraints());
+			sortConstraints(constraints);
+
+			sb.append('[');
+			if(constraints.isEmpty()) {
+				sb.append('*');
+			}
+			for(int i=0; i<constraints.size(); i++) {
+				SearchConstraint constraint = constraints.get(i);
+				if(i>0) {
+					sb.append(", "); //$NON-NLS-1$
+				}
+				sb.append(constraint.getToken()).append(constraint.getOperator().getSymbol())
+						.append(constraint.getValue());
+			}
+			sb.append(']');
+		}
+
+		sb.append(' ').append(ResourceManager.getInstance().get(
+				"plugins.searchTools.queryPlan.estimates", //$NON-NLS-1$
+				String.format("%.6f", tree.isDisjunction() ? 1.0 //$NON-NLS-1$
+						: estimate(tree.getSearchNode(), tree.getSearchEdge())),
+				String.format("%.6f", estimateSubtree(tree)))); //$NON-NLS-1$
+		sb.append('\n');
+
+		for(int i=0; i<tree.getChildCount(); i++) {
+			TreeNode child = tree.getChildAt(i);
+			boolean alternateChild = false;
+			while(child!=null) {
+				describe(sb, child, depth+1, alternateChild);
+				alternateChild = true;
+				child = child.getAlternate();
+			}
+		}
+	}
+
+	private static void feedConstraints(List<SearchConstraint> list, SearchConstraint[] constraints) {
+		if(constraints!=null) {
+			for(SearchConstraint constraint : constraints) {
+				if(!constraint.isUndefined()) {
+					list.add(constraint);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns a textual representation of the tree as ordered by the
+	 * last call to {@link #plan(TreeNode)} or {@code null} if no plan
+	 * has been computed so far.
+	 */
+	public String getPlan() {
+		return plan;
+	}
+}
@@ -62,6 +62,10 @@ public class RootMatcher extends Matcher {
 					continue;
 				}
 
+				if(counter!=null) {
+					counter.nodeVisited();
+				}
+
 				// Check for precedence constraints
 //				if(targetTree.getNodeIndex()<minIndex
 //						|| targetTree.getNodeIndex()>maxIndex) {
@@ -0,0 +1,46 @@
+/*
+ *  ICARUS -  Interactive platform for Corpus Analysis and Research tools, University of Stuttgart
+ *  Copyright (C) 2012-2013 Markus Gärtner and Gregor Thiele
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see http://www.gnu.org/licenses.
+ *
+ * $Revision$
+ * $Date$
+ * $URL$
+ *
+ * $LastChangedDate$
+ * $LastChangedRevision$
+ * $LastChangedBy$
+ */
+package de.ims.icarus.search_tools.tree;
+
+import de.ims.icarus.search_tools.SearchConstraint;
+
+/**
+ * Provides estimates on how many elements in a search target will
+ * satisfy a given constraint.
+ *
+ * @author Markus Gärtner
+ * @version $Id$
+ *
+ */
+public interface SelectivityEstimator {
+
+	/**
+	 * Returns the estimated fraction of target nodes that satisfy the
+	 * given constraint as a value between {@code 0} and {@code 1}, or
+	 * a negative value if no estimate can be made.
+	 */
+	double estimate(SearchConstraint constraint);
+}
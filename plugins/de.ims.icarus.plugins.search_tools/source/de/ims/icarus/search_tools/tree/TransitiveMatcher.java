@@ -105,6 +105,11 @@ public class TransitiveMatcher extends Matcher {
 			targetTree.viewNode(index);
 			targetTree.viewChild(indexIterator.next());
 
+			if(counter!=null) {
+				counter.edgeVisited();
+				counter.nodeVisited();
+			}
+
 			// Check for precedence constraints
 			if(targetTree.getNodeIndex()<minIndex
 					|| targetTree.getNodeIndex()>maxIndex) {
@@ -56,6 +56,8 @@ import de.ims.icarus.search_tools.SearchNode;
 import de.ims.icarus.search_tools.SearchOperator;
 import de.ims.icarus.search_tools.SearchParameters;
 import de.ims.icarus.search_tools.SearchQuery;
+import de.ims.icarus.search_tools.result.ResultAlgebra;
+import de.ims.icarus.search_tools.result.ResultAlgebra.SetOperation;
 import de.ims.icarus.search_tools.result.ResultEntry;
 import de.ims.icarus.search_tools.result.SearchResult;
 import de.ims.icarus.search_tools.standard.DefaultConstraint;
@@ -617,23 +619,16 @@ public final class SearchUtils implements LanguageConstants, SearchParameters {
 		return !search.isRunning() && !search.isDone();
 	}
 
+	/**
+	 * Returns the entries of the larger result that are not
+	 * contained in the smaller one.
+	 */
 	public static Collection<ResultEntry> diffResults(SearchResult resultA, SearchResult resultB) {
-		Set<ResultEntry> entriesA = getEntries(resultA);
-		Set<ResultEntry> entriesB = getEntries(resultB);
-
-		//System.out.println("entriesA ("+entriesA.size()+"): "+Arrays.toString(entriesA.toArray()));
-		//System.out.println("entriesB ("+entriesB.size()+"): "+Arrays.toString(entriesB.toArray()));
-
-		Set<ResultEntry> result = null;
-		if(entriesA.size()>entriesB.size()) {
-			entriesA.removeAll(entriesB);
-			result = entriesA;
+		if(resultA.getTotalMatchCount()>resultB.getTotalMatchCount()) {
+			return ResultAlgebra.apply(SetOperation.DIFFERENCE, resultA, resultB);
 		} else {
-			entriesB.removeAll(entriesA);
-			result = entriesB;
+			return ResultAlgebra.apply(SetOperation.DIFFERENCE, resultB, resultA);
 		}
-
-		return result;
 	}
 
 	public static Set<ResultEntry> getEntries(SearchResult searchResult) {
@@ -38,7 +38,7 @@ import de.ims.icarus.language.SentenceData;
 import de.ims.icarus.language.SentenceDataWriter;
 import de.ims.icarus.language.UnsupportedSentenceDataException;
 import de.ims.icarus.language.dependency.DependencyConstants;
-import de.ims.icarus.language.dependency.SimpleDependencyData;
+import de.ims.icarus.language.dependency.DependencySentenceData;
 import de.ims.icarus.logging.LoggerFactory;
 import de.ims.icarus.util.Options;
 import de.ims.icarus.util.UnsupportedFormatException;
@@ -132,7 +132,7 @@ public class TCF04SentenceDataWriter implements SentenceDataWriter {
 		DependencyParsingLayer depLayer = textCorpusStored
 				.createDependencyParsingLayer(parser, multiGovernors, emptyNode);
 
-		SimpleDependencyData sdd;
+		DependencySentenceData sdd;
 		StringBuilder sb = new StringBuilder(1000);
 
 		List<Feature> featureList = new ArrayList<Feature>();
@@ -145,7 +145,7 @@ public class TCF04SentenceDataWriter implements SentenceDataWriter {
 				throw new InterruptedException();
 
 
-			sdd = (SimpleDependencyData) data;
+			sdd = (DependencySentenceData) data;
 
 			List<Token> sentenceTokens = new ArrayList<Token>();
 
@@ -213,7 +213,7 @@ public class TCF04SentenceDataWriter implements SentenceDataWriter {
 				int tokenOffset = tokens[0].getOrder();
 				// System.out.println(tokenOffset);
 
-				sdd = (SimpleDependencyData) data;
+				sdd = (DependencySentenceData) data;
 
 				// list need to be completed?
 				for (int i = 0; i < sdd.length(); i++) {